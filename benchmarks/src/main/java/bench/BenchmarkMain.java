@@ -0,0 +1,40 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * benchmarks.jar のエントリポイント。
+ * <p>
+ * JMH の {@link org.openjdk.jmh.Main} に引数をそのまま渡します。
+ * 結果形式（{@code -rf}）・出力先（{@code -rff}）の指定が無ければ JSON で {@value #DEFAULT_RESULT} に書き出し、
+ * 変更前後の結果を比較できるようにします。
+ * </p>
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar                       （全件）
+ * java -jar benchmarks/target/benchmarks.jar ValidationUtil        （名前の正規表現で絞り込み）
+ * java -jar benchmarks/target/benchmarks.jar -rff before.json      （出力先を変更）
+ * </pre>
+ */
+public final class BenchmarkMain {
+
+	/** 既定の結果ファイル */
+	static final String DEFAULT_RESULT = "jmh-result.json";
+
+	private BenchmarkMain() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		List<String> argv = new ArrayList<>(Arrays.asList(args));
+		if (!argv.contains("-rf")) {
+			argv.add(0, "json");
+			argv.add(0, "-rf");
+		}
+		if (!argv.contains("-rff")) {
+			argv.add(0, DEFAULT_RESULT);
+			argv.add(0, "-rff");
+		}
+		org.openjdk.jmh.Main.main(argv.toArray(String[]::new));
+	}
+}
@@ -0,0 +1,111 @@
+package bench;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * ベンチマーク用の最小限のスタブ（動的プロキシ）。
+ * <p>
+ * DB やサーブレットコンテナを起動せずに本体のコードを呼ぶため、必要なメソッドだけを
+ * 名前で応答させ、それ以外は既定値（null / 0 / false）を返します。
+ * 応答は呼び出しごとの処理が測定値に混ざらないよう、Map 引きと配列参照だけで済ませます。
+ * </p>
+ */
+public final class Fakes {
+
+	private Fakes() {
+	}
+
+	/**
+	 * インタフェースのスタブを作ります。
+	 *
+	 * @param type    インタフェース
+	 * @param answers メソッド名 → 応答（引数配列を受け取り戻り値を返す）
+	 * @return スタブ
+	 */
+	public static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+		Object p = Proxy.newProxyInstance(Fakes.class.getClassLoader(), new Class<?>[] { type }, (self, m, args) -> {
+			Function<Object[], Object> a = answers.get(m.getName());
+			if (a != null) return a.apply(args);
+			return switch (m.getName()) {
+			case "equals" -> self == args[0];
+			case "hashCode" -> System.identityHashCode(self);
+			case "toString" -> type.getSimpleName() + "(stub)";
+			default -> defaultValue(m.getReturnType());
+			};
+		});
+		return type.cast(p);
+	}
+
+	/**
+	 * 固定の結果行を返す接続を作ります（prepareStatement → executeQuery で毎回先頭から読み直す）。
+	 * 値は列ラベル順の配列で与え、getInt / getLong / getString / getBigDecimal / getObject で列番号指定・ラベル指定のどちらも読めます。
+	 *
+	 * @param labels 列ラベル
+	 * @param rows   行データ
+	 * @return 接続
+	 */
+	public static Connection resultConnection(String[] labels, List<Object[]> rows) {
+		Map<String, Integer> index = new HashMap<>();
+		for (int i = 0; i < labels.length; i++) {
+			index.put(labels[i].toLowerCase(Locale.ROOT), i + 1);
+		}
+		ResultSetMetaData md = stub(ResultSetMetaData.class, Map.of(
+				"getColumnCount", a -> labels.length,
+				"getColumnLabel", a -> labels[(Integer) a[0] - 1],
+				"getColumnName", a -> labels[(Integer) a[0] - 1]));
+
+		PreparedStatement ps = stub(PreparedStatement.class, Map.of(
+				"executeQuery", a -> resultSet(md, index, rows)));
+		return stub(Connection.class, Map.of(
+				"prepareStatement", a -> ps,
+				"getAutoCommit", a -> false));
+	}
+
+	private static ResultSet resultSet(ResultSetMetaData md, Map<String, Integer> index, List<Object[]> rows) {
+		int[] cursor = { -1 };
+		Function<Object[], Object> value = a -> {
+			int col = (a[0] instanceof Integer i) ? i : index.get(((String) a[0]).toLowerCase(Locale.ROOT));
+			return rows.get(cursor[0])[col - 1];
+		};
+		Map<String, Function<Object[], Object>> answers = new HashMap<>();
+		answers.put("next", a -> ++cursor[0] < rows.size());
+		answers.put("getMetaData", a -> md);
+		answers.put("findColumn", a -> index.get(((String) a[0]).toLowerCase(Locale.ROOT)));
+		answers.put("getObject", value);
+		answers.put("getString", a -> {
+			Object v = value.apply(a);
+			return (v == null) ? null : v.toString();
+		});
+		answers.put("getInt", a -> {
+			Object v = value.apply(a);
+			return (v == null) ? 0 : ((Number) v).intValue();
+		});
+		answers.put("getLong", a -> {
+			Object v = value.apply(a);
+			return (v == null) ? 0L : ((Number) v).longValue();
+		});
+		answers.put("getBigDecimal", value);
+		return stub(ResultSet.class, answers);
+	}
+
+	private static Object defaultValue(Class<?> type) {
+		if (!type.isPrimitive() || type == void.class) return null;
+		if (type == boolean.class) return false;
+		if (type == long.class) return 0L;
+		if (type == double.class) return 0d;
+		if (type == float.class) return 0f;
+		if (type == char.class) return '\0';
+		if (type == byte.class) return (byte) 0;
+		if (type == short.class) return (short) 0;
+		return 0;
+	}
+}
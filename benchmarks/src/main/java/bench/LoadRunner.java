@@ -0,0 +1,328 @@
+package bench;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ローカルの Tomcat に対する負荷試験ランナー。
+ * <p>
+ * 管理者・秘書・顧客の 3 ロールで仮想ユーザーを起動し、それぞれログインしたうえで
+ * ロールごとの画面構成比（{@link #ADMIN_MIX} 等）に従って参照系の画面を繰り返し開きます。
+ * 終了後、ルートごとの件数・エラー数・スループット・p50 / p99 レイテンシを表で出力し、JSON にも保存します。
+ * ウォームアップ中の計測値は集計しません。
+ * </p>
+ * <p>
+ * アカウントは初期データの管理者（admin1@example.com 〜）と、{@link SyntheticData} が作成した
+ * 秘書・顧客担当者（パスワードはすべて {@value SyntheticData#PASSWORD}）を使います。
+ * </p>
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar bench.LoadRunner --secretaries=20 --duration=120
+ *
+ * 引数（既定値）:
+ *   --base=http://localhost:8080/hidariude
+ *   --admins=2  --secretaries=10  --customers=5   ロールごとの仮想ユーザー数
+ *   --duration=60          計測時間（秒）
+ *   --warmup=10            ウォームアップ（秒。集計しない）
+ *   --think=300            画面遷移の間隔の平均（ミリ秒。0〜2 倍で揺らす）
+ *   --seed=1               乱数の種
+ *   --out=load-result.json 結果ファイル
+ * </pre>
+ */
+public final class LoadRunner {
+
+	private static final ZoneId JST = ZoneId.of("Asia/Tokyo");
+	private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+	/** 画面と構成比（重み） */
+	private record Page(String path, int weight) {
+	}
+
+	/** ロール（ログイン先と画面構成比） */
+	private record Role(String name, String servletPath, List<Page> mix) {
+	}
+
+	/** 管理者：承認待ち・全件一覧が中心で、集計・請求は月に数回 */
+	private static final List<Page> ADMIN_MIX = List.of(
+			new Page("/home", 10),
+			new Page("/task/list_unapproved?yearMonth={ym}", 20),
+			new Page("/task/list_all?yearMonth={ym}", 12),
+			new Page("/task/list_approved?yearMonth={prevYm}", 6),
+			new Page("/assignment", 10),
+			new Page("/secretary", 8),
+			new Page("/customer", 8),
+			new Page("/summary/sales", 4),
+			new Page("/summary/costs", 4),
+			new Page("/invoice/sales?yearMonth={prevYm}", 4),
+			new Page("/invoice/costs?yearMonth={prevYm}", 4));
+
+	/** 秘書：当月の業務一覧を見ながら登録する流れが中心 */
+	private static final List<Page> SECRETARY_MIX = List.of(
+			new Page("/home", 20),
+			new Page("/task/list_all?yearMonth={ym}", 30),
+			new Page("/task/list_unapproved?yearMonth={ym}", 10),
+			new Page("/task/list_remanded?yearMonth={ym}", 5),
+			new Page("/invoice?yearMonth={prevYm}", 8),
+			new Page("/profile", 5),
+			new Page("/mypage/home", 5));
+
+	/** 顧客：業務一覧・アサイン確認・請求の確認 */
+	private static final List<Page> CUSTOMER_MIX = List.of(
+			new Page("/home", 20),
+			new Page("/task/list?yearMonth={ym}", 30),
+			new Page("/task/list?yearMonth={prevYm}", 10),
+			new Page("/assignment/list", 15),
+			new Page("/invoice", 10),
+			new Page("/mypage/home", 5));
+
+	private LoadRunner() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		Options o = Options.parse(args);
+		String base = o.get("base", "http://localhost:8080/hidariude");
+		int admins = o.getInt("admins", 2);
+		int secretaries = o.getInt("secretaries", 10);
+		int customers = o.getInt("customers", 5);
+		long durationSec = o.getLong("duration", 60);
+		long warmupSec = o.getLong("warmup", 10);
+		int think = o.getInt("think", 300);
+		long seed = o.getLong("seed", 1);
+		String out = o.get("out", "load-result.json");
+		o.checkUnknown();
+
+		Role admin = new Role("admin", "/admin", ADMIN_MIX);
+		Role secretary = new Role("secretary", "/secretary", SECRETARY_MIX);
+		Role customer = new Role("customer", "/customer", CUSTOMER_MIX);
+
+		List<VirtualUser> users = new ArrayList<>();
+		Random seeds = new Random(seed);
+		for (int i = 1; i <= admins; i++) {
+			users.add(new VirtualUser(base, admin, "admin" + i + "@example.com", think, seeds.nextLong()));
+		}
+		for (int i = 1; i <= secretaries; i++) {
+			users.add(new VirtualUser(base, secretary, String.format(SyntheticData.SECRETARY_MAIL, i), think, seeds.nextLong()));
+		}
+		for (int i = 1; i <= customers; i++) {
+			users.add(new VirtualUser(base, customer, String.format(SyntheticData.CONTACT_MAIL, i, 1), think, seeds.nextLong()));
+		}
+
+		long start = System.nanoTime();
+		long measureFrom = start + warmupSec * 1_000_000_000L;
+		long deadline = measureFrom + durationSec * 1_000_000_000L;
+		System.out.printf("仮想ユーザー %d（管理者 %d / 秘書 %d / 顧客 %d）、ウォームアップ %d 秒、計測 %d 秒%n",
+				users.size(), admins, secretaries, customers, warmupSec, durationSec);
+
+		try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+			List<Future<?>> futures = new ArrayList<>();
+			for (VirtualUser u : users) {
+				futures.add(pool.submit(() -> u.run(measureFrom, deadline)));
+			}
+			for (Future<?> f : futures) {
+				f.get();
+			}
+		}
+
+		Map<String, Samples> merged = new TreeMap<>();
+		for (VirtualUser u : users) {
+			u.samples.forEach((route, s) -> merged.computeIfAbsent(route, k -> new Samples()).addAll(s));
+		}
+		report(merged, durationSec, Path.of(out));
+	}
+
+	/* ========================
+	 * 仮想ユーザー
+	 * ======================== */
+
+	/**
+	 * 1 ユーザー分のセッション（Cookie）を持ち、ログイン → 画面遷移を繰り返します。
+	 * セッションが切れてログイン画面へ戻された場合は、その回をエラーとして数えて再ログインします。
+	 */
+	private static final class VirtualUser {
+		private final String base;
+		private final Role role;
+		private final String loginId;
+		private final int think;
+		private final Random rnd;
+		private final int totalWeight;
+		private final HttpClient client;
+		private final Map<String, Samples> samples = new TreeMap<>();
+
+		VirtualUser(String base, Role role, String loginId, int think, long seed) {
+			this.base = base;
+			this.role = role;
+			this.loginId = loginId;
+			this.think = think;
+			this.rnd = new Random(seed);
+			this.totalWeight = role.mix().stream().mapToInt(Page::weight).sum();
+			this.client = HttpClient.newBuilder()
+					.cookieHandler(new CookieManager())
+					.followRedirects(HttpClient.Redirect.NEVER)
+					.connectTimeout(TIMEOUT)
+					.build();
+		}
+
+		void run(long measureFrom, long deadline) {
+			boolean loggedIn = false;
+			while (System.nanoTime() < deadline) {
+				try {
+					if (!loggedIn) {
+						loggedIn = login(measureFrom);
+						if (!loggedIn) {
+							Thread.sleep(1000);
+							continue;
+						}
+					}
+					Page page = pick();
+					String path = role.servletPath() + expand(page.path());
+					HttpRequest req = HttpRequest.newBuilder(URI.create(base + path)).timeout(TIMEOUT).GET().build();
+					long t0 = System.nanoTime();
+					HttpResponse<Void> res = client.send(req, HttpResponse.BodyHandlers.discarding());
+					long elapsed = System.nanoTime() - t0;
+					boolean sessionLost = res.statusCode() == 302
+							&& res.headers().firstValue("Location").map(l -> l.endsWith(role.servletPath())).orElse(false);
+					boolean ok = res.statusCode() < 400 && !sessionLost;
+					if (t0 >= measureFrom) {
+						samples.computeIfAbsent("GET " + role.servletPath() + page.path(), k -> new Samples()).add(elapsed, ok);
+					}
+					if (sessionLost) loggedIn = false;
+					if (think > 0) Thread.sleep(rnd.nextInt(2 * think + 1));
+				} catch (IOException e) {
+					/** 接続できない間は 1 秒おきに再試行（ログインからやり直す） */
+					samples.computeIfAbsent("(通信エラー)", k -> new Samples()).add(0, false);
+					loggedIn = false;
+					LockSupport.parkNanos(1_000_000_000L);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+
+		/** ログインし、ホーム画面へのリダイレクトが返れば成功とします */
+		private boolean login(long measureFrom) throws IOException, InterruptedException {
+			String form = "loginId=" + URLEncoder.encode(loginId, StandardCharsets.UTF_8)
+					+ "&password=" + URLEncoder.encode(SyntheticData.PASSWORD, StandardCharsets.UTF_8);
+			HttpRequest req = HttpRequest.newBuilder(URI.create(base + role.servletPath() + "/login"))
+					.timeout(TIMEOUT)
+					.header("Content-Type", "application/x-www-form-urlencoded")
+					.POST(HttpRequest.BodyPublishers.ofString(form))
+					.build();
+			long t0 = System.nanoTime();
+			HttpResponse<Void> res = client.send(req, HttpResponse.BodyHandlers.discarding());
+			long elapsed = System.nanoTime() - t0;
+			boolean ok = res.statusCode() == 302
+					&& res.headers().firstValue("Location").map(l -> l.endsWith("/home")).orElse(false);
+			if (t0 >= measureFrom) {
+				samples.computeIfAbsent("POST " + role.servletPath() + "/login", k -> new Samples()).add(elapsed, ok);
+			}
+			if (!ok) System.err.println("ログインに失敗しました: " + role.name() + " " + loginId + "（HTTP " + res.statusCode() + "）");
+			return ok;
+		}
+
+		private Page pick() {
+			int r = rnd.nextInt(totalWeight);
+			for (Page p : role.mix()) {
+				r -= p.weight();
+				if (r < 0) return p;
+			}
+			return role.mix().get(0);
+		}
+
+		private static String expand(String path) {
+			YearMonth ym = YearMonth.now(JST);
+			return path.replace("{ym}", ym.toString()).replace("{prevYm}", ym.minusMonths(1).toString());
+		}
+	}
+
+	/* ========================
+	 * 集計
+	 * ======================== */
+
+	/** 1 ルート分の計測値（レイテンシは全件保持し、終了後にソートして分位点を求める） */
+	private static final class Samples {
+		private long[] nanos = new long[256];
+		private int size;
+		private long errors;
+
+		void add(long elapsed, boolean ok) {
+			if (size == nanos.length) nanos = Arrays.copyOf(nanos, size * 2);
+			nanos[size++] = elapsed;
+			if (!ok) errors++;
+		}
+
+		void addAll(Samples o) {
+			for (int i = 0; i < o.size; i++) {
+				add(o.nanos[i], true);
+			}
+			errors += o.errors;
+		}
+
+		/** 分位点（ミリ秒、最近順位法） */
+		double quantileMillis(long[] sorted, double q) {
+			if (size == 0) return 0;
+			int idx = (int) Math.ceil(q * size) - 1;
+			return sorted[Math.max(0, Math.min(size - 1, idx))] / 1e6;
+		}
+	}
+
+	private static void report(Map<String, Samples> routes, long durationSec, Path out) throws IOException {
+		String fmt = "%-52s %8s %6s %8s %9s %9s %9s%n";
+		System.out.println();
+		System.out.printf(fmt, "ルート", "件数", "エラー", "req/s", "p50 ms", "p99 ms", "平均 ms");
+		long total = 0;
+		long totalErrors = 0;
+		StringBuilder json = new StringBuilder("{\n  \"durationSeconds\": ").append(durationSec).append(",\n  \"routes\": [");
+		boolean first = true;
+		for (Map.Entry<String, Samples> e : routes.entrySet()) {
+			Samples s = e.getValue();
+			long[] sorted = Arrays.copyOf(s.nanos, s.size);
+			Arrays.sort(sorted);
+			double p50 = s.quantileMillis(sorted, 0.50);
+			double p99 = s.quantileMillis(sorted, 0.99);
+			double mean = (s.size == 0) ? 0 : Arrays.stream(sorted).average().orElse(0) / 1e6;
+			double rps = (double) s.size / durationSec;
+			total += s.size;
+			totalErrors += s.errors;
+			System.out.printf(fmt, e.getKey(), s.size, s.errors, String.format("%.2f", rps),
+					String.format("%.1f", p50), String.format("%.1f", p99), String.format("%.1f", mean));
+
+			json.append(first ? "\n" : ",\n");
+			first = false;
+			json.append(String.format(Locale.ROOT, "    {\"route\": \"%s\", \"count\": %d, \"errors\": %d, \"throughput\": %.3f, "
+					+ "\"p50Millis\": %.3f, \"p99Millis\": %.3f, \"meanMillis\": %.3f}",
+					e.getKey().replace("\"", "\\\""), s.size, s.errors, rps, p50, p99, mean));
+		}
+		json.append("\n  ],\n  \"total\": {\"count\": ").append(total)
+				.append(", \"errors\": ").append(totalErrors)
+				.append(String.format(Locale.ROOT, ", \"throughput\": %.3f}\n}\n", (double) total / durationSec));
+		System.out.printf(fmt, "合計", total, totalErrors, String.format("%.2f", (double) total / durationSec), "", "", "");
+
+		try (PrintWriter w = new PrintWriter(Files.newBufferedWriter(out, StandardCharsets.UTF_8))) {
+			w.print(json);
+		}
+		System.out.println("結果を保存しました: " + out.toAbsolutePath());
+	}
+}
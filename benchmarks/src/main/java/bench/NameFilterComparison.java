@@ -0,0 +1,235 @@
+package bench;
+
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.BiFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import dao.AssignmentDAO;
+import dao.TaskDAO;
+
+/**
+ * 名前の部分一致検索（ILIKE）の所要時間を、トライグラム（GIN）インデックスの有無で比べるツール。
+ * <p>
+ * 管理者のタスク一覧（{@link TaskDAO#selectByMonthPage}：秘書名・会社名）と
+ * アサイン一覧（{@link AssignmentDAO#selectAllByMonthFiltered}：会社名）を、文字数の異なるキーワードで繰り返し実行し、
+ * p50・平均（ミリ秒）と件数を表で出力して JSON にも保存します。
+ * インデックスなしの計測は、1 つのトランザクション内で {@code idx_secretaries_name_trgm} /
+ * {@code idx_customers_company_name_trgm} を DROP して行い、最後にロールバックして元に戻します
+ * （DROP INDEX は計測中 secretaries / customers を排他ロックするため、アプリを止めたローカルの DB で実行すること）。
+ * </p>
+ * <p>
+ * 各キーワードについて、単純な ILIKE を GIN インデックスで実行したときの候補行数（Bitmap Index Scan の行数）と
+ * テーブルの全行数も出力します。pg_trgm は 3 文字単位のトライグラムで索引を引くため、
+ * 2 文字以下のキーワード（「佐藤」など 2 文字の姓を含む）ではトライグラムが取り出せず、インデックスは全行を候補として返します
+ * （絞り込みにならず、インデックスの有無で差が出ない）。
+ * 姓の後ろに空白を付けた「佐藤 」は語末のトライグラムが取り出せるため、インデックスで絞り込めます。
+ * </p>
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar bench.NameFilterComparison --ym=2026-09
+ *
+ * 引数（既定値）:
+ *   --url=jdbc:postgresql://localhost:5433/hidariude?currentSchema=public
+ *   --user=postgres  --password=password
+ *   --ym=（前月）                    対象年月
+ *   --warmup=3                      計測前の空実行の回数
+ *   --runs=20                       計測回数
+ *   --out=name-filter-result.json   結果ファイル
+ * </pre>
+ */
+public final class NameFilterComparison {
+
+	/** 比較するインデックス */
+	private static final String[] INDEXES = { "idx_secretaries_name_trgm", "idx_customers_company_name_trgm" };
+
+	/** GIN インデックスで絞り込めるかの確認用（%1$s: テーブル, %2$s: 列） */
+	private static final String SQL_EXPLAIN_PROBE = "EXPLAIN (ANALYZE, FORMAT JSON) SELECT 1 FROM %1$s WHERE %2$s ILIKE ?";
+
+	private static final String SQL_COUNT = "SELECT COUNT(*) FROM %s";
+
+	/** 実行計画（JSON）の Bitmap Index Scan の実行行数 */
+	private static final Pattern BITMAP_INDEX_ROWS = Pattern
+			.compile("\"Node Type\": \"Bitmap Index Scan\"[^}]*?\"Actual Rows\": (\\d+)");
+
+	private static final String SQL_INDEX_EXISTS = "SELECT COUNT(*) FROM pg_indexes WHERE indexname = ANY (?)";
+
+	/**
+	 * 計測するケース
+	 *
+	 * @param query   画面（DAO メソッド）
+	 * @param column  絞り込む列（テーブル.列）
+	 * @param keyword キーワード
+	 * @param call    DAO の呼び出し（接続, 年月 → 件数）
+	 */
+	private record Case(String query, String column, String keyword, BiFunction<Connection, String, Integer> call) {
+	}
+
+	/**
+	 * 1 ケース・1 条件（インデックスあり／なし）の計測結果
+	 *
+	 * @param candidates インデックスが返した候補行数（インデックスなしの場合は -1）
+	 * @param tableRows  絞り込む列のテーブルの全行数
+	 */
+	private record Result(Case c, boolean indexed, long candidates, long tableRows, int rows, double p50Millis,
+			double meanMillis) {
+	}
+
+	public static void main(String[] args) throws Exception {
+		Options o = Options.parse(args);
+		String url = o.get("url", "jdbc:postgresql://localhost:5433/hidariude?currentSchema=public");
+		String user = o.get("user", "postgres");
+		String password = o.get("password", "password");
+		String ym = o.get("ym", YearMonth.now().minusMonths(1).toString());
+		int warmup = o.getInt("warmup", 3);
+		int runs = o.getInt("runs", 20);
+		Path out = Path.of(o.get("out", "name-filter-result.json"));
+		o.checkUnknown();
+
+		List<Case> cases = cases();
+		List<Result> results = new ArrayList<>();
+		try (Connection conn = DriverManager.getConnection(url, user, password)) {
+			conn.setAutoCommit(false);
+			requireIndexes(conn);
+			for (Case c : cases) {
+				results.add(measure(conn, c, ym, true, warmup, runs));
+			}
+			try (Statement st = conn.createStatement()) {
+				st.execute("DROP INDEX " + String.join(", ", INDEXES));
+			}
+			try {
+				for (Case c : cases) {
+					results.add(measure(conn, c, ym, false, warmup, runs));
+				}
+			} finally {
+				conn.rollback();
+			}
+		}
+		report(results, ym, out);
+	}
+
+	/**
+	 * 計測ケースの一覧。合成データ（{@link SyntheticData}）の秘書名は「姓 名」（姓の多くは 2 文字）、
+	 * 会社名は「株式会社サンプル00001」の形式のため、1〜2 文字と 3 文字以上のキーワードを並べる。
+	 */
+	private static List<Case> cases() {
+		List<Case> cases = new ArrayList<>();
+		for (String kw : List.of("佐", "佐藤", "佐々木", "佐藤 ")) {
+			cases.add(new Case("TaskDAO.selectByMonthPage", "secretaries.name", kw,
+					(conn, ym) -> new TaskDAO(conn).selectByMonthPage(ym, "all", kw, null, null, 50).size()));
+		}
+		for (String kw : List.of("01", "012", "サンプル00012")) {
+			cases.add(new Case("TaskDAO.selectByMonthPage", "customers.company_name", kw,
+					(conn, ym) -> new TaskDAO(conn).selectByMonthPage(ym, "all", null, kw, null, 50).size()));
+			cases.add(new Case("AssignmentDAO.selectAllByMonthFiltered", "customers.company_name", kw,
+					(conn, ym) -> new AssignmentDAO(conn).selectAllByMonthFiltered(ym, kw, null, null).size()));
+		}
+		return cases;
+	}
+
+	private static void requireIndexes(Connection conn) throws SQLException {
+		try (PreparedStatement ps = conn.prepareStatement(SQL_INDEX_EXISTS)) {
+			ps.setArray(1, conn.createArrayOf("text", INDEXES));
+			try (ResultSet rs = ps.executeQuery()) {
+				rs.next();
+				if (rs.getInt(1) != INDEXES.length) {
+					throw new IllegalStateException("トライグラムインデックスがありません（マイグレーション適用済みの DB で実行してください）: "
+							+ Arrays.toString(INDEXES));
+				}
+			}
+		}
+		conn.commit();
+	}
+
+	/**
+	 * 1 ケースを warmup 回の空実行のあと runs 回実行し、所要時間を集計します。
+	 */
+	private static Result measure(Connection conn, Case c, String ym, boolean indexed, int warmup, int runs)
+			throws SQLException {
+		String table = c.column().substring(0, c.column().indexOf('.'));
+		long candidates = indexed ? candidates(conn, c) : -1;
+		long tableRows;
+		try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery(String.format(SQL_COUNT, table))) {
+			rs.next();
+			tableRows = rs.getLong(1);
+		}
+		int rows = 0;
+		for (int i = 0; i < warmup; i++) {
+			rows = c.call().apply(conn, ym);
+		}
+		double[] millis = new double[runs];
+		double total = 0;
+		for (int i = 0; i < runs; i++) {
+			long t0 = System.nanoTime();
+			rows = c.call().apply(conn, ym);
+			millis[i] = (System.nanoTime() - t0) / 1e6;
+			total += millis[i];
+		}
+		Arrays.sort(millis);
+		Result r = new Result(c, indexed, candidates, tableRows, rows, millis[runs / 2], total / runs);
+		System.out.printf("%s %s「%s」 GIN %s: p50 %.2f ms%n", c.query(), c.column(), c.keyword(),
+				indexed ? "あり" : "なし", r.p50Millis());
+		return r;
+	}
+
+	/**
+	 * seq scan を無効にして単純な ILIKE を実行し、トライグラムインデックスが返した候補行数を求めます
+	 * （secretaries / customers は行数が少なく、そのままではプランナーが seq scan を選ぶため）。
+	 */
+	private static long candidates(Connection conn, Case c) throws SQLException {
+		String[] tc = c.column().split("\\.");
+		try (Statement st = conn.createStatement();
+				PreparedStatement ps = conn.prepareStatement(String.format(SQL_EXPLAIN_PROBE, tc[0], tc[1]))) {
+			st.execute("SET enable_seqscan = off");
+			try {
+				ps.setString(1, "%" + c.keyword() + "%");
+				try (ResultSet rs = ps.executeQuery()) {
+					rs.next();
+					Matcher m = BITMAP_INDEX_ROWS.matcher(rs.getString(1));
+					return m.find() ? Long.parseLong(m.group(1)) : -1;
+				}
+			} finally {
+				st.execute("RESET enable_seqscan");
+			}
+		}
+	}
+
+	/** 結果を表で出力し、JSON に保存します */
+	private static void report(List<Result> results, String ym, Path out) throws Exception {
+		String fmt = "%-40s %-24s %-12s %-6s %14s %8s %10s %10s%n";
+		System.out.println();
+		System.out.printf(fmt, "画面", "列", "キーワード", "GIN", "索引候補/全行", "件数", "p50 ms", "平均 ms");
+		StringBuilder json = new StringBuilder("{\n  \"yearMonth\": \"" + ym + "\",\n  \"results\": [\n");
+		for (int i = 0; i < results.size(); i++) {
+			Result r = results.get(i);
+			System.out.printf(fmt, r.c().query(), r.c().column(), r.c().keyword(), r.indexed() ? "あり" : "なし",
+					r.candidates() < 0 ? "-" : r.candidates() + "/" + r.tableRows(), r.rows(), String.format("%.2f", r.p50Millis()),
+					String.format("%.2f", r.meanMillis()));
+			json.append(String.format(Locale.ROOT, "    {\"query\": \"%s\", \"column\": \"%s\", \"keyword\": \"%s\", "
+					+ "\"keywordLength\": %d, \"indexed\": %b, \"indexCandidates\": %d, \"tableRows\": %d, "
+					+ "\"rows\": %d, \"p50Millis\": %.3f, \"meanMillis\": %.3f}", r.c().query(), r.c().column(),
+					r.c().keyword(), r.c().keyword().codePointCount(0, r.c().keyword().length()), r.indexed(),
+					r.candidates(), r.tableRows(), r.rows(),
+					r.p50Millis(), r.meanMillis()));
+			json.append(i < results.size() - 1 ? ",\n" : "\n");
+		}
+		json.append("  ]\n}\n");
+		try (PrintWriter w = new PrintWriter(Files.newBufferedWriter(out, StandardCharsets.UTF_8))) {
+			w.print(json);
+		}
+		System.out.println("結果を " + out + " に保存しました");
+	}
+}
@@ -0,0 +1,72 @@
+package bench;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * コマンドライン引数（{@code --name=value} 形式）の読み取り。
+ * 未指定の項目は既定値を使い、未知の項目は誤記とみなしてエラーにします。
+ */
+public final class Options {
+
+	private final Map<String, String> values = new HashMap<>();
+	private final Map<String, String> used = new HashMap<>();
+
+	private Options() {
+	}
+
+	/**
+	 * 引数を解析します。
+	 *
+	 * @param args {@code --name=value} の並び
+	 * @return 解析結果
+	 * @throws IllegalArgumentException 形式が不正な場合
+	 */
+	public static Options parse(String[] args) {
+		Options o = new Options();
+		for (String a : args) {
+			int eq = a.indexOf('=');
+			if (!a.startsWith("--") || eq < 0) {
+				throw new IllegalArgumentException("引数は --name=value の形式で指定してください: " + a);
+			}
+			o.values.put(a.substring(2, eq), a.substring(eq + 1));
+		}
+		return o;
+	}
+
+	public String get(String name, String def) {
+		used.put(name, def);
+		return values.getOrDefault(name, def);
+	}
+
+	public int getInt(String name, int def) {
+		return Integer.parseInt(get(name, Integer.toString(def)));
+	}
+
+	public long getLong(String name, long def) {
+		return Long.parseLong(get(name, Long.toString(def)));
+	}
+
+	public double getDouble(String name, double def) {
+		return Double.parseDouble(get(name, Double.toString(def)));
+	}
+
+	public boolean getBoolean(String name, boolean def) {
+		return Boolean.parseBoolean(get(name, Boolean.toString(def)));
+	}
+
+	/**
+	 * 読み取られなかった引数が無いことを確認します（すべての get の後に呼ぶ）。
+	 *
+	 * @throws IllegalArgumentException 未知の引数がある場合（使用可能な引数と既定値を添える）
+	 */
+	public void checkUnknown() {
+		for (String name : values.keySet()) {
+			if (!used.containsKey(name)) {
+				StringBuilder sb = new StringBuilder("未知の引数です: --" + name + "\n使用可能な引数（既定値）:");
+				used.forEach((k, v) -> sb.append("\n  --").append(k).append('=').append(v));
+				throw new IllegalArgumentException(sb.toString());
+			}
+		}
+	}
+}
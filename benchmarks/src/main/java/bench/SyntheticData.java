@@ -0,0 +1,450 @@
+package bench;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import dao.CacheInvalidation;
+import dao.MonthCloseDAO;
+import dao.TaskPartitions;
+import util.PasswordUtil;
+import util.UuidV7;
+
+/**
+ * 性能検証用の合成データをローカルの PostgreSQL に投入するツール。
+ * <p>
+ * 秘書・プロフィール・顧客・顧客担当者・複数年分のアサイン・タスクを COPY で一括投入し、
+ * 前月より前の月はアプリの月次締めと同じ処理（{@link MonthCloseDAO}）で集計・確定します。
+ * スキーマはアプリを一度起動して作成済み（マイグレーション適用済み）であることが前提です。
+ * 生成データのコード・メールアドレスは {@code GEN-} / {@code gen-} で始まり、初期データとは重なりません。
+ * ログイン用パスワードはすべて {@value #PASSWORD} です（{@link LoadRunner} が使用）。
+ * アサイン・タスクの id はアプリと同じく {@link UuidV7} で採番し、主キーインデックスの状態を本番に近づけます。
+ * </p>
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar bench.SyntheticData \
+ *      --secretaries=300 --customers=200 --months=36 --tasks=3000000
+ *
+ * 引数（既定値）:
+ *   --url=jdbc:postgresql://localhost:5433/hidariude?currentSchema=public
+ *   --user=postgres  --password=password
+ *   --secretaries=300        秘書数
+ *   --profileRate=0.8        プロフィールを登録済みの秘書の割合
+ *   --customers=200          顧客数
+ *   --contacts=2             顧客あたりの担当者数（1 人目が主担当）
+ *   --team=3                 顧客あたりの担当秘書数（＝顧客×月のアサイン数）
+ *   --months=36              当月までの月数
+ *   --tasks=3000000          タスク総数（アサインに均等配分）
+ *   --close=true             前月より前の月を締める
+ *   --seed=20261019          乱数の種（同じ値なら同じデータ）
+ * </pre>
+ */
+public final class SyntheticData {
+
+	/** 生成アカウントの共通パスワード */
+	static final String PASSWORD = "Password1";
+
+	/** 生成アカウントのメールアドレス（LoadRunner と共通） */
+	static final String SECRETARY_MAIL = "gen-s%05d@example.com";
+	static final String CONTACT_MAIL = "gen-c%05d-%d@example.com";
+
+	private static final ZoneId JST = ZoneId.of("Asia/Tokyo");
+	private static final DateTimeFormatter TS = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+	/** COPY の送信単位（バイト） */
+	private static final int COPY_CHUNK = 1 << 20;
+
+	private static final String SQL_EXISTS_GENERATED = "SELECT EXISTS (SELECT 1 FROM secretaries WHERE secretary_code LIKE 'GEN-%')";
+	private static final String SQL_SCHEMA_READY = "SELECT to_regclass('month_closings') IS NOT NULL "
+			+ "AND EXISTS (SELECT 1 FROM pg_proc WHERE proname = 'ensure_tasks_partition')";
+
+	private static final String COPY_SECRETARIES = "COPY secretaries (id, secretary_code, mail, password, secretary_rank_id, "
+			+ "is_pm_secretary, name, name_ruby, phone, postal_code, address1, address2, bank_name, bank_branch, bank_type, "
+			+ "bank_account, bank_owner, bank_code, bank_branch_code) FROM STDIN (FORMAT csv)";
+	private static final String COPY_PROFILES = "COPY profiles (secretary_id, weekday_morning, weekday_daytime, weekday_night, "
+			+ "saturday_morning, saturday_daytime, saturday_night, sunday_morning, sunday_daytime, sunday_night, "
+			+ "weekday_work_hours, saturday_work_hours, sunday_work_hours, monthly_work_hours, qualification, work_history, "
+			+ "self_introduction) FROM STDIN (FORMAT csv)";
+	private static final String COPY_CUSTOMERS = "COPY customers (id, company_code, company_name, mail, phone, postal_code, "
+			+ "address1, building) FROM STDIN (FORMAT csv)";
+	private static final String COPY_CONTACTS = "COPY customer_contacts (id, mail, password, customer_id, name, name_ruby, "
+			+ "phone, department, is_primary) FROM STDIN (FORMAT csv)";
+	private static final String SQL_SET_PRIMARY_CONTACT = "UPDATE customers c SET primary_contact_id = cc.id "
+			+ "FROM customer_contacts cc WHERE cc.customer_id = c.id AND cc.is_primary AND c.company_code LIKE 'GEN-%'";
+	private static final String COPY_ASSIGNMENTS = "COPY assignments (id, customer_id, secretary_id, task_rank_id, "
+			+ "target_year_month, base_pay_customer, base_pay_secretary, increase_base_pay_customer, "
+			+ "increase_base_pay_secretary, customer_based_incentive_for_customer, customer_based_incentive_for_secretary, "
+			+ "status, created_by_system_admin, created_at, updated_at) FROM STDIN (FORMAT csv)";
+	private static final String COPY_TASKS = "COPY tasks (id, assignment_id, work_date, start_time, end_time, work_minute, "
+			+ "work_content, approved_at, approved_by, created_at, updated_at) FROM STDIN (FORMAT csv)";
+
+	private static final String[] SURNAMES = { "佐藤", "鈴木", "高橋", "田中", "伊藤", "渡辺", "山本", "中村", "小林", "加藤",
+			"吉田", "山田", "佐々木", "山口", "松本", "井上", "木村", "林", "斎藤", "清水" };
+	private static final String[] SURNAMES_RUBY = { "サトウ", "スズキ", "タカハシ", "タナカ", "イトウ", "ワタナベ", "ヤマモト",
+			"ナカムラ", "コバヤシ", "カトウ", "ヨシダ", "ヤマダ", "ササキ", "ヤマグチ", "マツモト", "イノウエ", "キムラ", "ハヤシ",
+			"サイトウ", "シミズ" };
+	private static final String[] GIVEN = { "花子", "美咲", "結衣", "彩香", "美穂", "真由", "恵", "佳奈", "美和", "理沙",
+			"健太", "翔", "大輔", "直樹", "拓也" };
+	private static final String[] GIVEN_RUBY = { "ハナコ", "ミサキ", "ユイ", "アヤカ", "ミホ", "マユ", "メグミ", "カナ", "ミワ",
+			"リサ", "ケンタ", "ショウ", "ダイスケ", "ナオキ", "タクヤ" };
+	private static final String[] CITIES = { "東京都千代田区", "東京都港区", "東京都渋谷区", "東京都新宿区", "神奈川県横浜市",
+			"大阪府大阪市", "愛知県名古屋市", "福岡県福岡市", "北海道札幌市", "宮城県仙台市" };
+	private static final String[] WORKS = { "メール対応", "スケジュール調整", "資料作成", "経費精算", "議事録作成", "請求書発行",
+			"データ入力", "リサーチ", "出張手配", "SNS 投稿" };
+
+	/** マスタ（初期データ）の値 */
+	private record Rank(UUID id, BigDecimal payCustomer, BigDecimal paySecretary) {
+	}
+
+	private final Random rnd;
+	private final Connection conn;
+
+	private SyntheticData(Connection conn, long seed) {
+		this.conn = conn;
+		this.rnd = new Random(seed);
+	}
+
+	public static void main(String[] args) throws Exception {
+		Options o = Options.parse(args);
+		String url = o.get("url", "jdbc:postgresql://localhost:5433/hidariude?currentSchema=public");
+		String user = o.get("user", "postgres");
+		String password = o.get("password", "password");
+		int secretaries = o.getInt("secretaries", 300);
+		double profileRate = o.getDouble("profileRate", 0.8);
+		int customers = o.getInt("customers", 200);
+		int contacts = o.getInt("contacts", 2);
+		int team = o.getInt("team", 3);
+		int months = o.getInt("months", 36);
+		long tasks = o.getLong("tasks", 3_000_000L);
+		boolean close = o.getBoolean("close", true);
+		long seed = o.getLong("seed", 20261019L);
+		o.checkUnknown();
+		if (team > secretaries) throw new IllegalArgumentException("--team は --secretaries 以下にしてください");
+
+		try (Connection conn = DriverManager.getConnection(url, user, password)) {
+			conn.setAutoCommit(false);
+			SyntheticData g = new SyntheticData(conn, seed);
+			g.checkPreconditions();
+
+			long t0 = System.nanoTime();
+			List<UUID> admins = g.selectIds("SELECT id FROM system_admins WHERE deleted_at IS NULL ORDER BY mail");
+			List<Rank> secRanks = g.selectRanks("SELECT id, increase_base_pay_customer, increase_base_pay_secretary "
+					+ "FROM secretary_rank WHERE deleted_at IS NULL ORDER BY rank_name");
+			List<Rank> taskRanks = g.selectRanks("SELECT id, base_pay_customer, base_pay_secretary "
+					+ "FROM task_rank WHERE deleted_at IS NULL AND rank_no > 0 ORDER BY rank_no");
+			if (admins.isEmpty() || secRanks.isEmpty() || taskRanks.isEmpty()) {
+				throw new IllegalStateException("初期データ（管理者・秘書ランク・業務ランク）がありません。");
+			}
+
+			String hash = PasswordUtil.hashPassword(PASSWORD);
+			int[] secRankOf = new int[secretaries];
+			UUID[] secIds = g.copySecretaries(secretaries, hash, secRanks, secRankOf);
+			g.copyProfiles(secIds, profileRate);
+			UUID[] custIds = g.copyCustomers(customers, contacts, hash);
+			conn.commit();
+			log(t0, "マスタ: 秘書 " + secretaries + " / 顧客 " + customers + " / 担当者 " + (customers * contacts));
+
+			YearMonth current = YearMonth.now(JST);
+			List<YearMonth> yms = new ArrayList<>();
+			for (int i = months - 1; i >= 0; i--) {
+				yms.add(current.minusMonths(i));
+			}
+			long assignmentCount = (long) customers * team * months;
+			int tasksPerAssignment = (int) Math.max(1, tasks / assignmentCount);
+			long inserted = 0;
+			for (int m = 0; m < months; m++) {
+				YearMonth ym = yms.get(m);
+				int year = (months - 1 - m) / 12;
+				List<Object[]> monthAssignments = g.copyAssignments(ym, custIds, secIds, secRankOf, team, secRanks, taskRanks,
+						admins.get(0), year);
+				TaskPartitions.ensure(conn, ym.atDay(1));
+				conn.commit();
+				inserted += g.copyTasks(ym, current, monthAssignments, tasksPerAssignment, admins);
+				conn.commit();
+				log(t0, ym + ": アサイン " + monthAssignments.size() + " / タスク累計 " + inserted);
+			}
+
+			if (close) {
+				for (YearMonth ym : yms) {
+					if (!ym.isBefore(current.minusMonths(1))) break;
+					g.closeMonth(ym.toString(), admins.get(0));
+				}
+				log(t0, "前月より前の月を締めました");
+			}
+
+			try (Statement st = conn.createStatement()) {
+				st.execute("ANALYZE");
+			}
+			CacheInvalidation.publish(conn, Arrays.stream(CacheInvalidation.Topic.values())
+					.map(CacheInvalidation.Topic::all).toArray(String[]::new));
+			conn.commit();
+			log(t0, "完了（ANALYZE 済み。起動中のアプリのキャッシュは破棄されます）");
+		}
+	}
+
+	/** 実行条件（スキーマ作成済み・未生成）を確認します */
+	private void checkPreconditions() throws SQLException {
+		try (Statement st = conn.createStatement()) {
+			try (ResultSet rs = st.executeQuery(SQL_SCHEMA_READY)) {
+				rs.next();
+				if (!rs.getBoolean(1)) {
+					throw new IllegalStateException("スキーマがありません。アプリを一度起動してマイグレーションを適用してください。");
+				}
+			}
+			try (ResultSet rs = st.executeQuery(SQL_EXISTS_GENERATED)) {
+				rs.next();
+				if (rs.getBoolean(1)) {
+					throw new IllegalStateException("生成済みのデータがあります。空のデータベースで実行してください。");
+				}
+			}
+		}
+	}
+
+	/* ========================
+	 * マスタ
+	 * ======================== */
+
+	private UUID[] copySecretaries(int n, String hash, List<Rank> ranks, int[] rankOf) throws SQLException {
+		UUID[] ids = new UUID[n];
+		try (Copy c = new Copy(COPY_SECRETARIES)) {
+			for (int i = 0; i < n; i++) {
+				ids[i] = UUID.randomUUID();
+				rankOf[i] = i % ranks.size();
+				int s = rnd.nextInt(SURNAMES.length);
+				int g = rnd.nextInt(GIVEN.length);
+				c.row(ids[i], String.format("GEN-S%05d", i + 1), String.format(SECRETARY_MAIL, i + 1), hash, ranks.get(rankOf[i]).id(),
+						i % 10 == 0, SURNAMES[s] + " " + GIVEN[g], SURNAMES_RUBY[s] + " " + GIVEN_RUBY[g],
+						String.format("090-%04d-%04d", rnd.nextInt(10000), rnd.nextInt(10000)),
+						String.format("%07d", 1000000 + rnd.nextInt(8999999)),
+						CITIES[rnd.nextInt(CITIES.length)] + (i % 9 + 1) + "-" + (i % 20 + 1), "サンプルマンション" + (i % 300 + 1),
+						"サンプル銀行", "第" + (i % 50 + 1) + "支店", (i % 7 == 0) ? "当座" : "普通",
+						String.format("%07d", rnd.nextInt(10000000)), SURNAMES_RUBY[s] + " " + GIVEN_RUBY[g],
+						String.format("%04d", 1 + i % 30), String.format("%03d", 1 + i % 50));
+			}
+		}
+		return ids;
+	}
+
+	private void copyProfiles(UUID[] secIds, double rate) throws SQLException {
+		try (Copy c = new Copy(COPY_PROFILES)) {
+			for (UUID id : secIds) {
+				if (rnd.nextDouble() >= rate) continue;
+				Object[] v = new Object[17];
+				v[0] = id;
+				for (int k = 1; k <= 9; k++) {
+					v[k] = rnd.nextInt(3);
+				}
+				v[10] = new BigDecimal(2 + rnd.nextInt(7));
+				v[11] = new BigDecimal(rnd.nextInt(5));
+				v[12] = new BigDecimal(rnd.nextInt(3));
+				v[13] = new BigDecimal(40 + rnd.nextInt(120));
+				v[14] = (rnd.nextBoolean()) ? "日商簿記2級、MOS" : "秘書検定2級";
+				v[15] = "事務職 " + (1 + rnd.nextInt(15)) + " 年";
+				v[16] = "丁寧なメール対応と資料作成が得意です。";
+				c.row(v);
+			}
+		}
+	}
+
+	private UUID[] copyCustomers(int n, int contacts, String hash) throws SQLException {
+		UUID[] ids = new UUID[n];
+		try (Copy c = new Copy(COPY_CUSTOMERS)) {
+			for (int i = 0; i < n; i++) {
+				ids[i] = UUID.randomUUID();
+				c.row(ids[i], String.format("GEN-C%05d", i + 1), String.format("株式会社サンプル%05d", i + 1),
+						String.format("info-%05d@example.com", i + 1),
+						String.format("03-%04d-%04d", rnd.nextInt(10000), rnd.nextInt(10000)),
+						String.format("%07d", 1000000 + rnd.nextInt(8999999)),
+						CITIES[rnd.nextInt(CITIES.length)] + (i % 9 + 1) + "-" + (i % 30 + 1), "サンプルビル" + (i % 100 + 1) + "F");
+			}
+		}
+		try (Copy c = new Copy(COPY_CONTACTS)) {
+			for (int i = 0; i < n; i++) {
+				for (int j = 0; j < contacts; j++) {
+					int s = rnd.nextInt(SURNAMES.length);
+					int g = rnd.nextInt(GIVEN.length);
+					c.row(UUID.randomUUID(), String.format(CONTACT_MAIL, i + 1, j + 1), hash, ids[i],
+							SURNAMES[s] + " " + GIVEN[g], SURNAMES_RUBY[s] + " " + GIVEN_RUBY[g],
+							String.format("080-%04d-%04d", rnd.nextInt(10000), rnd.nextInt(10000)),
+							(j == 0) ? "総務部" : "営業部", j == 0);
+				}
+			}
+		}
+		try (Statement st = conn.createStatement()) {
+			st.executeUpdate(SQL_SET_PRIMARY_CONTACT);
+		}
+		return ids;
+	}
+
+	/* ========================
+	 * アサイン・タスク
+	 * ======================== */
+
+	/**
+	 * 1 か月分のアサインを投入します。
+	 * 顧客ごとに {@code team} 人の秘書が付き、担当は 1 年ごとに入れ替わります（同じ年は毎月同じ顔ぶれ）。
+	 *
+	 * @param year 当月から数えた年（0 = 直近 12 か月）
+	 *
+	 * @return [アサインID, 作成日時] の一覧
+	 */
+	private List<Object[]> copyAssignments(YearMonth ym, UUID[] custIds, UUID[] secIds, int[] secRankOf, int team,
+			List<Rank> secRanks, List<Rank> taskRanks, UUID adminId, int year)
+			throws SQLException {
+		List<Object[]> result = new ArrayList<>(custIds.length * team);
+		LocalDateTime createdAt = ym.atDay(1).minusDays(5).atTime(10, 0);
+		try (Copy c = new Copy(COPY_ASSIGNMENTS)) {
+			for (int ci = 0; ci < custIds.length; ci++) {
+				int base = Math.floorMod(ci * 7 + year * 11, secIds.length);
+				for (int k = 0; k < team; k++) {
+					int si = (base + k) % secIds.length;
+					Rank tr = taskRanks.get((ci + k) % taskRanks.size());
+					Rank sr = secRanks.get(secRankOf[si]);
+					UUID id = UuidV7.generate();
+					c.row(id, custIds[ci], secIds[si], tr.id(), ym.toString(), tr.payCustomer(), tr.paySecretary(),
+							nz(sr.payCustomer()), nz(sr.paySecretary()), BigDecimal.ZERO, BigDecimal.ZERO, "active", adminId,
+							createdAt, createdAt);
+					result.add(new Object[] { id, createdAt });
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 1 か月分のタスクを投入します（1 か月 = 1 トランザクション）。
+	 * 前月より前は全件承認済み、前月は 9 割、当月は半数を承認済みにし、当月は今日までの日付に限ります。
+	 *
+	 * @return 投入件数
+	 */
+	private long copyTasks(YearMonth ym, YearMonth current, List<Object[]> assignments, int perAssignment,
+			List<UUID> admins) throws SQLException {
+		int days = ym.equals(current) ? LocalDate.now(JST).getDayOfMonth() : ym.lengthOfMonth();
+		double approvedRate = ym.isBefore(current.minusMonths(1)) ? 1.0 : ym.equals(current) ? 0.5 : 0.9;
+		long count = 0;
+		try (Copy c = new Copy(COPY_TASKS)) {
+			for (Object[] a : assignments) {
+				for (int k = 0; k < perAssignment; k++) {
+					LocalDate day = ym.atDay(1 + rnd.nextInt(days));
+					LocalDateTime start = day.atTime(9 + rnd.nextInt(9), 15 * rnd.nextInt(4));
+					int minutes = 15 * (1 + rnd.nextInt(16));
+					LocalDateTime end = start.plusMinutes(minutes);
+					boolean approved = rnd.nextDouble() < approvedRate;
+					LocalDateTime approvedAt = approved ? end.plusDays(1 + rnd.nextInt(3)) : null;
+					c.row(UuidV7.generate(), a[0], day, start, end, minutes, WORKS[rnd.nextInt(WORKS.length)],
+							approvedAt, approved ? admins.get(rnd.nextInt(admins.size())) : null, end, end);
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	/** アプリの締め処理と同じ手順（集計 → 紐付け → 確定）で 1 か月を締めます */
+	private void closeMonth(String ym, UUID adminId) throws SQLException {
+		MonthCloseDAO dao = new MonthCloseDAO(conn);
+		dao.upsertCustomerPartition(ym, 1, 0);
+		dao.upsertSecretaryPartition(ym, 1, 0);
+		dao.linkTasksPartition(ym, 1, 0);
+		MonthCloseDAO.Check check = dao.verify(ym);
+		if (dao.insertClosing(ym, adminId)) {
+			dao.finalizeMonth(ym, check.taskCount());
+		}
+		conn.commit();
+	}
+
+	/* ========================
+	 * ヘルパー
+	 * ======================== */
+
+	private List<UUID> selectIds(String sql) throws SQLException {
+		List<UUID> ids = new ArrayList<>();
+		try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+			while (rs.next()) {
+				ids.add(rs.getObject(1, UUID.class));
+			}
+		}
+		return ids;
+	}
+
+	private List<Rank> selectRanks(String sql) throws SQLException {
+		List<Rank> ranks = new ArrayList<>();
+		try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+			while (rs.next()) {
+				ranks.add(new Rank(rs.getObject(1, UUID.class), rs.getBigDecimal(2), rs.getBigDecimal(3)));
+			}
+		}
+		return ranks;
+	}
+
+	private static BigDecimal nz(BigDecimal v) {
+		return (v == null) ? BigDecimal.ZERO : v;
+	}
+
+	private static void log(long t0, String msg) {
+		System.out.printf("[%7.1fs] %s%n", (System.nanoTime() - t0) / 1e9, msg);
+	}
+
+	/**
+	 * COPY FROM STDIN（CSV）への書き込み。行を CSV に整形して {@value #COPY_CHUNK} バイトごとに送信します。
+	 * close で COPY を終了し、例外で抜けた場合（終了前）は取り消します。
+	 */
+	private final class Copy implements AutoCloseable {
+		private final CopyIn in;
+		private final StringBuilder buf = new StringBuilder(COPY_CHUNK + 4096);
+
+		Copy(String sql) throws SQLException {
+			this.in = conn.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+		}
+
+		void row(Object... values) throws SQLException {
+			for (int i = 0; i < values.length; i++) {
+				if (i > 0) buf.append(',');
+				Object v = values[i];
+				if (v == null) continue;
+				if (v instanceof LocalDateTime t) {
+					buf.append(TS.format(t));
+				} else if (v instanceof String s) {
+					buf.append('"').append(s.replace("\"", "\"\"")).append('"');
+				} else {
+					buf.append(v);
+				}
+			}
+			buf.append('\n');
+			if (buf.length() >= COPY_CHUNK) flush();
+		}
+
+		private void flush() throws SQLException {
+			byte[] b = buf.toString().getBytes(StandardCharsets.UTF_8);
+			in.writeToCopy(b, 0, b.length);
+			buf.setLength(0);
+		}
+
+		@Override
+		public void close() throws SQLException {
+			try {
+				flush();
+				in.endCopy();
+			} finally {
+				if (in.isActive()) in.cancelCopy();
+			}
+		}
+	}
+}
@@ -0,0 +1,252 @@
+package bench;
+
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import util.UuidV7;
+
+/**
+ * 主キーをランダムな UUIDv4 にした場合と時刻順の UUIDv7（{@link UuidV7}）にした場合の INSERT 性能を比べるツール。
+ * <p>
+ * tasks と同程度の列を持つ検証用テーブル（{@code bench_uuid_v4} / {@code bench_uuid_v7}）を作り、
+ * 同じ件数を同じ並列数・バッチサイズで INSERT して、スループット（全体と最後の 1 割）・
+ * 主キーインデックスのサイズ・発生した WAL 量を表で出力し、JSON にも保存します。
+ * 行数が増えてインデックスが shared_buffers に収まらなくなるほど、v4 はページ分割とキャッシュミスで遅くなり、
+ * インデックスも大きく（充填率が低く）なります。
+ * 検証用テーブルは終了時に削除します（{@code --keep=true} で残す）。
+ * </p>
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar bench.UuidKeyComparison --rows=5000000
+ *
+ * 引数（既定値）:
+ *   --url=jdbc:postgresql://localhost:5433/hidariude?currentSchema=public
+ *   --user=postgres  --password=password
+ *   --rows=2000000           1 方式あたりの INSERT 件数
+ *   --batch=1000             1 トランザクション（executeBatch）あたりの件数
+ *   --threads=4              並列数（スレッドごとに接続を持つ）
+ *   --keep=false             検証用テーブルを残す
+ *   --out=uuid-result.json   結果ファイル
+ * </pre>
+ */
+public final class UuidKeyComparison {
+
+	/** 比較する方式 */
+	private record Kind(String name, Supplier<UUID> generator) {
+	}
+
+	/** 1 方式の計測結果 */
+	private record Result(String kind, long rows, double seconds, double lastDecileRowsPerSec, long indexBytes,
+			long tableBytes, long walBytes) {
+		double rowsPerSec() {
+			return rows / seconds;
+		}
+	}
+
+	private static final String SQL_CREATE = "CREATE TABLE %s ("
+			+ "  id UUID PRIMARY KEY, assignment_id UUID NOT NULL, work_date DATE NOT NULL, "
+			+ "  work_minute INTEGER NOT NULL, work_content TEXT NOT NULL, "
+			+ "  created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)";
+	private static final String SQL_INSERT = "INSERT INTO %s (id, assignment_id, work_date, work_minute, work_content) "
+			+ "VALUES (?,?,?,?,?)";
+	private static final String SQL_WAL_LSN = "SELECT pg_current_wal_lsn()::text";
+	private static final String SQL_WAL_DIFF = "SELECT pg_wal_lsn_diff(pg_current_wal_lsn(), CAST(? AS pg_lsn))::bigint";
+	private static final String SQL_SIZES = "SELECT pg_relation_size(CAST(? AS regclass)), pg_relation_size(CAST(? AS regclass))";
+
+	private final String url;
+	private final String user;
+	private final String password;
+	private final long rows;
+	private final int batch;
+	private final int threads;
+
+	private UuidKeyComparison(String url, String user, String password, long rows, int batch, int threads) {
+		this.url = url;
+		this.user = user;
+		this.password = password;
+		this.rows = rows;
+		this.batch = batch;
+		this.threads = threads;
+	}
+
+	public static void main(String[] args) throws Exception {
+		Options o = Options.parse(args);
+		String url = o.get("url", "jdbc:postgresql://localhost:5433/hidariude?currentSchema=public");
+		String user = o.get("user", "postgres");
+		String password = o.get("password", "password");
+		long rows = o.getLong("rows", 2_000_000L);
+		int batch = o.getInt("batch", 1000);
+		int threads = o.getInt("threads", 4);
+		boolean keep = o.getBoolean("keep", false);
+		Path out = Path.of(o.get("out", "uuid-result.json"));
+		o.checkUnknown();
+
+		UuidKeyComparison c = new UuidKeyComparison(url, user, password, rows, batch, threads);
+		List<Kind> kinds = List.of(new Kind("v4", UUID::randomUUID), new Kind("v7", UuidV7::generate));
+		List<Result> results = new ArrayList<>();
+		try (Connection conn = DriverManager.getConnection(url, user, password)) {
+			for (Kind kind : kinds) {
+				results.add(c.measure(conn, kind));
+			}
+			if (!keep) {
+				try (Statement st = conn.createStatement()) {
+					for (Kind kind : kinds) {
+						st.execute("DROP TABLE IF EXISTS " + table(kind));
+					}
+				}
+			}
+		}
+		report(results, out);
+	}
+
+	private static String table(Kind kind) {
+		return "bench_uuid_" + kind.name();
+	}
+
+	/**
+	 * 1 方式分のテーブルを作り直して INSERT し、結果を計測します。
+	 */
+	private Result measure(Connection conn, Kind kind) throws Exception {
+		String table = table(kind);
+		String walStart;
+		try (Statement st = conn.createStatement()) {
+			st.execute("DROP TABLE IF EXISTS " + table);
+			st.execute(String.format(SQL_CREATE, table));
+			try (ResultSet rs = st.executeQuery(SQL_WAL_LSN)) {
+				rs.next();
+				walStart = rs.getString(1);
+			}
+		}
+
+		/** 最後の 1 割の所要時間を測るため、9 割に達した時刻を記録する */
+		AtomicLong done = new AtomicLong();
+		AtomicLong ninetyAt = new AtomicLong();
+		long ninety = rows * 9 / 10;
+		long t0 = System.nanoTime();
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				long share = rows / threads + (t < rows % threads ? 1 : 0);
+				futures.add(pool.submit(() -> {
+					insert(table, kind.generator(), share, done, ninety, ninetyAt);
+					return null;
+				}));
+			}
+			for (Future<?> f : futures) {
+				f.get();
+			}
+		} finally {
+			pool.shutdown();
+		}
+		long t1 = System.nanoTime();
+
+		long walBytes;
+		long indexBytes;
+		long tableBytes;
+		try (PreparedStatement ps = conn.prepareStatement(SQL_WAL_DIFF)) {
+			ps.setString(1, walStart);
+			try (ResultSet rs = ps.executeQuery()) {
+				rs.next();
+				walBytes = rs.getLong(1);
+			}
+		}
+		try (PreparedStatement ps = conn.prepareStatement(SQL_SIZES)) {
+			ps.setString(1, table + "_pkey");
+			ps.setString(2, table);
+			try (ResultSet rs = ps.executeQuery()) {
+				rs.next();
+				indexBytes = rs.getLong(1);
+				tableBytes = rs.getLong(2);
+			}
+		}
+
+		double seconds = (t1 - t0) / 1e9;
+		double lastDecile = (rows - ninety) / ((t1 - ninetyAt.get()) / 1e9);
+		Result r = new Result(kind.name(), rows, seconds, lastDecile, indexBytes, tableBytes, walBytes);
+		System.out.printf("%s: %,d 件 %.1f 秒（%,.0f 件/秒）%n", kind.name(), rows, seconds, r.rowsPerSec());
+		return r;
+	}
+
+	/**
+	 * 1 スレッド分の INSERT（batch 件ごとに executeBatch してコミット）。
+	 */
+	private void insert(String table, Supplier<UUID> generator, long count, AtomicLong done, long ninety,
+			AtomicLong ninetyAt) throws SQLException {
+		ThreadLocalRandom rnd = ThreadLocalRandom.current();
+		UUID[] assignments = new UUID[64];
+		for (int i = 0; i < assignments.length; i++) {
+			assignments[i] = UUID.randomUUID();
+		}
+		LocalDate base = LocalDate.now();
+		try (Connection conn = DriverManager.getConnection(url, user, password);
+				PreparedStatement ps = conn.prepareStatement(String.format(SQL_INSERT, table))) {
+			conn.setAutoCommit(false);
+			long remaining = count;
+			while (remaining > 0) {
+				int n = (int) Math.min(batch, remaining);
+				for (int i = 0; i < n; i++) {
+					ps.setObject(1, generator.get());
+					ps.setObject(2, assignments[rnd.nextInt(assignments.length)]);
+					ps.setObject(3, base.minusDays(rnd.nextInt(31)));
+					ps.setInt(4, 15 * (1 + rnd.nextInt(16)));
+					ps.setString(5, "データ入力");
+					ps.addBatch();
+				}
+				ps.executeBatch();
+				conn.commit();
+				remaining -= n;
+				long total = done.addAndGet(n);
+				if (total >= ninety && total - n < ninety) {
+					ninetyAt.set(System.nanoTime());
+				}
+			}
+		}
+	}
+
+	/** 結果を表で出力し、JSON に保存します */
+	private static void report(List<Result> results, Path out) throws Exception {
+		String fmt = "%-4s %12s %14s %14s %12s %12s %12s%n";
+		System.out.println();
+		System.out.printf(fmt, "方式", "件数", "件/秒", "最後の1割 件/秒", "PK MB", "表 MB", "WAL MB");
+		StringBuilder json = new StringBuilder("{\n  \"results\": [\n");
+		for (int i = 0; i < results.size(); i++) {
+			Result r = results.get(i);
+			System.out.printf(fmt, r.kind(), String.format("%,d", r.rows()), String.format("%,.0f", r.rowsPerSec()),
+					String.format("%,.0f", r.lastDecileRowsPerSec()), mb(r.indexBytes()), mb(r.tableBytes()),
+					mb(r.walBytes()));
+			json.append(String.format(Locale.ROOT, "    {\"kind\": \"%s\", \"rows\": %d, \"seconds\": %.3f, "
+					+ "\"rowsPerSec\": %.1f, \"lastDecileRowsPerSec\": %.1f, \"indexBytes\": %d, \"tableBytes\": %d, "
+					+ "\"walBytes\": %d}", r.kind(), r.rows(), r.seconds(), r.rowsPerSec(), r.lastDecileRowsPerSec(),
+					r.indexBytes(), r.tableBytes(), r.walBytes()));
+			json.append(i < results.size() - 1 ? ",\n" : "\n");
+		}
+		json.append("  ]\n}\n");
+		try (PrintWriter w = new PrintWriter(Files.newBufferedWriter(out, StandardCharsets.UTF_8))) {
+			w.print(json);
+		}
+		System.out.println("結果を " + out + " に保存しました");
+	}
+
+	private static String mb(long bytes) {
+		return String.format("%,.1f", bytes / 1048576.0);
+	}
+}
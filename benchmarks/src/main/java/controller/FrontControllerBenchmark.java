@@ -0,0 +1,90 @@
+package controller;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bench.Fakes;
+import domain.LoginUser;
+import jakarta.servlet.RequestDispatcher;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+
+/**
+ * {@link FrontController} のルーティング（認証チェック → switch 分岐 → フォワード/リダイレクト）のベンチマーク。
+ * <p>
+ * 管理者でログイン済みのセッションを持つリクエストを、DB を使わないルートに対して流します。
+ * <ul>
+ *   <li>{@code (root)}：/admin（ログイン画面へフォワード）</li>
+ *   <li>{@code /metrics}：性能メトリクス（サービス生成・属性設定を含む）</li>
+ *   <li>{@code /no_such_page}：未定義パス（switch を最後まで評価してエラーへリダイレクト）</li>
+ * </ul>
+ * FrontController はリクエストの状態を static フィールドに持つため、1 スレッドで測ります。
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+@State(Scope.Thread)
+public class FrontControllerBenchmark {
+
+	/** /admin 配下のパス（(root) は pathInfo なし） */
+	@Param({ "(root)", "/metrics", "/no_such_page" })
+	public String route;
+
+	private final FrontController controller = new FrontController();
+	private HttpServletRequest req;
+	private HttpServletResponse res;
+
+	@Setup
+	public void setUp() {
+		LoginUser admin = new LoginUser();
+		admin.setAuthority(1);
+		Map<String, Object> sessionAttrs = new HashMap<>();
+		sessionAttrs.put("loginUser", admin);
+		HttpSession session = Fakes.stub(HttpSession.class, Map.of(
+				"getAttribute", a -> sessionAttrs.get((String) a[0])));
+
+		RequestDispatcher dispatcher = Fakes.stub(RequestDispatcher.class, Map.of());
+		String pathInfo = "(root)".equals(route) ? null : route;
+		Map<String, Object> attrs = new HashMap<>();
+		Map<String, Function<Object[], Object>> answers = new HashMap<>();
+		answers.put("getContextPath", a -> "/hidariude");
+		answers.put("getServletPath", a -> "/admin");
+		answers.put("getPathInfo", a -> pathInfo);
+		answers.put("getMethod", a -> "GET");
+		answers.put("getSession", a -> session);
+		answers.put("getRequestDispatcher", a -> dispatcher);
+		answers.put("getAttribute", a -> attrs.get((String) a[0]));
+		answers.put("setAttribute", a -> attrs.put((String) a[0], a[1]));
+		req = Fakes.stub(HttpServletRequest.class, answers);
+
+		res = Fakes.stub(HttpServletResponse.class, Map.of(
+				"encodeRedirectURL", a -> a[0],
+				"getStatus", a -> HttpServletResponse.SC_OK));
+	}
+
+	@Benchmark
+	public HttpServletRequest dispatch() throws Exception {
+		controller.execute(req, res);
+		return req;
+	}
+}
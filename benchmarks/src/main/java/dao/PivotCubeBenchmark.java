@@ -0,0 +1,252 @@
+package dao;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import bench.Fakes;
+import dto.PivotCubeDTO;
+import dto.PivotRowDTO;
+
+/**
+ * 売上・コストサマリー（SalesCostSummaryService）のピボット組み立てのベンチマーク。
+ * <p>
+ * {@link BaseDAO#selectPivotCube} が CUBE 集計の結果行から {@link PivotCubeDTO} を組み立てる処理と、
+ * 画面表示時の円換算（setPivotAttributes と JSP が参照する列合計・行ごとの金額・前年度の行合計）を測ります。
+ * DB の代わりに、CUBE 集計と同じ並び（行ごとのセル→行合計、列合計、総合計）の固定結果を返す接続を使います。
+ * </p>
+ * <p>
+ * {@code map*} は比較用の従来方式（金額を {@code Map<String, BigDecimal>}（年月→円）で保持し、
+ * CUBE 集計も numeric の円で返す）で、同じ処理を測ります。
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PivotCubeBenchmark {
+
+	private static final String[] LABELS = { "id", "label", "ymi", "amt_sen", "g_row", "g_col" };
+
+	/** 従来方式の CUBE 集計の列（金額は numeric の円） */
+	private static final String[] MAP_LABELS = { "id", "label", "ymi", "amt", "g_row", "g_col" };
+
+	private static final String MAP_SQL = "SELECT /* PivotCubeBenchmark map */ ...";
+
+	/** ピボットの行数（顧客数） */
+	@Param({ "50", "500", "10000" })
+	public int customers;
+
+	private final List<String> months = new ArrayList<>();
+	private Connection conn;
+	private Connection mapConn;
+	private PivotCubeDTO built;
+	private MapCube mapBuilt;
+
+	/** 従来方式のピボット 1 行 */
+	static final class MapRow {
+		UUID id;
+		String label;
+		final Map<String, BigDecimal> amountByYm = new LinkedHashMap<>();
+		BigDecimal rowTotal = BigDecimal.ZERO;
+	}
+
+	/** 従来方式のピボット */
+	static final class MapCube {
+		final List<MapRow> rows = new ArrayList<>();
+		final Map<String, BigDecimal> colTotals = new LinkedHashMap<>();
+		BigDecimal grandTotal = BigDecimal.ZERO;
+
+		Map<UUID, BigDecimal> rowTotalsById() {
+			Map<UUID, BigDecimal> m = new HashMap<>();
+			for (MapRow r : rows) {
+				m.put(r.id, r.rowTotal);
+			}
+			return m;
+		}
+	}
+
+	@Setup
+	public void setUp() throws SQLException {
+		YearMonth from = YearMonth.of(2026, 4);
+		for (int i = 0; i < 12; i++) {
+			months.add(from.plusMonths(i).toString());
+		}
+		int fromIdx = BaseDAO.toYmIndex(months.get(0));
+
+		List<Object[]> rows = new ArrayList<>();
+		List<Object[]> mapRows = new ArrayList<>();
+		long[] colTotals = new long[months.size()];
+		long grand = 0;
+		for (int c = 0; c < customers; c++) {
+			UUID id = UUID.randomUUID();
+			String label = String.format("株式会社サンプル%04d", c);
+			long rowTotal = 0;
+			for (int m = 0; m < months.size(); m++) {
+				long amt = 1_000_000L * (1 + (c + m) % 40);
+				rows.add(new Object[] { id, label, fromIdx + m, amt, 0, 0 });
+				mapRows.add(new Object[] { id, label, fromIdx + m, BigDecimal.valueOf(amt, 2), 0, 0 });
+				rowTotal += amt;
+				colTotals[m] += amt;
+			}
+			rows.add(new Object[] { id, label, null, rowTotal, 0, 1 });
+			mapRows.add(new Object[] { id, label, null, BigDecimal.valueOf(rowTotal, 2), 0, 1 });
+			grand += rowTotal;
+		}
+		for (int m = 0; m < months.size(); m++) {
+			rows.add(new Object[] { null, null, fromIdx + m, colTotals[m], 1, 0 });
+			mapRows.add(new Object[] { null, null, fromIdx + m, BigDecimal.valueOf(colTotals[m], 2), 1, 0 });
+		}
+		rows.add(new Object[] { null, null, null, grand, 1, 1 });
+		mapRows.add(new Object[] { null, null, null, BigDecimal.valueOf(grand, 2), 1, 1 });
+
+		conn = Fakes.resultConnection(LABELS, rows);
+		mapConn = Fakes.resultConnection(MAP_LABELS, mapRows);
+		built = new CustomerMonthlyInvoiceDAO(conn).selectSalesCube(months);
+		mapBuilt = buildMapCube();
+	}
+
+	/** 結果行 → PivotCubeDTO（銭単位の配列）まで */
+	@Benchmark
+	public PivotCubeDTO buildCube() {
+		return new CustomerMonthlyInvoiceDAO(conn).selectSalesCube(months);
+	}
+
+	/** 画面表示時の円換算（列合計・総合計・各行の金額と行合計・前年度の行合計マップ） */
+	@Benchmark
+	public void renderValues(Blackhole bh) {
+		bh.consume(built.getColTotals());
+		bh.consume(built.getGrandTotal());
+		for (PivotRowDTO r : built.getRows()) {
+			bh.consume(r.getAmounts());
+			bh.consume(r.getRowTotal());
+		}
+		Map<UUID, BigDecimal> prev = built.rowTotalsById();
+		bh.consume(prev);
+	}
+
+	/** 組み立てから表示値まで（キャッシュに無い年度を表示する 1 回分） */
+	@Benchmark
+	public void buildAndRender(Blackhole bh) {
+		PivotCubeDTO cube = new CustomerMonthlyInvoiceDAO(conn).selectSalesCube(months);
+		bh.consume(cube.getColTotals());
+		for (PivotRowDTO r : cube.getRows()) {
+			bh.consume(r.getAmounts());
+		}
+		bh.consume(cube.rowTotalsById());
+	}
+
+	/** 従来方式：結果行 → Map<String, BigDecimal> のピボットまで */
+	@Benchmark
+	public MapCube mapBuildCube() throws SQLException {
+		return buildMapCube();
+	}
+
+	/** 従来方式：画面表示時の参照（JSP は年月をキーに各セルを引いていた） */
+	@Benchmark
+	public void mapRenderValues(Blackhole bh) {
+		for (String m : months) {
+			bh.consume(mapBuilt.colTotals.get(m));
+		}
+		bh.consume(mapBuilt.grandTotal);
+		for (MapRow r : mapBuilt.rows) {
+			for (String m : months) {
+				bh.consume(r.amountByYm.get(m));
+			}
+			bh.consume(r.rowTotal);
+		}
+		bh.consume(mapBuilt.rowTotalsById());
+	}
+
+	/** 従来方式：組み立てから表示値まで */
+	@Benchmark
+	public void mapBuildAndRender(Blackhole bh) throws SQLException {
+		MapCube cube = buildMapCube();
+		for (String m : months) {
+			bh.consume(cube.colTotals.get(m));
+		}
+		for (MapRow r : cube.rows) {
+			for (String m : months) {
+				bh.consume(r.amountByYm.get(m));
+			}
+		}
+		bh.consume(cube.rowTotalsById());
+	}
+
+	/**
+	 * 従来の BaseDAO#selectPivotCube と同じ組み立て
+	 * （全月を 0 埋めした LinkedHashMap に年月キーで金額を入れ、行 ID ごとの Map で行をまとめる）。
+	 */
+	private MapCube buildMapCube() throws SQLException {
+		final int fromIdx = BaseDAO.toYmIndex(months.get(0));
+		MapCube cube = new MapCube();
+		for (String m : months) {
+			cube.colTotals.put(m, BigDecimal.ZERO);
+		}
+		try (PreparedStatement ps = mapConn.prepareStatement(MAP_SQL)) {
+			Map<UUID, MapRow> rows = new LinkedHashMap<>();
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					boolean rowAll = rs.getInt("g_row") == 1;
+					boolean colAll = rs.getInt("g_col") == 1;
+					UUID id = rs.getObject("id", UUID.class);
+					String label = rs.getString("label");
+					int ymi = rs.getInt("ymi");
+					BigDecimal amt = rs.getBigDecimal("amt");
+					if (amt == null) amt = BigDecimal.ZERO;
+
+					if (rowAll) {
+						if (colAll) {
+							cube.grandTotal = amt;
+						} else {
+							cube.colTotals.put(months.get(ymi - fromIdx), amt);
+						}
+						continue;
+					}
+					MapRow r = rows.get(id);
+					if (r == null) {
+						r = new MapRow();
+						r.id = id;
+						r.label = label;
+						for (String m : months) {
+							r.amountByYm.put(m, BigDecimal.ZERO);
+						}
+						rows.put(id, r);
+					}
+					if (colAll) {
+						r.rowTotal = amt;
+					} else {
+						r.amountByYm.put(months.get(ymi - fromIdx), amt);
+					}
+				}
+			}
+			cube.rows.addAll(rows.values());
+		}
+		return cube;
+	}
+}
@@ -0,0 +1,98 @@
+package service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dto.InvoiceDTO;
+import dto.SecretaryDTO;
+
+/**
+ * 請求書 Excel の生成（{@code InvoiceService#issueInvoiceExcel}）のベンチマーク。
+ * <p>
+ * DB 取得とレスポンス出力を除いた部分（テンプレート読込 → {@link InvoiceService#fillInvoiceSheet} → xlsx 書き出し）を
+ * 1 回分として測ります。テンプレートは本体の {@code WEB-INF/templates/invoice.xlsx} をクラスパスに同梱したものです。
+ * 明細数が既定行数を超えると行の差し込み（shiftRows）が発生するため、両方の件数で測ります。
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InvoiceExcelBenchmark {
+
+	private static final String TEMPLATE = "/templates/invoice.xlsx";
+
+	/** 明細行数（顧客×ランク） */
+	@Param({ "3", "40" })
+	public int lines;
+
+	private byte[] template;
+	private SecretaryDTO sec;
+	private List<InvoiceDTO> invoices;
+	private final LocalDate issueDate = LocalDate.of(2026, 5, 1);
+
+	@Setup
+	public void setUp() throws IOException {
+		try (InputStream in = InvoiceExcelBenchmark.class.getResourceAsStream(TEMPLATE)) {
+			if (in == null) throw new IllegalStateException("テンプレートが見つかりません: " + TEMPLATE);
+			template = in.readAllBytes();
+		}
+
+		sec = new SecretaryDTO();
+		sec.setId(UUID.randomUUID());
+		sec.setName("山田 花子");
+		sec.setPostalCode("1500001");
+		sec.setAddress1("東京都渋谷区神宮前1-2-3");
+		sec.setPhone("090-1234-5678");
+		sec.setBankName("サンプル銀行");
+		sec.setBankBranch("渋谷支店");
+		sec.setBankType("普通");
+		sec.setBankAccount("1234567");
+		sec.setBankOwner("ヤマダ ハナコ");
+
+		invoices = new ArrayList<>(lines);
+		for (int i = 0; i < lines; i++) {
+			InvoiceDTO d = new InvoiceDTO();
+			d.setCustomerCompanyName(String.format("株式会社サンプル%02d", i / 2));
+			d.setTaskRankName((i % 2 == 0) ? "A" : "B");
+			d.setTotalMinute(600 + i * 15);
+			d.setHourlyPay(new BigDecimal((i % 2 == 0) ? "2200" : "1650"));
+			d.setTargetYM("2026-04");
+			invoices.add(d);
+		}
+	}
+
+	@Benchmark
+	public byte[] renderInvoice() throws IOException {
+		try (XSSFWorkbook wb = new XSSFWorkbook(new ByteArrayInputStream(template));
+				ByteArrayOutputStream out = new ByteArrayOutputStream(template.length * 2)) {
+			InvoiceService.fillInvoiceSheet(wb.getSheetAt(0), "2026-04", sec, invoices, issueDate);
+			wb.setForceFormulaRecalculation(true);
+			wb.write(out);
+			return out.toByteArray();
+		}
+	}
+}
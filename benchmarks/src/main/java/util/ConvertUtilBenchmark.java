@@ -0,0 +1,110 @@
+package util;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import domain.Task;
+import dto.AssignmentDTO;
+import dto.SecretaryDTO;
+import dto.TaskDTO;
+
+/**
+ * {@link ConvertUtil} のタスク詰め替え（DTO → Domain）のベンチマーク。
+ * 業務一覧・承認画面で 1 か月分のタスクをまとめて変換する処理に相当します。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConvertUtilBenchmark {
+
+	/** 変換するタスク件数 */
+	@Param({ "100", "2000" })
+	public int size;
+
+	private final ConvertUtil conv = new ConvertUtil();
+	private List<TaskDTO> dtos;
+	private TaskDTO one;
+
+	@Setup
+	public void setUp() {
+		dtos = new ArrayList<>(size);
+		LocalDate base = LocalDate.of(2026, 4, 1);
+		for (int i = 0; i < size; i++) {
+			dtos.add(task(i, base.plusDays(i % 30)));
+		}
+		one = dtos.get(0);
+	}
+
+	@Benchmark
+	public Task toDomain() {
+		return conv.toDomain(one);
+	}
+
+	@Benchmark
+	public List<Task> toTaskDomainList() {
+		return conv.toTaskDomainList(dtos);
+	}
+
+	/** 一覧取得（assignments / customers / secretaries を JOIN）で埋まる項目をそろえたタスク */
+	private static TaskDTO task(int i, LocalDate day) {
+		AssignmentDTO a = new AssignmentDTO();
+		a.setAssignmentId(UUID.randomUUID());
+		a.setAssignmentCustomerId(UUID.randomUUID());
+		a.setAssignmentSecretaryId(UUID.randomUUID());
+		a.setCustomerId(UUID.randomUUID());
+		a.setCustomerCompanyCode("C" + (i % 50));
+		a.setCustomerCompanyName("株式会社サンプル" + (i % 50));
+		a.setTaskRankId(UUID.randomUUID());
+		a.setTaskRankName((i % 2 == 0) ? "A" : "B");
+		a.setTargetYearMonth("2026-04");
+		a.setBasePayCustomer(new BigDecimal("3000"));
+		a.setBasePaySecretary(new BigDecimal("2000"));
+		a.setIncreaseBasePayCustomer(new BigDecimal("200"));
+		a.setIncreaseBasePaySecretary(new BigDecimal("100"));
+		a.setCustomerBasedIncentiveForCustomer(BigDecimal.ZERO);
+		a.setCustomerBasedIncentiveForSecretary(BigDecimal.ZERO);
+		a.setAssignmentStatus("active");
+		a.setSecretaryId(UUID.randomUUID());
+		a.setSecretaryName("秘書" + (i % 20));
+
+		TaskDTO t = new TaskDTO();
+		t.setId(UUID.randomUUID());
+		t.setAssignment(a);
+		t.setWorkDate(Date.valueOf(day));
+		Timestamp start = Timestamp.valueOf(day.atTime(9, 0));
+		t.setStartTime(start);
+		t.setEndTime(new Timestamp(start.getTime() + 90 * 60_000L));
+		t.setWorkMinute(90);
+		t.setWorkContent("資料作成・メール対応 " + i);
+		t.setCreatedAt(start);
+		t.setUpdatedAt(start);
+		if (i % 3 == 0) {
+			t.setApprovedAt(start);
+			SecretaryDTO by = new SecretaryDTO();
+			by.setId(UUID.randomUUID());
+			t.setApprovedBy(by);
+		}
+		return t;
+	}
+}
@@ -0,0 +1,46 @@
+package util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link PasswordUtil}（BCrypt）のベンチマーク。
+ * ログイン 1 回の照合と、登録・リセット時のハッシュ化の所要時間を測ります。
+ * 1 回が数十ミリ秒かかる想定のため、反復回数を少なくしています。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordUtilBenchmark {
+
+	public String password = "Hidariude2026";
+	private String hash;
+
+	@Setup
+	public void setUp() {
+		hash = PasswordUtil.hashPassword(password);
+	}
+
+	@Benchmark
+	public String hashPassword() {
+		return PasswordUtil.hashPassword(password);
+	}
+
+	@Benchmark
+	public boolean verifyPassword() {
+		return PasswordUtil.verifyPassword(password, hash);
+	}
+}
@@ -0,0 +1,49 @@
+package util;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link UuidV7} の採番コストのベンチマーク。
+ * 比較用に {@link UUID#randomUUID()}（v4、SecureRandom）も測ります。
+ * {@code *Contended} は 4 スレッドから同時に採番し、CAS の競合時のコストを見ます。
+ * INSERT 性能・インデックスサイズの比較は {@code bench.UuidKeyComparison}（PostgreSQL が必要）で行います。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UuidV7Benchmark {
+
+	@Benchmark
+	public UUID v7() {
+		return UuidV7.generate();
+	}
+
+	@Benchmark
+	public UUID v4() {
+		return UUID.randomUUID();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public UUID v7Contended() {
+		return UuidV7.generate();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public UUID v4Contended() {
+		return UUID.randomUUID();
+	}
+}
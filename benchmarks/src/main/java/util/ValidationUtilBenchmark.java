@@ -0,0 +1,101 @@
+package util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link ValidationUtil} の形式チェックのベンチマーク。
+ * <p>
+ * 各チェックは {@code String#matches} のため呼び出しごとに正規表現をコンパイルします。
+ * 同じ正規表現を事前コンパイルした {@link Pattern} で判定する {@code *Precompiled} を基準として並べ、
+ * その差（コンパイルの費用）が見えるようにしています。
+ * {@code profileForm*} は秘書のプロフィール登録 1 回分のチェックをまとめたものです。
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationUtilBenchmark {
+
+	/** ValidationUtil と同じ正規表現（基準用） */
+	private static final Pattern EMAIL = Pattern.compile("^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+	private static final Pattern PHONE_DIGITS = Pattern.compile("^\\d{10,11}$");
+	private static final Pattern PHONE_HYPHEN = Pattern.compile("^0\\d{1,4}-\\d{1,4}-\\d{3,4}$");
+	private static final Pattern POSTAL = Pattern.compile("^\\d{7}$");
+	private static final Pattern DIGITS_4 = Pattern.compile("^\\d{4}$");
+	private static final Pattern DIGITS_3 = Pattern.compile("^\\d{3}$");
+	private static final Pattern MONEY = Pattern.compile("^\\d+$");
+
+	public String email = "hanako.yamada+work@example.co.jp";
+	public String phone = "090-1234-5678";
+	public String postal = "1500001";
+	public String bankCode = "0005";
+	public String branchCode = "123";
+	public String money = "2,500";
+
+	@Benchmark
+	public boolean isEmail() {
+		return new ValidationUtil().isEmail(email);
+	}
+
+	@Benchmark
+	public boolean isEmailPrecompiled() {
+		return EMAIL.matcher(email).matches();
+	}
+
+	@Benchmark
+	public boolean isPhoneNumber() {
+		return new ValidationUtil().isPhoneNumber(phone);
+	}
+
+	@Benchmark
+	public boolean isPhoneNumberPrecompiled() {
+		return PHONE_DIGITS.matcher(phone).matches() || PHONE_HYPHEN.matcher(phone).matches();
+	}
+
+	@Benchmark
+	public boolean isFixedDigits() {
+		return new ValidationUtil().isFixedDigits("金融機関コード", bankCode, 4);
+	}
+
+	@Benchmark
+	public boolean isFixedDigitsPrecompiled() {
+		return DIGITS_4.matcher(bankCode).matches();
+	}
+
+	@Benchmark
+	public boolean profileForm() {
+		ValidationUtil v = new ValidationUtil();
+		v.isEmail(email);
+		v.isPhoneNumber(phone);
+		v.isPostalCode(postal);
+		v.isFixedDigits("金融機関コード", bankCode, 4);
+		v.isFixedDigits("支店コード", branchCode, 3);
+		v.mustBeMoneyOrZero("単価", money);
+		return v.hasErrorMsg();
+	}
+
+	@Benchmark
+	public boolean profileFormPrecompiled() {
+		boolean ok = EMAIL.matcher(email).matches();
+		ok &= PHONE_DIGITS.matcher(phone).matches() || PHONE_HYPHEN.matcher(phone).matches();
+		ok &= POSTAL.matcher(postal).matches();
+		ok &= DIGITS_4.matcher(bankCode).matches();
+		ok &= DIGITS_3.matcher(branchCode).matches();
+		ok &= MONEY.matcher(money.trim().replace(",", "")).matches();
+		return !ok;
+	}
+}
@@ -0,0 +1,290 @@
+package dao;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+
+/**
+ * DAO の全 SQL 定数（{@code SQL_} で始まる String 定数）の実行計画を確認するテスト。
+ * <p>
+ * 合成データを投入した PostgreSQL で、各 SQL を {@code PREPARE} してから
+ * {@code EXPLAIN (FORMAT JSON) EXECUTE} し、件数の多いテーブル（{@link #HOT_TABLES}）を
+ * {@link #SEQ_SCAN_ROWS} 行を超える規模で Seq Scan していれば失敗にします。
+ * パラメータには型ごとの代表値（文字列は前月の "YYYY-MM"、日付は前月 1 日など）を渡し、
+ * アプリの実行時と同じくパーティションの刈り込みが効いた実行計画を確認します。
+ * EXPLAIN は SQL を実行しないため、更新系の SQL もデータを変更しません。
+ * </p>
+ * <p>
+ * SQL 断片（{@code AND ...} など）と {@code String.format} のテンプレートは対象外です。
+ * 全件走査が意図どおりの SQL は、理由とともに {@link #ALLOWED_SEQ_SCANS} に登録してください。
+ * テスト用の DB（{@code -Dtest.db.url}）が未指定・接続できない場合はスキップします（{@link TestDatabase}）。
+ * </p>
+ */
+class DaoExplainTest {
+
+	/** Seq Scan を許容しないテーブル（tasks は月別パーティションを含む） */
+	private static final Pattern HOT_TABLES = Pattern
+			.compile("tasks|tasks_p\\d{6}|tasks_default|assignments|customer_monthly_invoices|secretary_monthly_summaries");
+
+	/** これを超える行数（pg_class.reltuples）のテーブルの Seq Scan を失敗にする */
+	private static final long SEQ_SCAN_ROWS = Long.getLong("explain.seqScanRows", 10_000L);
+
+	/**
+	 * 全件走査を許容する SQL（"クラス名.定数名" → 理由）
+	 */
+	private static final Map<String, String> ALLOWED_SEQ_SCANS = Map.of();
+
+	/** 実行計画（JSON）の Seq Scan ノードの対象テーブル */
+	private static final Pattern SEQ_SCAN = Pattern
+			.compile("\"Node Type\": \"Seq Scan\",[^{}]*?\"Relation Name\": \"([^\"]+)\"");
+
+	private static final Pattern STATEMENT = Pattern.compile("^\\s*(SELECT|WITH|INSERT|UPDATE|DELETE)\\b",
+			Pattern.CASE_INSENSITIVE);
+
+	private static final String SQL_PARAMETER_TYPES = "SELECT parameter_types::text[] FROM pg_prepared_statements "
+			+ "WHERE name = 'explain_q'";
+	private static final String SQL_PREPARED_EXISTS = "SELECT EXISTS (SELECT 1 FROM pg_prepared_statements "
+			+ "WHERE name = 'explain_q')";
+	private static final String SQL_RELTUPLES = "SELECT relname, reltuples::bigint FROM pg_class "
+			+ "WHERE relnamespace = 'public'::regnamespace AND relkind IN ('r', 'p')";
+
+	/** SQLSTATE: 文字列が列の長さを超える */
+	private static final String STRING_TOO_LONG = "22001";
+
+	private static Connection conn;
+	private static Map<String, Long> reltuples;
+
+	/** パラメータの代表値に使う年月（合成データの前月） */
+	private static final YearMonth YM = YearMonth.now(ZoneId.of("Asia/Tokyo")).minusMonths(1);
+
+	@BeforeAll
+	static void connect() throws Exception {
+		conn = TestDatabase.connect();
+		reltuples = new HashMap<>();
+		try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery(SQL_RELTUPLES)) {
+			while (rs.next()) {
+				reltuples.put(rs.getString(1), rs.getLong(2));
+			}
+		}
+		try (Statement st = conn.createStatement()) {
+			st.execute("SET plan_cache_mode = force_custom_plan");
+		}
+	}
+
+	@AfterAll
+	static void close() throws SQLException {
+		if (conn != null) {
+			conn.rollback();
+			conn.close();
+		}
+	}
+
+	@TestFactory
+	Stream<DynamicTest> noSeqScanOnHotTables() throws Exception {
+		return sqlConstants().entrySet().stream()
+				.map(e -> DynamicTest.dynamicTest(e.getKey(), () -> check(e.getKey(), e.getValue())));
+	}
+
+	/**
+	 * 1 つの SQL を EXPLAIN して、件数の多いテーブルの Seq Scan が無いことを確認します。
+	 */
+	private static void check(String name, String sql) throws SQLException {
+		assumeFalse(sql.contains("%s") || sql.contains("%1$s"), "String.format のテンプレートは対象外");
+
+		List<String> seqScans = new ArrayList<>();
+		String plan = explain(name, sql);
+		Matcher m = SEQ_SCAN.matcher(plan);
+		while (m.find()) {
+			String table = m.group(1);
+			long rows = reltuples.getOrDefault(table, 0L);
+			if (HOT_TABLES.matcher(table).matches() && rows > SEQ_SCAN_ROWS) {
+				seqScans.add(table + "（" + rows + " 行）");
+			}
+		}
+		if (ALLOWED_SEQ_SCANS.containsKey(name)) {
+			return;
+		}
+		assertTrue(seqScans.isEmpty(), () -> name + " が件数の多いテーブルを Seq Scan しています: " + seqScans
+				+ System.lineSeparator() + plan);
+	}
+
+	/**
+	 * SQL を PREPARE し、パラメータの型に応じた代表値で EXPLAIN した実行計画（JSON）を返します。
+	 * 文字列の代表値が列の長さを超える場合（varchar(4) の銀行コードなど）は、短い値で再試行します。
+	 */
+	private static String explain(String name, String sql) throws SQLException {
+		String numbered = numberParameters(sql);
+		try (Statement st = conn.createStatement()) {
+			st.execute("SAVEPOINT explain_q");
+			try {
+				st.execute("PREPARE explain_q AS " + numbered);
+				String[] types;
+				try (ResultSet rs = st.executeQuery(SQL_PARAMETER_TYPES)) {
+					rs.next();
+					Array a = rs.getArray(1);
+					types = (String[]) a.getArray();
+				}
+				String plan;
+				st.execute("SAVEPOINT explain_execute");
+				try {
+					plan = explainExecute(st, types, YM.toString());
+				} catch (SQLException e) {
+					if (!STRING_TOO_LONG.equals(e.getSQLState())) {
+						throw e;
+					}
+					st.execute("ROLLBACK TO SAVEPOINT explain_execute");
+					plan = explainExecute(st, types, "0");
+				}
+				st.execute("DEALLOCATE explain_q");
+				st.execute("RELEASE SAVEPOINT explain_q");
+				return plan;
+			} catch (SQLException e) {
+				/** PREPARE はトランザクションで取り消されないため、残っていれば解放する */
+				st.execute("ROLLBACK TO SAVEPOINT explain_q");
+				try (ResultSet rs = st.executeQuery(SQL_PREPARED_EXISTS)) {
+					rs.next();
+					if (rs.getBoolean(1)) {
+						st.execute("DEALLOCATE explain_q");
+					}
+				}
+				fail(name + " を EXPLAIN できません: " + e.getMessage() + System.lineSeparator() + sql, e);
+				throw e;
+			}
+		}
+	}
+
+	private static String explainExecute(Statement st, String[] types, String text) throws SQLException {
+		StringBuilder args = new StringBuilder();
+		for (int i = 0; i < types.length; i++) {
+			args.append(i == 0 ? "" : ", ").append(sampleValue(types[i], text));
+		}
+		String execute = types.length == 0 ? "EXECUTE explain_q" : "EXECUTE explain_q(" + args + ")";
+		StringBuilder plan = new StringBuilder();
+		try (ResultSet rs = st.executeQuery("EXPLAIN (FORMAT JSON) " + execute)) {
+			while (rs.next()) {
+				plan.append(rs.getString(1));
+			}
+		}
+		return plan.toString();
+	}
+
+	/**
+	 * パラメータの型ごとの代表値（SQL リテラル）。文字列は年月として使われることが多いため、通常は "YYYY-MM" を渡す。
+	 */
+	private static String sampleValue(String type, String text) {
+		return switch (type) {
+			case "text", "character varying", "character", "unknown" -> "'" + text + "'::" + type;
+			case "date" -> "'" + YM.atDay(1) + "'::date";
+			case "timestamp without time zone", "timestamp with time zone" -> "'" + YM.atDay(1) + " 00:00'::" + type;
+			case "uuid" -> "'00000000-0000-7000-8000-000000000000'::uuid";
+			case "integer", "bigint", "smallint" -> "50";
+			case "numeric" -> "1";
+			case "boolean" -> "false";
+			default -> "NULL::" + type;
+		};
+	}
+
+	/**
+	 * JDBC の {@code ?} を PREPARE 用の {@code $1, $2, ...} に置き換えます（文字列リテラル内は除く）。
+	 */
+	static String numberParameters(String sql) {
+		StringBuilder out = new StringBuilder(sql.length() + 16);
+		boolean quoted = false;
+		int n = 0;
+		for (int i = 0; i < sql.length(); i++) {
+			char c = sql.charAt(i);
+			if (c == '\'') {
+				quoted = !quoted;
+			}
+			if (c == '?' && !quoted) {
+				out.append('$').append(++n);
+			} else {
+				out.append(c);
+			}
+		}
+		return out.toString();
+	}
+
+	/**
+	 * dao パッケージの全クラスから、SQL 文（SELECT / WITH / INSERT / UPDATE / DELETE で始まる）の
+	 * {@code SQL_} 定数を集めます。
+	 *
+	 * @return "クラス名.定数名" → SQL（名前順）
+	 */
+	private static Map<String, String> sqlConstants() throws Exception {
+		Map<String, String> sqls = new TreeMap<>();
+		for (Class<?> cls : daoClasses()) {
+			for (Field f : cls.getDeclaredFields()) {
+				int mod = f.getModifiers();
+				if (!Modifier.isStatic(mod) || !Modifier.isFinal(mod) || f.getType() != String.class
+						|| !f.getName().startsWith("SQL_")) {
+					continue;
+				}
+				f.setAccessible(true);
+				String sql = (String) f.get(null);
+				if (sql != null && STATEMENT.matcher(sql).find()) {
+					sqls.put(cls.getSimpleName() + "." + f.getName(), sql);
+				}
+			}
+		}
+		return sqls;
+	}
+
+	/** dao パッケージのクラス（ディレクトリ・jar のどちらにも対応。入れ子のクラスは除く） */
+	private static List<Class<?>> daoClasses() throws Exception {
+		URL location = BaseDAO.class.getProtectionDomain().getCodeSource().getLocation();
+		File root = new File(location.toURI());
+		List<String> names = new ArrayList<>();
+		if (root.isDirectory()) {
+			String[] files = new File(root, "dao").list();
+			for (String f : files == null ? new String[0] : files) {
+				names.add(f);
+			}
+		} else {
+			try (JarFile jar = new JarFile(root)) {
+				Enumeration<JarEntry> entries = jar.entries();
+				while (entries.hasMoreElements()) {
+					String e = entries.nextElement().getName();
+					if (e.startsWith("dao/") && e.indexOf('/', 4) < 0) {
+						names.add(e.substring(4));
+					}
+				}
+			}
+		}
+		List<Class<?>> classes = new ArrayList<>();
+		for (String f : names) {
+			if (f.endsWith(".class") && !f.contains("$")) {
+				classes.add(Class.forName("dao." + f.substring(0, f.length() - ".class".length())));
+			}
+		}
+		return classes;
+	}
+}
@@ -0,0 +1,175 @@
+package dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+/**
+ * tasks の月単位の検索が、対象月のパーティションだけを走査することを確認するテスト。
+ * <p>
+ * {@link TaskDAO} / {@link InvoiceDAO} の SQL 定数（SELECT / WITH で始まるもの）のうち {@link BaseDAO#AND_TASK_IN_MONTH} を含むものを
+ * {@code EXPLAIN (FORMAT JSON)} し、実行計画に現れる tasks のパーティションが対象月の 1 つだけであることを確認します。
+ * アーカイブ済みの月がある場合の SQL（{@code _ALL}、tasks_all ビューを読む）は、archive スキーマ側に
+ * 対象月のパーティションと archive.tasks_default（刈り込めない DEFAULT パーティション）が現れることを許容します。
+ * パラメータはアプリの実行時と同じく、年月は対象月の "YYYY-MM"、作業日の範囲は月初・翌月初（{@link BaseDAO#setMonthRange}
+ * と同じ順）、整数は対象月の ym_index を渡します。
+ * テスト用の DB（{@code -Dtest.db.url}）が未指定・接続できない場合はスキップします（{@link TestDatabase}）。
+ * </p>
+ */
+class TaskPartitionPruningTest {
+
+	/** 月単位の検索を確認する DAO */
+	private static final Class<?>[] DAOS = { TaskDAO.class, InvoiceDAO.class };
+
+	/** 実行計画（JSON、VERBOSE）に現れる tasks のパーティション（テーブル名・スキーマ） */
+	private static final Pattern PARTITION = Pattern
+			.compile("\"Relation Name\": \"(tasks_p\\d{6}|tasks_default)\",\\s*\"Schema\": \"(\\w+)\"");
+
+	/** 月の条件以外に全月を対象とする部分を含む SQL（"クラス名.定数名" → 理由） */
+	private static final Map<String, String> ALL_MONTHS = Map.of(
+			"TaskDAO.SQL_SELECT_ADMIN_COUNTERS", "アラート件数は全月が対象（alerted_at の部分インデックスで各パーティションを引く）");
+
+	private static final Pattern STATEMENT = Pattern.compile("^\\s*(SELECT|WITH)\\b", Pattern.CASE_INSENSITIVE);
+
+	private static final String SQL_PARAMETER_TYPES = "SELECT parameter_types::text[] FROM pg_prepared_statements "
+			+ "WHERE name = 'pruning_q'";
+
+	/** 対象月（合成データの前月） */
+	private static final YearMonth YM = YearMonth.now(ZoneId.of("Asia/Tokyo")).minusMonths(1);
+
+	private static Connection conn;
+
+	@BeforeAll
+	static void connect() throws Exception {
+		conn = TestDatabase.connect();
+		try (Statement st = conn.createStatement()) {
+			st.execute("SET plan_cache_mode = force_custom_plan");
+		}
+	}
+
+	@AfterAll
+	static void close() throws SQLException {
+		if (conn != null) {
+			conn.rollback();
+			conn.close();
+		}
+	}
+
+	/** 確認対象の SQL が見つかること（定数名の変更でテストが空振りしないように） */
+	@Test
+	void monthQueriesFound() throws Exception {
+		assertFalse(monthQueries().isEmpty(), "AND_TASK_IN_MONTH を含む SQL 定数が見つかりません");
+	}
+
+	@TestFactory
+	Stream<DynamicTest> scansOnlyTargetMonthPartition() throws Exception {
+		return monthQueries().entrySet().stream()
+				.map(e -> DynamicTest.dynamicTest(e.getKey(), () -> {
+					assumeFalse(ALL_MONTHS.containsKey(e.getKey()), () -> ALL_MONTHS.get(e.getKey()));
+					String plan = explain(e.getValue());
+					String target = String.format("tasks_p%04d%02d", YM.getYear(), YM.getMonthValue());
+					Set<String> partitions = new TreeSet<>();
+					Set<String> archived = new TreeSet<>();
+					Matcher m = PARTITION.matcher(plan);
+					while (m.find()) {
+						("archive".equals(m.group(2)) ? archived : partitions).add(m.group(1));
+					}
+					archived.removeAll(Set.of(target, "tasks_default"));
+					assertEquals(Set.of(), archived,
+							() -> e.getKey() + " が対象月以外のアーカイブのパーティションを走査しています" + System.lineSeparator() + plan);
+					assertEquals(Set.of(target), partitions,
+							() -> e.getKey() + " が対象月以外の tasks パーティションを走査しています" + System.lineSeparator() + plan);
+				}));
+	}
+
+	/**
+	 * SQL を PREPARE し、対象月の値で EXPLAIN した実行計画（JSON）を返します。
+	 */
+	private static String explain(String sql) throws SQLException {
+		try (Statement st = conn.createStatement()) {
+			st.execute("SAVEPOINT pruning_q");
+			st.execute("PREPARE pruning_q AS " + DaoExplainTest.numberParameters(sql));
+			try {
+				String[] types;
+				try (ResultSet rs = st.executeQuery(SQL_PARAMETER_TYPES)) {
+					rs.next();
+					Array a = rs.getArray(1);
+					types = (String[]) a.getArray();
+				}
+				StringBuilder args = new StringBuilder();
+				int dates = 0;
+				for (int i = 0; i < types.length; i++) {
+					args.append(i == 0 ? "" : ", ");
+					switch (types[i]) {
+						case "text", "character varying", "character" -> args.append("'").append(YM).append("'");
+						case "date" -> args.append("'").append(YM.plusMonths(dates++ % 2).atDay(1)).append("'::date");
+						case "integer", "bigint", "smallint" -> args.append(BaseDAO.toYmIndex(YM.toString()));
+						case "uuid" -> args.append("'00000000-0000-7000-8000-000000000000'::uuid");
+						default -> args.append("NULL::").append(types[i]);
+					}
+				}
+				String execute = types.length == 0 ? "EXECUTE pruning_q" : "EXECUTE pruning_q(" + args + ")";
+				StringBuilder plan = new StringBuilder();
+				try (ResultSet rs = st.executeQuery("EXPLAIN (FORMAT JSON, VERBOSE) " + execute)) {
+					while (rs.next()) {
+						plan.append(rs.getString(1));
+					}
+				}
+				st.execute("RELEASE SAVEPOINT pruning_q");
+				return plan.toString();
+			} catch (SQLException e) {
+				st.execute("ROLLBACK TO SAVEPOINT pruning_q");
+				throw e;
+			} finally {
+				/** PREPARE はトランザクションで取り消されないため、失敗時も解放する */
+				st.execute("DEALLOCATE pruning_q");
+			}
+		}
+	}
+
+	/**
+	 * {@link #DAOS} の {@code SQL_} 定数のうち、{@link BaseDAO#AND_TASK_IN_MONTH} を含むもの。
+	 *
+	 * @return "クラス名.定数名" → SQL（名前順）
+	 */
+	private static Map<String, String> monthQueries() throws Exception {
+		Map<String, String> sqls = new TreeMap<>();
+		for (Class<?> cls : DAOS) {
+			for (Field f : cls.getDeclaredFields()) {
+				int mod = f.getModifiers();
+				if (!Modifier.isStatic(mod) || f.getType() != String.class || !f.getName().startsWith("SQL_")) {
+					continue;
+				}
+				f.setAccessible(true);
+				String sql = (String) f.get(null);
+				if (sql != null && sql.contains(BaseDAO.AND_TASK_IN_MONTH) && STATEMENT.matcher(sql).find()) {
+					sqls.put(cls.getSimpleName() + "." + f.getName(), sql);
+				}
+			}
+		}
+		return sqls;
+	}
+}
@@ -0,0 +1,90 @@
+package dao;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import bench.SyntheticData;
+
+/**
+ * DB を使うテストの接続と合成データの準備。
+ * <p>
+ * 接続先はシステムプロパティ {@code test.db.url} / {@code test.db.user} / {@code test.db.password} で指定します。
+ * 合成データを書き込むため、{@code test.db.url} にはアプリが使う DB ではなくテスト専用の DB を指定してください
+ * （既定値は持たず、未指定ならテストをスキップします）。
+ * DB に接続できない場合やスキーマが無い場合も、テストを失敗ではなくスキップにします。
+ * 合成データ（{@link SyntheticData} が生成する {@code GEN-} の秘書）が無ければ、小さめの規模で投入してから使います
+ * （スキーマはテスト用の DB に対してマイグレーションを適用して作成しておくこと）。
+ * </p>
+ */
+final class TestDatabase {
+
+	/** 接続先（未指定ならテストをスキップ） */
+	static final String URL = System.getProperty("test.db.url");
+	static final String USER = System.getProperty("test.db.user", "postgres");
+	static final String PASSWORD = System.getProperty("test.db.password", "password");
+
+	/** 合成データの規模（tasks の各月パーティションが数万行になる程度） */
+	private static final String[] SEED_ARGS = { "--secretaries=150", "--customers=100", "--months=12",
+			"--tasks=600000" };
+
+	private static final String SQL_SCHEMA_READY = "SELECT to_regclass('month_closings') IS NOT NULL";
+	private static final String SQL_EXISTS_GENERATED = "SELECT EXISTS (SELECT 1 FROM secretaries WHERE secretary_code LIKE 'GEN-%')";
+
+	private static boolean seeded;
+
+	private TestDatabase() {
+	}
+
+	/**
+	 * 合成データを投入済みの DB に接続します（自動コミットは無効）。
+	 * 接続できない場合・スキーマが無い場合は、呼び出し元のテストをスキップします。
+	 *
+	 * @return 接続
+	 * @throws Exception 合成データの投入に失敗した場合
+	 */
+	static synchronized Connection connect() throws Exception {
+		assumeTrue(URL != null && !URL.isBlank(),
+				"テスト用の DB が指定されていないためスキップします（-Dtest.db.url=jdbc:postgresql://.../hidariude_test を指定）");
+		Connection conn;
+		try {
+			conn = DriverManager.getConnection(URL, USER, PASSWORD);
+		} catch (SQLException e) {
+			assumeTrue(false, "DB に接続できないためスキップします（" + URL + "）: " + e.getMessage());
+			throw e;
+		}
+		try (Statement st = conn.createStatement()) {
+			boolean ready;
+			try (ResultSet rs = st.executeQuery(SQL_SCHEMA_READY)) {
+				rs.next();
+				ready = rs.getBoolean(1);
+			}
+			if (!ready) {
+				conn.close();
+			}
+			assumeTrue(ready, "スキーマが無いためスキップします（テスト用の DB にマイグレーションを適用してください）");
+			if (!seeded) {
+				boolean exists;
+				try (ResultSet rs = st.executeQuery(SQL_EXISTS_GENERATED)) {
+					rs.next();
+					exists = rs.getBoolean(1);
+				}
+				if (!exists) {
+					String[] args = new String[SEED_ARGS.length + 3];
+					System.arraycopy(SEED_ARGS, 0, args, 0, SEED_ARGS.length);
+					args[SEED_ARGS.length] = "--url=" + URL;
+					args[SEED_ARGS.length + 1] = "--user=" + USER;
+					args[SEED_ARGS.length + 2] = "--password=" + PASSWORD;
+					SyntheticData.main(args);
+				}
+				seeded = true;
+			}
+		}
+		conn.setAutoCommit(false);
+		return conn;
+	}
+}
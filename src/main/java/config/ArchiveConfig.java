@@ -0,0 +1,30 @@
+package config;
+
+/**
+ * 締め済み月のアーカイブ（archive スキーマへの退避）の設定を管理するクラス。
+ * 設定値は {@link MailConfig} と同じく .envファイルまたは環境変数から取得します。
+ *
+ * <pre>
+ * ARCHIVE_HORIZON_MONTHS=24   # 当月から何か月より前の締め済み月をアーカイブするか（未設定は 24、最小 3）
+ * </pre>
+ */
+public class ArchiveConfig {
+
+    /** 既定の保持月数 */
+    private static final int DEFAULT_HORIZON_MONTHS = 24;
+    /** 保持月数の下限（直近の締め・請求確認に使う月を退避しないため） */
+    private static final int MIN_HORIZON_MONTHS = 3;
+
+    /** 稼働テーブルに残す月数 */
+    public static int getHorizonMonths() {
+        String v = MailConfig.getEnvValue("ARCHIVE_HORIZON_MONTHS");
+        if (v == null || v.isEmpty()) {
+            return DEFAULT_HORIZON_MONTHS;
+        }
+        try {
+            return Math.max(MIN_HORIZON_MONTHS, Integer.parseInt(v.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("ARCHIVE_HORIZON_MONTHS の値が不正です: " + v, e);
+        }
+    }
+}
@@ -101,11 +101,12 @@ public class MailConfig {
 
     /**
      * 環境変数または.envファイルから値を取得する
+     * （同パッケージの他の設定クラスからも利用）
      * 
      * @param key 環境変数のキー
      * @return 環境変数の値
      */
-    private static String getEnvValue(String key) {
+    static String getEnvValue(String key) {
         /** 1. システム環境変数から取得を試みる */
         String value = System.getenv(key);
         if (value != null && !value.isEmpty()) {
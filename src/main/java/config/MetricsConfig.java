@@ -0,0 +1,83 @@
+package config;
+
+/**
+ * 性能メトリクス（リクエスト単位の計測・Prometheus 出力・スロークエリ記録）の設定を管理するクラス。
+ * 設定値は {@link MailConfig} と同じく .envファイルまたは環境変数から取得します。
+ *
+ * <pre>
+ * METRICS_TOKEN=xxxxxxxx           # Prometheus 形式（/metrics）の取得に必要なトークン（未設定なら /metrics は無効）
+ * METRICS_N_PLUS_ONE_REPEAT=10     # 1 リクエストで同一SQLをこの回数以上実行したら N+1 の疑いとする（未設定は 10、最小 2）
+ * SLOW_QUERY_MILLIS=500            # この時間（実行＋行取得）以上かかったSQLをスロークエリとして記録（未設定は 500、0 で無効）
+ * SLOW_QUERY_EXPLAIN_RATE=0.1      # スロークエリのうち EXPLAIN ANALYZE を取得する割合（0〜1、未設定は 0.1）
+ * SLOW_QUERY_BUFFER=200            # 保持するスロークエリの件数（未設定は 200、最小 10）
+ * </pre>
+ */
+public class MetricsConfig {
+
+    /** N+1 判定の既定の同一SQL実行回数 */
+    private static final int DEFAULT_N_PLUS_ONE_REPEAT = 10;
+    /** N+1 判定の下限 */
+    private static final int MIN_N_PLUS_ONE_REPEAT = 2;
+    /** スロークエリの既定のしきい値（ミリ秒） */
+    private static final int DEFAULT_SLOW_QUERY_MILLIS = 500;
+    /** EXPLAIN ANALYZE を取得する既定の割合 */
+    private static final double DEFAULT_EXPLAIN_RATE = 0.1;
+    /** スロークエリの既定の保持件数 */
+    private static final int DEFAULT_SLOW_QUERY_BUFFER = 200;
+    /** スロークエリの保持件数の下限 */
+    private static final int MIN_SLOW_QUERY_BUFFER = 10;
+
+    /** Prometheus 取得用トークン（未設定は null） */
+    public static String getScrapeToken() {
+        String v = MailConfig.getEnvValue("METRICS_TOKEN");
+        return (v == null || v.isBlank()) ? null : v.trim();
+    }
+
+    /** N+1 の疑いとする同一SQLの実行回数 */
+    public static int getNPlusOneRepeat() {
+        String v = MailConfig.getEnvValue("METRICS_N_PLUS_ONE_REPEAT");
+        if (v == null || v.isEmpty()) {
+            return DEFAULT_N_PLUS_ONE_REPEAT;
+        }
+        try {
+            return Math.max(MIN_N_PLUS_ONE_REPEAT, Integer.parseInt(v.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("METRICS_N_PLUS_ONE_REPEAT の値が不正です: " + v, e);
+        }
+    }
+
+    /** スロークエリのしきい値（ミリ秒。0 は記録しない） */
+    public static int getSlowQueryMillis() {
+        return Math.max(0, intValue("SLOW_QUERY_MILLIS", DEFAULT_SLOW_QUERY_MILLIS));
+    }
+
+    /** スロークエリのうち EXPLAIN ANALYZE を取得する割合（0〜1） */
+    public static double getExplainRate() {
+        String v = MailConfig.getEnvValue("SLOW_QUERY_EXPLAIN_RATE");
+        if (v == null || v.isEmpty()) {
+            return DEFAULT_EXPLAIN_RATE;
+        }
+        try {
+            return Math.min(1.0, Math.max(0.0, Double.parseDouble(v.trim())));
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("SLOW_QUERY_EXPLAIN_RATE の値が不正です: " + v, e);
+        }
+    }
+
+    /** 保持するスロークエリの件数 */
+    public static int getSlowQueryBuffer() {
+        return Math.max(MIN_SLOW_QUERY_BUFFER, intValue("SLOW_QUERY_BUFFER", DEFAULT_SLOW_QUERY_BUFFER));
+    }
+
+    private static int intValue(String key, int defaultValue) {
+        String v = MailConfig.getEnvValue(key);
+        if (v == null || v.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(v.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException(key + " の値が不正です: " + v, e);
+        }
+    }
+}
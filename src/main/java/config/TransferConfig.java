@@ -0,0 +1,76 @@
+package config;
+
+/**
+ * 全銀フォーマット振込データ（総合振込）の振込依頼人情報を管理するクラス。
+ * 設定値は {@link MailConfig} と同じく .envファイルまたは環境変数から取得します。
+ *
+ * <pre>
+ * ZENGIN_REQUESTER_CODE=0000012345      # 委託者コード（銀行から付与、10桁以内）
+ * ZENGIN_REQUESTER_NAME=ｶ)ｼﾞﾌﾞﾝﾉｰﾄ        # 委託者名（カナ）
+ * ZENGIN_BANK_CODE=0001                 # 仕向銀行番号（4桁）
+ * ZENGIN_BANK_NAME=ﾐｽﾞﾎ                  # 仕向銀行名（カナ、任意）
+ * ZENGIN_BRANCH_CODE=123                # 仕向支店番号（3桁）
+ * ZENGIN_BRANCH_NAME=ｼﾝｼﾞｭｸ              # 仕向支店名（カナ、任意）
+ * ZENGIN_ACCOUNT_TYPE=普通               # 預金種目（普通／当座）
+ * ZENGIN_ACCOUNT_NUMBER=1234567         # 口座番号（7桁以内）
+ * </pre>
+ */
+public class TransferConfig {
+
+    /** 委託者コード */
+    public static String getRequesterCode() {
+        return required("ZENGIN_REQUESTER_CODE");
+    }
+
+    /** 委託者名（カナ） */
+    public static String getRequesterName() {
+        return required("ZENGIN_REQUESTER_NAME");
+    }
+
+    /** 仕向銀行番号 */
+    public static String getBankCode() {
+        return required("ZENGIN_BANK_CODE");
+    }
+
+    /** 仕向銀行名（カナ、未設定は空） */
+    public static String getBankName() {
+        return optional("ZENGIN_BANK_NAME");
+    }
+
+    /** 仕向支店番号 */
+    public static String getBranchCode() {
+        return required("ZENGIN_BRANCH_CODE");
+    }
+
+    /** 仕向支店名（カナ、未設定は空） */
+    public static String getBranchName() {
+        return optional("ZENGIN_BRANCH_NAME");
+    }
+
+    /** 預金種目（普通／当座、未設定は普通） */
+    public static String getAccountType() {
+        String v = optional("ZENGIN_ACCOUNT_TYPE");
+        return v.isEmpty() ? "普通" : v;
+    }
+
+    /** 口座番号 */
+    public static String getAccountNumber() {
+        return required("ZENGIN_ACCOUNT_NUMBER");
+    }
+
+    private static String required(String key) {
+        String v = MailConfig.getEnvValue(key);
+        if (v == null || v.isEmpty()) {
+            throw new IllegalStateException(
+                key + " 環境変数が設定されていません。" +
+                ".envファイルまたは環境変数に振込依頼人情報を設定してください。"
+            );
+        }
+        return v;
+    }
+
+    private static String optional(String key) {
+        String v = MailConfig.getEnvValue(key);
+        return v == null ? "" : v;
+    }
+}
@@ -0,0 +1,251 @@
+package controller;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import dao.DbNotifications;
+import dao.TaskDAO;
+import dao.TransactionManager;
+import dto.TaskDTO;
+import jakarta.servlet.AsyncContext;
+
+/**
+ * 管理者画面へのサーバープッシュ（Server-Sent Events）の配信元。
+ * <p>
+ * タスクの状態変化（{@link DbNotifications#CH_TASK_EVENTS}。自ノードはコミット後、他ノードは LISTEN/NOTIFY 経由）を受けて、
+ * 接続中の管理者ブラウザへ次のイベントを送ります。
+ * </p>
+ * <ul>
+ *   <li>{@code counters} … アラート件数・当月／前月の未承認件数（短時間の連続変更はまとめて 1 回）</li>
+ *   <li>{@code alert} … 新着アラートの概要（会社名・秘書名・作業日・コメント）</li>
+ * </ul>
+ * <p>
+ * カウンタは次の変更通知まで保持し、ナビバーのアラート件数（{@link filter.AlertCountFilter}）もこれを参照します。
+ * </p>
+ */
+public final class AdminEventHub {
+
+	private static final ZoneId Z_TOKYO = ZoneId.of("Asia/Tokyo");
+	private static final DateTimeFormatter YM_FMT = DateTimeFormatter.ofPattern("yyyy-MM");
+
+	/** 接続維持のコメント送信間隔（秒。プロキシの読み取りタイムアウトより短く） */
+	private static final long HEARTBEAT_SECONDS = 25;
+	/** 変更通知をまとめる待ち時間（ミリ秒） */
+	private static final long COALESCE_MILLIS = 300;
+	/** カウンタ保持の上限（ミリ秒。通知を経由しない更新への保険） */
+	private static final long COUNTERS_TTL_MILLIS = 5 * 60_000L;
+
+	/** 接続中のクライアント */
+	private static final List<AsyncContext> clients = new CopyOnWriteArrayList<>();
+	/** 変更通知ごとに進める版数（集計中に変更があった結果を保持しないため） */
+	private static final AtomicLong version = new AtomicLong();
+	/** カウンタ再送の予約済みフラグ */
+	private static final AtomicBoolean refreshPending = new AtomicBoolean();
+
+	/** 保持中のカウンタ */
+	private record Snapshot(String yearMonth, TaskDAO.AdminCounters counters, long computedAt) {
+	}
+
+	private static volatile Snapshot cached;
+	private static ScheduledExecutorService scheduler;
+
+	private AdminEventHub() {
+	}
+
+	/**
+	 * 配信を開始します（変更通知の購読と接続維持タイマー）。
+	 */
+	static synchronized void start() {
+		if (scheduler != null) return;
+		scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "admin-events");
+			t.setDaemon(true);
+			return t;
+		});
+		scheduler.scheduleAtFixedRate(AdminEventHub::heartbeat, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+		DbNotifications.subscribe(DbNotifications.CH_TASK_EVENTS, AdminEventHub::onTaskEvent);
+	}
+
+	/**
+	 * 配信を停止し、接続中のクライアントを閉じます。
+	 */
+	static synchronized void stop() {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+			scheduler = null;
+		}
+		for (AsyncContext ctx : clients) {
+			unregister(ctx);
+			try {
+				ctx.complete();
+			} catch (IllegalStateException e) {
+				/** 既に完了済み */
+			}
+		}
+	}
+
+	/**
+	 * クライアントを登録し、現在のカウンタを送ります。
+	 *
+	 * @param ctx 非同期コンテキスト
+	 */
+	static void register(AsyncContext ctx) {
+		clients.add(ctx);
+		ScheduledExecutorService s = scheduler;
+		if (s != null) {
+			s.execute(() -> send(ctx, "counters", toJson(currentCounters())));
+		}
+	}
+
+	/**
+	 * クライアントの登録を解除します。
+	 *
+	 * @param ctx 非同期コンテキスト
+	 */
+	static void unregister(AsyncContext ctx) {
+		clients.remove(ctx);
+	}
+
+	/**
+	 * 現在のアラート件数（ナビバー表示用）。
+	 *
+	 * @return アラート件数
+	 */
+	public static int alertCount() {
+		return currentCounters().alertCount();
+	}
+
+	/**
+	 * 保持中のカウンタを返します（無効・期限切れ・月替わりなら取得し直す）。
+	 */
+	private static TaskDAO.AdminCounters currentCounters() {
+		LocalDate today = LocalDate.now(Z_TOKYO);
+		String ym = today.format(YM_FMT);
+		long now = System.currentTimeMillis();
+		Snapshot c = cached;
+		if (c != null && c.yearMonth().equals(ym) && now - c.computedAt() < COUNTERS_TTL_MILLIS) {
+			return c.counters();
+		}
+		long v = version.get();
+		TaskDAO.AdminCounters counters;
+		try (TransactionManager tm = new TransactionManager()) {
+			counters = new TaskDAO(tm.getConnection()).selectAdminCounters(ym, today.minusMonths(1).format(YM_FMT));
+		}
+		if (version.get() == v) {
+			cached = new Snapshot(ym, counters, now);
+		}
+		return counters;
+	}
+
+	/**
+	 * タスクの状態変化を受け取ります（payload は "種別:タスクID"。取りこぼしの可能性があれば null）。
+	 */
+	private static void onTaskEvent(String payload) {
+		version.incrementAndGet();
+		cached = null;
+		ScheduledExecutorService s = scheduler;
+		if (s == null || clients.isEmpty()) return;
+
+		if (payload != null && payload.startsWith(TaskDAO.Event.ALERT + ":")) {
+			UUID taskId = UUID.fromString(payload.substring(payload.indexOf(':') + 1));
+			s.execute(() -> sendAlert(taskId));
+		}
+		if (refreshPending.compareAndSet(false, true)) {
+			s.schedule(() -> {
+				refreshPending.set(false);
+				if (!clients.isEmpty()) broadcast("counters", toJson(currentCounters()));
+			}, COALESCE_MILLIS, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * 新着アラートの概要を送ります。
+	 */
+	private static void sendAlert(UUID taskId) {
+		TaskDTO t;
+		try (TransactionManager tm = new TransactionManager()) {
+			t = new TaskDAO(tm.getConnection()).selectAlertById(taskId);
+		}
+		if (t == null) return;
+		String data = "{\"taskId\":" + quote(String.valueOf(t.getId()))
+				+ ",\"companyName\":" + quote(t.getAssignment().getCustomerCompanyName())
+				+ ",\"secretaryName\":" + quote(t.getAssignment().getSecretaryName())
+				+ ",\"workDate\":" + quote(String.valueOf(t.getWorkDate()))
+				+ ",\"comment\":" + quote(t.getAlertComment()) + "}";
+		broadcast("alert", data);
+	}
+
+	private static void heartbeat() {
+		for (AsyncContext ctx : clients) {
+			write(ctx, ":\n\n");
+		}
+	}
+
+	private static void broadcast(String event, String data) {
+		for (AsyncContext ctx : clients) {
+			send(ctx, event, data);
+		}
+	}
+
+	private static void send(AsyncContext ctx, String event, String data) {
+		write(ctx, "event: " + event + "\ndata: " + data + "\n\n");
+	}
+
+	/**
+	 * 1 クライアントへ書き込みます。切断を検知したら登録を解除します。
+	 */
+	private static void write(AsyncContext ctx, String chunk) {
+		synchronized (ctx) {
+			try {
+				PrintWriter w = ctx.getResponse().getWriter();
+				w.write(chunk);
+				w.flush();
+				if (w.checkError()) {
+					unregister(ctx);
+				}
+			} catch (IOException | IllegalStateException e) {
+				unregister(ctx);
+			}
+		}
+	}
+
+	private static String toJson(TaskDAO.AdminCounters c) {
+		return "{\"alertCount\":" + c.alertCount()
+				+ ",\"unapproved\":" + c.unapproved()
+				+ ",\"prevUnapproved\":" + c.prevUnapproved() + "}";
+	}
+
+	/**
+	 * JSON 文字列リテラルに変換します（null は null）。
+	 */
+	private static String quote(String s) {
+		if (s == null) return "null";
+		StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+		for (int i = 0; i < s.length(); i++) {
+			char ch = s.charAt(i);
+			switch (ch) {
+			case '"' -> sb.append("\\\"");
+			case '\\' -> sb.append("\\\\");
+			case '\n' -> sb.append("\\n");
+			case '\r' -> sb.append("\\r");
+			case '\t' -> sb.append("\\t");
+			default -> {
+				if (ch < 0x20) sb.append(String.format("\\u%04x", (int) ch));
+				else sb.append(ch);
+			}
+			}
+		}
+		return sb.append('"').toString();
+	}
+}
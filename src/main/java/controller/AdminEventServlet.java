@@ -0,0 +1,90 @@
+package controller;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+
+import domain.LoginUser;
+
+/**
+ * 管理者画面向けのイベントストリーム（Server-Sent Events）を返すServlet。
+ * 接続を非同期で保持し、配信は {@link AdminEventHub} が行います。
+ * "/admin/*" より優先される完全一致のマッピングのため、FrontController を経由しません。
+ */
+@WebServlet(urlPatterns = "/admin/events", asyncSupported = true, loadOnStartup = 2)
+public class AdminEventServlet extends HttpServlet {
+	private static final long serialVersionUID = 1L;
+
+	/** 1 接続の最大保持時間（ミリ秒。切断後はブラウザが自動で再接続し、ログイン状態も再確認される） */
+	private static final long TIMEOUT_MILLIS = 10 * 60_000L;
+	/** ブラウザの再接続待ち（ミリ秒） */
+	private static final int RETRY_MILLIS = 5_000;
+
+	@Override
+	public void init() throws ServletException {
+		AdminEventHub.start();
+	}
+
+	@Override
+	public void destroy() {
+		AdminEventHub.stop();
+	}
+
+	/**
+	 * GETメソッド
+	 * 管理者としてログインしていればイベントストリームを開始します（未ログインは 403）。
+	 */
+	@Override
+	protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+		HttpSession session = req.getSession(false);
+		if (session == null || !(session.getAttribute("loginUser") instanceof LoginUser lu)
+				|| lu.getSystemAdmin() == null) {
+			resp.sendError(HttpServletResponse.SC_FORBIDDEN);
+			return;
+		}
+
+		resp.setContentType("text/event-stream");
+		resp.setCharacterEncoding("UTF-8");
+		resp.setHeader("Cache-Control", "no-cache");
+		/** nginx のレスポンスバッファリングを無効化 */
+		resp.setHeader("X-Accel-Buffering", "no");
+		PrintWriter w = resp.getWriter();
+		w.write("retry: " + RETRY_MILLIS + "\n\n");
+		w.flush();
+
+		AsyncContext ctx = req.startAsync();
+		ctx.setTimeout(TIMEOUT_MILLIS);
+		ctx.addListener(new AsyncListener() {
+			@Override
+			public void onComplete(AsyncEvent event) {
+				AdminEventHub.unregister(ctx);
+			}
+
+			@Override
+			public void onTimeout(AsyncEvent event) {
+				AdminEventHub.unregister(ctx);
+				ctx.complete();
+			}
+
+			@Override
+			public void onError(AsyncEvent event) {
+				AdminEventHub.unregister(ctx);
+			}
+
+			@Override
+			public void onStartAsync(AsyncEvent event) {
+				/** 何もしない */
+			}
+		});
+		AdminEventHub.register(ctx);
+	}
+}
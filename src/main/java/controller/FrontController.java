@@ -16,6 +16,7 @@ import service.CommonService;
 import service.ContactService;
 import service.CustomerService;
 import service.InvoiceService;
+import service.MetricsService;
 import service.PasswordResetService;
 import service.ProfileService;
 import service.SalesCostSummaryService;
@@ -543,6 +544,10 @@ public class FrontController extends HttpServlet {
 			case "/task/list_all"->{
 				nextPath = new TaskService(req, true).adminTaskListAll();
 			}
+			case "/task/export"->{
+				new TaskService(req, true).adminTaskExport(res);
+				return;
+			}
 			case "/task/list_unapproved"->{
 				nextPath = new TaskService(req, true).adminTaskListUnapproved();
 			}
@@ -578,6 +583,14 @@ public class FrontController extends HttpServlet {
 			case "/summary/sales"->{
 				nextPath = new SalesCostSummaryService(req, true).salesSummary();
 			}
+			case "/summary/costs/export"->{
+				new SalesCostSummaryService(req, true).exportCostsCsv(res);
+				return;
+			}
+			case "/summary/sales/export"->{
+				new SalesCostSummaryService(req, true).exportSalesCsv(res);
+				return;
+			}
 			
 			/**
 			 * A07 請求業務
@@ -589,6 +602,16 @@ public class FrontController extends HttpServlet {
 			case "/invoice/costs"->{
 				nextPath = new InvoiceService(req, true).secretaryInvoiceSummary();
 			}
+			case "/invoice/costs/transfer"->{
+				new InvoiceService(req, true).issueZenginTransfer(res);
+				return;
+			}
+			case "/invoice/close"->{
+				nextPath = new InvoiceService(req, true).adminMonthClose();
+			}
+			case "/invoice/archive"->{
+				nextPath = new InvoiceService(req, true).adminArchive();
+			}
 			
 			/**
 			 * A08 マスタ管理業務
@@ -597,6 +620,17 @@ public class FrontController extends HttpServlet {
 			case "/master"->{
 				nextPath = new CommonService(req, true).adminMasterList();
 			}
+			
+			/**
+			 * A09 性能メトリクス
+			 * 
+			 */
+			case "/metrics"->{
+				nextPath = new MetricsService(req, false).adminMetrics();
+			}
+			case "/metrics/slow"->{
+				nextPath = new MetricsService(req, false).adminSlowQueries();
+			}
 
 			
 			/**
@@ -0,0 +1,53 @@
+package controller;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import config.MetricsConfig;
+import filter.RouteMetrics;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * 性能メトリクスを Prometheus のテキスト形式で返すServlet。
+ * 収集側（Prometheus）はログインできないため、METRICS_TOKEN（{@link MetricsConfig#getScrapeToken()}）を
+ * {@code Authorization: Bearer <token>} で送ったリクエストにのみ応答します（未設定なら 404）。
+ * 管理者向けの画面表示は FrontController の /admin/metrics で行います。
+ */
+@WebServlet(urlPatterns = "/metrics")
+public class MetricsServlet extends HttpServlet {
+	private static final long serialVersionUID = 1L;
+
+	private static final String BEARER = "Bearer ";
+
+	/**
+	 * GETメソッド
+	 * トークンを確認し、Prometheus 形式でメトリクスを出力します。
+	 */
+	@Override
+	protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+		String token = MetricsConfig.getScrapeToken();
+		if (token == null) {
+			resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+		String auth = req.getHeader("Authorization");
+		if (auth == null || !auth.startsWith(BEARER) || !MessageDigest.isEqual(
+				token.getBytes(StandardCharsets.UTF_8), auth.substring(BEARER.length()).trim().getBytes(StandardCharsets.UTF_8))) {
+			resp.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+			return;
+		}
+
+		resp.setContentType("text/plain; version=0.0.4");
+		resp.setCharacterEncoding("UTF-8");
+		resp.setHeader("Cache-Control", "no-cache");
+		PrintWriter w = resp.getWriter();
+		RouteMetrics.writePrometheus(w);
+		w.flush();
+	}
+}
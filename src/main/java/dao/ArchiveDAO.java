@@ -0,0 +1,321 @@
+package dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 締め済みの古い月のタスク・アサインを archive スキーマへ退避する DAO。
+ *
+ * 1 か月分のアーカイブは 1 トランザクションで次を行います（呼出し側で月ごとにトランザクションを分ける）。
+ * 1. month_closings の行をロックし、締め済み・未アーカイブであることを確認（{@link #lockClosing}）
+ * 2. 当月のアサインに属する論理削除済みのタスクのうち、作業日が別の月のもの（月のパーティションの外にある行）を
+ *    archive.tasks へ移動（稼働中の月なら archive.tasks_default に入る）
+ * 3. tasks の月パーティション（tasks_pYYYYMM）を DETACH → 外部キー削除 → archive スキーマへ移動
+ *    → archive.tasks_default にある当月分を移し替え → archive.tasks に ATTACH（パーティション本体の行のコピーは発生しない）
+ * 4. assignments の当月行を archive.assignments へ移動
+ * 5. month_closings.archived_at を記録
+ *
+ * 作業日がアサイン月と異なる未削除のタスクがある月は、パーティションとアサインの移動先が食い違うため対象外です
+ * （{@link #countMonthMismatch} で事前に確認する。通常はトリガー trg_tasks_work_month により発生しない）。
+ * アーカイブ後のタスクは tasks_all ビュー（{@link BaseDAO#withArchive} で作る各 DAO の {@code SQL_XXX_ALL}）で稼働中の月と同じように読めます。
+ * 月次の金額は確定済みの顧客別・秘書別集計（customer_monthly_invoices / secretary_monthly_summaries）に残るため、
+ * 売上・支払の集計画面はアーカイブ後も同じ値を表示します。
+ */
+public class ArchiveDAO extends BaseDAO {
+
+	/** ========================
+	 * ① フィールド（SQL）
+	 * ======================== */
+
+	/** アーカイブ可能な月（締め済み・未アーカイブ・基準月より前） */
+	private static final String SQL_SELECT_ARCHIVABLE = "SELECT target_year_month FROM month_closings "
+			+ " WHERE archived_at IS NULL AND target_year_month < ? "
+			+ " ORDER BY target_year_month";
+
+	/** 締め行のロック */
+	private static final String SQL_LOCK_CLOSING = "SELECT archived_at FROM month_closings "
+			+ " WHERE target_year_month = ? FOR UPDATE";
+
+	/** 作業日がアサイン月と異なる未削除のタスク数（どちらの向きも数える） */
+	private static final String SQL_COUNT_MISMATCH = "SELECT COUNT(*) FROM tasks t "
+			+ "JOIN assignments a ON a.id = t.assignment_id "
+			+ "WHERE t.deleted_at IS NULL "
+			+ "  AND ((a.ym_index = ? AND NOT (t.work_date >= ? AND t.work_date < ?)) "
+			+ "       OR (t.work_date >= ? AND t.work_date < ? AND a.ym_index <> ?))";
+
+	/** 当月のアサインに属し、作業日が別の月にある論理削除済みのタスク（月のパーティションの外の行） */
+	private static final String WHERE_DELETED_OUTSIDE_MONTH = " WHERE a.id = t.assignment_id AND a.ym_index = ? "
+			+ "   AND t.deleted_at IS NOT NULL AND (t.work_date < ? OR t.work_date >= ?)";
+
+	private static final String SQL_MOVE_DELETED_OUTSIDE_MONTH = "INSERT INTO archive.tasks "
+			+ "SELECT t.* FROM public.tasks t, public.assignments a" + WHERE_DELETED_OUTSIDE_MONTH;
+
+	private static final String SQL_DELETE_DELETED_OUTSIDE_MONTH = "DELETE FROM public.tasks t "
+			+ "USING public.assignments a" + WHERE_DELETED_OUTSIDE_MONTH;
+
+	/** archive.tasks_default に退避済みの当月分（月のパーティションを ATTACH する前に移し替える） */
+	private static final String SQL_MOVE_FROM_ARCHIVE_DEFAULT = "INSERT INTO archive.%s "
+			+ "SELECT * FROM archive.tasks_default WHERE work_date >= ? AND work_date < ?";
+
+	private static final String SQL_DELETE_FROM_ARCHIVE_DEFAULT = "DELETE FROM archive.tasks_default "
+			+ "WHERE work_date >= ? AND work_date < ?";
+
+	/** アーカイブ済みの月が存在するか */
+	private static final String SQL_EXISTS_ARCHIVED = "SELECT EXISTS ("
+			+ "SELECT 1 FROM month_closings WHERE archived_at IS NOT NULL)";
+
+	/** パーティションの外部キー */
+	private static final String SQL_SELECT_FOREIGN_KEYS = "SELECT conname FROM pg_constraint "
+			+ " WHERE conrelid = to_regclass(?) AND contype = 'f'";
+
+	private static final String SQL_MOVE_ASSIGNMENTS = "INSERT INTO archive.assignments "
+			+ "SELECT * FROM public.assignments WHERE ym_index = ?";
+
+	private static final String SQL_DELETE_ASSIGNMENTS = "DELETE FROM public.assignments WHERE ym_index = ?";
+
+	private static final String SQL_MARK_ARCHIVED = "UPDATE month_closings SET archived_at = CURRENT_TIMESTAMP "
+			+ " WHERE target_year_month = ?";
+
+	/** アーカイブ有無の「無し」判定を再確認するまでの間隔（ミリ秒。他ノードでのアーカイブを拾うため） */
+	private static final long NEGATIVE_TTL_MILLIS = 60_000L;
+
+	/** アーカイブ有無（一度「有り」になれば以後変わらない） */
+	private static volatile boolean archived;
+	/** 最後に「無し」を確認した時刻 */
+	private static volatile long checkedAt;
+
+	/** 1 か月分のアーカイブ結果 */
+	public record Result(String yearMonth, boolean tasksMoved, int assignments) {
+	}
+
+	/** ========================
+	 * ② コンストラクタ
+	 * ======================== */
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param conn 既存のDBコネクション（トランザクションは呼出し側で管理）
+	 */
+	public ArchiveDAO(Connection conn) {
+		super(conn);
+	}
+
+	/** ========================
+	 * ③ メソッド
+	 * ======================== */
+
+	/**
+	 * アーカイブ可能な月（締め済み・未アーカイブ）を古い順に返します。
+	 *
+	 * @param beforeYearMonth この年月（yyyy-MM）より前の月のみ対象
+	 * @return 年月リスト
+	 * @throws DAOException 取得に失敗した場合
+	 */
+	public List<String> selectArchivableMonths(String beforeYearMonth) {
+		List<String> list = new ArrayList<>();
+		try (PreparedStatement ps = conn.prepareStatement(SQL_SELECT_ARCHIVABLE)) {
+			ps.setString(1, beforeYearMonth);
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					list.add(rs.getString(1));
+				}
+			}
+			return list;
+		} catch (SQLException e) {
+			throw new DAOException("E:AR01 アーカイブ対象月の取得に失敗しました。", e);
+		}
+	}
+
+	/**
+	 * 作業日がアサイン月と異なるタスク数を返します（0 でなければその月はアーカイブできません）。
+	 *
+	 * @param yearMonth 年月（yyyy-MM）
+	 * @return 件数
+	 * @throws DAOException 取得に失敗した場合
+	 */
+	public long countMonthMismatch(String yearMonth) {
+		int ymIndex = toYmIndex(yearMonth);
+		try (PreparedStatement ps = conn.prepareStatement(SQL_COUNT_MISMATCH)) {
+			ps.setInt(1, ymIndex);
+			int p = setMonthRange(ps, 2, yearMonth);
+			p = setMonthRange(ps, p, yearMonth);
+			ps.setInt(p, ymIndex);
+			try (ResultSet rs = ps.executeQuery()) {
+				rs.next();
+				return rs.getLong(1);
+			}
+		} catch (SQLException e) {
+			throw new DAOException("E:AR02 アサイン月と作業月の照合に失敗しました。", e);
+		}
+	}
+
+	/**
+	 * 指定月の締め行をロック（FOR UPDATE）し、アーカイブできる状態かを返します。
+	 * ロックはトランザクション終了まで保持され、同じ月のアーカイブを直列化します。
+	 *
+	 * @param yearMonth 年月（yyyy-MM）
+	 * @return 締め済み・未アーカイブなら true
+	 * @throws DAOException 取得に失敗した場合
+	 */
+	public boolean lockClosing(String yearMonth) {
+		try (PreparedStatement ps = conn.prepareStatement(SQL_LOCK_CLOSING)) {
+			ps.setString(1, yearMonth);
+			try (ResultSet rs = ps.executeQuery()) {
+				return rs.next() && rs.getTimestamp(1) == null;
+			}
+		} catch (SQLException e) {
+			throw new DAOException("E:AR03 月次締めのロック取得に失敗しました。", e);
+		}
+	}
+
+	/**
+	 * 1 か月分のタスク・アサインを archive スキーマへ移します。
+	 * 締め済みでない月・アーカイブ済みの月は何もせず null を返します。
+	 *
+	 * @param yearMonth 年月（yyyy-MM）
+	 * @return 結果（対象外なら null）
+	 * @throws DAOException 移動に失敗した場合
+	 */
+	public Result archiveMonth(String yearMonth) {
+		try {
+			if (!lockClosing(yearMonth)) return null;
+
+			int ymIndex = toYmIndex(yearMonth);
+			try (PreparedStatement ins = conn.prepareStatement(SQL_MOVE_DELETED_OUTSIDE_MONTH);
+					PreparedStatement del = conn.prepareStatement(SQL_DELETE_DELETED_OUTSIDE_MONTH)) {
+				for (PreparedStatement ps : List.of(ins, del)) {
+					ps.setInt(1, ymIndex);
+					setMonthRange(ps, 2, yearMonth);
+				}
+				int copied = ins.executeUpdate();
+				int removed = del.executeUpdate();
+				if (copied != removed) {
+					throw new SQLException("archived " + copied + " deleted tasks but removed " + removed);
+				}
+			}
+
+			boolean tasksMoved = movePartition(yearMonth);
+
+			int moved = executeByIndex(SQL_MOVE_ASSIGNMENTS, ymIndex);
+			int deleted = executeByIndex(SQL_DELETE_ASSIGNMENTS, ymIndex);
+			if (moved != deleted) {
+				throw new SQLException("archived " + moved + " assignments but deleted " + deleted);
+			}
+
+			try (PreparedStatement ps = conn.prepareStatement(SQL_MARK_ARCHIVED)) {
+				ps.setString(1, yearMonth);
+				ps.executeUpdate();
+			}
+
+			CacheInvalidation.publish(conn,
+					CacheInvalidation.Topic.ARCHIVE.key(yearMonth),
+					CacheInvalidation.Topic.CANDIDATE_MONTH.key(yearMonth));
+			return new Result(yearMonth, tasksMoved, moved);
+		} catch (SQLException e) {
+			throw new DAOException("E:AR11 月次データのアーカイブに失敗しました。（" + yearMonth + "）", e);
+		}
+	}
+
+	/**
+	 * アーカイブ済みの月があることを記憶します（アーカイブのコミット後、全ノードで呼ばれる）。
+	 */
+	static void markArchived() {
+		archived = true;
+	}
+
+	/**
+	 * 「アーカイブ無し」の記憶を捨て、次回の判定で読み直させます。
+	 */
+	static void resetArchiveCheck() {
+		checkedAt = 0L;
+	}
+
+	/**
+	 * アーカイブ済みの月があるかを返します（assignments_all を読むかの判定に使う）。
+	 * 「有り」は以後変わらないため永続的に、「無し」は {@value #NEGATIVE_TTL_MILLIS} ミリ秒だけ記憶します。
+	 *
+	 * @param conn 接続
+	 * @return アーカイブ済みの月があれば true
+	 * @throws DAOException 取得に失敗した場合
+	 */
+	public static boolean hasArchive(Connection conn) {
+		if (archived) return true;
+		long now = System.currentTimeMillis();
+		if (now - checkedAt < NEGATIVE_TTL_MILLIS) return false;
+		try (PreparedStatement ps = conn.prepareStatement(SQL_EXISTS_ARCHIVED);
+				ResultSet rs = ps.executeQuery()) {
+			rs.next();
+			if (rs.getBoolean(1)) {
+				archived = true;
+			} else {
+				checkedAt = now;
+			}
+			return archived;
+		} catch (SQLException e) {
+			throw new DAOException("E:AR21 アーカイブ状態の取得に失敗しました。", e);
+		}
+	}
+
+	/**
+	 * tasks の月パーティションを archive.tasks へ付け替えます。
+	 *
+	 * @return パーティションがあり移動した場合 true
+	 */
+	private boolean movePartition(String yearMonth) throws SQLException {
+		YearMonth ym = YearMonth.parse(yearMonth);
+		String part = "tasks_p" + yearMonth.replace("-", "");
+
+		List<String> foreignKeys = new ArrayList<>();
+		try (PreparedStatement ps = conn.prepareStatement(SQL_SELECT_FOREIGN_KEYS)) {
+			ps.setString(1, part);
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					foreignKeys.add(rs.getString(1));
+				}
+			}
+		}
+		try (PreparedStatement ps = conn.prepareStatement("SELECT to_regclass(?) IS NOT NULL")) {
+			ps.setString(1, part);
+			try (ResultSet rs = ps.executeQuery()) {
+				rs.next();
+				if (!rs.getBoolean(1)) return false;
+			}
+		}
+
+		try (Statement st = conn.createStatement()) {
+			st.execute("ALTER TABLE tasks DETACH PARTITION " + part);
+			/** 外部キーは DETACH 後もパーティション側に残る（アサインの移動を妨げるため削除） */
+			for (String name : foreignKeys) {
+				st.execute("ALTER TABLE " + part + " DROP CONSTRAINT \"" + name.replace("\"", "\"\"") + "\"");
+			}
+			st.execute("ALTER TABLE " + part + " SET SCHEMA archive");
+		}
+		/** 先にアーカイブした月から退避された当月分（論理削除済み）を、ATTACH の前にパーティションへ移す */
+		try (PreparedStatement ins = conn.prepareStatement(String.format(SQL_MOVE_FROM_ARCHIVE_DEFAULT, part));
+				PreparedStatement del = conn.prepareStatement(SQL_DELETE_FROM_ARCHIVE_DEFAULT)) {
+			setMonthRange(ins, 1, yearMonth);
+			setMonthRange(del, 1, yearMonth);
+			ins.executeUpdate();
+			del.executeUpdate();
+		}
+		try (Statement st = conn.createStatement()) {
+			st.execute("ALTER TABLE archive.tasks ATTACH PARTITION archive." + part
+					+ " FOR VALUES FROM ('" + ym.atDay(1) + "') TO ('" + ym.plusMonths(1).atDay(1) + "')");
+		}
+		return true;
+	}
+
+	private int executeByIndex(String sql, int ymIndex) throws SQLException {
+		try (PreparedStatement ps = conn.prepareStatement(sql)) {
+			ps.setInt(1, ymIndex);
+			return ps.executeUpdate();
+		}
+	}
+}
@@ -9,9 +9,11 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import dto.AssignmentDTO;
 import dto.CustomerDTO;
+import util.UuidV7;
 
 public class AssignmentDAO extends BaseDAO {
 
@@ -21,12 +23,13 @@ public class AssignmentDAO extends BaseDAO {
 
 	/** 指定月の customers + assignments + task_rank + secretaries + secretary_rank をまとめて取得 */
 	private static final String SQL_SELECT_BY_MONTH = "WITH eff AS ( "
-			+ "  SELECT "
+			+ "  SELECT e.ym, substr(e.ym, 1, 4)::int * 12 + substr(e.ym, 6, 2)::int AS ym_index "
+			+ "  FROM ( SELECT "
 			+ "    CASE "
 			+ "      WHEN ? > to_char(date_trunc('month', current_date) + interval '1 month', 'YYYY-MM') "
 			+ "      THEN to_char(date_trunc('month', current_date) + interval '1 month', 'YYYY-MM') "
 			+ "      ELSE ? "
-			+ "    END AS ym "
+			+ "    END AS ym ) e "
 			+ "), "
 			+ "a_target AS ( "
 			+ "  SELECT a.* "
@@ -35,10 +38,10 @@ public class AssignmentDAO extends BaseDAO {
 			+ "    AND a.target_year_month = eff.ym "
 			+ "), "
 			+ "rank_months AS ( /* 顧客×秘書×ランク×年月をユニーク化（<= eff.ym）*/ "
-			+ "  SELECT DISTINCT a.customer_id, a.secretary_id, a.task_rank_id, a.target_year_month "
+			+ "  SELECT DISTINCT a.customer_id, a.secretary_id, a.task_rank_id, a.target_year_month, a.ym_index "
 			+ "  FROM assignments a, eff "
 			+ "  WHERE a.deleted_at IS NULL "
-			+ "    AND a.target_year_month <= eff.ym "
+			+ "    AND a.ym_index <= eff.ym_index "
 			+ "), "
 			+ "streak AS (  /* 顧客×秘書×ランクの“連続月”島 */ "
 			+ "  SELECT "
@@ -46,12 +49,10 @@ public class AssignmentDAO extends BaseDAO {
 			+ "    rm.secretary_id, "
 			+ "    rm.task_rank_id, "
 			+ "    rm.target_year_month, "
-			+ "    ( "
-			+ "      (extract(YEAR  FROM to_date(rm.target_year_month || '-01','YYYY-MM-DD'))::int * 12) + "
-			+ "       extract(MONTH FROM to_date(rm.target_year_month || '-01','YYYY-MM-DD'))::int "
-			+ "    ) - row_number() OVER ( "
+			+ "    rm.ym_index, "
+			+ "    rm.ym_index - row_number() OVER ( "
 			+ "          PARTITION BY rm.customer_id, rm.secretary_id, rm.task_rank_id "
-			+ "          ORDER BY rm.target_year_month "
+			+ "          ORDER BY rm.ym_index "
 			+ "        ) AS grp "
 			+ "  FROM rank_months rm "
 			+ "), "
@@ -67,7 +68,7 @@ public class AssignmentDAO extends BaseDAO {
 			+ "   AND t.secretary_id = s.secretary_id "
 			+ "   AND t.task_rank_id = s.task_rank_id "
 			+ "  GROUP BY s.customer_id, s.secretary_id, s.task_rank_id, s.grp "
-			+ "  HAVING max(s.target_year_month) = (SELECT ym FROM eff) "
+			+ "  HAVING max(s.ym_index) = (SELECT ym_index FROM eff) "
 			+ ") "
 			+ "SELECT "
 			+ "  /* customers (13) */ "
@@ -128,18 +129,20 @@ public class AssignmentDAO extends BaseDAO {
 			+ "WHERE c.deleted_at IS NULL "
 			+ "ORDER BY "
 			+ "  c.company_name, "
+			+ "  c.id, "
 			+ "  s.name NULLS LAST, "
 			+ "  tr.rank_no NULLS LAST, "
 			+ "  a.created_at NULLS LAST";
 
 	/** 指定月の一覧（フィルタ付き） */
 	private static final String SQL_SELECT_BY_MONTH_FILTERED = "WITH eff AS ( "
-			+ "  SELECT "
+			+ "  SELECT e.ym, substr(e.ym, 1, 4)::int * 12 + substr(e.ym, 6, 2)::int AS ym_index "
+			+ "  FROM ( SELECT "
 			+ "    CASE "
 			+ "      WHEN ? > to_char(date_trunc('month', current_date) + interval '1 month', 'YYYY-MM') "
 			+ "      THEN to_char(date_trunc('month', current_date) + interval '1 month', 'YYYY-MM') "
 			+ "      ELSE ? "
-			+ "    END AS ym "
+			+ "    END AS ym ) e "
 			+ "), "
 			+ "a_target AS ( "
 			+ "  SELECT a.* "
@@ -148,10 +151,10 @@ public class AssignmentDAO extends BaseDAO {
 			+ "    AND a.target_year_month = eff.ym "
 			+ "), "
 			+ "rank_months AS ( "
-			+ "  SELECT DISTINCT a.customer_id, a.secretary_id, a.task_rank_id, a.target_year_month "
+			+ "  SELECT DISTINCT a.customer_id, a.secretary_id, a.task_rank_id, a.target_year_month, a.ym_index "
 			+ "  FROM assignments a, eff "
 			+ "  WHERE a.deleted_at IS NULL "
-			+ "    AND a.target_year_month <= eff.ym "
+			+ "    AND a.ym_index <= eff.ym_index "
 			+ "), "
 			+ "streak AS ( "
 			+ "  SELECT "
@@ -159,12 +162,10 @@ public class AssignmentDAO extends BaseDAO {
 			+ "    rm.secretary_id, "
 			+ "    rm.task_rank_id, "
 			+ "    rm.target_year_month, "
-			+ "    ( "
-			+ "      (extract(YEAR  FROM to_date(rm.target_year_month || '-01','YYYY-MM-DD'))::int * 12) + "
-			+ "       extract(MONTH FROM to_date(rm.target_year_month || '-01','YYYY-MM-DD'))::int "
-			+ "    ) - row_number() OVER ( "
+			+ "    rm.ym_index, "
+			+ "    rm.ym_index - row_number() OVER ( "
 			+ "          PARTITION BY rm.customer_id, rm.secretary_id, rm.task_rank_id "
-			+ "          ORDER BY rm.target_year_month "
+			+ "          ORDER BY rm.ym_index "
 			+ "        ) AS grp "
 			+ "  FROM rank_months rm "
 			+ "), "
@@ -180,7 +181,7 @@ public class AssignmentDAO extends BaseDAO {
 			+ "   AND t.secretary_id = s.secretary_id "
 			+ "   AND t.task_rank_id = s.task_rank_id "
 			+ "  GROUP BY s.customer_id, s.secretary_id, s.task_rank_id, s.grp "
-			+ "  HAVING max(s.target_year_month) = (SELECT ym FROM eff) "
+			+ "  HAVING max(s.ym_index) = (SELECT ym_index FROM eff) "
 			+ ") "
 			+ "SELECT "
 			+ "  c.id, "
@@ -233,10 +234,11 @@ public class AssignmentDAO extends BaseDAO {
 			+ "LEFT JOIN secretary_rank sr "
 			+ "  ON sr.id = s.secretary_rank_id "
 			+ "WHERE c.deleted_at IS NULL "
-			+ "  AND ( ? IS NULL OR c.company_name ILIKE '%' || ? || '%' ) "
 			+ "  AND ( ?::uuid IS NULL OR a.secretary_id = ?::uuid ) "
-			+ "  AND ( ?::int  IS NULL OR COALESCE(sc.cont_months,0) >= ?::int ) "
-			+ "ORDER BY "
+			+ "  AND ( ?::int  IS NULL OR COALESCE(sc.cont_months,0) >= ?::int ) ";
+
+	/** 指定月の一覧（フィルタ付き）の並び順（顧客名の条件はキーワードがあるときだけ、この前に付ける） */
+	private static final String SQL_ORDER_BY_MONTH_FILTERED = "ORDER BY "
 			+ "  c.company_name, "
 			+ "  s.name NULLS LAST, "
 			+ "  tr.rank_no NULLS LAST, "
@@ -244,12 +246,13 @@ public class AssignmentDAO extends BaseDAO {
 
 	/** 指定月の一覧（継続月数の高い順） */
 	private static final String SQL_SELECT_BY_MONTH_ORDERBY_CONT_DESC = "WITH eff AS ( "
-			+ "  SELECT "
+			+ "  SELECT e.ym, substr(e.ym, 1, 4)::int * 12 + substr(e.ym, 6, 2)::int AS ym_index "
+			+ "  FROM ( SELECT "
 			+ "    CASE "
 			+ "      WHEN ? > to_char(date_trunc('month', current_date) + interval '1 month', 'YYYY-MM') "
 			+ "      THEN to_char(date_trunc('month', current_date) + interval '1 month', 'YYYY-MM') "
 			+ "      ELSE ? "
-			+ "    END AS ym "
+			+ "    END AS ym ) e "
 			+ "), "
 			+ "a_target AS ( "
 			+ "  SELECT a.* "
@@ -258,10 +261,10 @@ public class AssignmentDAO extends BaseDAO {
 			+ "    AND a.target_year_month = eff.ym "
 			+ "), "
 			+ "rank_months AS ( "
-			+ "  SELECT DISTINCT a.customer_id, a.secretary_id, a.task_rank_id, a.target_year_month "
+			+ "  SELECT DISTINCT a.customer_id, a.secretary_id, a.task_rank_id, a.target_year_month, a.ym_index "
 			+ "  FROM assignments a, eff "
 			+ "  WHERE a.deleted_at IS NULL "
-			+ "    AND a.target_year_month <= eff.ym "
+			+ "    AND a.ym_index <= eff.ym_index "
 			+ "), "
 			+ "streak AS ( "
 			+ "  SELECT "
@@ -269,12 +272,10 @@ public class AssignmentDAO extends BaseDAO {
 			+ "    rm.secretary_id, "
 			+ "    rm.task_rank_id, "
 			+ "    rm.target_year_month, "
-			+ "    ( "
-			+ "      (extract(YEAR  FROM to_date(rm.target_year_month || '-01','YYYY-MM-DD'))::int * 12) + "
-			+ "       extract(MONTH FROM to_date(rm.target_year_month || '-01','YYYY-MM-DD'))::int "
-			+ "    ) - row_number() OVER ( "
+			+ "    rm.ym_index, "
+			+ "    rm.ym_index - row_number() OVER ( "
 			+ "          PARTITION BY rm.customer_id, rm.secretary_id, rm.task_rank_id "
-			+ "          ORDER BY rm.target_year_month "
+			+ "          ORDER BY rm.ym_index "
 			+ "        ) AS grp "
 			+ "  FROM rank_months rm "
 			+ "), "
@@ -290,7 +291,7 @@ public class AssignmentDAO extends BaseDAO {
 			+ "   AND t.secretary_id = s.secretary_id "
 			+ "   AND t.task_rank_id = s.task_rank_id "
 			+ "  GROUP BY s.customer_id, s.secretary_id, s.task_rank_id, s.grp "
-			+ "  HAVING max(s.target_year_month) = (SELECT ym FROM eff) "
+			+ "  HAVING max(s.ym_index) = (SELECT ym_index FROM eff) "
 			+ ") "
 			+ "SELECT "
 			+ "  c.id, "
@@ -400,17 +401,17 @@ public class AssignmentDAO extends BaseDAO {
 			+ " LEFT JOIN secretaries s ON s.id = a.secretary_id AND s.deleted_at IS NULL "
 			+ " WHERE a.deleted_at IS NULL "
 			+ "   AND a.customer_id = ? "
-			+ "   AND a.target_year_month >= ? "
-			+ " ORDER BY a.target_year_month ASC, tr.rank_name ASC, s.name ASC";
+			+ "   AND a.ym_index >= ? "
+			+ " ORDER BY a.ym_index ASC, tr.rank_name ASC, s.name ASC";
 
-	/** assignments の INSERT（id を RETURNING） */
+	/** assignments の INSERT（id はアプリ側で UUIDv7 を採番して RETURNING） */
 	private static final String SQL_INSERT = "INSERT INTO assignments ("
-			+ " customer_id, secretary_id, task_rank_id, target_year_month,"
+			+ " id, customer_id, secretary_id, task_rank_id, target_year_month,"
 			+ " base_pay_customer, base_pay_secretary,"
 			+ " increase_base_pay_customer, increase_base_pay_secretary,"
 			+ " customer_based_incentive_for_customer, customer_based_incentive_for_secretary,"
 			+ " status, created_at, updated_at"
-			+ ") VALUES (?,?,?,?,?,?,?,?,?,?,?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)"
+			+ ") VALUES (?,?,?,?,?,?,?,?,?,?,?,?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)"
 			+ " RETURNING id";
 
 	/** 同一（年月, 顧客, 秘書, タスクランク）の重複存在チェック */
@@ -472,12 +473,13 @@ public class AssignmentDAO extends BaseDAO {
 	 * ソート：sortByMonthsDesc=true のとき継続月数DESC、それ以外は会社名→秘書名→rank_no→作成日時
 	 * 指定月(yyyy-MM)のアサイン（当月分のみ）＋継続月数。フィルタ＆任意で継続月数DESC */
 	private static final String SQL_SELECT_ASSIGNMENTS_FOR_MONTH_WITH_CONT = "WITH eff AS ( "
-			+ "  SELECT "
+			+ "  SELECT e.ym, substr(e.ym, 1, 4)::int * 12 + substr(e.ym, 6, 2)::int AS ym_index "
+			+ "  FROM ( SELECT "
 			+ "    CASE "
 			+ "      WHEN ? > to_char(date_trunc('month', current_date) + interval '1 month', 'YYYY-MM') "
 			+ "      THEN to_char(date_trunc('month', current_date) + interval '1 month', 'YYYY-MM') "
 			+ "      ELSE ? "
-			+ "    END AS ym "
+			+ "    END AS ym ) e "
 			+ "), "
 			+ "a_target AS ( "
 			+ "  SELECT a.* "
@@ -486,10 +488,10 @@ public class AssignmentDAO extends BaseDAO {
 			+ "    AND a.target_year_month = eff.ym "
 			+ "), "
 			+ "rank_months AS ( "
-			+ "  SELECT DISTINCT a.customer_id, a.secretary_id, a.task_rank_id, a.target_year_month "
+			+ "  SELECT DISTINCT a.customer_id, a.secretary_id, a.task_rank_id, a.target_year_month, a.ym_index "
 			+ "  FROM assignments a, eff "
 			+ "  WHERE a.deleted_at IS NULL "
-			+ "    AND a.target_year_month <= eff.ym "
+			+ "    AND a.ym_index <= eff.ym_index "
 			+ "), "
 			+ "streak AS ( "
 			+ "  SELECT "
@@ -497,12 +499,10 @@ public class AssignmentDAO extends BaseDAO {
 			+ "    rm.secretary_id, "
 			+ "    rm.task_rank_id, "
 			+ "    rm.target_year_month, "
-			+ "    ( "
-			+ "      (extract(YEAR  FROM to_date(rm.target_year_month || '-01','YYYY-MM-DD'))::int * 12) + "
-			+ "       extract(MONTH FROM to_date(rm.target_year_month || '-01','YYYY-MM-DD'))::int "
-			+ "    ) - row_number() OVER ( "
+			+ "    rm.ym_index, "
+			+ "    rm.ym_index - row_number() OVER ( "
 			+ "          PARTITION BY rm.customer_id, rm.secretary_id, rm.task_rank_id "
-			+ "          ORDER BY rm.target_year_month "
+			+ "          ORDER BY rm.ym_index "
 			+ "        ) AS grp "
 			+ "  FROM rank_months rm "
 			+ "), "
@@ -518,7 +518,7 @@ public class AssignmentDAO extends BaseDAO {
 			+ "   AND t.secretary_id = s.secretary_id "
 			+ "   AND t.task_rank_id = s.task_rank_id "
 			+ "  GROUP BY s.customer_id, s.secretary_id, s.task_rank_id, s.grp "
-			+ "  HAVING max(s.target_year_month) = (SELECT ym FROM eff) "
+			+ "  HAVING max(s.ym_index) = (SELECT ym_index FROM eff) "
 			+ ") "
 			+ "SELECT "
 			+ "  /* assignments（当月のみ） */ "
@@ -559,10 +559,11 @@ public class AssignmentDAO extends BaseDAO {
 			+ "      AND sc.secretary_id = a.secretary_id "
 			+ "      AND sc.task_rank_id = a.task_rank_id "
 			+ "WHERE "
-			+ "  ( ? IS NULL OR c.company_name ILIKE '%' || ? || '%' )       /* 顧客名 */ "
-			+ "  AND ( ?::uuid IS NULL OR a.secretary_id = ?::uuid )         /* 秘書 */ "
-			+ "  AND ( ?::int  IS NULL OR COALESCE(sc.cont_months,0) >= ?::int )  /* 継続月数≧N */ "
-			+ "ORDER BY "
+			+ "  ( ?::uuid IS NULL OR a.secretary_id = ?::uuid )             /* 秘書 */ "
+			+ "  AND ( ?::int  IS NULL OR COALESCE(sc.cont_months,0) >= ?::int )  /* 継続月数≧N */ ";
+
+	/** 同 SQL の並び順（顧客名の条件はキーワードがあるときだけ、この前に付ける） */
+	private static final String SQL_ORDER_BY_MONTH_WITH_CONT = "ORDER BY "
 			+ "  CASE WHEN ? THEN COALESCE(sc.cont_months,0) END DESC NULLS LAST, "
 			+ "  c.company_name, "
 			+ "  s.name NULLS LAST, "
@@ -602,7 +603,7 @@ public class AssignmentDAO extends BaseDAO {
 			" WHERE deleted_at IS NULL " +
 			"   AND secretary_id = ? " +
 			"   AND customer_id  = ? " +
-			"   AND target_year_month <= ? " +
+			"   AND ym_index <= ? " +
 			" GROUP BY target_year_month " +
 			" ORDER BY target_year_month DESC";
 
@@ -644,10 +645,10 @@ public class AssignmentDAO extends BaseDAO {
 
 	/** 今月まで（<= uptoYM）のアサインを取得。月の新しい順 → 会社名 → rank_no → 作成日時 */
 	private static final String SQL_SELECT_BY_SECRETARY_UPTO_MONTH_ORDER_BY_YM_DESC = "WITH eff AS ( " +
-			"  SELECT ? AS upto_ym " +
+			"  SELECT ?::int AS upto_ym_index " +
 			"), a_upto AS ( " +
 			"  SELECT a.* FROM assignments a, eff " +
-			"   WHERE a.deleted_at IS NULL AND a.target_year_month <= eff.upto_ym " +
+			"   WHERE a.deleted_at IS NULL AND a.ym_index <= eff.upto_ym_index " +
 			") " +
 			"SELECT " +
 			"  a.id, a.customer_id, a.secretary_id, a.task_rank_id, a.target_year_month, " +
@@ -660,7 +661,7 @@ public class AssignmentDAO extends BaseDAO {
 			"JOIN customers c ON c.id = a.customer_id AND c.deleted_at IS NULL " +
 			"LEFT JOIN task_rank tr ON tr.id = a.task_rank_id " +
 			"WHERE a.secretary_id = ? " +
-			"ORDER BY a.target_year_month DESC, c.company_name, tr.rank_no NULLS LAST, a.created_at";
+			"ORDER BY a.ym_index DESC, c.company_name, tr.rank_no NULLS LAST, a.created_at";
 
 	private static final String SQL_SELECT_SECRETARIES_BY_CUSTOMER_AND_MONTH = "SELECT DISTINCT s.id, s.name, s.postal_code, s.address1, s.address2, s.building "
 			+ "  FROM assignments a "
@@ -686,25 +687,24 @@ public class AssignmentDAO extends BaseDAO {
 			"   AND a.id = ?";
 
 	private static final String SQL_SELECT_THIS_MONTH_BY_CUSTOMER_WITH_CONT_RANK = "WITH eff AS ( " +
-			"  SELECT CASE " +
+			"  SELECT e.ym, substr(e.ym, 1, 4)::int * 12 + substr(e.ym, 6, 2)::int AS ym_index " +
+			"  FROM ( SELECT CASE " +
 			"    WHEN ? > to_char(date_trunc('month', current_date) + interval '1 month','YYYY-MM') " +
 			"    THEN to_char(date_trunc('month', current_date) + interval '1 month','YYYY-MM') " +
-			"    ELSE ? END AS ym " +
+			"    ELSE ? END AS ym ) e " +
 			"), " +
 			"a_target AS ( " +
 			"  SELECT a.* FROM assignments a, eff " +
 			"   WHERE a.deleted_at IS NULL AND a.target_year_month = eff.ym AND a.customer_id = ? " +
 			"), " +
 			"streak AS ( " +
-			"  SELECT a.customer_id, a.secretary_id, a.task_rank_id, a.target_year_month, " +
-			"         ( (extract(YEAR FROM to_date(a.target_year_month||'-01','YYYY-MM-DD'))::int * 12) + " +
-			"           extract(MONTH FROM to_date(a.target_year_month||'-01','YYYY-MM-DD'))::int " +
-			"         ) - row_number() OVER ( " +
+			"  SELECT a.customer_id, a.secretary_id, a.task_rank_id, a.target_year_month, a.ym_index, " +
+			"         a.ym_index - row_number() OVER ( " +
 			"               PARTITION BY a.customer_id, a.secretary_id, a.task_rank_id " +
-			"               ORDER BY a.target_year_month " +
+			"               ORDER BY a.ym_index " +
 			"         ) AS grp " +
 			"    FROM assignments a, eff " +
-			"   WHERE a.deleted_at IS NULL AND a.customer_id = ? AND a.target_year_month <= eff.ym " +
+			"   WHERE a.deleted_at IS NULL AND a.customer_id = ? AND a.ym_index <= eff.ym_index " +
 			"), " +
 			"streak_count AS ( " +
 			"  SELECT s.customer_id, s.secretary_id, s.task_rank_id, count(*) AS cont_months " +
@@ -713,7 +713,7 @@ public class AssignmentDAO extends BaseDAO {
 			"                   AND t.secretary_id = s.secretary_id " +
 			"                   AND t.task_rank_id = s.task_rank_id " +
 			"   GROUP BY s.customer_id, s.secretary_id, s.task_rank_id, s.grp " +
-			"  HAVING max(s.target_year_month) = (SELECT ym FROM eff) " +
+			"  HAVING max(s.ym_index) = (SELECT ym_index FROM eff) " +
 			") " +
 			"SELECT " +
 			"  a.id, a.customer_id, a.secretary_id, a.task_rank_id, a.target_year_month, " +
@@ -736,10 +736,11 @@ public class AssignmentDAO extends BaseDAO {
 
 	/** 顧客×今月まで（<=YM）の assignments 履歴（最新月→） */
 	private static final String SQL_SELECT_BY_CUSTOMER_UPTO_YM_DESC = "WITH eff AS ( " +
-			"  SELECT CASE " +
+			"  SELECT e.ym, substr(e.ym, 1, 4)::int * 12 + substr(e.ym, 6, 2)::int AS ym_index " +
+			"  FROM ( SELECT CASE " +
 			"    WHEN ? > to_char(date_trunc('month', current_date) + interval '1 month','YYYY-MM') " +
 			"    THEN to_char(date_trunc('month', current_date) + interval '1 month','YYYY-MM') " +
-			"    ELSE ? END AS ym " +
+			"    ELSE ? END AS ym ) e " +
 			") " +
 			"SELECT a.id, a.customer_id, a.secretary_id, a.task_rank_id, a.target_year_month, " +
 			"       a.base_pay_customer, a.base_pay_secretary, a.increase_base_pay_customer, a.increase_base_pay_secretary, "
@@ -753,8 +754,18 @@ public class AssignmentDAO extends BaseDAO {
 			"  LEFT JOIN secretaries s     ON s.id = a.secretary_id AND s.deleted_at IS NULL " +
 			"  LEFT JOIN secretary_rank sr ON sr.id = s.secretary_rank_id " +
 			" WHERE a.deleted_at IS NULL AND a.customer_id = ? " +
-			"   AND a.target_year_month <= (SELECT ym FROM eff) " +
-			" ORDER BY a.target_year_month DESC, tr.rank_no NULLS LAST, s.name NULLS LAST, a.created_at";
+			"   AND a.ym_index <= (SELECT ym_index FROM eff) " +
+			" ORDER BY a.ym_index DESC, tr.rank_no NULLS LAST, s.name NULLS LAST, a.created_at";
+
+/** アーカイブ済みの月がある場合の同 SQL（アーカイブ分も含めて継続月数・履歴を数える） */
+	private static final String SQL_SELECT_ASSIGNMENTS_FOR_MONTH_WITH_CONT_ALL = withArchive(
+			SQL_SELECT_ASSIGNMENTS_FOR_MONTH_WITH_CONT);
+	static final String SQL_SELECT_THIS_MONTH_BY_CUSTOMER_WITH_CONT_RANK_ALL = withArchive(
+			SQL_SELECT_THIS_MONTH_BY_CUSTOMER_WITH_CONT_RANK);
+	static final String SQL_SELECT_BY_CUSTOMER_UPTO_YM_DESC_ALL = withArchive(
+			SQL_SELECT_BY_CUSTOMER_UPTO_YM_DESC);
+	private static final String SQL_SELECT_BY_SECRETARY_UPTO_MONTH_ORDER_BY_YM_DESC_ALL = withArchive(
+			SQL_SELECT_BY_SECRETARY_UPTO_MONTH_ORDER_BY_YM_DESC);
 
 //    	/** 顧客×今月まで（<=YM）の assignments 履歴（最新月→） */
 //    	private static final String SQL_SELECT_BY_CUSTOMER_UPTO_YM_DESC =
@@ -817,21 +828,41 @@ public class AssignmentDAO extends BaseDAO {
 	 * ・指定年月はサーバ日付基準で「来月」までにクランプ（以降は見せない）
 	 */
 	public List<CustomerDTO> selectAllByMonth(String yearMonth) {
+		List<CustomerDTO> list = new ArrayList<>();
+		streamAllByMonth(yearMonth, list::add);
+		return list;
+	}
+
+	/**
+	 * 指定年月（yyyy-MM）のアサイン一覧を、顧客ごとに組み立てた時点で {@code sink} に渡します。
+	 * 内容・並び順は {@link #selectAllByMonth} と同じ（SQL は顧客単位で連続するよう c.id を併せて並べる）。
+	 * フェッチサイズ単位で読み込むため、保持するのは組み立て中の 1 顧客分のみです（トランザクション内で使用）。
+	 *
+	 * @param yearMonth 対象年月（yyyy-MM）
+	 * @param sink      顧客ごとの受け取り処理
+	 * @return 処理した顧客数
+	 */
+	public int streamAllByMonth(String yearMonth, Consumer<CustomerDTO> sink) {
 		try (PreparedStatement ps = conn.prepareStatement(SQL_SELECT_BY_MONTH)) {
+			prepareForStreaming(ps);
 			/** クランプ用に同じ値を2回渡す（SQL側で比較して選択） */
 			ps.setString(1, yearMonth);
 			ps.setString(2, yearMonth);
 
 			try (ResultSet rs = ps.executeQuery()) {
-				Map<UUID, CustomerDTO> customerMap = new LinkedHashMap<>();
+				CustomerDTO c = null;
+				int count = 0;
 
 				while (rs.next()) {
 					int i = 1;
 
-					/** customers */
+					/** customers（顧客が切り替わったら前の顧客を確定して渡す） */
 					UUID cId = rs.getObject(i++, UUID.class);
-					CustomerDTO c = customerMap.get(cId);
-					if (c == null) {
+					if (c == null || !c.getId().equals(cId)) {
+						if (c != null) {
+							sink.accept(c);
+							count++;
+						}
 						c = new CustomerDTO();
 						c.setId(cId);
 						c.setCompanyCode(rs.getString(i++));
@@ -847,7 +878,6 @@ public class AssignmentDAO extends BaseDAO {
 						c.setUpdatedAt(rs.getTimestamp(i++));
 						c.setDeletedAt(rs.getTimestamp(i++));
 						c.setAssignmentDTOs(new ArrayList<>());
-						customerMap.put(cId, c);
 					} else {
 						i += 12; /** 既読分スキップ */
 					}
@@ -886,7 +916,11 @@ public class AssignmentDAO extends BaseDAO {
 						c.getAssignmentDTOs().add(ad);
 					}
 				}
-				return new ArrayList<>(customerMap.values());
+				if (c != null) {
+					sink.accept(c);
+					count++;
+				}
+				return count;
 			}
 		} catch (SQLException e) {
 			throw new DAOException("E:AS11 指定月の assignments 取得に失敗しました。", e);
@@ -910,22 +944,17 @@ public class AssignmentDAO extends BaseDAO {
 			boolean sortByMonthsDesc,
 			Map<UUID, Integer> outContMonths) {
 
-		try (PreparedStatement ps = conn.prepareStatement(SQL_SELECT_ASSIGNMENTS_FOR_MONTH_WITH_CONT)) {
+		boolean hasKeyword = qCustomer != null && !qCustomer.isBlank();
+		String sql = (ArchiveDAO.hasArchive(conn) ? SQL_SELECT_ASSIGNMENTS_FOR_MONTH_WITH_CONT_ALL
+				: SQL_SELECT_ASSIGNMENTS_FOR_MONTH_WITH_CONT)
+				+ (hasKeyword ? " AND c.company_name ILIKE ? " : "") + SQL_ORDER_BY_MONTH_WITH_CONT;
+		try (PreparedStatement ps = conn.prepareStatement(sql)) {
 			int p = 1;
 
 			/** 年月（クランプ用に2回） */
 			ps.setString(p++, yearMonth);
 			ps.setString(p++, yearMonth);
 
-			/** 顧客名（WHEREで2回） */
-			if (qCustomer == null || qCustomer.isBlank()) {
-				ps.setNull(p++, java.sql.Types.VARCHAR);
-				ps.setNull(p++, java.sql.Types.VARCHAR);
-			} else {
-				ps.setString(p++, qCustomer);
-				ps.setString(p++, qCustomer);
-			}
-
 			/** 秘書ID（WHEREで2回） */
 			if (filterSecretaryId == null) {
 				ps.setNull(p++, java.sql.Types.OTHER);
@@ -944,6 +973,11 @@ public class AssignmentDAO extends BaseDAO {
 				ps.setInt(p++, minMonths);
 			}
 
+			/** 顧客名（キーワードがあるときだけ条件を付ける） */
+			if (hasKeyword) {
+				ps.setString(p++, containsPattern(qCustomer));
+			}
+
 			/** 継続月数の降順ソートフラグ（ORDER BY の CASE WHEN ? THEN ...） */
 			ps.setBoolean(p++, sortByMonthsDesc);
 
@@ -1012,20 +1046,14 @@ public class AssignmentDAO extends BaseDAO {
 	public List<CustomerDTO> selectAllByMonthFiltered(
 			String yearMonth, String keyword, UUID secretaryId, Integer minMonths) {
 
-		try (PreparedStatement ps = conn.prepareStatement(SQL_SELECT_BY_MONTH_FILTERED)) {
+		boolean hasKeyword = keyword != null && !keyword.isBlank();
+		String sql = SQL_SELECT_BY_MONTH_FILTERED + (hasKeyword ? " AND c.company_name ILIKE ? " : "")
+				+ SQL_ORDER_BY_MONTH_FILTERED;
+		try (PreparedStatement ps = conn.prepareStatement(sql)) {
 			int p = 1;
 			ps.setString(p++, yearMonth);
 			ps.setString(p++, yearMonth);
 
-			/** keyword は2回使う */
-			if (keyword == null || keyword.isBlank()) {
-				ps.setNull(p++, java.sql.Types.VARCHAR);
-				ps.setNull(p++, java.sql.Types.VARCHAR);
-			} else {
-				ps.setString(p++, keyword);
-				ps.setString(p++, keyword);
-			}
-
 			/** secretaryId は2回使う */
 			if (secretaryId == null) {
 				ps.setNull(p++, java.sql.Types.OTHER);
@@ -1044,6 +1072,11 @@ public class AssignmentDAO extends BaseDAO {
 				ps.setInt(p++, minMonths);
 			}
 
+			/** keyword はあるときだけ条件を付ける */
+			if (hasKeyword) {
+				ps.setString(p++, containsPattern(keyword));
+			}
+
 			try (ResultSet rs = ps.executeQuery()) {
 				Map<UUID, CustomerDTO> customerMap = new LinkedHashMap<>();
 
@@ -1115,9 +1148,9 @@ public class AssignmentDAO extends BaseDAO {
 	}
 
 	public List<AssignmentDTO> selectBySecretaryUpToMonthOrderByYmDesc(UUID secretaryId, String uptoYm) {
-		try (PreparedStatement ps = conn.prepareStatement(SQL_SELECT_BY_SECRETARY_UPTO_MONTH_ORDER_BY_YM_DESC)) {
+		try (PreparedStatement ps = conn.prepareStatement(ArchiveDAO.hasArchive(conn) ? SQL_SELECT_BY_SECRETARY_UPTO_MONTH_ORDER_BY_YM_DESC_ALL : SQL_SELECT_BY_SECRETARY_UPTO_MONTH_ORDER_BY_YM_DESC)) {
 			int p = 1;
-			ps.setString(p++, uptoYm);
+			ps.setInt(p++, toYmIndex(uptoYm));
 			ps.setObject(p++, secretaryId);
 			try (ResultSet rs = ps.executeQuery()) {
 				List<AssignmentDTO> list = new ArrayList<>();
@@ -1405,7 +1438,7 @@ public class AssignmentDAO extends BaseDAO {
 		try (PreparedStatement ps = conn.prepareStatement(SQL_SELECT_BY_CUSTOMER_FROM_YM)) {
 			int p = 1;
 			ps.setObject(p++, customerId);
-			ps.setString(p++, fromYm);
+			ps.setInt(p++, toYmIndex(fromYm));
 			try (ResultSet rs = ps.executeQuery()) {
 				List<AssignmentDTO> list = new ArrayList<>();
 				while (rs.next()) {
@@ -1545,7 +1578,7 @@ public class AssignmentDAO extends BaseDAO {
 
 	public List<AssignmentDTO> selectThisMonthByCustomerWithContRank(UUID customerId, String yearMonth) {
 		List<AssignmentDTO> list = new ArrayList<>();
-		try (PreparedStatement ps = conn.prepareStatement(SQL_SELECT_THIS_MONTH_BY_CUSTOMER_WITH_CONT_RANK)) {
+		try (PreparedStatement ps = conn.prepareStatement(ArchiveDAO.hasArchive(conn) ? SQL_SELECT_THIS_MONTH_BY_CUSTOMER_WITH_CONT_RANK_ALL : SQL_SELECT_THIS_MONTH_BY_CUSTOMER_WITH_CONT_RANK)) {
 			int p = 1;
 			ps.setString(p++, yearMonth);
 			ps.setString(p++, yearMonth);
@@ -1553,38 +1586,7 @@ public class AssignmentDAO extends BaseDAO {
 			ps.setObject(p++, customerId);
 
 			try (ResultSet rs = ps.executeQuery()) {
-				while (rs.next()) {
-					int i = 1;
-					AssignmentDTO ad = new AssignmentDTO();
-					ad.setAssignmentId(rs.getObject(i++, UUID.class));
-					ad.setAssignmentCustomerId(rs.getObject(i++, UUID.class));
-					ad.setAssignmentSecretaryId(rs.getObject(i++, UUID.class));
-					ad.setTaskRankId(rs.getObject(i++, UUID.class));
-					ad.setTargetYearMonth(rs.getString(i++));
-					ad.setBasePayCustomer(rs.getBigDecimal(i++));
-					ad.setBasePaySecretary(rs.getBigDecimal(i++));
-					ad.setIncreaseBasePayCustomer(rs.getBigDecimal(i++));
-					ad.setIncreaseBasePaySecretary(rs.getBigDecimal(i++));
-					ad.setCustomerBasedIncentiveForCustomer(rs.getBigDecimal(i++));
-					ad.setCustomerBasedIncentiveForSecretary(rs.getBigDecimal(i++));
-					ad.setAssignmentStatus(rs.getString(i++));
-					ad.setAssignmentCreatedAt(rs.getTimestamp(i++));
-					ad.setAssignmentUpdatedAt(rs.getTimestamp(i++));
-					ad.setAssignmentDeletedAt(rs.getTimestamp(i++));
-
-					ad.setTaskRankName(rs.getString(i++)); /** tr.rank_name */
-					rs.getInt(i++); /** tr.rank_no（未使用） */
-
-					rs.getObject(i++, UUID.class); /** s_id（未使用） */
-					ad.setSecretaryName(rs.getString(i++));
-					ad.setSecretaryRankId(rs.getObject(i++, UUID.class));
-					ad.setSecretaryRankName(rs.getString(i++));
-
-					Number cont = (Number) rs.getObject(i++);
-					ad.setConsecutiveMonths(cont == null ? null : cont.intValue());
-
-					list.add(ad);
-				}
+				list = readCustomerAssignments(rs, true);
 			}
 		} catch (SQLException e) {
 			throw new DAOException("E:AS-D1 顧客×今月（継続月数/ランク別）取得に失敗しました。", e);
@@ -1672,41 +1674,14 @@ public class AssignmentDAO extends BaseDAO {
 
 	public List<AssignmentDTO> selectByCustomerUpToYearMonthDesc(UUID customerId, String upToYm) {
 		List<AssignmentDTO> list = new ArrayList<>();
-		try (PreparedStatement ps = conn.prepareStatement(SQL_SELECT_BY_CUSTOMER_UPTO_YM_DESC)) {
+		try (PreparedStatement ps = conn.prepareStatement(ArchiveDAO.hasArchive(conn) ? SQL_SELECT_BY_CUSTOMER_UPTO_YM_DESC_ALL : SQL_SELECT_BY_CUSTOMER_UPTO_YM_DESC)) {
 			int p = 1;
 			ps.setString(p++, upToYm);
 			ps.setString(p++, upToYm);
 			ps.setObject(p++, customerId);
 
 			try (ResultSet rs = ps.executeQuery()) {
-				while (rs.next()) {
-					int i = 1;
-					AssignmentDTO ad = new AssignmentDTO();
-					ad.setAssignmentId(rs.getObject(i++, UUID.class));
-					ad.setAssignmentCustomerId(rs.getObject(i++, UUID.class));
-					ad.setAssignmentSecretaryId(rs.getObject(i++, UUID.class));
-					ad.setTaskRankId(rs.getObject(i++, UUID.class));
-					ad.setTargetYearMonth(rs.getString(i++));
-					ad.setBasePayCustomer(rs.getBigDecimal(i++));
-					ad.setBasePaySecretary(rs.getBigDecimal(i++));
-					ad.setIncreaseBasePayCustomer(rs.getBigDecimal(i++));
-					ad.setIncreaseBasePaySecretary(rs.getBigDecimal(i++));
-					ad.setCustomerBasedIncentiveForCustomer(rs.getBigDecimal(i++));
-					ad.setCustomerBasedIncentiveForSecretary(rs.getBigDecimal(i++));
-					ad.setAssignmentStatus(rs.getString(i++));
-					ad.setAssignmentCreatedAt(rs.getTimestamp(i++));
-					ad.setAssignmentUpdatedAt(rs.getTimestamp(i++));
-					ad.setAssignmentDeletedAt(rs.getTimestamp(i++));
-
-					ad.setTaskRankName(rs.getString(i++));
-					rs.getInt(i++); /** tr.rank_no */
-					rs.getObject(i++, UUID.class); /** s_id */
-					ad.setSecretaryName(rs.getString(i++));
-					ad.setSecretaryRankId(rs.getObject(i++, UUID.class));
-					ad.setSecretaryRankName(rs.getString(i++));
-
-					list.add(ad);
-				}
+				list = readCustomerAssignments(rs, false);
 			}
 		} catch (SQLException e) {
 			throw new DAOException("E:AS-D2 顧客×今月までの履歴取得に失敗しました。", e);
@@ -1729,6 +1704,7 @@ public class AssignmentDAO extends BaseDAO {
 	public UUID insert(AssignmentDTO dto) {
 		try (PreparedStatement ps = conn.prepareStatement(SQL_INSERT)) {
 			int i = 1;
+			ps.setObject(i++, UuidV7.generate());
 			/** 必須 */
 			ps.setObject(i++, dto.getAssignmentCustomerId());
 			ps.setObject(i++, dto.getAssignmentSecretaryId());
@@ -1917,7 +1893,7 @@ public class AssignmentDAO extends BaseDAO {
 		try (PreparedStatement ps = conn.prepareStatement(SQL_SELECT_MONTHS_FOR_PAIR_UPTO)) {
 			ps.setObject(1, secretaryId);
 			ps.setObject(2, customerId);
-			ps.setString(3, upToYm);
+			ps.setInt(3, toYmIndex(upToYm));
 			try (ResultSet rs = ps.executeQuery()) {
 				while (rs.next())
 					list.add(rs.getString(1));
@@ -2058,4 +2034,51 @@ public class AssignmentDAO extends BaseDAO {
 			ps.setBigDecimal(index, val);
 		}
 	}
-}
\ No newline at end of file
+
+	/**
+	 * 顧客詳細向けアサイン行（{@code SQL_SELECT_THIS_MONTH_BY_CUSTOMER_WITH_CONT_RANK} /
+	 * {@code SQL_SELECT_BY_CUSTOMER_UPTO_YM_DESC} の列順）を DTO に詰めます。
+	 *
+	 * @param rs             結果セット
+	 * @param withContMonths 末尾に継続月数（cont_months）列があれば true
+	 * @return アサインDTOリスト
+	 * @throws SQLException 読み取り時に発生
+	 */
+	static List<AssignmentDTO> readCustomerAssignments(ResultSet rs, boolean withContMonths) throws SQLException {
+		List<AssignmentDTO> list = new ArrayList<>();
+		while (rs.next()) {
+			int i = 1;
+			AssignmentDTO ad = new AssignmentDTO();
+			ad.setAssignmentId(rs.getObject(i++, UUID.class));
+			ad.setAssignmentCustomerId(rs.getObject(i++, UUID.class));
+			ad.setAssignmentSecretaryId(rs.getObject(i++, UUID.class));
+			ad.setTaskRankId(rs.getObject(i++, UUID.class));
+			ad.setTargetYearMonth(rs.getString(i++));
+			ad.setBasePayCustomer(rs.getBigDecimal(i++));
+			ad.setBasePaySecretary(rs.getBigDecimal(i++));
+			ad.setIncreaseBasePayCustomer(rs.getBigDecimal(i++));
+			ad.setIncreaseBasePaySecretary(rs.getBigDecimal(i++));
+			ad.setCustomerBasedIncentiveForCustomer(rs.getBigDecimal(i++));
+			ad.setCustomerBasedIncentiveForSecretary(rs.getBigDecimal(i++));
+			ad.setAssignmentStatus(rs.getString(i++));
+			ad.setAssignmentCreatedAt(rs.getTimestamp(i++));
+			ad.setAssignmentUpdatedAt(rs.getTimestamp(i++));
+			ad.setAssignmentDeletedAt(rs.getTimestamp(i++));
+
+			ad.setTaskRankName(rs.getString(i++)); /** tr.rank_name */
+			rs.getInt(i++); /** tr.rank_no（未使用） */
+
+			rs.getObject(i++, UUID.class); /** s_id（未使用） */
+			ad.setSecretaryName(rs.getString(i++));
+			ad.setSecretaryRankId(rs.getObject(i++, UUID.class));
+			ad.setSecretaryRankName(rs.getString(i++));
+
+			if (withContMonths) {
+				Number cont = (Number) rs.getObject(i++);
+				ad.setConsecutiveMonths(cont == null ? null : cont.intValue());
+			}
+			list.add(ad);
+		}
+		return list;
+	}
+}
@@ -1,12 +1,41 @@
 package dao;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import org.postgresql.PGConnection;
+
+import dto.PivotCubeDTO;
+import dto.PivotRowDTO;
 
 /**
  * DAO基底クラス
  * データベース接続を保持し、各DAOクラスで継承して使用します
  */
 public class BaseDAO {
+	/** ストリーミング読み取り時のフェッチサイズ（サーバー側カーソルから一度に受け取る行数） */
+	protected static final int STREAM_FETCH_SIZE = 500;
+
+	/**
+	 * tasks（別名 t）を対象月の work_date 範囲に絞り込む条件。パラメータは {@link #setMonthRange} で 2 つ設定します。
+	 * tasks は work_date の月単位でパーティション分割されているため、
+	 * assignments.target_year_month / ym_index だけの条件ではパーティションが刈り込まれません。
+	 */
+	protected static final String AND_TASK_IN_MONTH = " AND t.work_date >= ? AND t.work_date < ? ";
+
+	/** FROM / JOIN の直後にある稼働中のテーブル（{@link #withArchive} で稼働中＋アーカイブのビューに置き換える） */
+	private static final Pattern LIVE_TABLES = Pattern.compile("\\b(FROM|JOIN)(\\s+)(tasks|assignments)\\b",
+			Pattern.CASE_INSENSITIVE);
+
 	/** データベース接続 */
 	protected Connection conn;
 	
@@ -18,4 +47,184 @@ public class BaseDAO {
 	public BaseDAO(Connection conn) {
 		this.conn = conn;
 	}
+
+	/**
+	 * 部分一致検索（ILIKE）用のパターン文字列を生成します。
+	 * <p>
+	 * 入力中の {@code \ % _} をエスケープしてから前後を {@code %} で囲みます。
+	 * パターンはバインド値として渡すことで、pg_trgm の GIN インデックス
+	 * （idx_secretaries_name_trgm / idx_customers_company_name_trgm）が利用されます。
+	 * </p>
+	 *
+	 * @param keyword 検索キーワード（前後の空白は除去）
+	 * @return ILIKE にそのまま渡せるパターン
+	 */
+	protected static String containsPattern(String keyword) {
+		String k = keyword.trim()
+				.replace("\\", "\\\\")
+				.replace("%", "\\%")
+				.replace("_", "\\_");
+		return "%" + k + "%";
+	}
+
+	/**
+	 * 年月文字列を ym_index（年 * 12 + 月）に変換します。
+	 * assignments / customer_monthly_invoices / secretary_monthly_summaries の
+	 * 生成列 ym_index と比較する際のバインド値として使用します。
+	 *
+	 * @param yearMonth 年月（yyyy-MM）
+	 * @return 年 * 12 + 月
+	 */
+	protected static int toYmIndex(String yearMonth) {
+		YearMonth ym = YearMonth.parse(yearMonth.trim());
+		return ym.getYear() * 12 + ym.getMonthValue();
+	}
+
+	/**
+	 * {@link #AND_TASK_IN_MONTH} のパラメータ（対象月の月初・翌月初）をバインドします。
+	 *
+	 * @param ps        対象のステートメント
+	 * @param index     月初をバインドする位置
+	 * @param yearMonth 年月（yyyy-MM）
+	 * @return 次にバインドするパラメータ位置
+	 * @throws SQLException バインドに失敗した場合
+	 */
+	protected static int setMonthRange(PreparedStatement ps, int index, String yearMonth) throws SQLException {
+		YearMonth ym = YearMonth.parse(yearMonth.trim());
+		ps.setDate(index, Date.valueOf(ym.atDay(1)));
+		ps.setDate(index + 1, Date.valueOf(ym.plusMonths(1).atDay(1)));
+		return index + 2;
+	}
+
+	/**
+	 * 読み取り SQL の参照先（FROM / JOIN の直後の {@code tasks} / {@code assignments}）を、
+	 * 稼働中＋アーカイブのビュー（{@code tasks_all} / {@code assignments_all}）に置き換えた SQL を返します。
+	 * <p>
+	 * 各 DAO はクラスの初期化時にこれで {@code SQL_XXX_ALL} 定数を作り、
+	 * アーカイブ済みの月がある場合（{@link ArchiveDAO#hasArchive}）だけそちらを使います。
+	 * ビューは UNION ALL のため、{@link #AND_TASK_IN_MONTH} の範囲条件は両側のパーティションの刈り込みに効きます。
+	 * </p>
+	 *
+	 * @param sql 稼働中のテーブルを読む SQL
+	 * @return 置換後の SQL
+	 */
+	protected static String withArchive(String sql) {
+		return LIVE_TABLES.matcher(sql).replaceAll("$1$2$3_all");
+	}
+
+	/**
+	 * ストリーミング読み取り用にフェッチサイズを設定します。
+	 * <p>
+	 * PostgreSQL JDBC はフェッチサイズ未設定だと結果全体をメモリに読み込みます。
+	 * フェッチサイズはトランザクション内（自動コミット OFF）でのみ有効なため、
+	 * {@link TransactionManager} から取得した接続で使用してください。
+	 * </p>
+	 *
+	 * @param ps 対象のステートメント
+	 * @throws SQLException 設定に失敗した場合
+	 */
+	protected void prepareForStreaming(PreparedStatement ps) throws SQLException {
+		if (conn.getAutoCommit()) {
+			throw new DAOException("E:DAO01 ストリーミング読み取りはトランザクション内でのみ利用できます。");
+		}
+		ps.setFetchSize(STREAM_FETCH_SIZE);
+	}
+
+	/**
+	 * COPY による CSV 出力で、文字列の列を表計算ソフトの数式として解釈させないための式を返します。
+	 * <p>
+	 * 先頭が数式記号（{@code = + - @}）の値には {@code '} を前置します（数値として読める値はそのまま）。
+	 * 画面からの CSV 出力（TaskService の csvEscape）と同じ規則です。
+	 * </p>
+	 *
+	 * @param column 列（例: {@code c.company_name}）
+	 * @param alias  CSV のヘッダに出す列名
+	 * @return SELECT 句にそのまま埋め込める式（{@code AS alias} 付き）
+	 */
+	protected static String csvSafe(String column, String alias) {
+		return "CASE WHEN " + column + " ~ '^[=+\\-@]' "
+				+ "AND " + column + " !~ '^[+-]?([0-9]+\\.?[0-9]*|\\.[0-9]+)([eE][+-]?[0-9]+)?$' "
+				+ "THEN '''' || " + column + " ELSE " + column + " END AS " + alias;
+	}
+
+	/**
+	 * {@code COPY (...) TO STDOUT} の出力を、そのまま出力先ストリームへ流します。
+	 * <p>
+	 * 結果は JDBC の行オブジェクトを経由せず、サーバーが整形したバイト列のまま転送されるため、
+	 * 行数が多いエクスポートでもメモリ使用量・Java 側の整形コストが増えません。
+	 * COPY 文はバインド変数を受け付けないため、SQL に埋め込むのは数値など DAO 内で生成した値に限定してください。
+	 * </p>
+	 *
+	 * @param sql COPY 文（TO STDOUT）
+	 * @param out 出力先（呼び出し側でクローズ）
+	 * @return 出力行数
+	 * @throws SQLException  COPY の実行に失敗した場合
+	 * @throws IOException   出力先への書き込みに失敗した場合
+	 */
+	protected long copyOut(String sql, OutputStream out) throws SQLException, IOException {
+		return conn.unwrap(PGConnection.class).getCopyAPI().copyOut(sql, out);
+	}
+
+	/**
+	 * {@code GROUP BY CUBE (行ID, ym_index)} の結果を {@link PivotCubeDTO} に組み立てます。
+	 * <p>
+	 * SQL は期間の ym_index（開始・終了）を 1,2 番目のバインド値に取り、列
+	 * {@code id, label, ymi, amt_sen, g_row, g_col}（amt_sen は銭単位の bigint、g_row/g_col は {@code GROUPING()}）を
+	 * 「セル・行合計（行ごと）→ 列合計 → 総合計」の順に返す前提です。
+	 * 合計はすべて DB の集計値をそのまま使い、Java 側では加算しません。
+	 * </p>
+	 *
+	 * @param sql    CUBE 集計 SQL
+	 * @param months 列の年月（yyyy-MM、連続した昇順）
+	 * @return 集計結果（行0件でも列合計・総合計は 0 で埋まる）
+	 * @throws SQLException 取得に失敗した場合
+	 */
+	protected PivotCubeDTO selectPivotCube(String sql, List<String> months) throws SQLException {
+		final int fromIdx = toYmIndex(months.get(0));
+		final int n = months.size();
+		PivotCubeDTO cube = new PivotCubeDTO();
+		cube.setMonths(months);
+		long[] colTotals = new long[n];
+		cube.setColTotalSen(colTotals);
+
+		try (PreparedStatement ps = conn.prepareStatement(sql)) {
+			ps.setInt(1, fromIdx);
+			ps.setInt(2, toYmIndex(months.get(n - 1)));
+
+			/** SQL の並び＝表示順。同一行IDのレコードは連続して返る */
+			List<PivotRowDTO> rows = cube.getRows();
+			PivotRowDTO r = null;
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					boolean rowAll = rs.getInt("g_row") == 1;
+					boolean colAll = rs.getInt("g_col") == 1;
+					UUID id = rs.getObject("id", UUID.class);
+					String label = rs.getString("label");
+					int col = rs.getInt("ymi") - fromIdx;
+					long amt = rs.getLong("amt_sen");
+
+					if (rowAll) {
+						if (colAll) {
+							cube.setGrandTotalSen(amt);
+						} else {
+							colTotals[col] = amt;
+						}
+						continue;
+					}
+					if (r == null || !r.getId().equals(id)) {
+						r = new PivotRowDTO(n);
+						r.setId(id);
+						r.setLabel(label);
+						rows.add(r);
+					}
+					if (colAll) {
+						r.setRowTotalSen(amt);
+					} else {
+						r.getAmountSen()[col] = amt;
+					}
+				}
+			}
+		}
+		return cube;
+	}
 }
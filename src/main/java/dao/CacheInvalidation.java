@@ -0,0 +1,152 @@
+package dao;
+
+import java.sql.Connection;
+import java.time.YearMonth;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * ノード内キャッシュの無効化をクラスタ全体へ伝えるバス。
+ * <p>
+ * 更新系DAOは {@link #publish} で「トピック=キー」の無効化イベントを自分のトランザクション内で発行します
+ * （{@link DbNotifications#CH_CACHE_INVALIDATION} への {@code pg_notify}）。
+ * コミット後、自ノードは直接、他ノードは LISTEN 接続経由で受け取り、該当するキャッシュだけを破棄します。
+ * ロールバックされた場合はどのノードにも届きません。
+ * </p>
+ * <p>
+ * LISTEN 接続の切断などで通知を取りこぼした可能性がある場合、および解釈できないイベントを受けた場合は、
+ * 安全側に倒してすべてのキャッシュを破棄します（{@link #flushAll()}）。
+ * </p>
+ */
+public final class CacheInvalidation {
+
+	/** キーの「全件」指定 */
+	private static final String ALL = "*";
+	/** 1 通知内のイベント区切り */
+	private static final String EVENT_SEP = " ";
+	/** トピックとキーの区切り */
+	private static final String KEY_SEP = "=";
+
+	private static boolean started;
+
+	/**
+	 * 無効化トピック。キーの意味と、キー単位／全件の破棄処理を持ちます。
+	 */
+	public enum Topic {
+		/** 秘書候補インデックスの秘書1名分（キー: 秘書ID） */
+		CANDIDATE_SECRETARY(
+				k -> SecretaryCandidateIndex.invalidateSecretary(UUID.fromString(k)),
+				SecretaryCandidateIndex::invalidateAll),
+		/** 秘書候補インデックスの月別稼働分（キー: yyyy-MM） */
+		CANDIDATE_MONTH(
+				SecretaryCandidateIndex::invalidateMonth,
+				SecretaryCandidateIndex::invalidateAll),
+		/** 売上ピボット（キー: yyyy-MM） */
+		PIVOT_SALES(
+				k -> FiscalPivotCache.invalidateMonth(FiscalPivotCache.Kind.SALES, k),
+				() -> FiscalPivotCache.invalidateAll(FiscalPivotCache.Kind.SALES)),
+		/** コストピボット（キー: yyyy-MM） */
+		PIVOT_COSTS(
+				k -> FiscalPivotCache.invalidateMonth(FiscalPivotCache.Kind.COSTS, k),
+				() -> FiscalPivotCache.invalidateAll(FiscalPivotCache.Kind.COSTS)),
+		/** 月次アーカイブ（キー: yyyy-MM。アーカイブ有無の判定とパーティション作成済みの記憶） */
+		ARCHIVE(
+				k -> {
+					ArchiveDAO.markArchived();
+					TaskPartitions.forget(YearMonth.parse(k));
+				},
+				() -> {
+					ArchiveDAO.resetArchiveCheck();
+					TaskPartitions.forgetAll();
+				});
+
+		private final Consumer<String> evictKey;
+		private final Runnable evictAll;
+
+		Topic(Consumer<String> evictKey, Runnable evictAll) {
+			this.evictKey = evictKey;
+			this.evictAll = evictAll;
+		}
+
+		/**
+		 * キー単位の無効化イベントを作ります。
+		 *
+		 * @param key キー
+		 * @return イベント（{@link #publish} に渡す）
+		 */
+		public String key(Object key) {
+			return name() + KEY_SEP + key;
+		}
+
+		/**
+		 * トピック全件の無効化イベントを作ります。
+		 *
+		 * @return イベント（{@link #publish} に渡す）
+		 */
+		public String all() {
+			return name() + KEY_SEP + ALL;
+		}
+
+		private void evict(String key) {
+			if (ALL.equals(key)) {
+				evictAll.run();
+			} else {
+				evictKey.accept(key);
+			}
+		}
+	}
+
+	private CacheInvalidation() {
+	}
+
+	/**
+	 * 無効化イベントの受信を開始します（{@link DbNotifications#start()} より前に 1 回呼び出す）。
+	 */
+	public static synchronized void start() {
+		if (started) return;
+		started = true;
+		DbNotifications.subscribe(DbNotifications.CH_CACHE_INVALIDATION, CacheInvalidation::onEvent);
+	}
+
+	/**
+	 * 無効化イベントを発行します（呼出し側のトランザクション内。複数イベントは 1 通知にまとめる）。
+	 * コミット時に全ノード（自ノードを含む）で該当キャッシュが破棄されます。
+	 *
+	 * @param conn   接続
+	 * @param events {@link Topic#key} / {@link Topic#all} で作ったイベント
+	 * @throws DAOException 発行に失敗した場合
+	 */
+	public static void publish(Connection conn, String... events) {
+		if (events.length == 0) return;
+		DbNotifications.publish(conn, DbNotifications.CH_CACHE_INVALIDATION, String.join(EVENT_SEP, events));
+	}
+
+	/**
+	 * このノードのキャッシュをすべて破棄します。
+	 */
+	public static void flushAll() {
+		for (Topic t : Topic.values()) {
+			t.evictAll.run();
+		}
+	}
+
+	/**
+	 * 通知を受けて該当キャッシュを破棄します（payload が null＝取りこぼしの可能性ありなら全件）。
+	 */
+	private static void onEvent(String payload) {
+		if (payload == null) {
+			flushAll();
+			return;
+		}
+		try {
+			for (String ev : payload.split(EVENT_SEP)) {
+				int sep = ev.indexOf(KEY_SEP);
+				Topic.valueOf(ev.substring(0, sep)).evict(ev.substring(sep + 1));
+			}
+		} catch (RuntimeException e) {
+			/** 解釈できないイベント（版違いのノード等）は全件破棄で代替 */
+			System.err.println("[CacheInvalidation] 不正な無効化イベントのため全件破棄します: " + payload);
+			flushAll();
+		}
+	}
+}
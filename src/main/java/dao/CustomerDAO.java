@@ -4,6 +4,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -13,6 +14,7 @@ import java.util.UUID;
 import dto.AssignmentDTO;
 import dto.CustomerContactDTO;
 import dto.CustomerDTO;
+import dto.CustomerDetailDTO;
 
 /**
  * Customers（顧客）テーブルを中心としたデータアクセスを提供する DAO。
@@ -125,6 +127,17 @@ public class CustomerDAO extends BaseDAO {
 	/** 重複（自レコード除外）チェック用（更新時に使用） */
 	private static final String SQL_COUNT_BY_COMPANY_CODE_EXCEPT_ID = "SELECT COUNT(*) FROM customers WHERE company_code = ? AND id <> ? AND deleted_at IS NULL";
 
+	/**
+	 * 顧客詳細の一括取得（1 回の送信で 5 つの結果セットを返す。1 つのスナップショットで読むため先頭で分離レベルを指定）。
+	 * アサインはアーカイブ済みの月も含めて継続月数・履歴を数えるため assignments_all を読む。
+	 */
+	private static final String SQL_SELECT_DETAIL = "SET TRANSACTION ISOLATION LEVEL REPEATABLE READ, READ ONLY; "
+			+ SQL_SELECT_WITH_CONTACTS + "; "
+			+ AssignmentDAO.SQL_SELECT_THIS_MONTH_BY_CUSTOMER_WITH_CONT_RANK_ALL + "; "
+			+ CustomerMonthlyInvoiceDAO.SQL_SUM_UPTO_YM + "; "
+			+ CustomerMonthlyInvoiceDAO.SQL_LAST12_UPTO_YM + "; "
+			+ AssignmentDAO.SQL_SELECT_BY_CUSTOMER_UPTO_YM_DESC_ALL;
+
 	/** =========================================================
 	 * ② フィールド／コンストラクタ
 	 * ========================================================= */
@@ -270,31 +283,67 @@ public class CustomerDAO extends BaseDAO {
             ps.setObject(1, customerId);
 
             try (ResultSet rs = ps.executeQuery()) {
-                CustomerDTO customer = null;
-                List<CustomerContactDTO> contacts = new ArrayList<>();
-
-                while (rs.next()) {
-                    if (customer == null) {
-                        /** 先頭13列（customers）を詰めるヘルパーを再利用 */
-                        customer = resultSetToCustomerDTO(rs);
-                        customer.setCustomerContacts(contacts); /** 空でもセット */
-                    }
-                    /** 14列目（cc.id）があれば担当者1件を追加 */
-                    UUID ccId = rs.getObject(14, UUID.class);
-                    if (ccId != null) {
-                        CustomerContactDTO cc = resultSetToCustomerContactDTO(rs, 14);
-                        UUID primaryId = customer.getPrimaryContactId();
-                        cc.setPrimary(primaryId != null && primaryId.equals(cc.getId())); /** 主担当フラグ */
-                        contacts.add(cc);
-                    }
-                }
-                return customer; /** 見つからなければ null のまま */
+                return readWithContacts(rs);
             }
         } catch (SQLException e) {
             throw new DAOException("E:C12 Customers（含:担当者一覧）単一取得中にエラーが発生しました。", e);
         }
     }
 
+	/**
+	 * 顧客詳細画面の表示データ（顧客＋担当者、当月アサイン、請求合計、直近12か月の請求、アサイン履歴）を
+	 * 1 回の送信・1 つのスナップショットで取得します。
+	 * 分離レベルを指定するため、トランザクションの最初の問い合わせとして呼び出してください。
+	 *
+	 * @param customerId 顧客ID
+	 * @param upToYm     基準年月（yyyy-MM）※内部で今月/来月にクランプ
+	 * @return 顧客詳細DTO（顧客が見つからなければ {@code null}）
+	 * @throws DAOException DBアクセスに失敗した場合
+	 */
+	public CustomerDetailDTO selectDetail(UUID customerId, String upToYm) {
+		try (PreparedStatement ps = conn.prepareStatement(SQL_SELECT_DETAIL)) {
+			int p = 1;
+			/** 顧客＋担当者 */
+			ps.setObject(p++, customerId);
+			/** 当月アサイン（継続月数） */
+			ps.setString(p++, upToYm);
+			ps.setString(p++, upToYm);
+			ps.setObject(p++, customerId);
+			ps.setObject(p++, customerId);
+			/** 請求合計・直近12か月・アサイン履歴 */
+			for (int i = 0; i < 3; i++) {
+				ps.setString(p++, upToYm);
+				ps.setString(p++, upToYm);
+				ps.setObject(p++, customerId);
+			}
+
+			ps.execute(); /** 先頭は SET TRANSACTION（結果セットなし） */
+			CustomerDetailDTO detail = new CustomerDetailDTO();
+			try (ResultSet rs = nextResultSet(ps)) {
+				detail.setCustomer(readWithContacts(rs));
+			}
+			if (detail.getCustomer() == null) return null;
+			try (ResultSet rs = nextResultSet(ps)) {
+				detail.setThisMonthAssignments(AssignmentDAO.readCustomerAssignments(rs, true));
+			}
+			try (ResultSet rs = nextResultSet(ps)) {
+				CustomerMonthlyInvoiceDAO.Summary s = CustomerMonthlyInvoiceDAO.readSummary(rs);
+				detail.setInvoiceTotalAmount(s.totalAmount);
+				detail.setInvoiceCount(s.count);
+				detail.setInvoiceTotalWorkMinutes(s.totalWorkMinutes);
+			}
+			try (ResultSet rs = nextResultSet(ps)) {
+				detail.setInvoicesLast12(CustomerMonthlyInvoiceDAO.readLast12(rs));
+			}
+			try (ResultSet rs = nextResultSet(ps)) {
+				detail.setAssignmentHistory(AssignmentDAO.readCustomerAssignments(rs, false));
+			}
+			return detail;
+		} catch (SQLException e) {
+			throw new DAOException("E:C19 顧客詳細の一括取得中にエラーが発生しました。", e);
+		}
+	}
+
 	/**
 	 * 指定の年月（{@code yyyy-MM}）に該当する assignments を顧客に結合して取得します。
 	 *
@@ -545,7 +594,10 @@ public class CustomerDAO extends BaseDAO {
 			ps.setString(7, dto.getAddress2());
 			ps.setString(8, dto.getBuilding());
 			ps.setObject(9, dto.getId());
-			return ps.executeUpdate();
+			int n = ps.executeUpdate();
+			/** 会社名は売上ピボットのキャッシュにも含まれるため、コミット後に破棄 */
+			CacheInvalidation.publish(conn, CacheInvalidation.Topic.PIVOT_SALES.all());
+			return n;
 		} catch (SQLException e) {
 			String errorMsg = "E:C15 Customers UPDATE 中にエラーが発生しました。";
 			throw new DAOException(errorMsg, e);
@@ -573,6 +625,7 @@ public class CustomerDAO extends BaseDAO {
 				ps.setObject(1, id);
 				ps.executeUpdate();
 			}
+			CacheInvalidation.publish(conn, CacheInvalidation.Topic.PIVOT_SALES.all());
 		} catch (SQLException e) {
 			String errorMsg = "E:C16 Customers 論理DELETE 中にエラーが発生しました。";
 			throw new DAOException(errorMsg, e);
@@ -670,6 +723,52 @@ public class CustomerDAO extends BaseDAO {
 		}
 	}
 
+	/**
+	 * {@link #SQL_SELECT_WITH_CONTACTS} の結果（顧客1件×担当者N行）を、担当者リスト込みの顧客DTOに詰め替えます。
+	 * 主担当は {@code primary_contact_id} と一致するレコードに {@link CustomerContactDTO#setPrimary(boolean)} を立てます。
+	 *
+	 * @param rs クエリ結果のカーソル
+	 * @return 顧客DTO（該当なしは {@code null}）
+	 * @throws SQLException 読み取り時に発生
+	 */
+	private CustomerDTO readWithContacts(ResultSet rs) throws SQLException {
+		CustomerDTO customer = null;
+		List<CustomerContactDTO> contacts = new ArrayList<>();
+
+		while (rs.next()) {
+			if (customer == null) {
+				/** 先頭13列（customers）を詰めるヘルパーを再利用 */
+				customer = resultSetToCustomerDTO(rs);
+				customer.setCustomerContacts(contacts); /** 空でもセット */
+			}
+			/** 14列目（cc.id）があれば担当者1件を追加 */
+			UUID ccId = rs.getObject(14, UUID.class);
+			if (ccId != null) {
+				CustomerContactDTO cc = resultSetToCustomerContactDTO(rs, 14);
+				UUID primaryId = customer.getPrimaryContactId();
+				cc.setPrimary(primaryId != null && primaryId.equals(cc.getId())); /** 主担当フラグ */
+				contacts.add(cc);
+			}
+		}
+		return customer; /** 見つからなければ null のまま */
+	}
+
+	/**
+	 * 複数文の実行結果から、次の結果セットまで進めて返します（更新件数の結果は読み飛ばします）。
+	 *
+	 * @param st 実行済みのステートメント
+	 * @return 次の結果セット
+	 * @throws SQLException 結果セットが残っていない場合
+	 */
+	private static ResultSet nextResultSet(Statement st) throws SQLException {
+		while (!st.getMoreResults()) {
+			if (st.getUpdateCount() == -1) {
+				throw new SQLException("expected another result set");
+			}
+		}
+		return st.getResultSet();
+	}
+
 	/**
 	 * 指定開始位置（例：14列目＝cc.id）から10列分を {@link CustomerContactDTO} に詰め替えます。
 	 *
@@ -1,19 +1,21 @@
 package dao;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
 import java.util.UUID;
 
 import dto.CustomerDTO;
 import dto.CustomerMonthlyInvoiceDTO;
-import dto.PivotRowDTO;
+import dto.PivotCubeDTO;
+import util.UuidV7;
 
 /**
  * 顧客月次請求（{@code customer_monthly_invoices}）の集計・参照・UPSERT を司る DAO。
@@ -31,16 +33,38 @@ public class CustomerMonthlyInvoiceDAO extends BaseDAO {
      * ① フィールド（SQL 定義）
      * ======================== */
 
-    /** 顧客×月の売上（合算）を取得（期間指定） */
-    private static final String SQL_SALES_BY_CUSTOMER_MONTH =
-        "SELECT c.id AS cid, c.company_name AS cname, i.target_year_month AS ym, " +
-        "       COALESCE(SUM(i.total_amount),0) AS amt " +
+    /**
+     * 顧客×月の売上ピボット（期間指定）。
+     * {@code CUBE} でセル（顧客×月）・行合計（顧客）・列合計（月）・総合計を 1 クエリで返します。
+     * 並びは「顧客名順に各顧客のセル→行合計」「列合計」「総合計」（{@link BaseDAO#selectPivotCube} の前提）。
+     */
+    private static final String SQL_SALES_CUBE =
+        "SELECT c.id AS id, MIN(c.company_name) AS label, i.ym_index AS ymi, " +
+        "       (COALESCE(SUM(i.total_amount),0) * 100)::bigint AS amt_sen, " +
+        "       GROUPING(c.id) AS g_row, GROUPING(i.ym_index) AS g_col " +
         "  FROM customer_monthly_invoices i " +
         "  JOIN customers c ON c.id = i.customer_id AND c.deleted_at IS NULL " +
         " WHERE i.deleted_at IS NULL " +
-        "   AND i.target_year_month BETWEEN ? AND ? " +
-        " GROUP BY c.id, c.company_name, i.target_year_month " +
-        " ORDER BY c.company_name, i.target_year_month";
+        "   AND i.ym_index BETWEEN ? AND ? " +
+        " GROUP BY CUBE (c.id, i.ym_index) " +
+        " ORDER BY GROUPING(c.id), MIN(c.company_name), c.id, GROUPING(i.ym_index), i.ym_index";
+
+    /**
+     * 顧客×月の請求明細を CSV（ヘッダ付き）で出力する COPY 文（会計エクスポート用）。
+     * COPY はバインド変数を使えないため、期間の ym_index（%d）を埋め込んで使用します。
+     * 顧客コード・会社名は数式として解釈されないよう {@link #csvSafe} で整形します。
+     */
+    private static final String SQL_COPY_SALES_DETAIL =
+        "COPY ( " +
+        "SELECT " + csvSafe("c.company_code", "company_code") + ", " +
+        "       " + csvSafe("c.company_name", "company_name") + ", i.target_year_month, " +
+        "       i.total_amount, i.total_tasks_count, i.total_work_time, i.status " +
+        "  FROM customer_monthly_invoices i " +
+        "  JOIN customers c ON c.id = i.customer_id AND c.deleted_at IS NULL " +
+        " WHERE i.deleted_at IS NULL " +
+        "   AND i.ym_index BETWEEN %d AND %d " +
+        " ORDER BY c.company_name, c.id, i.ym_index " +
+        ") TO STDOUT WITH (FORMAT csv, HEADER true)";
 
     /**
      * 当月の「顧客ごと合計」を tasks / assignments から集計（顧客単価ベース）。
@@ -54,22 +78,40 @@ public class CustomerMonthlyInvoiceDAO extends BaseDAO {
         "           + a.customer_based_incentive_for_customer) * (t.work_minute / 60.0) )::numeric(12,2) AS total_amount " +
         "  FROM tasks t " +
         "  JOIN assignments a ON t.assignment_id = a.id " +
-        " WHERE a.target_year_month = ? " +
+        " WHERE a.target_year_month = ? " + AND_TASK_IN_MONTH +
         "   AND t.deleted_at IS NULL " +
         " GROUP BY a.customer_id ";
 
-    /** 顧客×年月の UPSERT（DRAFT 固定） */
+    /** 顧客×年月の UPSERT（DRAFT 固定。新規行の id はアプリ側で UUIDv7 を採番） */
     private static final String SQL_UPSERT_CMI =
         "INSERT INTO customer_monthly_invoices (" +
-        "  customer_id, target_year_month, total_amount, " +
+        "  id, customer_id, target_year_month, total_amount, " +
         "  total_tasks_count, total_work_time, status" +
-        ") VALUES (?,?,?,?,?, 'DRAFT') " +
+        ") VALUES (?,?,?,?,?,?, 'DRAFT') " +
         "ON CONFLICT (customer_id, target_year_month) DO UPDATE SET " +
         "  total_amount      = EXCLUDED.total_amount, " +
         "  total_tasks_count = EXCLUDED.total_tasks_count, " +
         "  total_work_time   = EXCLUDED.total_work_time, " +
         "  status            = 'DRAFT', " +
-        "  updated_at        = CURRENT_TIMESTAMP";
+        "  updated_at        = CURRENT_TIMESTAMP " +
+        "WHERE customer_monthly_invoices.finalized_at IS NULL";
+
+    /** 単月の確定済み CMI（合計金額）取得 */
+    private static final String SQL_SELECT_FINALIZED_BY_COS_MONTHLY =
+        "SELECT total_amount " +
+        "  FROM customer_monthly_invoices " +
+        " WHERE deleted_at IS NULL " +
+        "   AND finalized_at IS NOT NULL " +
+        "   AND customer_id = ? " +
+        "   AND target_year_month = ?";
+
+    /** 月の確定済み CMI 合計（全顧客） */
+    private static final String SQL_SUM_FINALIZED_MONTH =
+        "SELECT COALESCE(SUM(total_amount),0) " +
+        "  FROM customer_monthly_invoices " +
+        " WHERE deleted_at IS NULL " +
+        "   AND finalized_at IS NOT NULL " +
+        "   AND ym_index = ?";
 
     /** 単月の CMI（合計金額）取得 */
     private static final String SQL_SELECT_BY_COS_MONTHLY =
@@ -85,27 +127,29 @@ public class CustomerMonthlyInvoiceDAO extends BaseDAO {
      * 〜指定YM（但し今月/来月を上限にクランプ）の累計（件数／金額／合計稼働分）。
      * クランプの意図：未来に過度な集計が進まないようにするため。
      */
-    private static final String SQL_SUM_UPTO_YM =
+    static final String SQL_SUM_UPTO_YM =
         "WITH eff AS ( " +
-        "  SELECT CASE " +
+        "  SELECT e.ym, substr(e.ym, 1, 4)::int * 12 + substr(e.ym, 6, 2)::int AS ym_index " +
+        "  FROM ( SELECT CASE " +
         "    WHEN ? > to_char(date_trunc('month', current_date) + interval '1 month','YYYY-MM') " +
         "    THEN to_char(date_trunc('month', current_date) + interval '1 month','YYYY-MM') " +
-        "    ELSE ? END AS ym " +
+        "    ELSE ? END AS ym ) e " +
         ") " +
         "SELECT COALESCE(sum(total_amount),0) AS sum_amount, " +
         "       COUNT(*) AS cnt, " +
         "       COALESCE(sum(total_work_time),0) AS sum_work " +
         "  FROM customer_monthly_invoices " +
         " WHERE deleted_at IS NULL AND customer_id = ? " +
-        "   AND target_year_month <= (SELECT ym FROM eff)";
+        "   AND ym_index <= (SELECT ym_index FROM eff)";
 
     /** 直近12か月（〜指定YM、降順）の CMI 一覧（customers と結合） */
-    private static final String SQL_LAST12_UPTO_YM =
+    static final String SQL_LAST12_UPTO_YM =
         "WITH eff AS ( " +
-        "  SELECT CASE " +
+        "  SELECT e.ym, substr(e.ym, 1, 4)::int * 12 + substr(e.ym, 6, 2)::int AS ym_index " +
+        "  FROM ( SELECT CASE " +
         "    WHEN ? > to_char(date_trunc('month', current_date) + interval '1 month','YYYY-MM') " +
         "    THEN to_char(date_trunc('month', current_date) + interval '1 month','YYYY-MM') " +
-        "    ELSE ? END AS ym " +
+        "    ELSE ? END AS ym ) e " +
         ") " +
         "SELECT " +
         "  cmi.id, cmi.customer_id, cmi.target_year_month, " +
@@ -116,9 +160,8 @@ public class CustomerMonthlyInvoiceDAO extends BaseDAO {
         "JOIN customers c ON c.id = cmi.customer_id " +
         "WHERE cmi.deleted_at IS NULL " +
         "  AND cmi.customer_id = ? " +
-        "  AND cmi.target_year_month >= to_char((to_date((SELECT ym FROM eff)||'-01','YYYY-MM-DD') - interval '11 months'),'YYYY-MM') " +
-        "  AND cmi.target_year_month <= (SELECT ym FROM eff) " +
-        "ORDER BY cmi.target_year_month DESC";
+        "  AND cmi.ym_index BETWEEN (SELECT ym_index FROM eff) - 11 AND (SELECT ym_index FROM eff) " +
+        "ORDER BY cmi.ym_index DESC";
 
     /** ========================
      * ② フィールド、コンストラクタ
@@ -140,58 +183,42 @@ public class CustomerMonthlyInvoiceDAO extends BaseDAO {
      * ========================= */
 
     /**
-     * 指定範囲（{@code fromYm}〜{@code toYm}）の「顧客×月」売上をピボット行 DTO として取得します。
-     * 返却は顧客ごと 1 行（{@link PivotRowDTO}）で、列は {@code months} に与えた yyyy-MM をキーにした
-     * 金額マップ（存在しない月は 0 初期化）、および行合計 {@code rowTotal} を含みます。
+     * 会計年度などの連続した月（{@code months}）について「顧客×月」売上ピボットを取得します。
+     * セル・行合計・列合計・総合計はいずれも DB 側で集計した値です（Java 側での再集計なし）。
+     * 存在しない月のセルは 0 で埋めます。
      *
-     * @param fromYm  期間開始（含む, yyyy-MM）
-     * @param toYm    期間終了（含む, yyyy-MM）
-     * @param months  列見出しにしたい年月（yyyy-MM）の並び（表示順のため必須）
-     * @return 顧客行（ピボット）リスト。0件可
+     * @param months 列にする年月（yyyy-MM、連続した昇順。先頭・末尾が期間境界）
+     * @return ピボット集計結果（顧客名昇順）
      * @throws DAOException 集計取得に失敗した場合
      */
-    public List<PivotRowDTO> selectSalesByCustomerMonth(String fromYm, String toYm, List<String> months) {
-        try (PreparedStatement ps = conn.prepareStatement(SQL_SALES_BY_CUSTOMER_MONTH)) {
-            ps.setString(1, fromYm);
-            ps.setString(2, toYm);
-
-            /** 顧客IDごとに行を保持（LinkedHashMap で安定順） */
-            Map<UUID, PivotRowDTO> map = new LinkedHashMap<>();
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    UUID cid = rs.getObject("cid", UUID.class);
-                    String cname = rs.getString("cname");
-                    String ym = rs.getString("ym");
-                    BigDecimal amt = rs.getBigDecimal("amt");
-
-                    PivotRowDTO row = map.get(cid);
-                    if (row == null) {
-                        row = new PivotRowDTO();
-                        row.setId(cid);
-                        row.setLabel(cname);
-                        /** 列穴あきを避けるため、先に全月を 0 埋め */
-                        for (String m : months) {
-                            row.getAmountByYm().put(m, BigDecimal.ZERO);
-                        }
-                        map.put(cid, row);
-                    }
-                    row.getAmountByYm().put(ym, amt == null ? BigDecimal.ZERO : amt);
-                }
-            }
-            /** 行合計 */
-            for (PivotRowDTO r : map.values()) {
-                BigDecimal sum = BigDecimal.ZERO;
-                for (String ym : months) {
-                    sum = sum.add(r.getAmountByYm().getOrDefault(ym, BigDecimal.ZERO));
-                }
-                r.setRowTotal(sum);
-            }
-            return new ArrayList<>(map.values());
+    public PivotCubeDTO selectSalesCube(List<String> months) {
+        try {
+            return selectPivotCube(SQL_SALES_CUBE, months);
         } catch (SQLException e) {
             throw new DAOException("E:CMI21 顧客×月の売上取得に失敗しました。", e);
         }
     }
 
+    /**
+     * 期間内の「顧客×月」請求明細を CSV で出力先へ直接書き出します（COPY TO STDOUT）。
+     * 行は JDBC 側で組み立てず、DB が整形した CSV をそのまま転送します。
+     *
+     * @param fromYm 期間開始（YYYY-MM、境界含む）
+     * @param toYm   期間終了（YYYY-MM、境界含む）
+     * @param out    出力先（呼び出し側でクローズ）
+     * @return 出力行数（ヘッダ除く）
+     * @throws DAOException  DBアクセスに失敗した場合
+     * @throws IOException   出力先への書き込みに失敗した場合
+     */
+    public long copySalesDetailCsv(String fromYm, String toYm, OutputStream out) throws IOException {
+        String sql = String.format(Locale.ROOT, SQL_COPY_SALES_DETAIL, toYmIndex(fromYm), toYmIndex(toYm));
+        try {
+            return copyOut(sql, out);
+        } catch (SQLException e) {
+            throw new DAOException("E:CMI22 顧客×月の売上明細出力に失敗しました。", e);
+        }
+    }
+
     /** =========================
      * SELECT（単月参照）
      * ========================= */
@@ -220,6 +247,45 @@ public class CustomerMonthlyInvoiceDAO extends BaseDAO {
         return null; /** 該当なし */
     }
 
+    /**
+     * 月次締めで確定済みの、顧客×月の合計金額を取得します。
+     *
+     * @param customerId 顧客ID
+     * @param yearMonth  年月（yyyy-MM）
+     * @return 確定済みの合計金額（未確定・該当なしは null）
+     * @throws DAOException DBアクセスに失敗した場合
+     */
+    public BigDecimal selectFinalizedAmount(UUID customerId, String yearMonth) {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_SELECT_FINALIZED_BY_COS_MONTHLY)) {
+            ps.setObject(1, customerId);
+            ps.setString(2, yearMonth);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getBigDecimal(1) : null;
+            }
+        } catch (SQLException e) {
+            throw new DAOException("E:CMI02 確定済み月次請求の取得に失敗しました。", e);
+        }
+    }
+
+    /**
+     * 月次締めで確定済みの、月の合計金額（全顧客）を取得します。
+     *
+     * @param yearMonth 年月（yyyy-MM）
+     * @return 合計金額（確定行なしは 0）
+     * @throws DAOException DBアクセスに失敗した場合
+     */
+    public BigDecimal selectFinalizedTotal(String yearMonth) {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_SUM_FINALIZED_MONTH)) {
+            ps.setInt(1, toYmIndex(yearMonth));
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getBigDecimal(1);
+            }
+        } catch (SQLException e) {
+            throw new DAOException("E:CMI03 確定済み月次請求の合計取得に失敗しました。", e);
+        }
+    }
+
     /** =========================
      * UPSERT（集計→CMI）
      * ========================= */
@@ -240,6 +306,7 @@ public class CustomerMonthlyInvoiceDAO extends BaseDAO {
              PreparedStatement psIns = conn.prepareStatement(SQL_UPSERT_CMI)) {
 
             psSel.setString(1, yearMonth);
+            setMonthRange(psSel, 2, yearMonth);
 
             int totalAffected = 0;
             try (ResultSet rs = psSel.executeQuery()) {
@@ -251,6 +318,7 @@ public class CustomerMonthlyInvoiceDAO extends BaseDAO {
                     if (amount == null) amount = BigDecimal.ZERO;
 
                     int i = 1;
+                    psIns.setObject(i++, UuidV7.generate());
                     psIns.setObject(i++, customerId);
                     psIns.setString(i++, yearMonth);
                     psIns.setBigDecimal(i++, amount);
@@ -260,6 +328,7 @@ public class CustomerMonthlyInvoiceDAO extends BaseDAO {
                     totalAffected += psIns.executeUpdate();
                 }
             }
+            CacheInvalidation.publish(conn, CacheInvalidation.Topic.PIVOT_SALES.key(yearMonth));
             return totalAffected;
         } catch (SQLException e) {
             throw new DAOException("E:CMI-UP01 顧客月次請求のUPSERTに失敗しました。", e);
@@ -289,13 +358,7 @@ public class CustomerMonthlyInvoiceDAO extends BaseDAO {
             ps.setObject(p++, customerId);
 
             try (ResultSet rs = ps.executeQuery()) {
-                Summary s = new Summary();
-                if (rs.next()) {
-                    s.totalAmount      = rs.getBigDecimal("sum_amount");
-                    s.count            = rs.getInt("cnt");
-                    s.totalWorkMinutes = rs.getInt("sum_work");
-                }
-                return s;
+                return readSummary(rs);
             }
         } catch (SQLException e) {
             throw new DAOException("E:CMI01 顧客合計（〜今月）取得に失敗しました。", e);
@@ -321,32 +384,7 @@ public class CustomerMonthlyInvoiceDAO extends BaseDAO {
             ps.setObject(p++, customerId);
 
             try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    int i = 1;
-                    CustomerMonthlyInvoiceDTO d = new CustomerMonthlyInvoiceDTO();
-                    d.setId(rs.getObject(i++, UUID.class));
-
-                    /** 顧客最小情報（ID/コード/名称） */
-                    UUID cid = rs.getObject(i++, UUID.class);
-                    CustomerDTO c = new CustomerDTO();
-                    c.setId(cid);
-                    d.setCustomer(c);
-
-                    d.setTargetYearMonth(rs.getString(i++));
-                    d.setTotalAmount(rs.getBigDecimal(i++));
-                    d.setTotalTasksCount((Integer) rs.getObject(i++));
-                    d.setTotalWorkTime((Integer) rs.getObject(i++));
-                    d.setStatus(rs.getString(i++));
-                    d.setCreatedAt(rs.getTimestamp(i++));
-                    d.setUpdatedAt(rs.getTimestamp(i++));
-                    d.setDeletedAt(rs.getTimestamp(i++));
-
-                    /** customers 由来 */
-                    c.setCompanyCode(rs.getString(i++));
-                    c.setCompanyName(rs.getString(i++));
-
-                    list.add(d);
-                }
+                list = readLast12(rs);
             }
         } catch (SQLException e) {
             throw new DAOException("E:CMI02 直近1年分の請求取得に失敗しました。", e);
@@ -354,6 +392,61 @@ public class CustomerMonthlyInvoiceDAO extends BaseDAO {
         return list;
     }
 
+    /**
+     * {@link #SQL_SUM_UPTO_YM} の結果を読み取ります。
+     *
+     * @param rs 結果セット
+     * @return 合計サマリー（該当なしは 0）
+     * @throws SQLException 読み取り時に発生
+     */
+    static Summary readSummary(ResultSet rs) throws SQLException {
+        Summary s = new Summary();
+        if (rs.next()) {
+            s.totalAmount      = rs.getBigDecimal("sum_amount");
+            s.count            = rs.getInt("cnt");
+            s.totalWorkMinutes = rs.getInt("sum_work");
+        }
+        return s;
+    }
+
+    /**
+     * {@link #SQL_LAST12_UPTO_YM} の結果を読み取ります。
+     *
+     * @param rs 結果セット
+     * @return CMI DTO リスト（顧客の会社コード・会社名のみ設定）
+     * @throws SQLException 読み取り時に発生
+     */
+    static List<CustomerMonthlyInvoiceDTO> readLast12(ResultSet rs) throws SQLException {
+        List<CustomerMonthlyInvoiceDTO> list = new ArrayList<>();
+        while (rs.next()) {
+            int i = 1;
+            CustomerMonthlyInvoiceDTO d = new CustomerMonthlyInvoiceDTO();
+            d.setId(rs.getObject(i++, UUID.class));
+
+            /** 顧客最小情報（ID/コード/名称） */
+            UUID cid = rs.getObject(i++, UUID.class);
+            CustomerDTO c = new CustomerDTO();
+            c.setId(cid);
+            d.setCustomer(c);
+
+            d.setTargetYearMonth(rs.getString(i++));
+            d.setTotalAmount(rs.getBigDecimal(i++));
+            d.setTotalTasksCount((Integer) rs.getObject(i++));
+            d.setTotalWorkTime((Integer) rs.getObject(i++));
+            d.setStatus(rs.getString(i++));
+            d.setCreatedAt(rs.getTimestamp(i++));
+            d.setUpdatedAt(rs.getTimestamp(i++));
+            d.setDeletedAt(rs.getTimestamp(i++));
+
+            /** customers 由来 */
+            c.setCompanyCode(rs.getString(i++));
+            c.setCompanyName(rs.getString(i++));
+
+            list.add(d);
+        }
+        return list;
+    }
+
     /** =========================
      * 内部型
      * ========================= */
@@ -0,0 +1,210 @@
+package dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+/**
+ * PostgreSQL の LISTEN/NOTIFY を使ったノード間のイベント配信。
+ * <p>
+ * {@link #publish} は呼出し側のトランザクション内で {@code pg_notify} を発行し、
+ * コミット後に同じノードの購読者へ直接通知します（NOTIFY もコミット時に他ノードへ配信される）。
+ * 他ノードからの通知は専用接続で LISTEN するスレッド（{@link #start()}）が受け取り、購読者へ渡します。
+ * 自ノードが発行した通知はペイロード先頭のノードIDで判別して読み飛ばします。
+ * </p>
+ * <p>
+ * LISTEN 接続が切れて再接続した場合（起動時に接続できなかった場合を含む）、その間の通知は失われるため、
+ * 購読者へペイロード {@code null}（＝取りこぼしの可能性あり。状態を読み直すこと）を渡します。
+ * 通知が途絶えている間も定期的に生存確認を行い、応答の無い接続は切断として扱います。
+ * </p>
+ */
+public final class DbNotifications {
+
+	/** タスクの状態変化（登録・更新・承認・差戻し・アラート等）。ペイロードは "種別:タスクID" */
+	public static final String CH_TASK_EVENTS = "task_events";
+	/** ノード内キャッシュの無効化（{@link CacheInvalidation}）。ペイロードは "トピック=キー" を空白区切り */
+	public static final String CH_CACHE_INVALIDATION = "cache_invalidation";
+
+	/** 通知発行 */
+	private static final String SQL_NOTIFY = "SELECT pg_notify(?, ?)";
+	/** LISTEN 接続の生存確認 */
+	private static final String SQL_PING = "SELECT 1";
+
+	/** このノードの識別子（自ノード発行の通知を読み飛ばすため） */
+	private static final String NODE_ID = UUID.randomUUID().toString();
+
+	/** 通知待ちの最大時間（ミリ秒。停止要求の確認間隔を兼ねる） */
+	private static final int POLL_MILLIS = 5_000;
+	/** 接続失敗時の再接続待ち（ミリ秒） */
+	private static final long RETRY_MILLIS = 5_000L;
+	/** 通知が無い間に LISTEN 接続の生存を確認する間隔（ミリ秒。無応答の切断を検知するため） */
+	private static final long PING_MILLIS = 30_000L;
+	/** LISTEN 接続のソケット読み取りタイムアウト（ミリ秒。生存確認が応答しない場合に切断扱いにする） */
+	private static final int NETWORK_TIMEOUT_MILLIS = 15_000;
+
+	/** チャネル → 購読者 */
+	private static final Map<String, List<Consumer<String>>> subscribers = new ConcurrentHashMap<>();
+
+	/** LISTEN スレッド */
+	private static Thread listener;
+	private static volatile boolean running;
+
+	private DbNotifications() {
+	}
+
+	/**
+	 * チャネルを購読します（{@link #start()} の後に登録したチャネルも次の受信待ちから LISTEN します）。
+	 *
+	 * @param channel チャネル名
+	 * @param handler 通知ペイロードを受け取る処理（取りこぼしの可能性がある場合は {@code null}）
+	 */
+	public static void subscribe(String channel, Consumer<String> handler) {
+		subscribers.computeIfAbsent(channel, k -> new CopyOnWriteArrayList<>()).add(handler);
+	}
+
+	/**
+	 * 通知を発行します。呼出し側のトランザクションがコミットされた時点で、
+	 * 自ノードの購読者と他ノード（LISTEN 中の接続）へ配信されます。
+	 *
+	 * @param conn    接続
+	 * @param channel チャネル名
+	 * @param payload ペイロード
+	 * @throws DAOException 発行に失敗した場合
+	 */
+	public static void publish(Connection conn, String channel, String payload) {
+		try (PreparedStatement ps = conn.prepareStatement(SQL_NOTIFY)) {
+			ps.setString(1, channel);
+			ps.setString(2, NODE_ID + ":" + payload);
+			ps.execute();
+		} catch (SQLException e) {
+			throw new DAOException("E:DN01 通知の発行に失敗しました。", e);
+		}
+		TransactionManager.afterCommit(conn, () -> dispatch(channel, payload));
+	}
+
+	/**
+	 * LISTEN スレッドを開始します（アプリケーション起動時に 1 回呼び出す）。
+	 */
+	public static synchronized void start() {
+		if (listener != null) return;
+		running = true;
+		listener = new Thread(DbNotifications::listenLoop, "db-notifications");
+		listener.setDaemon(true);
+		listener.start();
+	}
+
+	/**
+	 * LISTEN スレッドを停止します（アプリケーション終了時に呼び出す）。
+	 */
+	public static synchronized void stop() {
+		running = false;
+		if (listener != null) {
+			listener.interrupt();
+			try {
+				listener.join(POLL_MILLIS + 1_000L);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			listener = null;
+		}
+	}
+
+	/**
+	 * 接続 → LISTEN → 受信ループ。切断時は待機して再接続します。
+	 */
+	private static void listenLoop() {
+		boolean gap = false;
+		while (running) {
+			try (Connection conn = TransactionManager.openDedicatedConnection()) {
+				conn.setNetworkTimeout(Runnable::run, NETWORK_TIMEOUT_MILLIS);
+				Set<String> listening = new HashSet<>();
+				listenNewChannels(conn, listening);
+				if (gap) {
+					/** 切断中の通知は届かないため、購読者に読み直しを促す */
+					listening.forEach(ch -> dispatch(ch, null));
+					gap = false;
+				}
+
+				PGConnection pg = conn.unwrap(PGConnection.class);
+				long lastHeard = System.currentTimeMillis();
+				while (running) {
+					listenNewChannels(conn, listening);
+					PGNotification[] notes = pg.getNotifications(POLL_MILLIS);
+					long now = System.currentTimeMillis();
+					if (notes == null || notes.length == 0) {
+						if (now - lastHeard >= PING_MILLIS) {
+							ping(conn);
+							lastHeard = now;
+						}
+						continue;
+					}
+					lastHeard = now;
+					for (PGNotification n : notes) {
+						String param = n.getParameter();
+						int sep = param.indexOf(':');
+						if (sep < 0 || param.substring(0, sep).equals(NODE_ID)) continue;
+						dispatch(n.getName(), param.substring(sep + 1));
+					}
+				}
+			} catch (SQLException e) {
+				if (!running) break;
+				gap = true;
+				System.err.println("[DbNotifications] LISTEN 接続エラー（再接続します）: " + e.getMessage());
+				try {
+					Thread.sleep(RETRY_MILLIS);
+				} catch (InterruptedException ie) {
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * 未 LISTEN のチャネル（起動後に購読されたものを含む）を LISTEN します。
+	 */
+	private static void listenNewChannels(Connection conn, Set<String> listening) throws SQLException {
+		for (String channel : subscribers.keySet()) {
+			if (listening.contains(channel)) continue;
+			try (Statement st = conn.createStatement()) {
+				st.execute("LISTEN " + channel);
+			}
+			listening.add(channel);
+		}
+	}
+
+	/**
+	 * LISTEN 接続の生存を確認します（応答が無ければネットワークタイムアウトで SQLException）。
+	 */
+	private static void ping(Connection conn) throws SQLException {
+		try (Statement st = conn.createStatement()) {
+			st.execute(SQL_PING);
+		}
+	}
+
+	/**
+	 * 購読者へ通知を渡します（個々の失敗はログのみ）。
+	 */
+	private static void dispatch(String channel, String payload) {
+		List<Consumer<String>> handlers = subscribers.get(channel);
+		if (handlers == null) return;
+		for (Consumer<String> h : handlers) {
+			try {
+				h.accept(payload);
+			} catch (RuntimeException e) {
+				System.err.println("[DbNotifications] 通知処理中のエラー（" + channel + "）: " + e.getMessage());
+			}
+		}
+	}
+}
@@ -0,0 +1,139 @@
+package dao;
+
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import dto.PivotCubeDTO;
+
+/**
+ * 売上（顧客×月）・コスト（秘書×月）の会計年度ピボットのインメモリキャッシュ。
+ * <p>
+ * 締め済み（年度末を過ぎた）会計年度の集計結果は通常変化しないため、期限なしで保持します。
+ * 進行中の年度は常に DB から集計します。
+ * 締め済み年度でも過去月の月次データが再集計された場合に備え、
+ * 無効化は月次 UPSERT・顧客／秘書の更新／削除のコミット後に {@link TransactionManager#afterCommit} 経由で行われます。
+ * </p>
+ */
+public final class FiscalPivotCache {
+
+	/** ピボットの種類 */
+	public enum Kind {
+		/** 売上（customer_monthly_invoices） */
+		SALES,
+		/** コスト（secretary_monthly_summaries） */
+		COSTS
+	}
+
+	/** 年度判定のタイムゾーン */
+	private static final ZoneId ZONE = ZoneId.of("Asia/Tokyo");
+	/** 会計年度の開始月 */
+	private static final int FY_START_MONTH = 4;
+
+	/** (種類, 会計年度) → 集計結果（締め済み年度のみ） */
+	private static final Map<String, PivotCubeDTO> cubes = new ConcurrentHashMap<>();
+	/** キャッシュの世代（読込中に無効化された結果を格納しないため） */
+	private static final AtomicLong generation = new AtomicLong();
+
+	private FiscalPivotCache() {
+	}
+
+	/** ========================
+	 * 無効化
+	 * ======================== */
+
+	/**
+	 * 指定月を含む会計年度のキャッシュを破棄します。
+	 *
+	 * @param kind      種類
+	 * @param yearMonth 年月（yyyy-MM）
+	 */
+	public static void invalidateMonth(Kind kind, String yearMonth) {
+		if (yearMonth == null) return;
+		generation.incrementAndGet();
+		cubes.remove(key(kind, fiscalYearOf(YearMonth.parse(yearMonth.trim()))));
+	}
+
+	/**
+	 * 指定種類のすべての年度のキャッシュを破棄します（顧客名・秘書名の変更、削除時など）。
+	 *
+	 * @param kind 種類
+	 */
+	public static void invalidateAll(Kind kind) {
+		generation.incrementAndGet();
+		String prefix = kind.name() + ":";
+		cubes.keySet().removeIf(k -> k.startsWith(prefix));
+	}
+
+	/**
+	 * すべてのキャッシュを破棄します。
+	 */
+	public static void invalidateAll() {
+		generation.incrementAndGet();
+		cubes.clear();
+	}
+
+	/** ========================
+	 * 取得
+	 * ======================== */
+
+	/**
+	 * 会計年度のピボットを返します。締め済み年度はキャッシュから、進行中の年度は DB から取得します。
+	 *
+	 * @param conn   集計用の接続
+	 * @param kind   種類
+	 * @param fy     会計年度（4月開始）
+	 * @param months 会計年度の12か月（yyyy-MM、4月→翌3月）
+	 * @return 集計結果（キャッシュ共有のため変更不可として扱うこと）
+	 */
+	public static PivotCubeDTO get(Connection conn, Kind kind, int fy, List<String> months) {
+		if (!isClosed(fy)) {
+			return load(conn, kind, months);
+		}
+		String key = key(kind, fy);
+		PivotCubeDTO cached = cubes.get(key);
+		if (cached != null) return cached;
+
+		long gen = generation.get();
+		PivotCubeDTO cube = load(conn, kind, months);
+		/** 読込中に無効化されていなければ格納 */
+		if (generation.get() == gen) {
+			cubes.putIfAbsent(key, cube);
+		}
+		return cube;
+	}
+
+	/**
+	 * 会計年度が締め済み（年度末を過ぎている）かを返します。
+	 *
+	 * @param fy 会計年度（4月開始）
+	 * @return 締め済みなら true
+	 */
+	public static boolean isClosed(int fy) {
+		return !LocalDate.now(ZONE).isBefore(LocalDate.of(fy + 1, FY_START_MONTH, 1));
+	}
+
+	/** ========================
+	 * 内部処理
+	 * ======================== */
+
+	private static PivotCubeDTO load(Connection conn, Kind kind, List<String> months) {
+		return switch (kind) {
+		case SALES -> new CustomerMonthlyInvoiceDAO(conn).selectSalesCube(months);
+		case COSTS -> new SecretaryMonthlySummaryDAO(conn).selectCostsCube(months);
+		};
+	}
+
+	private static int fiscalYearOf(YearMonth ym) {
+		return (ym.getMonthValue() >= FY_START_MONTH) ? ym.getYear() : ym.getYear() - 1;
+	}
+
+	private static String key(Kind kind, int fy) {
+		return kind.name() + ":" + fy;
+	}
+}
@@ -11,10 +11,14 @@ import java.sql.Types;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import dto.AssignmentDTO;
 import dto.InvoiceDTO;
+import dto.SecretaryDTO;
+import dto.SecretaryMonthlySummaryDTO;
 import dto.TaskDTO;
+import util.UuidV7;
 
 /**
  * 請求まわり（明細・集計・月次サマリ）を扱う DAO。
@@ -52,7 +56,7 @@ public class InvoiceDAO extends BaseDAO {
       + " ON a.customer_id = c.id"
       + " INNER JOIN task_rank tr"
       + " ON a.task_rank_id = tr.id"
-      + " WHERE a.target_year_month = ?"
+      + " WHERE a.target_year_month = ?" + AND_TASK_IN_MONTH
       + " AND a.secretary_id = ? AND t.deleted_at IS NULL "
       + " ORDER BY t.start_time";
 
@@ -69,7 +73,7 @@ public class InvoiceDAO extends BaseDAO {
       + " ON a.customer_id = c.id"
       + " INNER JOIN task_rank tr"
       + " ON a.task_rank_id = tr.id"
-      + " WHERE a.target_year_month = ?"
+      + " WHERE a.target_year_month = ?" + AND_TASK_IN_MONTH
       + " AND a.secretary_id = ? AND t.deleted_at IS NULL "
       + " GROUP BY c.id,"
       + " c.company_name,"
@@ -90,8 +94,7 @@ public class InvoiceDAO extends BaseDAO {
       + "  JOIN secretaries s  ON a.secretary_id  = s.id "
       + "  JOIN task_rank tr   ON a.task_rank_id  = tr.id "
       + " WHERE a.customer_id = ? AND t.deleted_at IS NULL "
-      + "   AND t.work_date >= to_date(? || '-01','YYYY-MM-DD') "
-      + "   AND t.work_date <  (to_date(? || '-01','YYYY-MM-DD') + INTERVAL '1 month') "
+      + AND_TASK_IN_MONTH
       + " ORDER BY t.start_time";
 
     private static final String SQL_SELECT_TOTAL_MINUTES_BY_SECRETARY_AND_CUSTOMER =
@@ -104,23 +107,24 @@ public class InvoiceDAO extends BaseDAO {
       + "  JOIN secretaries s  ON a.secretary_id  = s.id "
       + "  JOIN task_rank tr   ON a.task_rank_id  = tr.id "
       + " WHERE a.customer_id = ? AND t.deleted_at IS NULL "
-      + "   AND t.work_date >= to_date(? || '-01','YYYY-MM-DD') "
-      + "   AND t.work_date <  (to_date(? || '-01','YYYY-MM-DD') + INTERVAL '1 month') "
+      + AND_TASK_IN_MONTH
       + " GROUP BY s.id, s.name, a.base_pay_customer, a.increase_base_pay_customer, a.customer_based_incentive_for_customer, tr.rank_name, tr.rank_no "
       + " ORDER BY s.name, tr.rank_no";
 
+    /** 秘書×年月の月次サマリ UPSERT（新規行の id はアプリ側で UUIDv7 を採番） */
     private static final String SQL_UPSERT_MONTHLY_SUMMARY =
         "INSERT INTO secretary_monthly_summaries ("
-      + "  secretary_id, target_year_month, total_secretary_amount, "
+      + "  id, secretary_id, target_year_month, total_secretary_amount, "
       + "  total_tasks_count, total_work_time, finalized_at, status"
-      + ") VALUES (?,?,?,?,?,?,?) "
+      + ") VALUES (?,?,?,?,?,?,?,?) "
       + "ON CONFLICT (secretary_id, target_year_month) DO UPDATE SET "
       + "  total_secretary_amount = EXCLUDED.total_secretary_amount, "
       + "  total_tasks_count     = EXCLUDED.total_tasks_count, "
       + "  total_work_time       = EXCLUDED.total_work_time, "
       + "  finalized_at          = EXCLUDED.finalized_at, "
       + "  status                = EXCLUDED.status, "
-      + "  updated_at            = CURRENT_TIMESTAMP";
+      + "  updated_at            = CURRENT_TIMESTAMP "
+      + "WHERE secretary_monthly_summaries.finalized_at IS NULL";
 
     /** 管理者用：顧客請求ライン（対象月・顧客×秘書×ランクで分数集計・顧客課金時給） */
     private static final String SQL_ADMIN_LINES =
@@ -132,7 +136,7 @@ public class InvoiceDAO extends BaseDAO {
       + "  JOIN customers   c ON a.customer_id   = c.id "
       + "  JOIN secretaries s ON a.secretary_id  = s.id "
       + "  JOIN task_rank  tr ON a.task_rank_id  = tr.id "
-      + " WHERE a.target_year_month = ? AND t.deleted_at IS NULL "
+      + " WHERE a.target_year_month = ?" + AND_TASK_IN_MONTH + "AND t.deleted_at IS NULL "
       + " GROUP BY c.id, c.company_name, s.name, hourly_pay, tr.rank_name, tr.rank_no "
       + " ORDER BY c.company_name, s.name, tr.rank_no";
 
@@ -152,11 +156,68 @@ public class InvoiceDAO extends BaseDAO {
       + "JOIN customers c    ON a.customer_id   = c.id "
       + "JOIN secretaries s  ON a.secretary_id  = s.id "
       + "JOIN task_rank tr   ON a.task_rank_id  = tr.id "
-      + "WHERE a.target_year_month = ? "
+      + "WHERE a.target_year_month = ? " + AND_TASK_IN_MONTH
       + "  AND t.deleted_at IS NULL "
       + "GROUP BY s.id, s.name, c.id, c.company_name, hourly_pay_sec, tr.rank_name, tr.rank_no "
       + "ORDER BY s.name, c.company_name, tr.rank_no";
 
+    /**
+     * 管理者用：秘書ごとの振込額（対象月・承認済タスクのみ）＋振込口座。
+     * 金額は {@link #SQL_ADMIN_COST_LINES} と同じく「秘書×顧客×ランク（時給）」単位で
+     * 時給 × 分 / 60 を円未満四捨五入し、秘書ごとに合算する。
+     */
+    private static final String SQL_PAYOUT_TRANSFERS =
+        "SELECT "
+      + "  s.id AS secretary_id, s.secretary_code, s.name AS secretary_name, "
+      + "  s.bank_code, s.bank_branch_code, s.bank_type, s.bank_account, s.bank_owner, "
+      + "  SUM(l.fee)::bigint     AS amount, "
+      + "  SUM(l.task_count)::int AS task_count, "
+      + "  SUM(l.total_minute)::int AS total_minute "
+      + "FROM ( "
+      + "  SELECT a.secretary_id, COUNT(*) AS task_count, SUM(t.work_minute) AS total_minute, "
+      + "         ROUND((a.base_pay_secretary + a.increase_base_pay_secretary + a.customer_based_incentive_for_secretary) "
+      + "               * SUM(t.work_minute) / 60.0, 0) AS fee "
+      + "    FROM tasks t "
+      + "    JOIN assignments a ON t.assignment_id = a.id "
+      + "   WHERE a.target_year_month = ? " + AND_TASK_IN_MONTH
+      + "     AND t.deleted_at IS NULL "
+      + "     AND t.approved_at IS NOT NULL "
+      + "   GROUP BY a.secretary_id, a.customer_id, a.task_rank_id, "
+      + "            a.base_pay_secretary, a.increase_base_pay_secretary, a.customer_based_incentive_for_secretary "
+      + ") l "
+      + "JOIN secretaries s ON s.id = l.secretary_id "
+      + "GROUP BY s.id, s.secretary_code, s.name, "
+      + "         s.bank_code, s.bank_branch_code, s.bank_type, s.bank_account, s.bank_owner "
+      + "HAVING SUM(l.fee) > 0 "
+      + "ORDER BY s.secretary_code";
+
+    /**
+     * 管理者用：秘書ごとの振込額（月次締め済みの月）＋振込口座。
+     * 締め時に確定した secretary_monthly_summaries を読み、tasks は再集計しない。
+     */
+    private static final String SQL_PAYOUT_TRANSFERS_FINALIZED =
+        "SELECT "
+      + "  s.id AS secretary_id, s.secretary_code, s.name AS secretary_name, "
+      + "  s.bank_code, s.bank_branch_code, s.bank_type, s.bank_account, s.bank_owner, "
+      + "  m.total_secretary_amount::bigint AS amount, "
+      + "  m.total_tasks_count AS task_count, "
+      + "  m.total_work_time   AS total_minute "
+      + "FROM secretary_monthly_summaries m "
+      + "JOIN secretaries s ON s.id = m.secretary_id "
+      + "WHERE m.target_year_month = ? "
+      + "  AND m.deleted_at IS NULL "
+      + "  AND m.finalized_at IS NOT NULL "
+      + "  AND m.total_secretary_amount > 0 "
+      + "ORDER BY s.secretary_code";
+
+    /** アーカイブ済みの月がある場合の同 SQL（tasks_all / assignments_all を読む） */
+    private static final String SQL_SELECT_TASKS_BY_MONTH_AND_SECRETARY_ALL = withArchive(SQL_SELECT_TASKS_BY_MONTH_AND_SECRETARY);
+    private static final String SQL_SELECT_TOTAL_MINUTES_BY_COMPANY_AND_SECRETARY_ALL = withArchive(SQL_SELECT_TOTAL_MINUTES_BY_COMPANY_AND_SECRETARY);
+    private static final String SQL_SELECT_TASKS_BY_MONTH_AND_CUSTOMER_ALL = withArchive(SQL_SELECT_TASKS_BY_MONTH_AND_CUSTOMER);
+    private static final String SQL_SELECT_TOTAL_MINUTES_BY_SECRETARY_AND_CUSTOMER_ALL = withArchive(SQL_SELECT_TOTAL_MINUTES_BY_SECRETARY_AND_CUSTOMER);
+    private static final String SQL_ADMIN_LINES_ALL = withArchive(SQL_ADMIN_LINES);
+    private static final String SQL_ADMIN_COST_LINES_ALL = withArchive(SQL_ADMIN_COST_LINES);
+
     /** =========================================================
      * ② フィールド／コンストラクタ
      * ========================================================= */
@@ -193,10 +254,29 @@ public class InvoiceDAO extends BaseDAO {
      */
     public List<TaskDTO> selectTasksByMonthAndSecretary(UUID secretaryId, String targetYearMonth) {
         final List<TaskDTO> list = new ArrayList<>();
+        streamTasksByMonthAndSecretary(secretaryId, targetYearMonth, list::add);
+        return list;
+    }
 
-        try (PreparedStatement ps = conn.prepareStatement(SQL_SELECT_TASKS_BY_MONTH_AND_SECRETARY)) {
+    /**
+     * 【secretary】対象月の自身のタスク明細を 1 行ずつ {@code sink} に渡します。
+     * - 抽出条件・明細内容は {@link #selectTasksByMonthAndSecretary} と同じ
+     * - フェッチサイズ単位で読み込むため、件数によらずメモリ使用量は一定（トランザクション内で使用）
+     *
+     * @param secretaryId 秘書ID
+     * @param targetYearMonth 対象年月（yyyy-MM）
+     * @param sink 1 行ごとの受け取り処理
+     * @return 処理した件数
+     * @throws DAOException DBエラー時
+     */
+    public int streamTasksByMonthAndSecretary(UUID secretaryId, String targetYearMonth, Consumer<TaskDTO> sink) {
+        int count = 0;
+        final String sql = ArchiveDAO.hasArchive(conn) ? SQL_SELECT_TASKS_BY_MONTH_AND_SECRETARY_ALL : SQL_SELECT_TASKS_BY_MONTH_AND_SECRETARY;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            prepareForStreaming(ps);
             ps.setString(1, targetYearMonth);
-            ps.setObject(2, secretaryId);
+            setMonthRange(ps, 2, targetYearMonth);
+            ps.setObject(4, secretaryId);
 
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
@@ -219,10 +299,11 @@ public class InvoiceDAO extends BaseDAO {
                     asg.setAssignmentSecretaryId(secretaryId);
                     dto.setAssignment(asg);
 
-                    list.add(dto);
+                    sink.accept(dto);
+                    count++;
                 }
             }
-            return list;
+            return count;
         } catch (SQLException e) {
             throw new DAOException("E:INV01 タスク明細取得に失敗しました（秘書）", e);
         }
@@ -241,9 +322,11 @@ public class InvoiceDAO extends BaseDAO {
     public List<InvoiceDTO> selectTotalMinutesByCompanyAndSecretary(UUID secretaryId, String targetYearMonth) {
         final List<InvoiceDTO> list = new ArrayList<>();
 
-        try (PreparedStatement ps = conn.prepareStatement(SQL_SELECT_TOTAL_MINUTES_BY_COMPANY_AND_SECRETARY)) {
+        final String sql = ArchiveDAO.hasArchive(conn) ? SQL_SELECT_TOTAL_MINUTES_BY_COMPANY_AND_SECRETARY_ALL : SQL_SELECT_TOTAL_MINUTES_BY_COMPANY_AND_SECRETARY;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, targetYearMonth);
-            ps.setObject(2, secretaryId);
+            setMonthRange(ps, 2, targetYearMonth);
+            ps.setObject(4, secretaryId);
 
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
@@ -290,11 +373,11 @@ public class InvoiceDAO extends BaseDAO {
      */
     public List<TaskDTO> selectTasksByMonthAndCustomer(UUID customerId, String targetYM) {
         final List<TaskDTO> list = new ArrayList<>();
-        try (PreparedStatement ps = conn.prepareStatement(SQL_SELECT_TASKS_BY_MONTH_AND_CUSTOMER)) {
+        final String sql = ArchiveDAO.hasArchive(conn) ? SQL_SELECT_TASKS_BY_MONTH_AND_CUSTOMER_ALL : SQL_SELECT_TASKS_BY_MONTH_AND_CUSTOMER;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
             int p = 1;
             ps.setObject(p++, customerId);
-            ps.setString(p++, targetYM);
-            ps.setString(p++, targetYM);
+            setMonthRange(ps, p, targetYM);
 
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
@@ -335,11 +418,11 @@ public class InvoiceDAO extends BaseDAO {
      */
     public List<InvoiceDTO> selectTotalMinutesBySecretaryAndCustomer(UUID customerId, String targetYM) {
         final List<InvoiceDTO> list = new ArrayList<>();
-        try (PreparedStatement ps = conn.prepareStatement(SQL_SELECT_TOTAL_MINUTES_BY_SECRETARY_AND_CUSTOMER)) {
+        final String sql = ArchiveDAO.hasArchive(conn) ? SQL_SELECT_TOTAL_MINUTES_BY_SECRETARY_AND_CUSTOMER_ALL : SQL_SELECT_TOTAL_MINUTES_BY_SECRETARY_AND_CUSTOMER;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
             int p = 1;
             ps.setObject(p++, customerId);
-            ps.setString(p++, targetYM);
-            ps.setString(p++, targetYM);
+            setMonthRange(ps, p, targetYM);
 
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
@@ -384,8 +467,10 @@ public class InvoiceDAO extends BaseDAO {
      */
     public List<InvoiceDTO> selectAdminLines(String targetYM) {
         final List<InvoiceDTO> list = new ArrayList<>();
-        try (PreparedStatement ps = conn.prepareStatement(SQL_ADMIN_LINES)) {
+        final String sql = ArchiveDAO.hasArchive(conn) ? SQL_ADMIN_LINES_ALL : SQL_ADMIN_LINES;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, targetYM);
+            setMonthRange(ps, 2, targetYM);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
                     InvoiceDTO d = new InvoiceDTO();
@@ -426,8 +511,10 @@ public class InvoiceDAO extends BaseDAO {
      */
     public List<InvoiceDTO> selectAdminCostLines(String targetYM) {
         final List<InvoiceDTO> list = new ArrayList<>();
-        try (PreparedStatement ps = conn.prepareStatement(SQL_ADMIN_COST_LINES)) {
+        final String sql = ArchiveDAO.hasArchive(conn) ? SQL_ADMIN_COST_LINES_ALL : SQL_ADMIN_COST_LINES;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, targetYM);
+            setMonthRange(ps, 2, targetYM);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
                     InvoiceDTO d = new InvoiceDTO();
@@ -458,6 +545,56 @@ public class InvoiceDAO extends BaseDAO {
         return list;
     }
 
+    /**
+     * 【admin】対象月の秘書ごとの振込額と振込口座を、1 クエリでストリーミング取得します（全銀振込データ用）。
+     * 承認済タスクのみを対象とし、振込額が 0 円の秘書は含みません（秘書コード順）。
+     * 月次締め済みの月は、締め時に確定した秘書別集計（secretary_monthly_summaries）を読みます。
+     *
+     * @param targetYM 対象年月（yyyy-MM）
+     * @param sink     1 秘書ごとに呼ばれるコールバック
+     *                 （secretary に口座情報、totalSecretaryAmount に振込額を格納）
+     * @return 件数
+     * @throws DAOException DBアクセスに失敗した場合
+     */
+    public int streamPayoutTransfers(String targetYM, Consumer<SecretaryMonthlySummaryDTO> sink) {
+        int count = 0;
+        /** 締め済みの月は確定値を読む */
+        final boolean closed = new MonthCloseDAO(conn).isClosed(targetYM);
+        final String sql = closed ? SQL_PAYOUT_TRANSFERS_FINALIZED : SQL_PAYOUT_TRANSFERS;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            prepareForStreaming(ps);
+            ps.setString(1, targetYM);
+            if (!closed) {
+                setMonthRange(ps, 2, targetYM);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    SecretaryDTO sec = new SecretaryDTO();
+                    sec.setId(rs.getObject("secretary_id", UUID.class));
+                    sec.setSecretaryCode(rs.getString("secretary_code"));
+                    sec.setName(rs.getString("secretary_name"));
+                    sec.setBankCode(rs.getString("bank_code"));
+                    sec.setBankBranchCode(rs.getString("bank_branch_code"));
+                    sec.setBankType(rs.getString("bank_type"));
+                    sec.setBankAccount(rs.getString("bank_account"));
+                    sec.setBankOwner(rs.getString("bank_owner"));
+
+                    SecretaryMonthlySummaryDTO d = new SecretaryMonthlySummaryDTO();
+                    d.setSecretary(sec);
+                    d.setTargetYearMonth(targetYM);
+                    d.setTotalSecretaryAmount(BigDecimal.valueOf(rs.getLong("amount")));
+                    d.setTotalTasksCount(rs.getInt("task_count"));
+                    d.setTotalWorkTime(rs.getInt("total_minute"));
+                    sink.accept(d);
+                    count++;
+                }
+            }
+        } catch (SQLException e) {
+            throw new DAOException("E:INV-ADM-PAY 振込データ用の支払額取得に失敗しました。", e);
+        }
+        return count;
+    }
+
     /** =========================
      * UPSERT（月次サマリ）
      * ========================= */
@@ -486,6 +623,7 @@ public class InvoiceDAO extends BaseDAO {
 
         try (PreparedStatement ps = conn.prepareStatement(SQL_UPSERT_MONTHLY_SUMMARY)) {
             int i = 1;
+            ps.setObject(i++, UuidV7.generate());
             ps.setObject(i++, secretaryId);
             ps.setString(i++, targetYM);
 
@@ -509,7 +647,11 @@ public class InvoiceDAO extends BaseDAO {
             } else {
                 ps.setString(i++, status);
             }
-            return ps.executeUpdate();
+            int n = ps.executeUpdate();
+            CacheInvalidation.publish(conn,
+                    CacheInvalidation.Topic.CANDIDATE_MONTH.key(targetYM),
+                    CacheInvalidation.Topic.PIVOT_COSTS.key(targetYM));
+            return n;
         } catch (SQLException e) {
             throw new DAOException("E:INV99 月次サマリUPSERTに失敗しました。", e);
         }
@@ -0,0 +1,173 @@
+package dao;
+
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.NClob;
+import java.sql.PreparedStatement;
+import java.sql.SQLClientInfoException;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Savepoint;
+import java.sql.ShardingKey;
+import java.sql.Statement;
+import java.sql.Struct;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+
+/**
+ * 計測用の JDBC ラッパー（接続）。
+ * <p>
+ * 接続から作られる Statement / PreparedStatement を {@link MeteredStatement} / {@link MeteredPreparedStatement} で包み、
+ * {@code execute*} の所要時間・回数と {@code ResultSet#next} の行数・所要時間を {@link QueryStats} に記録します。
+ * 包むのは文の作成だけで、それ以外のメソッドは元の接続へそのまま委譲します
+ * （動的プロキシのようなリフレクション呼出しは挟みません）。
+ * CallableStatement（{@code prepareCall}）はこのアプリでは使わないため計測しません。
+ * </p>
+ * <p>
+ * equals / hashCode は Object のまま（ラッパー自身の同一性）です。{@link TransactionManager} が接続をキーに管理するためです。
+ * </p>
+ */
+final class MeteredConnection implements Connection {
+
+	private final Connection conn;
+
+	private MeteredConnection(Connection conn) {
+		this.conn = conn;
+	}
+
+	/**
+	 * 接続を計測用に包みます。
+	 *
+	 * @param conn 元の接続
+	 * @return 計測付きの接続
+	 */
+	static Connection wrap(Connection conn) {
+		return new MeteredConnection(conn);
+	}
+
+	@Override
+	public Statement createStatement() throws SQLException {
+		return new MeteredStatement<>(this, conn.createStatement());
+	}
+
+	@Override
+	public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
+		return new MeteredStatement<>(this, conn.createStatement(resultSetType, resultSetConcurrency));
+	}
+
+	@Override
+	public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability)
+			throws SQLException {
+		return new MeteredStatement<>(this, conn.createStatement(resultSetType, resultSetConcurrency, resultSetHoldability));
+	}
+
+	@Override
+	public PreparedStatement prepareStatement(String sql) throws SQLException {
+		return new MeteredPreparedStatement(this, conn.prepareStatement(sql), sql);
+	}
+
+	@Override
+	public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+		return new MeteredPreparedStatement(this, conn.prepareStatement(sql, autoGeneratedKeys), sql);
+	}
+
+	@Override
+	public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
+		return new MeteredPreparedStatement(this, conn.prepareStatement(sql, columnIndexes), sql);
+	}
+
+	@Override
+	public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+		return new MeteredPreparedStatement(this, conn.prepareStatement(sql, columnNames), sql);
+	}
+
+	@Override
+	public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency)
+			throws SQLException {
+		return new MeteredPreparedStatement(this, conn.prepareStatement(sql, resultSetType, resultSetConcurrency), sql);
+	}
+
+	@Override
+	public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency,
+			int resultSetHoldability) throws SQLException {
+		return new MeteredPreparedStatement(this,
+				conn.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability), sql);
+	}
+
+	@Override
+	public void close() throws SQLException {
+		conn.close();
+	}
+
+	@Override
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		return iface.isInstance(this) ? iface.cast(this) : conn.unwrap(iface);
+	}
+
+	@Override
+	public boolean isWrapperFor(Class<?> iface) throws SQLException {
+		return iface.isInstance(this) || conn.isWrapperFor(iface);
+	}
+
+	@Override
+	public String toString() {
+		return conn.toString();
+	}
+
+	/* ---- 以下は元の接続へそのまま委譲 ---- */
+
+	@Override public void abort(Executor executor) throws SQLException { conn.abort(executor); }
+	@Override public void beginRequest() throws SQLException { conn.beginRequest(); }
+	@Override public void clearWarnings() throws SQLException { conn.clearWarnings(); }
+	@Override public void commit() throws SQLException { conn.commit(); }
+	@Override public Array createArrayOf(String typeName, Object[] elements) throws SQLException { return conn.createArrayOf(typeName, elements); }
+	@Override public Blob createBlob() throws SQLException { return conn.createBlob(); }
+	@Override public Clob createClob() throws SQLException { return conn.createClob(); }
+	@Override public NClob createNClob() throws SQLException { return conn.createNClob(); }
+	@Override public SQLXML createSQLXML() throws SQLException { return conn.createSQLXML(); }
+	@Override public Struct createStruct(String typeName, Object[] attributes) throws SQLException { return conn.createStruct(typeName, attributes); }
+	@Override public void endRequest() throws SQLException { conn.endRequest(); }
+	@Override public boolean getAutoCommit() throws SQLException { return conn.getAutoCommit(); }
+	@Override public String getCatalog() throws SQLException { return conn.getCatalog(); }
+	@Override public Properties getClientInfo() throws SQLException { return conn.getClientInfo(); }
+	@Override public String getClientInfo(String name) throws SQLException { return conn.getClientInfo(name); }
+	@Override public int getHoldability() throws SQLException { return conn.getHoldability(); }
+	@Override public DatabaseMetaData getMetaData() throws SQLException { return conn.getMetaData(); }
+	@Override public int getNetworkTimeout() throws SQLException { return conn.getNetworkTimeout(); }
+	@Override public String getSchema() throws SQLException { return conn.getSchema(); }
+	@Override public int getTransactionIsolation() throws SQLException { return conn.getTransactionIsolation(); }
+	@Override public Map<String, Class<?>> getTypeMap() throws SQLException { return conn.getTypeMap(); }
+	@Override public SQLWarning getWarnings() throws SQLException { return conn.getWarnings(); }
+	@Override public boolean isClosed() throws SQLException { return conn.isClosed(); }
+	@Override public boolean isReadOnly() throws SQLException { return conn.isReadOnly(); }
+	@Override public boolean isValid(int timeout) throws SQLException { return conn.isValid(timeout); }
+	@Override public String nativeSQL(String sql) throws SQLException { return conn.nativeSQL(sql); }
+	@Override public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException { return conn.prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability); }
+	@Override public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException { return conn.prepareCall(sql, resultSetType, resultSetConcurrency); }
+	@Override public CallableStatement prepareCall(String sql) throws SQLException { return conn.prepareCall(sql); }
+	@Override public void releaseSavepoint(Savepoint savepoint) throws SQLException { conn.releaseSavepoint(savepoint); }
+	@Override public void rollback() throws SQLException { conn.rollback(); }
+	@Override public void rollback(Savepoint savepoint) throws SQLException { conn.rollback(savepoint); }
+	@Override public void setAutoCommit(boolean autoCommit) throws SQLException { conn.setAutoCommit(autoCommit); }
+	@Override public void setCatalog(String catalog) throws SQLException { conn.setCatalog(catalog); }
+	@Override public void setClientInfo(String name, String value) throws SQLClientInfoException { conn.setClientInfo(name, value); }
+	@Override public void setClientInfo(Properties properties) throws SQLClientInfoException { conn.setClientInfo(properties); }
+	@Override public void setHoldability(int holdability) throws SQLException { conn.setHoldability(holdability); }
+	@Override public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException { conn.setNetworkTimeout(executor, milliseconds); }
+	@Override public void setReadOnly(boolean readOnly) throws SQLException { conn.setReadOnly(readOnly); }
+	@Override public Savepoint setSavepoint() throws SQLException { return conn.setSavepoint(); }
+	@Override public Savepoint setSavepoint(String name) throws SQLException { return conn.setSavepoint(name); }
+	@Override public void setSchema(String schema) throws SQLException { conn.setSchema(schema); }
+	@Override public void setShardingKey(ShardingKey shardingKey, ShardingKey superShardingKey) throws SQLException { conn.setShardingKey(shardingKey, superShardingKey); }
+	@Override public void setShardingKey(ShardingKey shardingKey) throws SQLException { conn.setShardingKey(shardingKey); }
+	@Override public boolean setShardingKeyIfValid(ShardingKey shardingKey, int timeout) throws SQLException { return conn.setShardingKeyIfValid(shardingKey, timeout); }
+	@Override public boolean setShardingKeyIfValid(ShardingKey shardingKey, ShardingKey superShardingKey, int timeout) throws SQLException { return conn.setShardingKeyIfValid(shardingKey, superShardingKey, timeout); }
+	@Override public void setTransactionIsolation(int level) throws SQLException { conn.setTransactionIsolation(level); }
+	@Override public void setTypeMap(Map<String, Class<?>> map) throws SQLException { conn.setTypeMap(map); }
+}
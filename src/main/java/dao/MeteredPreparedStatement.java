@@ -0,0 +1,145 @@
+package dao;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLType;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+
+/**
+ * 計測用の JDBC ラッパー（PreparedStatement）。
+ * <p>
+ * 引数なしの {@code execute*} を prepare 時の SQL の実行として計測します。setXxx は元の文へそのまま委譲し、
+ * バインド値はしきい値を超えた実行についてだけドライバから取り出します（{@link MeteredStatement}）。
+ * </p>
+ */
+final class MeteredPreparedStatement extends MeteredStatement<PreparedStatement> implements PreparedStatement {
+
+	/** prepare 時の SQL */
+	private final String preparedSql;
+
+	MeteredPreparedStatement(MeteredConnection conn, PreparedStatement st, String preparedSql) {
+		super(conn, st);
+		this.preparedSql = preparedSql;
+	}
+
+	@Override
+	public ResultSet executeQuery() throws SQLException {
+		long t0 = begin(preparedSql, true);
+		try {
+			return wrap(st.executeQuery());
+		} finally {
+			executed(t0);
+		}
+	}
+
+	@Override
+	public int executeUpdate() throws SQLException {
+		long t0 = begin(preparedSql, true);
+		try {
+			return st.executeUpdate();
+		} finally {
+			executed(t0);
+		}
+	}
+
+	@Override
+	public long executeLargeUpdate() throws SQLException {
+		long t0 = begin(preparedSql, true);
+		try {
+			return st.executeLargeUpdate();
+		} finally {
+			executed(t0);
+		}
+	}
+
+	@Override
+	public boolean execute() throws SQLException {
+		long t0 = begin(preparedSql, true);
+		try {
+			return st.execute();
+		} finally {
+			executed(t0);
+		}
+	}
+
+	/** バッチは最後に設定した値しか取り出せないため、SQL のみ記録します */
+	@Override
+	String batchSql() {
+		return preparedSql;
+	}
+
+	/* ---- 以下は元の文へそのまま委譲 ---- */
+
+	@Override public void addBatch() throws SQLException { st.addBatch(); }
+	@Override public void clearParameters() throws SQLException { st.clearParameters(); }
+	@Override public ResultSetMetaData getMetaData() throws SQLException { return st.getMetaData(); }
+	@Override public ParameterMetaData getParameterMetaData() throws SQLException { return st.getParameterMetaData(); }
+	@Override public void setArray(int parameterIndex, Array x) throws SQLException { st.setArray(parameterIndex, x); }
+	@Override public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException { st.setAsciiStream(parameterIndex, x, length); }
+	@Override public void setAsciiStream(int parameterIndex, InputStream x, long length) throws SQLException { st.setAsciiStream(parameterIndex, x, length); }
+	@Override public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException { st.setAsciiStream(parameterIndex, x); }
+	@Override public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException { st.setBigDecimal(parameterIndex, x); }
+	@Override public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException { st.setBinaryStream(parameterIndex, x, length); }
+	@Override public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException { st.setBinaryStream(parameterIndex, x, length); }
+	@Override public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException { st.setBinaryStream(parameterIndex, x); }
+	@Override public void setBlob(int parameterIndex, InputStream inputStream, long length) throws SQLException { st.setBlob(parameterIndex, inputStream, length); }
+	@Override public void setBlob(int parameterIndex, InputStream inputStream) throws SQLException { st.setBlob(parameterIndex, inputStream); }
+	@Override public void setBlob(int parameterIndex, Blob x) throws SQLException { st.setBlob(parameterIndex, x); }
+	@Override public void setBoolean(int parameterIndex, boolean x) throws SQLException { st.setBoolean(parameterIndex, x); }
+	@Override public void setByte(int parameterIndex, byte x) throws SQLException { st.setByte(parameterIndex, x); }
+	@Override public void setBytes(int parameterIndex, byte[] x) throws SQLException { st.setBytes(parameterIndex, x); }
+	@Override public void setCharacterStream(int parameterIndex, Reader reader, int length) throws SQLException { st.setCharacterStream(parameterIndex, reader, length); }
+	@Override public void setCharacterStream(int parameterIndex, Reader reader, long length) throws SQLException { st.setCharacterStream(parameterIndex, reader, length); }
+	@Override public void setCharacterStream(int parameterIndex, Reader reader) throws SQLException { st.setCharacterStream(parameterIndex, reader); }
+	@Override public void setClob(int parameterIndex, Reader reader, long length) throws SQLException { st.setClob(parameterIndex, reader, length); }
+	@Override public void setClob(int parameterIndex, Reader reader) throws SQLException { st.setClob(parameterIndex, reader); }
+	@Override public void setClob(int parameterIndex, Clob x) throws SQLException { st.setClob(parameterIndex, x); }
+	@Override public void setDate(int parameterIndex, Date x, Calendar cal) throws SQLException { st.setDate(parameterIndex, x, cal); }
+	@Override public void setDate(int parameterIndex, Date x) throws SQLException { st.setDate(parameterIndex, x); }
+	@Override public void setDouble(int parameterIndex, double x) throws SQLException { st.setDouble(parameterIndex, x); }
+	@Override public void setFloat(int parameterIndex, float x) throws SQLException { st.setFloat(parameterIndex, x); }
+	@Override public void setInt(int parameterIndex, int x) throws SQLException { st.setInt(parameterIndex, x); }
+	@Override public void setLong(int parameterIndex, long x) throws SQLException { st.setLong(parameterIndex, x); }
+	@Override public void setNCharacterStream(int parameterIndex, Reader value, long length) throws SQLException { st.setNCharacterStream(parameterIndex, value, length); }
+	@Override public void setNCharacterStream(int parameterIndex, Reader value) throws SQLException { st.setNCharacterStream(parameterIndex, value); }
+	@Override public void setNClob(int parameterIndex, Reader reader, long length) throws SQLException { st.setNClob(parameterIndex, reader, length); }
+	@Override public void setNClob(int parameterIndex, Reader reader) throws SQLException { st.setNClob(parameterIndex, reader); }
+	@Override public void setNClob(int parameterIndex, NClob value) throws SQLException { st.setNClob(parameterIndex, value); }
+	@Override public void setNString(int parameterIndex, String value) throws SQLException { st.setNString(parameterIndex, value); }
+	@Override public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException { st.setNull(parameterIndex, sqlType, typeName); }
+	@Override public void setNull(int parameterIndex, int sqlType) throws SQLException { st.setNull(parameterIndex, sqlType); }
+	@Override public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException { st.setObject(parameterIndex, x, targetSqlType, scaleOrLength); }
+	@Override public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException { st.setObject(parameterIndex, x, targetSqlType); }
+	@Override public void setObject(int parameterIndex, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException { st.setObject(parameterIndex, x, targetSqlType, scaleOrLength); }
+	@Override public void setObject(int parameterIndex, Object x, SQLType targetSqlType) throws SQLException { st.setObject(parameterIndex, x, targetSqlType); }
+	@Override public void setObject(int parameterIndex, Object x) throws SQLException { st.setObject(parameterIndex, x); }
+	@Override public void setRef(int parameterIndex, Ref x) throws SQLException { st.setRef(parameterIndex, x); }
+	@Override public void setRowId(int parameterIndex, RowId x) throws SQLException { st.setRowId(parameterIndex, x); }
+	@Override public void setSQLXML(int parameterIndex, SQLXML xmlObject) throws SQLException { st.setSQLXML(parameterIndex, xmlObject); }
+	@Override public void setShort(int parameterIndex, short x) throws SQLException { st.setShort(parameterIndex, x); }
+	@Override public void setString(int parameterIndex, String x) throws SQLException { st.setString(parameterIndex, x); }
+	@Override public void setTime(int parameterIndex, Time x, Calendar cal) throws SQLException { st.setTime(parameterIndex, x, cal); }
+	@Override public void setTime(int parameterIndex, Time x) throws SQLException { st.setTime(parameterIndex, x); }
+	@Override public void setTimestamp(int parameterIndex, Timestamp x, Calendar cal) throws SQLException { st.setTimestamp(parameterIndex, x, cal); }
+	@Override public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException { st.setTimestamp(parameterIndex, x); }
+	@Override public void setURL(int parameterIndex, URL x) throws SQLException { st.setURL(parameterIndex, x); }
+	@Deprecated
+	@Override public void setUnicodeStream(int parameterIndex, InputStream x, int length) throws SQLException { st.setUnicodeStream(parameterIndex, x, length); }
+}
@@ -0,0 +1,327 @@
+package dao;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+
+/**
+ * 計測用の JDBC ラッパー（Statement）。
+ * <p>
+ * {@code execute*} の所要時間・回数を {@link QueryStats} に記録し、返す ResultSet を {@link MeteredResultSet} で包みます。
+ * 1 回の実行（execute から次の execute / close まで）の所要時間は execute と結果セットの読み出しの合計で、
+ * しきい値以上なら {@link SlowQueryLog} に渡します。それ以外のメソッドは元の文へそのまま委譲します。
+ * </p>
+ *
+ * @param <S> 元の文の型
+ */
+class MeteredStatement<S extends Statement> implements Statement {
+
+	final MeteredConnection conn;
+	final S st;
+
+	/** 実行中の SQL（記録済み・未実行なら null） */
+	private String sql;
+	/** 実行中の SQL がバインド値を持つか（prepare 時の SQL をそのまま実行したか） */
+	private boolean bound;
+	/** 実行中の所要時間（execute＋next の合計。ナノ秒） */
+	private long nanos;
+	/** 実行中の取得行数 */
+	private long rows;
+	/** しきい値を超えたか */
+	private boolean slow;
+	/** しきい値を超えた時点でドライバから取り出した、バインド値を埋め込んだ SQL */
+	private String boundSql;
+
+	MeteredStatement(MeteredConnection conn, S st) {
+		this.conn = conn;
+		this.st = st;
+	}
+
+	/**
+	 * 実行の計測を始めます（前の実行は締めて記録します）。
+	 *
+	 * @param sql   実行する SQL
+	 * @param bound prepare 時の SQL をバインド値付きで実行するなら true
+	 * @return 開始時刻（{@link #executed(long)} に渡す）
+	 */
+	final long begin(String sql, boolean bound) {
+		finish();
+		this.sql = sql;
+		this.bound = bound;
+		this.nanos = 0;
+		this.rows = 0;
+		return System.nanoTime();
+	}
+
+	/** execute の所要時間を積み上げます */
+	final void executed(long t0) {
+		long elapsed = System.nanoTime() - t0;
+		nanos += elapsed;
+		QueryStats.executed(sql, elapsed);
+		checkSlow();
+	}
+
+	/** 結果セットの読み進め（1 回の next）を積み上げます */
+	final void fetched(long elapsed, boolean hasRow) {
+		nanos += elapsed;
+		if (hasRow) rows++;
+		QueryStats.fetched(elapsed, hasRow);
+		checkSlow();
+	}
+
+	/**
+	 * しきい値を超えた時点で一度だけ、バインド値を埋め込んだ SQL をドライバから取り出します
+	 * （次の実行に向けて setXxx で値が書き換わる前に控えるため）。
+	 */
+	private void checkSlow() {
+		if (slow || sql == null || !SlowQueryLog.isSlow(nanos)) return;
+		slow = true;
+		boundSql = bound ? st.toString() : null;
+	}
+
+	/** 計測を締め、しきい値以上ならスロークエリとして記録します */
+	private void finish() {
+		if (slow) {
+			SlowQueryLog.record(sql, boundSql, nanos, rows);
+		}
+		sql = null;
+		slow = false;
+		boundSql = null;
+	}
+
+	/** 結果セットを計測用に包みます */
+	final ResultSet wrap(ResultSet rs) {
+		return (rs == null) ? null : new MeteredResultSet(this, rs);
+	}
+
+	@Override
+	public ResultSet executeQuery(String sql) throws SQLException {
+		long t0 = begin(sql, false);
+		try {
+			return wrap(st.executeQuery(sql));
+		} finally {
+			executed(t0);
+		}
+	}
+
+	@Override
+	public int executeUpdate(String sql) throws SQLException {
+		long t0 = begin(sql, false);
+		try {
+			return st.executeUpdate(sql);
+		} finally {
+			executed(t0);
+		}
+	}
+
+	@Override
+	public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+		long t0 = begin(sql, false);
+		try {
+			return st.executeUpdate(sql, autoGeneratedKeys);
+		} finally {
+			executed(t0);
+		}
+	}
+
+	@Override
+	public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+		long t0 = begin(sql, false);
+		try {
+			return st.executeUpdate(sql, columnIndexes);
+		} finally {
+			executed(t0);
+		}
+	}
+
+	@Override
+	public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+		long t0 = begin(sql, false);
+		try {
+			return st.executeUpdate(sql, columnNames);
+		} finally {
+			executed(t0);
+		}
+	}
+
+	@Override
+	public long executeLargeUpdate(String sql) throws SQLException {
+		long t0 = begin(sql, false);
+		try {
+			return st.executeLargeUpdate(sql);
+		} finally {
+			executed(t0);
+		}
+	}
+
+	@Override
+	public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+		long t0 = begin(sql, false);
+		try {
+			return st.executeLargeUpdate(sql, autoGeneratedKeys);
+		} finally {
+			executed(t0);
+		}
+	}
+
+	@Override
+	public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException {
+		long t0 = begin(sql, false);
+		try {
+			return st.executeLargeUpdate(sql, columnIndexes);
+		} finally {
+			executed(t0);
+		}
+	}
+
+	@Override
+	public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException {
+		long t0 = begin(sql, false);
+		try {
+			return st.executeLargeUpdate(sql, columnNames);
+		} finally {
+			executed(t0);
+		}
+	}
+
+	@Override
+	public boolean execute(String sql) throws SQLException {
+		long t0 = begin(sql, false);
+		try {
+			return st.execute(sql);
+		} finally {
+			executed(t0);
+		}
+	}
+
+	@Override
+	public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+		long t0 = begin(sql, false);
+		try {
+			return st.execute(sql, autoGeneratedKeys);
+		} finally {
+			executed(t0);
+		}
+	}
+
+	@Override
+	public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+		long t0 = begin(sql, false);
+		try {
+			return st.execute(sql, columnIndexes);
+		} finally {
+			executed(t0);
+		}
+	}
+
+	@Override
+	public boolean execute(String sql, String[] columnNames) throws SQLException {
+		long t0 = begin(sql, false);
+		try {
+			return st.execute(sql, columnNames);
+		} finally {
+			executed(t0);
+		}
+	}
+
+	@Override
+	public int[] executeBatch() throws SQLException {
+		long t0 = begin(batchSql(), false);
+		try {
+			return st.executeBatch();
+		} finally {
+			executed(t0);
+		}
+	}
+
+	@Override
+	public long[] executeLargeBatch() throws SQLException {
+		long t0 = begin(batchSql(), false);
+		try {
+			return st.executeLargeBatch();
+		} finally {
+			executed(t0);
+		}
+	}
+
+	/** バッチ実行を記録する SQL（Statement のバッチは SQL が混在するため持たない） */
+	String batchSql() {
+		return null;
+	}
+
+	@Override
+	public ResultSet getResultSet() throws SQLException {
+		return wrap(st.getResultSet());
+	}
+
+	@Override
+	public ResultSet getGeneratedKeys() throws SQLException {
+		return wrap(st.getGeneratedKeys());
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return conn;
+	}
+
+	@Override
+	public void close() throws SQLException {
+		finish();
+		st.close();
+	}
+
+	@Override
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		return iface.isInstance(this) ? iface.cast(this) : st.unwrap(iface);
+	}
+
+	@Override
+	public boolean isWrapperFor(Class<?> iface) throws SQLException {
+		return iface.isInstance(this) || st.isWrapperFor(iface);
+	}
+
+	@Override
+	public String toString() {
+		return st.toString();
+	}
+
+	/* ---- 以下は元の文へそのまま委譲 ---- */
+
+	@Override public void addBatch(String sql) throws SQLException { st.addBatch(sql); }
+	@Override public void cancel() throws SQLException { st.cancel(); }
+	@Override public void clearBatch() throws SQLException { st.clearBatch(); }
+	@Override public void clearWarnings() throws SQLException { st.clearWarnings(); }
+	@Override public void closeOnCompletion() throws SQLException { st.closeOnCompletion(); }
+	@Override public String enquoteIdentifier(String identifier, boolean alwaysQuote) throws SQLException { return st.enquoteIdentifier(identifier, alwaysQuote); }
+	@Override public String enquoteLiteral(String val) throws SQLException { return st.enquoteLiteral(val); }
+	@Override public String enquoteNCharLiteral(String val) throws SQLException { return st.enquoteNCharLiteral(val); }
+	@Override public int getFetchDirection() throws SQLException { return st.getFetchDirection(); }
+	@Override public int getFetchSize() throws SQLException { return st.getFetchSize(); }
+	@Override public long getLargeMaxRows() throws SQLException { return st.getLargeMaxRows(); }
+	@Override public long getLargeUpdateCount() throws SQLException { return st.getLargeUpdateCount(); }
+	@Override public int getMaxFieldSize() throws SQLException { return st.getMaxFieldSize(); }
+	@Override public int getMaxRows() throws SQLException { return st.getMaxRows(); }
+	@Override public boolean getMoreResults() throws SQLException { return st.getMoreResults(); }
+	@Override public boolean getMoreResults(int current) throws SQLException { return st.getMoreResults(current); }
+	@Override public int getQueryTimeout() throws SQLException { return st.getQueryTimeout(); }
+	@Override public int getResultSetConcurrency() throws SQLException { return st.getResultSetConcurrency(); }
+	@Override public int getResultSetHoldability() throws SQLException { return st.getResultSetHoldability(); }
+	@Override public int getResultSetType() throws SQLException { return st.getResultSetType(); }
+	@Override public int getUpdateCount() throws SQLException { return st.getUpdateCount(); }
+	@Override public SQLWarning getWarnings() throws SQLException { return st.getWarnings(); }
+	@Override public boolean isCloseOnCompletion() throws SQLException { return st.isCloseOnCompletion(); }
+	@Override public boolean isClosed() throws SQLException { return st.isClosed(); }
+	@Override public boolean isPoolable() throws SQLException { return st.isPoolable(); }
+	@Override public boolean isSimpleIdentifier(String identifier) throws SQLException { return st.isSimpleIdentifier(identifier); }
+	@Override public void setCursorName(String name) throws SQLException { st.setCursorName(name); }
+	@Override public void setEscapeProcessing(boolean enable) throws SQLException { st.setEscapeProcessing(enable); }
+	@Override public void setFetchDirection(int direction) throws SQLException { st.setFetchDirection(direction); }
+	@Override public void setFetchSize(int rows) throws SQLException { st.setFetchSize(rows); }
+	@Override public void setLargeMaxRows(long max) throws SQLException { st.setLargeMaxRows(max); }
+	@Override public void setMaxFieldSize(int max) throws SQLException { st.setMaxFieldSize(max); }
+	@Override public void setMaxRows(int max) throws SQLException { st.setMaxRows(max); }
+	@Override public void setPoolable(boolean poolable) throws SQLException { st.setPoolable(poolable); }
+	@Override public void setQueryTimeout(int seconds) throws SQLException { st.setQueryTimeout(seconds); }
+}
@@ -0,0 +1,404 @@
+package dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.UUID;
+
+/**
+ * 月次締め（{@code month_closings}）と、締め処理で使う顧客別・秘書別月次集計の一括確定を司る DAO。
+ *
+ * 締め処理の流れ（呼び出し順は service 側で制御）:
+ * 1. 集計行の UPSERT（顧客／秘書をハッシュでパーティション分割し、パーティションごとに別トランザクションで並列実行可）
+ * 2. タスクの紐付け（tasks.customer_monthly_invoice_id / secretary_monthly_summary_id、顧客ハッシュで分割）
+ * 3. 確定（{@code month_closings} 登録 → 検証 → finalized_at 付与）を 1 トランザクションで実行
+ *
+ * 締め済み判定と業務の登録・変更の競合は、月ごとのアドバイザリロックで直列化します
+ * （業務の登録・変更は {@link #lockMonthShared} の共有ロック、事前検証と確定は {@link #lockMonth} の排他ロック）。
+ * 確定側は実行中の登録・変更のコミットを待ってから検証し、登録・変更側は確定のコミット後に締め済みを判定します。
+ *
+ * タスクの月は一覧・請求と同じくアサインの年月と作業日の範囲（{@link #AND_TASK_IN_MONTH}）の両方で絞り込み、
+ * tasks の月パーティションだけを走査します（作業日がアサイン月の範囲内であることはトリガーで保証）。
+ *
+ * 金額はいずれも「顧客×秘書×ランク（時給）」単位で 時給 × 分 / 60 を円未満四捨五入して合算します
+ * （顧客側は顧客単価、秘書側は秘書単価。請求明細・振込データと同じ丸め単位）。
+ */
+public class MonthCloseDAO extends BaseDAO {
+
+	/** ========================
+	 * ① フィールド（SQL）
+	 * ======================== */
+
+	/** パーティション条件（キーのハッシュ値 mod パーティション数） */
+	private static final String PARTITION_OF = "(hashtext(%s::text) & 2147483647) %% ? = ? ";
+
+	/** 月単位のロック（業務の登録・変更は共有、締めは排他。トランザクション終了で解放） */
+	private static final String SQL_LOCK_MONTH_SHARED = "SELECT pg_advisory_xact_lock_shared(hashtext(?))";
+	private static final String SQL_LOCK_MONTH = "SELECT pg_advisory_xact_lock(hashtext(?))";
+
+	/** 締め済み判定 */
+	private static final String SQL_SELECT_CLOSED_AT = "SELECT closed_at FROM month_closings WHERE target_year_month = ?";
+
+	/** 顧客別集計の UPSERT（1 パーティション分。確定済み行は更新しない。新規行の id は既定値 uuid_v7() で時刻順に採番） */
+	private static final String SQL_UPSERT_CMI_PARTITION = "INSERT INTO customer_monthly_invoices ("
+			+ "  customer_id, target_year_month, total_amount, total_tasks_count, total_work_time, status) "
+			+ "SELECT l.customer_id, ?, SUM(l.fee), SUM(l.task_count), SUM(l.total_minute), 'DRAFT' "
+			+ "  FROM ( "
+			+ "    SELECT a.customer_id, COUNT(*) AS task_count, SUM(t.work_minute) AS total_minute, "
+			+ "           ROUND((a.base_pay_customer + a.increase_base_pay_customer + a.customer_based_incentive_for_customer) "
+			+ "                 * SUM(t.work_minute) / 60.0, 0) AS fee "
+			+ "      FROM tasks t "
+			+ "      JOIN assignments a ON t.assignment_id = a.id "
+			+ "     WHERE a.ym_index = ? AND t.deleted_at IS NULL " + AND_TASK_IN_MONTH
+			+ "       AND " + String.format(PARTITION_OF, "a.customer_id")
+			+ "     GROUP BY a.customer_id, a.secretary_id, a.task_rank_id, "
+			+ "              a.base_pay_customer, a.increase_base_pay_customer, a.customer_based_incentive_for_customer "
+			+ "  ) l "
+			+ " GROUP BY l.customer_id "
+			+ "ON CONFLICT (customer_id, target_year_month) DO UPDATE SET "
+			+ "  total_amount      = EXCLUDED.total_amount, "
+			+ "  total_tasks_count = EXCLUDED.total_tasks_count, "
+			+ "  total_work_time   = EXCLUDED.total_work_time, "
+			+ "  status            = 'DRAFT', "
+			+ "  updated_at        = CURRENT_TIMESTAMP "
+			+ "WHERE customer_monthly_invoices.finalized_at IS NULL";
+
+	/** 秘書別集計の UPSERT（1 パーティション分。確定済み行は更新しない。新規行の id は既定値 uuid_v7() で時刻順に採番） */
+	private static final String SQL_UPSERT_SMS_PARTITION = "INSERT INTO secretary_monthly_summaries ("
+			+ "  secretary_id, target_year_month, total_secretary_amount, total_tasks_count, total_work_time, status) "
+			+ "SELECT l.secretary_id, ?, SUM(l.fee), SUM(l.task_count), SUM(l.total_minute), 'DRAFT' "
+			+ "  FROM ( "
+			+ "    SELECT a.secretary_id, COUNT(*) AS task_count, SUM(t.work_minute) AS total_minute, "
+			+ "           ROUND((a.base_pay_secretary + a.increase_base_pay_secretary + a.customer_based_incentive_for_secretary) "
+			+ "                 * SUM(t.work_minute) / 60.0, 0) AS fee "
+			+ "      FROM tasks t "
+			+ "      JOIN assignments a ON t.assignment_id = a.id "
+			+ "     WHERE a.ym_index = ? AND t.deleted_at IS NULL " + AND_TASK_IN_MONTH
+			+ "       AND " + String.format(PARTITION_OF, "a.secretary_id")
+			+ "     GROUP BY a.secretary_id, a.customer_id, a.task_rank_id, "
+			+ "              a.base_pay_secretary, a.increase_base_pay_secretary, a.customer_based_incentive_for_secretary "
+			+ "  ) l "
+			+ " GROUP BY l.secretary_id "
+			+ "ON CONFLICT (secretary_id, target_year_month) DO UPDATE SET "
+			+ "  total_secretary_amount = EXCLUDED.total_secretary_amount, "
+			+ "  total_tasks_count      = EXCLUDED.total_tasks_count, "
+			+ "  total_work_time        = EXCLUDED.total_work_time, "
+			+ "  status                 = 'DRAFT', "
+			+ "  updated_at             = CURRENT_TIMESTAMP "
+			+ "WHERE secretary_monthly_summaries.finalized_at IS NULL";
+
+	/** 削除済みタスクの紐付け解除（前回の締め処理が途中で失敗した場合の後始末） */
+	private static final String SQL_UNLINK_DELETED = "UPDATE tasks t "
+			+ "   SET customer_monthly_invoice_id = NULL, secretary_monthly_summary_id = NULL "
+			+ "  FROM assignments a "
+			+ " WHERE t.assignment_id = a.id AND a.ym_index = ? " + AND_TASK_IN_MONTH
+			+ "   AND t.deleted_at IS NOT NULL "
+			+ "   AND (t.customer_monthly_invoice_id IS NOT NULL OR t.secretary_monthly_summary_id IS NOT NULL)";
+
+	/** タスク → 集計行の紐付け（1 パーティション分。顧客ハッシュで分割するため各行は 1 パーティションからのみ更新される） */
+	private static final String SQL_LINK_TASKS_PARTITION = "UPDATE tasks t "
+			+ "   SET customer_monthly_invoice_id = i.id, secretary_monthly_summary_id = m.id "
+			+ "  FROM assignments a "
+			+ "  JOIN customer_monthly_invoices i "
+			+ "    ON i.customer_id = a.customer_id AND i.target_year_month = a.target_year_month AND i.deleted_at IS NULL "
+			+ "  JOIN secretary_monthly_summaries m "
+			+ "    ON m.secretary_id = a.secretary_id AND m.target_year_month = a.target_year_month AND m.deleted_at IS NULL "
+			+ " WHERE t.assignment_id = a.id AND a.ym_index = ? AND t.deleted_at IS NULL " + AND_TASK_IN_MONTH
+			+ "   AND " + String.format(PARTITION_OF, "a.customer_id")
+			+ "   AND (t.customer_monthly_invoice_id IS DISTINCT FROM i.id "
+			+ "        OR t.secretary_monthly_summary_id IS DISTINCT FROM m.id)";
+
+	/** 締め前検証（件数・未承認・未紐付け／削除後も紐付いたまま） */
+	private static final String SQL_VERIFY = "SELECT "
+			+ "  COUNT(*) FILTER (WHERE t.deleted_at IS NULL) AS task_count, "
+			+ "  COUNT(*) FILTER (WHERE t.deleted_at IS NULL AND t.approved_at IS NULL) AS unapproved, "
+			+ "  COUNT(*) FILTER (WHERE (t.deleted_at IS NULL "
+			+ "                          AND (t.customer_monthly_invoice_id IS NULL OR t.secretary_monthly_summary_id IS NULL)) "
+			+ "                      OR (t.deleted_at IS NOT NULL "
+			+ "                          AND (t.customer_monthly_invoice_id IS NOT NULL OR t.secretary_monthly_summary_id IS NOT NULL))) AS stale "
+			+ "FROM tasks t "
+			+ "JOIN assignments a ON t.assignment_id = a.id "
+			+ "WHERE a.ym_index = ? " + AND_TASK_IN_MONTH;
+
+	/** 締め登録（既に締め済みなら 0 件） */
+	private static final String SQL_INSERT_CLOSING = "INSERT INTO month_closings (target_year_month, closed_by) "
+			+ "VALUES (?, ?) ON CONFLICT (target_year_month) DO NOTHING";
+
+	/** 締め件数の記録 */
+	private static final String SQL_UPDATE_CLOSING_COUNTS = "UPDATE month_closings "
+			+ "   SET customer_count = ?, secretary_count = ?, task_count = ? "
+			+ " WHERE target_year_month = ?";
+
+	/** タスクが紐付いていない顧客別集計行（過去の画面表示で作られた DRAFT 等）を 0 に揃える */
+	private static final String SQL_ZERO_ORPHAN_CMI = "UPDATE customer_monthly_invoices i "
+			+ "   SET total_amount = 0, total_tasks_count = 0, total_work_time = 0, updated_at = CURRENT_TIMESTAMP "
+			+ " WHERE i.ym_index = ? AND i.finalized_at IS NULL AND i.deleted_at IS NULL "
+			+ "   AND NOT EXISTS (SELECT 1 FROM tasks t WHERE t.customer_monthly_invoice_id = i.id AND t.deleted_at IS NULL)";
+
+	private static final String SQL_ZERO_ORPHAN_SMS = "UPDATE secretary_monthly_summaries m "
+			+ "   SET total_secretary_amount = 0, total_tasks_count = 0, total_work_time = 0, updated_at = CURRENT_TIMESTAMP "
+			+ " WHERE m.ym_index = ? AND m.finalized_at IS NULL AND m.deleted_at IS NULL "
+			+ "   AND NOT EXISTS (SELECT 1 FROM tasks t WHERE t.secretary_monthly_summary_id = m.id AND t.deleted_at IS NULL)";
+
+	/** 確定（finalized_at 付与） */
+	private static final String SQL_FINALIZE_CMI = "UPDATE customer_monthly_invoices "
+			+ "   SET status = 'FINALIZED', finalized_at = CURRENT_TIMESTAMP, updated_at = CURRENT_TIMESTAMP "
+			+ " WHERE ym_index = ? AND finalized_at IS NULL AND deleted_at IS NULL";
+
+	private static final String SQL_FINALIZE_SMS = "UPDATE secretary_monthly_summaries "
+			+ "   SET status = 'FINALIZED', finalized_at = CURRENT_TIMESTAMP, updated_at = CURRENT_TIMESTAMP "
+			+ " WHERE ym_index = ? AND finalized_at IS NULL AND deleted_at IS NULL";
+
+	/** 締め前検証の結果 */
+	public record Check(int taskCount, int unapproved, int stale) {
+	}
+
+	/** ========================
+	 * ② コンストラクタ
+	 * ======================== */
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param conn 既存のDBコネクション（トランザクションは呼出し側で管理）
+	 */
+	public MonthCloseDAO(Connection conn) {
+		super(conn);
+	}
+
+	/** ========================
+	 * ③ メソッド
+	 * ======================== */
+
+	/**
+	 * 指定月の共有ロックを取得します（業務の登録・変更用。締めの確定が終わるまで待機し、トランザクション終了で解放）。
+	 *
+	 * @param yearMonth 年月（yyyy-MM）
+	 * @throws DAOException 取得に失敗した場合
+	 */
+	public void lockMonthShared(String yearMonth) {
+		lock(SQL_LOCK_MONTH_SHARED, yearMonth);
+	}
+
+	/**
+	 * 指定月の排他ロックを取得します（締め用。実行中の業務の登録・変更のコミットを待ち、トランザクション終了で解放）。
+	 *
+	 * @param yearMonth 年月（yyyy-MM）
+	 * @throws DAOException 取得に失敗した場合
+	 */
+	public void lockMonth(String yearMonth) {
+		lock(SQL_LOCK_MONTH, yearMonth);
+	}
+
+	/**
+	 * 指定月の締め日時を返します。
+	 *
+	 * @param yearMonth 年月（yyyy-MM）
+	 * @return 締め日時（未締めなら null）
+	 * @throws DAOException 取得に失敗した場合
+	 */
+	public Timestamp selectClosedAt(String yearMonth) {
+		try (PreparedStatement ps = conn.prepareStatement(SQL_SELECT_CLOSED_AT)) {
+			ps.setString(1, yearMonth);
+			try (ResultSet rs = ps.executeQuery()) {
+				return rs.next() ? rs.getTimestamp(1) : null;
+			}
+		} catch (SQLException e) {
+			throw new DAOException("E:MC01 月次締め状態の取得に失敗しました。", e);
+		}
+	}
+
+	/**
+	 * 指定月が締め済みかを返します。
+	 *
+	 * @param yearMonth 年月（yyyy-MM）
+	 * @return 締め済みなら true
+	 * @throws DAOException 取得に失敗した場合
+	 */
+	public boolean isClosed(String yearMonth) {
+		return selectClosedAt(yearMonth) != null;
+	}
+
+	/**
+	 * 顧客別集計（customer_monthly_invoices）を 1 パーティション分 UPSERT します。
+	 *
+	 * @param yearMonth  年月（yyyy-MM）
+	 * @param partitions パーティション数
+	 * @param part       パーティション番号（0 〜 partitions-1）
+	 * @return 影響行数
+	 * @throws DAOException UPSERT に失敗した場合
+	 */
+	public int upsertCustomerPartition(String yearMonth, int partitions, int part) {
+		try {
+			int n = executePartition(SQL_UPSERT_CMI_PARTITION, yearMonth, partitions, part);
+			CacheInvalidation.publish(conn, CacheInvalidation.Topic.PIVOT_SALES.key(yearMonth));
+			return n;
+		} catch (SQLException e) {
+			throw new DAOException("E:MC11 顧客別月次集計の作成に失敗しました。", e);
+		}
+	}
+
+	/**
+	 * 秘書別集計（secretary_monthly_summaries）を 1 パーティション分 UPSERT します。
+	 *
+	 * @param yearMonth  年月（yyyy-MM）
+	 * @param partitions パーティション数
+	 * @param part       パーティション番号（0 〜 partitions-1）
+	 * @return 影響行数
+	 * @throws DAOException UPSERT に失敗した場合
+	 */
+	public int upsertSecretaryPartition(String yearMonth, int partitions, int part) {
+		try {
+			int n = executePartition(SQL_UPSERT_SMS_PARTITION, yearMonth, partitions, part);
+			CacheInvalidation.publish(conn,
+					CacheInvalidation.Topic.CANDIDATE_MONTH.key(yearMonth),
+					CacheInvalidation.Topic.PIVOT_COSTS.key(yearMonth));
+			return n;
+		} catch (SQLException e) {
+			throw new DAOException("E:MC12 秘書別月次集計の作成に失敗しました。", e);
+		}
+	}
+
+	/**
+	 * 削除済みタスクに残った紐付けを解除します。
+	 *
+	 * @param yearMonth 年月（yyyy-MM）
+	 * @return 影響行数
+	 * @throws DAOException 更新に失敗した場合
+	 */
+	public int unlinkDeletedTasks(String yearMonth) {
+		try (PreparedStatement ps = conn.prepareStatement(SQL_UNLINK_DELETED)) {
+			ps.setInt(1, toYmIndex(yearMonth));
+			setMonthRange(ps, 2, yearMonth);
+			return ps.executeUpdate();
+		} catch (SQLException e) {
+			throw new DAOException("E:MC13 削除済みタスクの紐付け解除に失敗しました。", e);
+		}
+	}
+
+	/**
+	 * タスクを顧客別・秘書別集計行へ 1 パーティション分紐付けます。
+	 *
+	 * @param yearMonth  年月（yyyy-MM）
+	 * @param partitions パーティション数
+	 * @param part       パーティション番号（0 〜 partitions-1）
+	 * @return 影響行数
+	 * @throws DAOException 更新に失敗した場合
+	 */
+	public int linkTasksPartition(String yearMonth, int partitions, int part) {
+		try (PreparedStatement ps = conn.prepareStatement(SQL_LINK_TASKS_PARTITION)) {
+			ps.setInt(1, toYmIndex(yearMonth));
+			int i = setMonthRange(ps, 2, yearMonth);
+			ps.setInt(i++, partitions);
+			ps.setInt(i, part);
+			return ps.executeUpdate();
+		} catch (SQLException e) {
+			throw new DAOException("E:MC14 タスクの月次集計への紐付けに失敗しました。", e);
+		}
+	}
+
+	/**
+	 * 締め前の検証値を取得します。
+	 *
+	 * @param yearMonth 年月（yyyy-MM）
+	 * @return 検証結果
+	 * @throws DAOException 取得に失敗した場合
+	 */
+	public Check verify(String yearMonth) {
+		try (PreparedStatement ps = conn.prepareStatement(SQL_VERIFY)) {
+			ps.setInt(1, toYmIndex(yearMonth));
+			setMonthRange(ps, 2, yearMonth);
+			try (ResultSet rs = ps.executeQuery()) {
+				rs.next();
+				return new Check(rs.getInt("task_count"), rs.getInt("unapproved"), rs.getInt("stale"));
+			}
+		} catch (SQLException e) {
+			throw new DAOException("E:MC21 月次締めの検証に失敗しました。", e);
+		}
+	}
+
+	/**
+	 * 締めを登録します（同月の同時実行はこの行の一意制約で直列化されます）。
+	 *
+	 * @param yearMonth 年月（yyyy-MM）
+	 * @param closedBy  実行した管理者ID（不明なら null）
+	 * @return 登録できた場合 true（既に締め済みなら false）
+	 * @throws DAOException 登録に失敗した場合
+	 */
+	public boolean insertClosing(String yearMonth, UUID closedBy) {
+		try (PreparedStatement ps = conn.prepareStatement(SQL_INSERT_CLOSING)) {
+			ps.setString(1, yearMonth);
+			ps.setObject(2, closedBy);
+			return ps.executeUpdate() == 1;
+		} catch (SQLException e) {
+			throw new DAOException("E:MC22 月次締めの登録に失敗しました。", e);
+		}
+	}
+
+	/**
+	 * 顧客別・秘書別集計を確定（finalized_at 付与）し、件数を締め行に記録します。
+	 * タスクが紐付いていない集計行は 0 円で確定します。
+	 *
+	 * @param yearMonth 年月（yyyy-MM）
+	 * @param taskCount 締め対象のタスク件数
+	 * @return [確定した顧客行数, 確定した秘書行数]
+	 * @throws DAOException 更新に失敗した場合
+	 */
+	public int[] finalizeMonth(String yearMonth, int taskCount) {
+		final int ymIndex = toYmIndex(yearMonth);
+		try {
+			executeByMonth(SQL_ZERO_ORPHAN_CMI, ymIndex);
+			executeByMonth(SQL_ZERO_ORPHAN_SMS, ymIndex);
+			int customers = executeByMonth(SQL_FINALIZE_CMI, ymIndex);
+			int secretaries = executeByMonth(SQL_FINALIZE_SMS, ymIndex);
+
+			try (PreparedStatement ps = conn.prepareStatement(SQL_UPDATE_CLOSING_COUNTS)) {
+				ps.setInt(1, customers);
+				ps.setInt(2, secretaries);
+				ps.setInt(3, taskCount);
+				ps.setString(4, yearMonth);
+				ps.executeUpdate();
+			}
+			CacheInvalidation.publish(conn,
+					CacheInvalidation.Topic.CANDIDATE_MONTH.key(yearMonth),
+					CacheInvalidation.Topic.PIVOT_SALES.key(yearMonth),
+					CacheInvalidation.Topic.PIVOT_COSTS.key(yearMonth));
+			return new int[] { customers, secretaries };
+		} catch (SQLException e) {
+			throw new DAOException("E:MC23 月次集計の確定に失敗しました。", e);
+		}
+	}
+
+	/** ========================
+	 * 内部処理
+	 * ======================== */
+
+	private void lock(String sql, String yearMonth) {
+		try (PreparedStatement ps = conn.prepareStatement(sql)) {
+			ps.setString(1, yearMonth);
+			ps.execute();
+		} catch (SQLException e) {
+			throw new DAOException("E:MC02 月次締めのロック取得に失敗しました。", e);
+		}
+	}
+
+	private int executePartition(String sql, String yearMonth, int partitions, int part) throws SQLException {
+		try (PreparedStatement ps = conn.prepareStatement(sql)) {
+			ps.setString(1, yearMonth);
+			ps.setInt(2, toYmIndex(yearMonth));
+			int i = setMonthRange(ps, 3, yearMonth);
+			ps.setInt(i++, partitions);
+			ps.setInt(i, part);
+			return ps.executeUpdate();
+		}
+	}
+
+	private int executeByMonth(String sql, int ymIndex) throws SQLException {
+		try (PreparedStatement ps = conn.prepareStatement(sql)) {
+			ps.setInt(1, ymIndex);
+			return ps.executeUpdate();
+		}
+	}
+}
@@ -7,6 +7,7 @@ import java.sql.SQLException;
 import java.util.UUID;
 
 import dto.PasswordResetTokenDTO;
+import util.UuidV7;
 
 /**
  * {@code password_reset_tokens} テーブルを扱う DAO。
@@ -38,11 +39,11 @@ public class PasswordResetTokenDAO extends BaseDAO {
         " ORDER BY created_at DESC " +
         " LIMIT 1";
 
-    /** 新規登録 */
+    /** 新規登録（id はアプリ側で UUIDv7 を採番） */
     private static final String SQL_INSERT =
         "INSERT INTO password_reset_tokens " +
-        "(user_type, user_id, token, expires_at) " +
-        "VALUES (?, ?, ?, ?)";
+        "(id, user_type, user_id, token, expires_at) " +
+        "VALUES (?, ?, ?, ?, ?)";
 
     /** トークンを使用済みにマーク */
     private static final String SQL_MARK_AS_USED =
@@ -133,7 +134,7 @@ public class PasswordResetTokenDAO extends BaseDAO {
 
     /**
      * パスワードリセットトークンを新規登録します。
-     * - ID は DB 側で {@code gen_random_uuid()} により採番されます。
+     * - ID はアプリ側で時刻順の UUIDv7（{@link UuidV7}）を採番します。
      * - {@code created_at} はサーバー時刻で自動設定します。
      *
      * @param dto 登録するトークン（使用フィールド：userType, userId, token, expiresAt）
@@ -142,10 +143,11 @@ public class PasswordResetTokenDAO extends BaseDAO {
      */
     public int insert(PasswordResetTokenDTO dto) {
         try (PreparedStatement ps = conn.prepareStatement(SQL_INSERT)) {
-            ps.setString(1, dto.getUserType());
-            ps.setObject(2, dto.getUserId());
-            ps.setString(3, dto.getToken());
-            ps.setTimestamp(4, dto.getExpiresAt());
+            ps.setObject(1, UuidV7.generate());
+            ps.setString(2, dto.getUserType());
+            ps.setObject(3, dto.getUserId());
+            ps.setString(4, dto.getToken());
+            ps.setTimestamp(5, dto.getExpiresAt());
 
             return ps.executeUpdate();
 
@@ -0,0 +1,118 @@
+package dao;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 1 リクエスト（＝処理スレッド）内の DB アクセスを数える集計器。
+ * <p>
+ * {@link filter.PerfFilter} がリクエストの前後で {@link #begin()} / {@link #end()} を呼び、
+ * その間に {@link TransactionManager} が払い出した接続（{@link MeteredConnection}）での
+ * 実行回数・取得行数・DB 時間・接続確立時間を積み上げます。
+ * 接続はプールせず都度 {@code DriverManager} で開くため、接続確立時間は待ち時間ではなく
+ * TCP 接続・認証に要した時間です。
+ * 開始していないスレッド（バックグラウンド処理や並列締めのワーカー等）の記録は捨てます。
+ * </p>
+ */
+public final class QueryStats {
+
+	/** 同一SQLの実行回数を数える種類の上限（動的に組み立てる SQL で膨らまないように） */
+	private static final int MAX_DISTINCT_SQL = 256;
+
+	/**
+	 * 1 リクエスト分の集計結果。
+	 *
+	 * @param statements          実行したSQL数（バッチは 1 回）
+	 * @param rows                取得した行数
+	 * @param dbNanos             SQL 実行・行取得に要した時間（ナノ秒）
+	 * @param connectNanos 接続の確立に要した時間（ナノ秒）
+	 * @param maxRepeat           同一SQLの最大実行回数（N+1 の目安）
+	 * @param maxRepeatSql        最も多く実行されたSQL
+	 */
+	public record Snapshot(int statements, long rows, long dbNanos, long connectNanos,
+			int maxRepeat, String maxRepeatSql) {
+	}
+
+	/** 集計中の値（スレッド内でのみ更新） */
+	private static final class Counter {
+		final String route;
+		int statements;
+		long rows;
+		long dbNanos;
+		long connectNanos;
+		final Map<String, Integer> perSql = new HashMap<>();
+
+		Counter(String route) {
+			this.route = route;
+		}
+	}
+
+	private static final ThreadLocal<Counter> CURRENT = new ThreadLocal<>();
+
+	private QueryStats() {
+	}
+
+	/**
+	 * 現在のスレッドで集計を開始します。
+	 *
+	 * @param route リクエストのルート（スロークエリの記録に添える）
+	 */
+	public static void begin(String route) {
+		CURRENT.set(new Counter(route));
+	}
+
+	/**
+	 * 現在のスレッドで処理中のルートを返します。
+	 *
+	 * @return ルート（リクエスト外なら null）
+	 */
+	static String currentRoute() {
+		Counter c = CURRENT.get();
+		return (c == null) ? null : c.route;
+	}
+
+	/**
+	 * 現在のスレッドの集計を終了し、結果を返します。
+	 *
+	 * @return 集計結果（開始していなければ null）
+	 */
+	public static Snapshot end() {
+		Counter c = CURRENT.get();
+		CURRENT.remove();
+		if (c == null) return null;
+		int maxRepeat = 0;
+		String maxSql = null;
+		for (Map.Entry<String, Integer> e : c.perSql.entrySet()) {
+			if (e.getValue() > maxRepeat) {
+				maxRepeat = e.getValue();
+				maxSql = e.getKey();
+			}
+		}
+		return new Snapshot(c.statements, c.rows, c.dbNanos, c.connectNanos, maxRepeat, maxSql);
+	}
+
+	/** 接続の確立時間を記録します */
+	static void connected(long nanos) {
+		Counter c = CURRENT.get();
+		if (c != null) c.connectNanos += nanos;
+	}
+
+	/** SQL の実行を記録します */
+	static void executed(String sql, long nanos) {
+		Counter c = CURRENT.get();
+		if (c == null) return;
+		c.statements++;
+		c.dbNanos += nanos;
+		if (sql != null && (c.perSql.size() < MAX_DISTINCT_SQL || c.perSql.containsKey(sql))) {
+			c.perSql.merge(sql, 1, Integer::sum);
+		}
+	}
+
+	/** 結果セットの読み進め（1 回の next）を記録します */
+	static void fetched(long nanos, boolean hasRow) {
+		Counter c = CURRENT.get();
+		if (c == null) return;
+		c.dbNanos += nanos;
+		if (hasRow) c.rows++;
+	}
+}
@@ -0,0 +1,331 @@
+package dao;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * アサイン登録画面の「秘書候補」検索用インメモリインデックス。
+ * <p>
+ * profiles の 9 枠（平日/土曜/日曜 × 朝/昼/夜）の可否（0/1/2）を 1 つの int にビット詰めし、
+ * 勤務可能時間とあわせて秘書ごとに保持します。候補検索（フィルタ・スコア・並び替え・上位K件）は
+ * すべてメモリ上で行い、DB へは初回ロード時と無効化された秘書／月の再読込時のみアクセスします。
+ * </p>
+ * <ul>
+ *   <li>ビット 0〜8 : 可（1 以上）の枠</li>
+ *   <li>ビット 9〜17: 〇（2）の枠</li>
+ * </ul>
+ * 無効化は {@link ProfileDAO#upsert}、秘書情報の更新／削除、月次サマリの UPSERT の
+ * コミット後に {@link TransactionManager#afterCommit} 経由で行われます。
+ */
+public final class SecretaryCandidateIndex {
+
+	/** 枠数（平日朝/昼/夜, 土曜朝/昼/夜, 日曜朝/昼/夜 の順） */
+	public static final int SLOT_COUNT = 9;
+	private static final int STRONG_SHIFT = SLOT_COUNT;
+	private static final int SLOT_MASK = (1 << SLOT_COUNT) - 1;
+
+	/** 画面（Map）のキー：枠の並び順と一致 */
+	private static final String[] SLOT_KEYS = {
+			"wdAm", "wdDay", "wdNight", "saAm", "saDay", "saNight", "suAm", "suDay", "suNight" };
+
+	/** プロフィール登録済み・未削除の秘書（末尾に個別再読込用の条件を付与） */
+	private static final String SQL_SELECT_PROFILES = "SELECT s.id, s.name, COALESCE(sr.rank_name, '') AS rank_name, "
+			+ " p.weekday_morning, p.weekday_daytime, p.weekday_night, "
+			+ " p.saturday_morning, p.saturday_daytime, p.saturday_night, "
+			+ " p.sunday_morning, p.sunday_daytime, p.sunday_night, "
+			+ " COALESCE(p.weekday_work_hours,  0)::int, "
+			+ " COALESCE(p.saturday_work_hours, 0)::int, "
+			+ " COALESCE(p.sunday_work_hours,   0)::int, "
+			+ " COALESCE(p.monthly_work_hours,  0) "
+			+ "FROM profiles p "
+			+ "JOIN secretaries s ON s.id = p.secretary_id AND s.deleted_at IS NULL "
+			+ "LEFT JOIN secretary_rank sr ON sr.id = s.secretary_rank_id "
+			+ "WHERE p.deleted_at IS NULL ";
+
+	private static final String SQL_AND_SECRETARY_IN = "AND s.id = ANY(?) ";
+
+	/** 指定月の秘書ごとの稼働分合計 */
+	private static final String SQL_SELECT_MONTH_MINUTES = "SELECT secretary_id, SUM(total_work_time) "
+			+ "FROM secretary_monthly_summaries "
+			+ "WHERE target_year_month = ? "
+			+ "GROUP BY secretary_id";
+
+	/** 秘書1名分のエントリ（不変） */
+	private record Entry(UUID id, String name, String rankName, int slots,
+			int wdHours, int saHours, int suHours, BigDecimal monthlyHours) {
+	}
+
+	/** 検索時の1行（並び替え用の値を展開済み） */
+	private record Row(Entry e, int score, int lastMonthHours, int capacity) {
+	}
+
+	private static final Object LOCK = new Object();
+	/** 秘書ID → エントリ（null は未ロード） */
+	private static volatile Map<UUID, Entry> entries;
+	/** 再読込が必要な秘書ID */
+	private static final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+	/** 年月 → (秘書ID → 稼働分) */
+	private static final Map<String, Map<UUID, Long>> monthMinutes = new ConcurrentHashMap<>();
+	/** 月キャッシュの世代（読込中に無効化された結果を格納しないため） */
+	private static final AtomicLong monthGeneration = new AtomicLong();
+
+	private SecretaryCandidateIndex() {
+	}
+
+	/** ========================
+	 * 無効化
+	 * ======================== */
+
+	/**
+	 * 秘書1名分のエントリを無効化します（次回検索時に再読込）。
+	 *
+	 * @param secretaryId 秘書ID
+	 */
+	public static void invalidateSecretary(UUID secretaryId) {
+		if (secretaryId != null) dirty.add(secretaryId);
+	}
+
+	/**
+	 * 指定月の稼働分キャッシュを破棄します。
+	 *
+	 * @param yearMonth 年月（yyyy-MM）
+	 */
+	public static void invalidateMonth(String yearMonth) {
+		if (yearMonth == null) return;
+		monthGeneration.incrementAndGet();
+		monthMinutes.remove(yearMonth);
+	}
+
+	/**
+	 * すべてのキャッシュを破棄します。
+	 */
+	public static void invalidateAll() {
+		synchronized (LOCK) {
+			entries = null;
+			dirty.clear();
+			monthGeneration.incrementAndGet();
+			monthMinutes.clear();
+		}
+	}
+
+	/** ========================
+	 * 検索
+	 * ======================== */
+
+	/**
+	 * 候補秘書を上位 {@code limit} 件まで返します。
+	 * <ul>
+	 *   <li>{@code requiredMask} のビットが立っている枠がすべて〇/△の秘書のみ</li>
+	 *   <li>指定枠がある場合は、指定枠の可否合計（〇=2, △=1）の高い順を優先</li>
+	 *   <li>続いて {@code sortKey} の昇順/降順、最後に氏名昇順</li>
+	 * </ul>
+	 *
+	 * @param conn         ロード／再読込用の接続
+	 * @param prevYM       稼働実績を参照する月（yyyy-MM）
+	 * @param requiredMask 必須枠のビットマスク（{@link #slotBit(int)} の論理和）
+	 * @param sortKey      wdHours / saHours / suHours / totalHours / lastMonth / capacity
+	 * @param desc         降順なら true
+	 * @param limit        最大件数（0以下は無制限）
+	 * @return 画面表示用の行（キーは従来の SQL 版と同一）
+	 */
+	public static List<Map<String, Object>> topCandidates(Connection conn, String prevYM,
+			int requiredMask, String sortKey, boolean desc, int limit) {
+
+		Map<UUID, Entry> snapshot = ensureLoaded(conn);
+		Map<UUID, Long> minutes = ensureMonthLoaded(conn, prevYM);
+
+		Comparator<Row> cmp = comparator(requiredMask != 0, sortKey, desc);
+		int k = (limit <= 0) ? Integer.MAX_VALUE : limit;
+		PriorityQueue<Row> heap = (k == Integer.MAX_VALUE) ? null : new PriorityQueue<>(cmp.reversed());
+		List<Row> rows = new ArrayList<>();
+
+		for (Entry e : snapshot.values()) {
+			int avail = e.slots() & SLOT_MASK;
+			if ((avail & requiredMask) != requiredMask) continue;
+
+			int strong = (e.slots() >>> STRONG_SHIFT) & SLOT_MASK;
+			int score = Integer.bitCount(avail & requiredMask) + Integer.bitCount(strong & requiredMask);
+
+			long min = minutes.getOrDefault(e.id(), 0L);
+			long lastHours = (min + 59) / 60;
+			int capacity = e.monthlyHours().subtract(BigDecimal.valueOf(lastHours))
+					.setScale(0, RoundingMode.HALF_UP).intValue();
+			Row r = new Row(e, score, (int) lastHours, capacity);
+
+			if (heap == null) {
+				rows.add(r);
+			} else {
+				heap.offer(r);
+				if (heap.size() > k) heap.poll();
+			}
+		}
+		if (heap != null) rows.addAll(heap);
+		rows.sort(cmp);
+
+		List<Map<String, Object>> list = new ArrayList<>(rows.size());
+		for (Row r : rows) list.add(toMap(r));
+		return list;
+	}
+
+	/**
+	 * 枠番号（0〜8）に対応するビットを返します。
+	 *
+	 * @param slot 枠番号
+	 * @return ビット
+	 */
+	public static int slotBit(int slot) {
+		return 1 << slot;
+	}
+
+	/** ========================
+	 * 内部処理
+	 * ======================== */
+
+	private static Comparator<Row> comparator(boolean preferScore, String sortKey, boolean desc) {
+		Comparator<Row> byCol = switch (sortKey == null ? "" : sortKey) {
+		case "wdHours"    -> Comparator.comparingInt(r -> r.e().wdHours());
+		case "saHours"    -> Comparator.comparingInt(r -> r.e().saHours());
+		case "suHours"    -> Comparator.comparingInt(r -> r.e().suHours());
+		case "totalHours" -> Comparator.comparingInt(r -> totalHours(r.e()));
+		case "lastMonth"  -> Comparator.comparingInt(Row::lastMonthHours);
+		default           -> Comparator.comparingInt(Row::capacity);
+		};
+		if (desc) byCol = byCol.reversed();
+
+		Comparator<Row> cmp = preferScore
+				? Comparator.comparingInt(Row::score).reversed().thenComparing(byCol)
+				: byCol;
+		return cmp.thenComparing(r -> r.e().name(), Comparator.nullsLast(Comparator.naturalOrder()));
+	}
+
+	private static int totalHours(Entry e) {
+		return e.monthlyHours().setScale(0, RoundingMode.HALF_UP).intValue();
+	}
+
+	private static Map<String, Object> toMap(Row r) {
+		Entry e = r.e();
+		Map<String, Object> m = new HashMap<>();
+		m.put("id", e.id());
+		m.put("name", e.name());
+		m.put("rankName", e.rankName());
+		for (int i = 0; i < SLOT_COUNT; i++) {
+			m.put(SLOT_KEYS[i], level(e.slots(), i));
+		}
+		m.put("wdHours", e.wdHours());
+		m.put("saHours", e.saHours());
+		m.put("suHours", e.suHours());
+		m.put("totalHours", totalHours(e));
+		m.put("lastMonth", r.lastMonthHours());
+		m.put("capacity", r.capacity());
+		m.put("pref_score", r.score());
+		return m;
+	}
+
+	/** ビット詰めした可否から枠の値（0/1/2）を復元 */
+	private static int level(int slots, int slot) {
+		if ((slots & (1 << slot)) == 0) return 0;
+		return (slots & (1 << (slot + STRONG_SHIFT))) != 0 ? 2 : 1;
+	}
+
+	/** 枠の値（0/1/2）をビット詰め */
+	private static int pack(int[] levels) {
+		int w = 0;
+		for (int i = 0; i < SLOT_COUNT; i++) {
+			if (levels[i] >= 1) w |= 1 << i;
+			if (levels[i] >= 2) w |= 1 << (i + STRONG_SHIFT);
+		}
+		return w;
+	}
+
+	/**
+	 * 未ロードなら全件ロード、無効化された秘書があればその分だけ再読込します。
+	 */
+	private static Map<UUID, Entry> ensureLoaded(Connection conn) {
+		Map<UUID, Entry> snapshot = entries;
+		if (snapshot != null && dirty.isEmpty()) return snapshot;
+
+		synchronized (LOCK) {
+			if (entries == null) {
+				dirty.clear();
+				Map<UUID, Entry> all = new ConcurrentHashMap<>();
+				for (Entry e : load(conn, null)) all.put(e.id(), e);
+				entries = all;
+			} else if (!dirty.isEmpty()) {
+				List<UUID> ids = new ArrayList<>(dirty);
+				dirty.removeAll(ids);
+				Map<UUID, Entry> next = new ConcurrentHashMap<>(entries);
+				for (UUID id : ids) next.remove(id);
+				for (Entry e : load(conn, ids)) next.put(e.id(), e);
+				entries = next;
+			}
+			return entries;
+		}
+	}
+
+	private static List<Entry> load(Connection conn, List<UUID> ids) {
+		String sql = (ids == null) ? SQL_SELECT_PROFILES : SQL_SELECT_PROFILES + SQL_AND_SECRETARY_IN;
+		List<Entry> list = new ArrayList<>();
+		try (PreparedStatement ps = conn.prepareStatement(sql)) {
+			if (ids != null) {
+				ps.setArray(1, conn.createArrayOf("uuid", ids.toArray()));
+			}
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					int i = 1;
+					UUID id = rs.getObject(i++, UUID.class);
+					String name = rs.getString(i++);
+					String rankName = rs.getString(i++);
+					int[] levels = new int[SLOT_COUNT];
+					for (int s = 0; s < SLOT_COUNT; s++) levels[s] = rs.getInt(i++);
+					int wd = rs.getInt(i++);
+					int sa = rs.getInt(i++);
+					int su = rs.getInt(i++);
+					BigDecimal monthly = rs.getBigDecimal(i++);
+					list.add(new Entry(id, name, rankName, pack(levels), wd, sa, su,
+							monthly == null ? BigDecimal.ZERO : monthly));
+				}
+			}
+		} catch (SQLException e) {
+			throw new DAOException("E:PRF-11 秘書候補インデックスの読込に失敗しました。", e);
+		}
+		return list;
+	}
+
+	private static Map<UUID, Long> ensureMonthLoaded(Connection conn, String yearMonth) {
+		Map<UUID, Long> cached = monthMinutes.get(yearMonth);
+		if (cached != null) return cached;
+
+		long generation = monthGeneration.get();
+		Map<UUID, Long> map = new HashMap<>();
+		try (PreparedStatement ps = conn.prepareStatement(SQL_SELECT_MONTH_MINUTES)) {
+			ps.setString(1, yearMonth);
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					map.put(rs.getObject(1, UUID.class), rs.getLong(2));
+				}
+			}
+		} catch (SQLException e) {
+			throw new DAOException("E:PRF-12 月次稼働実績の読込に失敗しました。", e);
+		}
+		Map<UUID, Long> loaded = Collections.unmodifiableMap(map);
+		if (monthGeneration.get() == generation) {
+			monthMinutes.put(yearMonth, loaded);
+		}
+		return loaded;
+	}
+}
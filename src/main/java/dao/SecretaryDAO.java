@@ -52,7 +52,8 @@ public class SecretaryDAO extends BaseDAO {
 			+ " s.is_pm_secretary, s.name, s.name_ruby, s.phone, s.postal_code, "
 			+ " s.address1, s.address2, s.building, "
 			+ " s.created_at, s.updated_at, s.deleted_at, s.last_login_at,"
-			+ " s.bank_name, s.bank_branch, s.bank_type, s.bank_account, s.bank_owner "
+			+ " s.bank_name, s.bank_branch, s.bank_type, s.bank_account, s.bank_owner, "
+			+ " s.bank_code, s.bank_branch_code "
 			+ " FROM secretaries s "
 			+ " INNER JOIN secretary_rank sr ON s.secretary_rank_id = sr.id ";
 	
@@ -95,6 +96,7 @@ public class SecretaryDAO extends BaseDAO {
 			+ "       name = ?, name_ruby = ?, phone = ?, "
 			+ "       postal_code = ?, address1 = ?, address2 = ?, building = ?, "
 			+ "       bank_name = ?, bank_branch = ?, bank_type = ?, bank_account = ?, bank_owner = ?, "
+			+ "       bank_code = ?, bank_branch_code = ?, "
 			+ "       updated_at = CURRENT_TIMESTAMP "
 			+ " WHERE id = ?";
 
@@ -199,12 +201,8 @@ public class SecretaryDAO extends BaseDAO {
 			try (ResultSet rs = ps.executeQuery()) {
 				if (rs.next()) {
 					SecretaryDTO dto = resultSetToSecretaryDTO(rs); /** 基本＋ランク */
-					/** 追加の口座列（25..29列目）を詰める */
-					dto.setBankName(rs.getString(25));
-					dto.setBankBranch(rs.getString(26));
-					dto.setBankType(rs.getString(27));
-					dto.setBankAccount(rs.getString(28));
-					dto.setBankOwner(rs.getString(29));
+					/** 追加の口座列（25..31列目）を詰める */
+					resultSetToSecretaryDTOWithBank(rs, dto);
 					return dto;
 				}
 				return new SecretaryDTO();
@@ -252,7 +250,7 @@ public class SecretaryDAO extends BaseDAO {
 			try (ResultSet rs = ps.executeQuery()) {
 				if (rs.next()) {
 					SecretaryDTO dto = resultSetToSecretaryDTO(rs);
-					/** 25..29列：口座情報 */
+					/** 25..31列：口座情報 */
 					resultSetToSecretaryDTOWithBank(rs, dto);
 					return dto;
 				}
@@ -401,7 +399,9 @@ public class SecretaryDAO extends BaseDAO {
 			ps.setString(10, dto.getAddress2());
 			ps.setString(11, dto.getBuilding());
 			ps.setObject(12, dto.getId());
-			return ps.executeUpdate();
+			int n = ps.executeUpdate();
+			afterCommitInvalidateCandidate(dto.getId());
+			return n;
 		} catch (SQLException e) {
 			throw new DAOException("E:S32 secretaries UPDATE に失敗しました。", e);
 		}
@@ -410,7 +410,7 @@ public class SecretaryDAO extends BaseDAO {
 	/**
 	 * 秘書の基本情報＋口座情報を更新します（本人向け編集を想定）。
 	 *
-	 * @param dto 更新対象（{@code id} 必須。口座情報：bankName/branch/type/account/owner）
+	 * @param dto 更新対象（{@code id} 必須。口座情報：bankName/branch/type/account/owner/bankCode/bankBranchCode）
 	 * @return 影響行数（通常は1）
 	 * @throws DAOException UPDATEに失敗した場合
 	 */
@@ -433,8 +433,12 @@ public class SecretaryDAO extends BaseDAO {
 			ps.setString(i++, dto.getBankType());
 			ps.setString(i++, dto.getBankAccount());
 			ps.setString(i++, dto.getBankOwner());
+			ps.setString(i++, dto.getBankCode());
+			ps.setString(i++, dto.getBankBranchCode());
 			ps.setObject(i++, dto.getId());
-			return ps.executeUpdate();
+			int n = ps.executeUpdate();
+			afterCommitInvalidateCandidate(dto.getId());
+			return n;
 		} catch (SQLException e) {
 			throw new DAOException("E:S32 secretaries UPDATE（口座込み）に失敗しました。", e);
 		}
@@ -454,11 +458,24 @@ public class SecretaryDAO extends BaseDAO {
 		try (PreparedStatement ps = conn.prepareStatement(SQL_DELETE_LOGICAL)) {
 			ps.setObject(1, id);
 			ps.executeUpdate();
+			afterCommitInvalidateCandidate(id);
 		} catch (SQLException e) {
 			throw new DAOException("E:S33 secretaries 論理DELETE に失敗しました。", e);
 		}
 	}
 
+	/**
+	 * 氏名・ランク・削除状態は秘書候補インデックスにも保持しているため、コミット後に再読込対象にします。
+	 * 氏名・削除状態はコストピボットのキャッシュにも含まれるため、あわせて破棄します。
+	 *
+	 * @param id 秘書ID
+	 */
+	private void afterCommitInvalidateCandidate(UUID id) {
+		CacheInvalidation.publish(conn,
+				CacheInvalidation.Topic.CANDIDATE_SECRETARY.key(id),
+				CacheInvalidation.Topic.PIVOT_COSTS.all());
+	}
+
 	/** ------------------------
 	 * 重複チェック
 	 * ------------------------ */
@@ -579,7 +596,7 @@ public class SecretaryDAO extends BaseDAO {
 	}
 
 	/**
-	 * {@code SQL_SELECT_BASIC_WITH_BANK} の後段（25..29列）から口座情報を {@link SecretaryDTO} に流し込みます。
+	 * {@code SQL_SELECT_BASIC_WITH_BANK} の後段（25..31列）から口座情報を {@link SecretaryDTO} に流し込みます。
 	 *
 	 * @param rs   クエリ結果
 	 * @param dto  すでに基本情報が詰まった {@link SecretaryDTO}
@@ -592,6 +609,8 @@ public class SecretaryDAO extends BaseDAO {
 			dto.setBankType(rs.getString(27));
 			dto.setBankAccount(rs.getString(28));
 			dto.setBankOwner(rs.getString(29));
+			dto.setBankCode(rs.getString(30));
+			dto.setBankBranchCode(rs.getString(31));
 		} catch (SQLException e) {
 			throw new DAOException("E:S52 ResultSet→SecretaryDTO(口座) 変換中に失敗しました。", e);
 		}
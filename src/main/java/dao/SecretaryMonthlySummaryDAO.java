@@ -1,17 +1,18 @@
 package dao;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
 import java.util.UUID;
 
-import dto.PivotRowDTO;
+import dto.PivotCubeDTO;
 import dto.SecretaryMonthlySummaryDTO;
 import dto.SecretaryTotalsDTO;
 
@@ -46,19 +47,49 @@ public class SecretaryMonthlySummaryDAO extends BaseDAO {
         "       created_at, updated_at, deleted_at " +
         "  FROM secretary_monthly_summaries " +
         " WHERE deleted_at IS NULL AND secretary_id = ? " +
-        "   AND target_year_month BETWEEN ? AND ? " +
-        " ORDER BY target_year_month";
+        "   AND ym_index BETWEEN ? AND ? " +
+        " ORDER BY ym_index";
 
-    /** 期間内の秘書×月ごとの金額（adminダッシュボードのピボット集計で利用） */
-    private static final String SQL_COSTS_BY_SECRETARY_MONTH =
-        "SELECT s.id AS sid, s.name AS sname, m.target_year_month AS ym, " +
-        "       COALESCE(SUM(m.total_secretary_amount),0) AS amt " +
+    /**
+     * 期間内の秘書×月ごとの金額（adminダッシュボードのピボット集計で利用）。
+     * {@code CUBE} でセル・行合計（秘書）・列合計（月）・総合計を 1 クエリで返します。
+     */
+    private static final String SQL_COSTS_CUBE =
+        "SELECT s.id AS id, MIN(s.name) AS label, m.ym_index AS ymi, " +
+        "       (COALESCE(SUM(m.total_secretary_amount),0) * 100)::bigint AS amt_sen, " +
+        "       GROUPING(s.id) AS g_row, GROUPING(m.ym_index) AS g_col " +
+        "  FROM secretary_monthly_summaries m " +
+        "  JOIN secretaries s ON s.id = m.secretary_id AND s.deleted_at IS NULL " +
+        " WHERE m.deleted_at IS NULL " +
+        "   AND m.ym_index BETWEEN ? AND ? " +
+        " GROUP BY CUBE (s.id, m.ym_index) " +
+        " ORDER BY GROUPING(s.id), MIN(s.name), s.id, GROUPING(m.ym_index), m.ym_index";
+
+    /**
+     * 秘書×月の支出明細を CSV（ヘッダ付き）で出力する COPY 文（会計エクスポート用）。
+     * COPY はバインド変数を使えないため、期間の ym_index（%d）を埋め込んで使用します。
+     * 秘書コード・氏名は数式として解釈されないよう {@link #csvSafe} で整形します。
+     */
+    private static final String SQL_COPY_COSTS_DETAIL =
+        "COPY ( " +
+        "SELECT " + csvSafe("s.secretary_code", "secretary_code") + ", " +
+        "       " + csvSafe("s.name", "name") + ", m.target_year_month, " +
+        "       m.total_secretary_amount, m.total_tasks_count, m.total_work_time, " +
+        "       m.status, m.finalized_at " +
         "  FROM secretary_monthly_summaries m " +
         "  JOIN secretaries s ON s.id = m.secretary_id AND s.deleted_at IS NULL " +
         " WHERE m.deleted_at IS NULL " +
-        "   AND m.target_year_month BETWEEN ? AND ? " +
-        " GROUP BY s.id, s.name, m.target_year_month " +
-        " ORDER BY s.name, m.target_year_month";
+        "   AND m.ym_index BETWEEN %d AND %d " +
+        " ORDER BY s.name, s.id, m.ym_index " +
+        ") TO STDOUT WITH (FORMAT csv, HEADER true)";
+
+    /** 月の確定済み支出合計（全秘書） */
+    private static final String SQL_SUM_FINALIZED_MONTH =
+        "SELECT COALESCE(SUM(total_secretary_amount),0) " +
+        "  FROM secretary_monthly_summaries " +
+        " WHERE deleted_at IS NULL " +
+        "   AND finalized_at IS NOT NULL " +
+        "   AND ym_index = ?";
 
     /** =========================
      * ② フィールド / コンストラクタ
@@ -120,9 +151,9 @@ public class SecretaryMonthlySummaryDAO extends BaseDAO {
 
     /**
      * 【secretary】指定期間（境界値含む）の直近12か月サマリを年月昇順で取得します。
-     * - 期間は {@code target_year_month BETWEEN fromYm AND toYm} でインクルーシブ。
+     * - 期間は {@code ym_index BETWEEN fromYm AND toYm} でインクルーシブ（整数キー比較）。
      * - 列はDTOに必要な範囲でマッピング。件数/稼働分はlong→intに縮小。
-     * - ソートは {@code target_year_month ASC} で表示側の折れ線/棒グラフに使いやすくします。
+     * - ソートは {@code ym_index ASC} で表示側の折れ線/棒グラフに使いやすくします。
      *
      * @param secretaryId 秘書ID
      * @param fromYm      期間開始（yyyy-MM, 含む）
@@ -134,8 +165,8 @@ public class SecretaryMonthlySummaryDAO extends BaseDAO {
         try (PreparedStatement ps = conn.prepareStatement(SQL_LAST12)) {
             /** 1) 主キー + 期間境界 */
             ps.setObject(1, secretaryId);
-            ps.setString(2, fromYm);
-            ps.setString(3, toYm);
+            ps.setInt(2, toYmIndex(fromYm));
+            ps.setInt(3, toYmIndex(toYm));
 
             try (ResultSet rs = ps.executeQuery()) {
                 List<SecretaryMonthlySummaryDTO> list = new ArrayList<>();
@@ -174,67 +205,58 @@ public class SecretaryMonthlySummaryDAO extends BaseDAO {
      * --------------------------------- */
 
     /**
-     * 【admin】期間内（fromYm～toYm）の「秘書×月」の金額をピボット用に取得します。
-     * - ベース集計は SQL 側で {@code SUM(total_secretary_amount)}、秘書×月で GROUP BY。
-     * - Java 側で {@link PivotRowDTO} に整形（行=秘書、列=monthsの各yyyy-MM、セル=金額）。
+     * 【admin】連続した月（{@code months}）の「秘書×月」の金額をピボット用に取得します。
+     * - セル・行合計・列合計・総合計は SQL 側の {@code CUBE} 集計値をそのまま使用します。
      * - 存在しない月のセルは 0 で初期化します（表崩れ防止）。
-     * - 行合計（rowTotal）も Java 側で計算してセットします。
      * - 利用想定：管理者の原価/売上集計画面での月別秘書軸ピボット表示。
      *
-     * @param fromYm  集計期間開始（yyyy-MM, 含む）
-     * @param toYm    集計期間終了（yyyy-MM, 含む）
-     * @param months  列順制御用の月配列（表示したいyyyy-MMの順序）。未返却の月も 0 で埋めます。
-     * @return ピボット行のリスト（秘書名昇順、同一秘書内は月昇順で集計）
+     * @param months 列にする年月（yyyy-MM、連続した昇順。先頭・末尾が期間境界）
+     * @return ピボット集計結果（秘書名昇順）
      * @throws DAOException 取得に失敗した場合
      */
-    public List<PivotRowDTO> selectCostsBySecretaryMonth(String fromYm, String toYm, List<String> months) {
-        try (PreparedStatement ps = conn.prepareStatement(SQL_COSTS_BY_SECRETARY_MONTH)) {
-            /** 1) 期間境界（インクルーシブ） */
-            ps.setString(1, fromYm);
-            ps.setString(2, toYm);
-
-            /** 2) 結果格納マップ（key=秘書ID） */
-            Map<UUID, PivotRowDTO> map = new LinkedHashMap<>();
+    public PivotCubeDTO selectCostsCube(List<String> months) {
+        try {
+            return selectPivotCube(SQL_COSTS_CUBE, months);
+        } catch (SQLException e) {
+            throw new DAOException("E:SMS21 秘書×月の支出取得に失敗しました。", e);
+        }
+    }
 
+    /**
+     * 【admin】月次締めで確定済みの、月の支出合計（全秘書）を取得します。
+     *
+     * @param yearMonth 年月（yyyy-MM）
+     * @return 合計金額（確定行なしは 0）
+     * @throws DAOException 取得に失敗した場合
+     */
+    public BigDecimal selectFinalizedTotal(String yearMonth) {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_SUM_FINALIZED_MONTH)) {
+            ps.setInt(1, toYmIndex(yearMonth));
             try (ResultSet rs = ps.executeQuery()) {
-                /** 3) SQL結果を一旦「秘書×月の明細」として読み込み */
-                while (rs.next()) {
-                    UUID sid   = rs.getObject("sid", UUID.class);
-                    String nm  = rs.getString("sname");
-                    String ym  = rs.getString("ym");
-                    BigDecimal amt = rs.getBigDecimal("amt"); /** COALESCE済 */
-
-                    /** 3-1) 行が無ければ初期化（months分の列を0で作っておく） */
-                    PivotRowDTO row = map.get(sid);
-                    if (row == null) {
-                        row = new PivotRowDTO();
-                        row.setId(sid);
-                        row.setLabel(nm);
-                        for (String m : months) {
-                            row.getAmountByYm().put(m, BigDecimal.ZERO);
-                        }
-                        map.put(sid, row);
-                    }
-
-                    /** 3-2) 対象月セルを上書き */
-                    row.getAmountByYm().put(ym, (amt == null) ? BigDecimal.ZERO : amt);
-                }
-            }
-
-            /** 4) 行合計（rowTotal）を算出してセット（表示ヘッダの合計列用） */
-            for (PivotRowDTO r : map.values()) {
-                BigDecimal sum = BigDecimal.ZERO;
-                for (String ym : months) {
-                    sum = sum.add(r.getAmountByYm().getOrDefault(ym, BigDecimal.ZERO));
-                }
-                r.setRowTotal(sum);
+                rs.next();
+                return rs.getBigDecimal(1);
             }
+        } catch (SQLException e) {
+            throw new DAOException("E:SMS23 確定済み支出合計の取得に失敗しました。", e);
+        }
+    }
 
-            /** 5) 表示順は SQL で秘書名昇順に出ているため、そのまま保持 */
-            return new ArrayList<>(map.values());
-
+    /**
+     * 期間内の「秘書×月」支出明細を CSV で出力先へ直接書き出します（COPY TO STDOUT）。
+     *
+     * @param fromYm 期間開始（YYYY-MM、境界含む）
+     * @param toYm   期間終了（YYYY-MM、境界含む）
+     * @param out    出力先（呼び出し側でクローズ）
+     * @return 出力行数（ヘッダ除く）
+     * @throws DAOException  DBアクセスに失敗した場合
+     * @throws IOException   出力先への書き込みに失敗した場合
+     */
+    public long copyCostsDetailCsv(String fromYm, String toYm, OutputStream out) throws IOException {
+        String sql = String.format(Locale.ROOT, SQL_COPY_COSTS_DETAIL, toYmIndex(fromYm), toYmIndex(toYm));
+        try {
+            return copyOut(sql, out);
         } catch (SQLException e) {
-            throw new DAOException("E:SMS21 秘書×月の支出取得に失敗しました。", e);
+            throw new DAOException("E:SMS22 秘書×月の支出明細出力に失敗しました。", e);
         }
     }
 }
@@ -0,0 +1,310 @@
+package dao;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Pattern;
+
+import config.MetricsConfig;
+
+/**
+ * スロークエリの記録（メモリ上のリングバッファ）。
+ * <p>
+ * {@link MeteredConnection} が 1 回の実行（execute＋行の読み出し）ごとに所要時間を測り、
+ * しきい値（{@link MetricsConfig#getSlowQueryMillis()}）以上のものを {@link #record} に渡します。
+ * 記録には次を含めます。
+ * </p>
+ * <ul>
+ *   <li>呼出し元の DAO メソッドと、SQL 定数名（呼出し元 DAO の static final String と一致したもの）</li>
+ *   <li>SQL・バインド値を埋め込んだ SQL・所要時間・取得行数・リクエストのルート</li>
+ * </ul>
+ * <p>
+ * バインド値は setXxx のたびに控えるのではなく、しきい値を超えた実行についてだけドライバから
+ * 値を埋め込んだ SQL（pgjdbc の {@code PreparedStatement#toString()}）を取り出します。
+ * </p>
+ * <p>
+ * 一部（{@link MetricsConfig#getExplainRate()}）は別接続で {@code EXPLAIN (ANALYZE, BUFFERS)} を取り、実行計画を添えます。
+ * 計画の取得は専用スレッドで行い（待ちが詰まっていれば取得しない）、SELECT / WITH のみを
+ * 読み取り専用トランザクションで実行してロールバックするため、データは変更されません。
+ * ただし EXPLAIN ANALYZE は文を実際に実行するため、アドバイザリロック・行ロック（FOR UPDATE 等）・
+ * シーケンスの更新・通知など、読み取り専用でも副作用のある文は ANALYZE を付けない EXPLAIN に留めます
+ * （{@code SELECT pg_advisory_xact_lock(...)} が別接続で本物のロックを取らないように）。
+ * </p>
+ */
+public final class SlowQueryLog {
+
+	/** しきい値（ナノ秒。0 以下は記録しない） */
+	private static final long THRESHOLD_NANOS = MetricsConfig.getSlowQueryMillis() * 1_000_000L;
+	/** EXPLAIN ANALYZE を取得する割合 */
+	private static final double EXPLAIN_RATE = MetricsConfig.getExplainRate();
+	/** 保持件数 */
+	private static final int CAPACITY = MetricsConfig.getSlowQueryBuffer();
+
+	/** 保持するSQLの最大文字数 */
+	private static final int MAX_SQL_LENGTH = 4_000;
+	/** EXPLAIN ANALYZE の打ち切り時間（ミリ秒） */
+	private static final int EXPLAIN_TIMEOUT_MILLIS = 30_000;
+	/** 実行計画取得の待ち行列の長さ */
+	private static final int EXPLAIN_QUEUE = 4;
+
+	/** 実行すると副作用のある SQL（EXPLAIN ANALYZE せず、EXPLAIN のみにする） */
+	private static final Pattern SIDE_EFFECTS = Pattern.compile(
+			"\\b(pg_(try_)?advisory\\w*|nextval|setval|pg_notify|set_config|pg_sleep|lo_\\w+|dblink\\w*)\\s*\\("
+					+ "|\\bfor\\s+(update|share|no\\s+key\\s+update|key\\s+share)\\b"
+					+ "|\\b(insert|update|delete|merge)\\b",
+			Pattern.CASE_INSENSITIVE);
+
+	/** バインド値を伏せる SQL（パスワード・トークンを含む更新など） */
+	private static final String[] MASK_KEYWORDS = { "password", "token" };
+
+	/** リングバッファ（seq % CAPACITY の位置に上書き） */
+	private static final AtomicReferenceArray<Entry> ring = new AtomicReferenceArray<>(CAPACITY);
+	private static final AtomicLong seq = new AtomicLong();
+
+	/** DAO クラス → （SQL → 定数名） */
+	private static final Map<Class<?>, Map<String, String>> SQL_NAMES = new ConcurrentHashMap<>();
+
+	/** 実行計画の取得スレッド（待ちが詰まっている間は捨てる） */
+	private static final ThreadPoolExecutor EXPLAINER = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+			new ArrayBlockingQueue<>(EXPLAIN_QUEUE), r -> {
+				Thread t = new Thread(r, "slow-query-explain");
+				t.setDaemon(true);
+				return t;
+			}, new ThreadPoolExecutor.DiscardPolicy());
+
+	static {
+		EXPLAINER.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * スロークエリ 1 件。実行計画は後から設定されます。
+	 */
+	public static final class Entry {
+		private final Date recordedAt;
+		private final String route;
+		private final String caller;
+		private final String sqlName;
+		private final String sql;
+		private final String boundSql;
+		private final double millis;
+		private final long rows;
+		private final boolean explainRequested;
+		private final boolean analyze;
+		private volatile String plan;
+		private volatile String planError;
+
+		private Entry(String route, String caller, String sqlName, String sql, String boundSql,
+				double millis, long rows, boolean explainRequested, boolean analyze) {
+			this.recordedAt = new Date();
+			this.route = route;
+			this.caller = caller;
+			this.sqlName = sqlName;
+			this.sql = sql;
+			this.boundSql = boundSql;
+			this.millis = millis;
+			this.rows = rows;
+			this.explainRequested = explainRequested;
+			this.analyze = analyze;
+		}
+
+		public Date getRecordedAt() { return recordedAt; }
+		public String getRoute() { return route; }
+		public String getCaller() { return caller; }
+		public String getSqlName() { return sqlName; }
+		public String getSql() { return sql; }
+		public String getBoundSql() { return boundSql; }
+		public double getMillis() { return millis; }
+		public long getRows() { return rows; }
+		public boolean isExplainRequested() { return explainRequested; }
+		public boolean isAnalyze() { return analyze; }
+		public String getPlan() { return plan; }
+		public String getPlanError() { return planError; }
+	}
+
+	private SlowQueryLog() {
+	}
+
+	/**
+	 * しきい値以上かを返します（記録の要否を呼出し側で安く判定するため）。
+	 *
+	 * @param nanos 所要時間（ナノ秒）
+	 * @return 記録対象なら true
+	 */
+	static boolean isSlow(long nanos) {
+		return THRESHOLD_NANOS > 0 && nanos >= THRESHOLD_NANOS;
+	}
+
+	/**
+	 * スロークエリを記録します（必要なら実行計画の取得を予約）。
+	 *
+	 * @param sql      SQL
+	 * @param boundSql バインド値を埋め込んだ SQL（バインド値が無ければ null）
+	 * @param nanos    所要時間（ナノ秒）
+	 * @param rows     取得行数
+	 */
+	static void record(String sql, String boundSql, long nanos, long rows) {
+		StackWalker.StackFrame frame = callerFrame();
+		String caller = null;
+		String sqlName = null;
+		if (frame != null) {
+			Class<?> dao = frame.getDeclaringClass();
+			caller = dao.getSimpleName() + "." + frame.getMethodName();
+			sqlName = sqlName(dao, sql);
+		}
+
+		/** パスワード等を含む SQL は値を埋め込んだ SQL を残さない（実行計画の取得にだけ使う） */
+		String shown = (boundSql == null || containsMaskKeyword(sql)) ? null : truncate(boundSql);
+
+		boolean explain = EXPLAIN_RATE > 0 && isExplainable(sql) && ThreadLocalRandom.current().nextDouble() < EXPLAIN_RATE;
+		boolean analyze = explain && !SIDE_EFFECTS.matcher(sql).find();
+		Entry e = new Entry(QueryStats.currentRoute(), caller, sqlName, truncate(sql), shown,
+				nanos / 1_000_000.0, rows, explain, analyze);
+		ring.set((int) (seq.getAndIncrement() % CAPACITY), e);
+
+		if (explain) {
+			String target = (boundSql == null) ? sql : boundSql;
+			EXPLAINER.execute(() -> explain(e, target, analyze));
+		}
+	}
+
+	/**
+	 * 記録済みのスロークエリを新しい順に返します。
+	 *
+	 * @return スロークエリ一覧
+	 */
+	public static List<Entry> recent() {
+		long end = seq.get();
+		List<Entry> out = new ArrayList<>(CAPACITY);
+		for (long i = end - 1; i >= 0 && i >= end - CAPACITY; i--) {
+			Entry e = ring.get((int) (i % CAPACITY));
+			if (e != null) out.add(e);
+		}
+		return out;
+	}
+
+	/** しきい値（ミリ秒） */
+	public static long thresholdMillis() {
+		return THRESHOLD_NANOS / 1_000_000L;
+	}
+
+	/** EXPLAIN ANALYZE を取得する割合 */
+	public static double explainRate() {
+		return EXPLAIN_RATE;
+	}
+
+	/**
+	 * 別接続で EXPLAIN (ANALYZE, BUFFERS)（副作用のある文は EXPLAIN のみ）を実行し、結果を記録に添えます。
+	 *
+	 * @param sql     バインド値を埋め込んだ SQL
+	 * @param analyze 文を実際に実行して計測するなら true
+	 */
+	private static void explain(Entry e, String sql, boolean analyze) {
+		try (Connection c = TransactionManager.openDedicatedConnection()) {
+			c.setAutoCommit(false);
+			try {
+				try (Statement st = c.createStatement()) {
+					st.execute("SET TRANSACTION READ ONLY");
+					st.execute("SET LOCAL statement_timeout = " + EXPLAIN_TIMEOUT_MILLIS);
+				}
+				StringBuilder sb = new StringBuilder();
+				try (Statement st = c.createStatement();
+						ResultSet rs = st.executeQuery((analyze ? "EXPLAIN (ANALYZE, BUFFERS) " : "EXPLAIN ") + sql)) {
+					while (rs.next()) {
+						sb.append(rs.getString(1)).append('\n');
+					}
+				}
+				e.plan = sb.toString();
+			} finally {
+				c.rollback();
+			}
+		} catch (SQLException ex) {
+			e.planError = ex.getMessage();
+		}
+	}
+
+	/**
+	 * 呼出し元の DAO フレーム（dao パッケージのうち計測・共通処理のクラスを除いて最初のもの）を探します。
+	 */
+	private static StackWalker.StackFrame callerFrame() {
+		return StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE).walk(s -> s
+				.filter(f -> {
+					Class<?> c = f.getDeclaringClass();
+					return c.getPackageName().equals("dao") && c != SlowQueryLog.class
+							&& !c.getSimpleName().startsWith("Metered") && c != QueryStats.class && c != BaseDAO.class;
+				})
+				.findFirst().orElse(null));
+	}
+
+	/**
+	 * DAO クラスの static final String 定数から SQL と一致するものの名前を返します。
+	 * 一致しなければ、SQL の先頭と一致する最長の定数を「名前 + …」で返します（ORDER BY 等を後付けした SQL）。
+	 */
+	private static String sqlName(Class<?> dao, String sql) {
+		Map<String, String> names = SQL_NAMES.computeIfAbsent(dao, SlowQueryLog::loadSqlNames);
+		String exact = names.get(sql);
+		if (exact != null) return exact;
+		String best = null;
+		int bestLen = 0;
+		for (Map.Entry<String, String> n : names.entrySet()) {
+			if (n.getKey().length() > bestLen && sql.startsWith(n.getKey())) {
+				best = n.getValue();
+				bestLen = n.getKey().length();
+			}
+		}
+		return (best == null) ? null : best + " + …";
+	}
+
+	private static Map<String, String> loadSqlNames(Class<?> dao) {
+		Map<String, String> names = new HashMap<>();
+		for (Field f : dao.getDeclaredFields()) {
+			int mod = f.getModifiers();
+			if (!Modifier.isStatic(mod) || !Modifier.isFinal(mod) || f.getType() != String.class) continue;
+			try {
+				f.setAccessible(true);
+				Object v = f.get(null);
+				if (v instanceof String s && !s.isBlank()) {
+					names.putIfAbsent(s, dao.getSimpleName() + "." + f.getName());
+				}
+			} catch (ReflectiveOperationException | RuntimeException e) {
+				/** 読めない定数は対象外 */
+			}
+		}
+		return names;
+	}
+
+	/**
+	 * 実行計画を取得してよい SQL か（単一の SELECT / WITH 文のみ）。
+	 */
+	private static boolean isExplainable(String sql) {
+		String s = sql.stripLeading().toLowerCase(Locale.ROOT);
+		return (s.startsWith("select") || s.startsWith("with")) && sql.indexOf(';') < 0;
+	}
+
+	private static boolean containsMaskKeyword(String sql) {
+		String s = sql.toLowerCase(Locale.ROOT);
+		for (String k : MASK_KEYWORDS) {
+			if (s.contains(k)) return true;
+		}
+		return false;
+	}
+
+	private static String truncate(String sql) {
+		return (sql.length() > MAX_SQL_LENGTH) ? sql.substring(0, MAX_SQL_LENGTH) + "…" : sql;
+	}
+}
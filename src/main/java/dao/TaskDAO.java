@@ -1,6 +1,5 @@
 package dao;
 
-import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -10,12 +9,14 @@ import java.sql.Types;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import dto.AssignmentDTO;
 import dto.CustomerMonthlyInvoiceDTO;
 import dto.SecretaryDTO;
 import dto.SecretaryMonthlySummaryDTO;
 import dto.TaskDTO;
+import util.UuidV7;
 
 /**
  * タスク（tasks）に関するデータアクセスを担うDAO。
@@ -31,6 +32,8 @@ import dto.TaskDTO;
  * - 本DAOは呼び出し側から渡される {@link Connection} に依存（トランザクション境界は呼び出し側が管理）
  * - DB例外は {@link DAOException} にラップして送出
  * - JOIN先のカラムはエイリアス（t_*, a_*, tr_*, c_*, s_*）を付与し混同を防止
+ * - tasks は work_date の月単位パーティション表。月で絞る検索には {@link #AND_TASK_IN_MONTH} を併記して刈り込みを効かせ、
+ *   書き込み前には {@link TaskPartitions#ensure} で対象月のパーティションを用意する
  */
 public class TaskDAO extends BaseDAO {
 
@@ -67,10 +70,22 @@ public class TaskDAO extends BaseDAO {
 			+ "LEFT JOIN task_rank tr ON tr.id = a.task_rank_id AND tr.deleted_at IS NULL "
 			+ "WHERE a.secretary_id = ? "
 			+ "  AND a.customer_id  = ? "
-			+ "  AND a.target_year_month = ? "
+			+ "  AND a.target_year_month = ? " + AND_TASK_IN_MONTH
 			+ "  AND t.deleted_at IS NULL "
 			+ "ORDER BY t.start_time";
 
+	/**
+	 * 月別検索の共通 FROM/WHERE（WHERE: target_year_month = ? / work_date 範囲 / t.deleted_at IS NULL）。
+	 * 一覧取得と件数・金額集計で同じ絞り込みを共有するために分離。
+	 * パラメータは 年月 → {@link #setMonthRange} の 2 つの順。
+	 */
+	private static final String SQL_FROM_BY_MONTH = "FROM tasks t "
+			+ "JOIN assignments a ON a.id = t.assignment_id AND a.deleted_at IS NULL "
+			+ "LEFT JOIN task_rank tr ON tr.id = a.task_rank_id AND tr.deleted_at IS NULL "
+			+ "INNER JOIN customers c ON a.customer_id = c.id AND c.deleted_at IS NULL "
+			+ "INNER JOIN secretaries s ON s.id = a.secretary_id AND s.deleted_at IS NULL "
+			+ "WHERE a.target_year_month = ?" + AND_TASK_IN_MONTH + "AND t.deleted_at IS NULL ";
+
 	/**
 	 * 月別検索の共通ベース（WHERE: target_year_month = ? / t.deleted_at IS NULL）。
 	 * ORDER BY は呼び出し側で付与。
@@ -92,12 +107,39 @@ public class TaskDAO extends BaseDAO {
 			+ "  a.base_pay_secretary + a.increase_base_pay_secretary + a.customer_based_incentive_for_secretary AS a_all_pay_secretary, "
 			+ "  a.status AS a_status, tr.rank_name AS tr_rank_name, c.company_name AS c_company_name, s.name AS s_name, "
 			+ "  t.remanded_at AS t_remanded_at, t.remanded_by AS t_remanded_by, t.remand_comment AS t_remand_comment "
-			+ "FROM tasks t "
-			+ "JOIN assignments a ON a.id = t.assignment_id AND a.deleted_at IS NULL "
-			+ "LEFT JOIN task_rank tr ON tr.id = a.task_rank_id AND tr.deleted_at IS NULL "
-			+ "INNER JOIN customers c ON a.customer_id = c.id AND c.deleted_at IS NULL "
-			+ "INNER JOIN secretaries s ON s.id = a.secretary_id AND s.deleted_at IS NULL "
-			+ "WHERE a.target_year_month = ? AND t.deleted_at IS NULL ";
+			+ SQL_FROM_BY_MONTH;
+
+	/**
+	 * 管理者一覧のキーセット条件（直前ページ末尾のタスクIDより後ろの行）。
+	 * 並び順 (work_date, customer_id, start_time, id) と同じ行値比較で OFFSET を使わずに次ページを取得する。
+	 * start_time は INSERT/UPDATE で必須のため NULL は入らない前提。
+	 */
+	private static final String SQL_KEYSET_AFTER = " AND (t.work_date, a.customer_id, t.start_time, t.id) > ("
+			+ "  SELECT kt.work_date, ka.customer_id, kt.start_time, kt.id "
+			+ "  FROM tasks kt JOIN assignments ka ON ka.id = kt.assignment_id "
+			+ "  WHERE kt.id = ? AND kt.work_date >= ? AND kt.work_date < ?) ";
+
+	/** キーセットの起点タスクが対象月に存在するか（{@link #SQL_KEYSET_AFTER} と同じ条件） */
+	private static final String SQL_EXISTS_KEYSET_ANCHOR = "SELECT 1 FROM tasks "
+			+ "WHERE id = ? AND work_date >= ? AND work_date < ?";
+
+	/** 管理者一覧のキーセット並び順（ページ境界を一意にするため id を末尾に付与） */
+	private static final String SQL_ORDER_BY_KEYSET = " ORDER BY t.work_date, a.customer_id, t.start_time, t.id ";
+
+	/**
+	 * 管理者一覧の件数・稼働・金額集計（一覧と同じ FROM/WHERE に状態・キーワード条件を付与して使用）。
+	 * 金額は 1 タスクごとに 時給 × 分 / 60 を 0 桁で四捨五入してから合算（Task#calcFee と同じ丸め）。
+	 */
+	private static final String SQL_SUM_BY_MONTH_BASE = "SELECT "
+			+ "  COUNT(*) AS total_count, "
+			+ "  COALESCE(SUM(t.work_minute),0) AS total_minute, "
+			+ "  COALESCE(SUM(ROUND( "
+			+ "    (a.base_pay_secretary + a.increase_base_pay_secretary + a.customer_based_incentive_for_secretary) "
+			+ "    * t.work_minute / 60.0, 0)),0) AS sum_secretary, "
+			+ "  COALESCE(SUM(ROUND( "
+			+ "    (a.base_pay_customer + a.increase_base_pay_customer + a.customer_based_incentive_for_customer) "
+			+ "    * t.work_minute / 60.0, 0)),0) AS sum_customer "
+			+ SQL_FROM_BY_MONTH;
 
 	/** 月別 + 秘書ID 条件のベース（ORDER BY は呼び出し側） */
 	private static final String SQL_SELECT_BY_SEC_MONTH_BASE = SQL_SELECT_BY_MONTH_BASE + " AND a.secretary_id = ? ";
@@ -120,7 +162,7 @@ public class TaskDAO extends BaseDAO {
 			+ "JOIN assignments a ON a.id = t.assignment_id AND a.deleted_at IS NULL "
 			+ "WHERE t.deleted_at IS NULL "
 			+ "  AND a.secretary_id = ? "
-			+ "  AND a.target_year_month = ?";
+			+ "  AND a.target_year_month = ?" + AND_TASK_IN_MONTH;
 
 	/** 月次ステータス集計（管理者：全体×月） */
 	private static final String SQL_COUNT_BY_STATUS_ADMIN = "SELECT "
@@ -139,7 +181,7 @@ public class TaskDAO extends BaseDAO {
 			+ "FROM tasks t "
 			+ "JOIN assignments a ON a.id = t.assignment_id AND a.deleted_at IS NULL "
 			+ "WHERE t.deleted_at IS NULL "
-			+ "  AND a.target_year_month = ?";
+			+ "  AND a.target_year_month = ?" + AND_TASK_IN_MONTH;
 
 	/** 月次ステータス集計（顧客×月：金額は顧客単価系で算出） */
 	private static final String SQL_COUNT_BY_STATUS_CUSTOMER = "SELECT "
@@ -159,7 +201,7 @@ public class TaskDAO extends BaseDAO {
 			+ "JOIN assignments a ON a.id = t.assignment_id AND a.deleted_at IS NULL "
 			+ "WHERE t.deleted_at IS NULL "
 			+ "  AND a.customer_id = ? "
-			+ "  AND a.target_year_month = ?";
+			+ "  AND a.target_year_month = ?" + AND_TASK_IN_MONTH;
 
 	/** 今月の顧客向け承認済み金額（顧客単価×時間・approvedのみ） */
 	static final String SQL_APPROVED_AMOUNT_BY_CUSTOMER_MONTH = "SELECT COALESCE(SUM( "
@@ -170,16 +212,28 @@ public class TaskDAO extends BaseDAO {
 			+ "JOIN assignments a ON a.id = t.assignment_id AND a.deleted_at IS NULL "
 			+ "WHERE t.deleted_at IS NULL "
 			+ "  AND a.customer_id = ? "
-			+ "  AND a.target_year_month = ? "
+			+ "  AND a.target_year_month = ? " + AND_TASK_IN_MONTH
 			+ "  AND t.approved_at IS NOT NULL";
 
-	/** tasks INSERT（RETURNING id, created_at, updated_at） */
+	/** SQLSTATE: 作業日がアサインの月と異なる（tasks のトリガー trg_tasks_work_month） */
+	private static final String CHECK_VIOLATION = "23514";
+
+	/** tasks INSERT（id はアプリ側で UUIDv7 を採番。RETURNING id, created_at, updated_at） */
 	private static final String SQL_INSERT = "INSERT INTO tasks ("
-			+ "  assignment_id, work_date, start_time, end_time, work_minute, work_content, "
+			+ "  id, assignment_id, work_date, start_time, end_time, work_minute, work_content, "
 			+ "  approved_at, approved_by, customer_monthly_invoice_id, secretary_monthly_summary_id"
-			+ ") VALUES (?,?,?,?,?,?,?,?,?,?) RETURNING id, created_at, updated_at";
+			+ ") VALUES (?,?,?,?,?,?,?,?,?,?,?) RETURNING id, created_at, updated_at";
+
+	/** 月次締め済みの月のタスクを更新対象から除外する条件（UPDATE tasks の WHERE 末尾に付与） */
+	private static final String AND_MONTH_OPEN = " AND NOT EXISTS (SELECT 1 FROM assignments ca "
+			+ "JOIN month_closings mc ON mc.target_year_month = ca.target_year_month "
+			+ "WHERE ca.id = tasks.assignment_id)";
 
-	/** tasks UPDATE（論理未削除のみ） */
+	/** タスクのアサイン月の共有ロック（{@link MonthCloseDAO#lockMonthShared} と同じキー。締めの確定と直列化） */
+	private static final String SQL_LOCK_MONTH_OF_TASK = "SELECT pg_advisory_xact_lock_shared(hashtext(a.target_year_month)) "
+			+ "FROM tasks t JOIN assignments a ON a.id = t.assignment_id WHERE t.id = ?";
+
+	/** tasks UPDATE（論理未削除・未締めの月のみ） */
 	private static final String SQL_UPDATE = "UPDATE tasks SET "
 			+ "  assignment_id = ?, "
 			+ "  work_date = ?, "
@@ -192,10 +246,11 @@ public class TaskDAO extends BaseDAO {
 			+ "  customer_monthly_invoice_id = ?, "
 			+ "  secretary_monthly_summary_id = ?, "
 			+ "  updated_at = CURRENT_TIMESTAMP "
-			+ "WHERE id = ? AND deleted_at IS NULL";
+			+ "WHERE id = ? AND deleted_at IS NULL" + AND_MONTH_OPEN;
 
-	/** tasks 論理DELETE（deleted_at を現在時刻に） */
-	private static final String SQL_DELETE_LOGICAL = "UPDATE tasks SET deleted_at = CURRENT_TIMESTAMP WHERE id = ? AND deleted_at IS NULL";
+	/** tasks 論理DELETE（deleted_at を現在時刻に。未締めの月のみ） */
+	private static final String SQL_DELETE_LOGICAL = "UPDATE tasks SET deleted_at = CURRENT_TIMESTAMP WHERE id = ? AND deleted_at IS NULL"
+			+ AND_MONTH_OPEN;
 
 	/** 単一取得用SQL（tasks + assignments + task_rank） */
 	private static final String SQL_SELECT_BY_ID = "SELECT "
@@ -250,8 +305,7 @@ public class TaskDAO extends BaseDAO {
 			"  LEFT JOIN task_rank tr ON tr.id = a.task_rank_id AND tr.deleted_at IS NULL " +
 			" WHERE t.deleted_at IS NULL " +
 			"   AND a.customer_id = ? " +
-			"   AND t.work_date >= to_date(?, 'YYYY-MM') " + /** ym の月初 */
-			"   AND t.work_date <  (to_date(?, 'YYYY-MM') + INTERVAL '1 month') " + /** 翌月月初 */
+			AND_TASK_IN_MONTH +
 			" ORDER BY t.work_date DESC, t.start_time DESC ";
 
 	/** 顧客の確認申請を記録（alerted_at と alerted_comment を更新） */
@@ -278,13 +332,50 @@ public class TaskDAO extends BaseDAO {
 			+ "INNER JOIN secretaries s ON s.id = a.secretary_id AND s.deleted_at IS NULL "
 			+ "INNER JOIN customers  c ON c.id = a.customer_id AND c.deleted_at IS NULL "
 			+ "INNER JOIN task_rank tr ON a.task_rank_id = tr.id AND tr.deleted_at IS NULL "
-			+ "WHERE t.alerted_at IS NOT NULL AND t.deleted_at IS NULL "
-			+ "ORDER BY t.alerted_at";
+			+ "WHERE t.alerted_at IS NOT NULL AND t.deleted_at IS NULL ";
+
+	/** アラート 1 件（新着通知用） */
+	private static final String SQL_SELECT_ALERT_BY_ID = SQL_SELECT_ALERT_LIST + "AND t.id = ?";
+
+	/** 管理者向けカウンタ（アラート件数・当月／前月の未承認件数） */
+	private static final String SQL_SELECT_ADMIN_COUNTERS = "SELECT "
+			+ "  (SELECT COUNT(*) FROM tasks t "
+			+ "     JOIN assignments a ON t.assignment_id = a.id AND a.deleted_at IS NULL "
+			+ "     JOIN secretaries s ON s.id = a.secretary_id AND s.deleted_at IS NULL "
+			+ "     JOIN customers  c ON c.id = a.customer_id AND c.deleted_at IS NULL "
+			+ "     JOIN task_rank tr ON a.task_rank_id = tr.id AND tr.deleted_at IS NULL "
+			+ "    WHERE t.alerted_at IS NOT NULL AND t.deleted_at IS NULL) AS alert_count, "
+			+ "  (SELECT COUNT(*) FROM tasks t "
+			+ "     JOIN assignments a ON a.id = t.assignment_id AND a.deleted_at IS NULL "
+			+ "    WHERE t.deleted_at IS NULL AND t.approved_at IS NULL AND t.remanded_at IS NULL "
+			+ "      AND a.target_year_month = ?" + AND_TASK_IN_MONTH + ") AS unapproved_count, "
+			+ "  (SELECT COUNT(*) FROM tasks t "
+			+ "     JOIN assignments a ON a.id = t.assignment_id AND a.deleted_at IS NULL "
+			+ "    WHERE t.deleted_at IS NULL AND t.approved_at IS NULL AND t.remanded_at IS NULL "
+			+ "      AND a.target_year_month = ?" + AND_TASK_IN_MONTH + ") AS prev_unapproved_count";
+
+	/** タスクの状態変化の種別（{@link DbNotifications#CH_TASK_EVENTS} のペイロード） */
+	public enum Event {
+		SUBMITTED, UPDATED, DELETED, APPROVED, UNAPPROVED, REMANDED, ALERT, ALERT_CLEARED
+	}
+
+	/** 管理者向けカウンタ */
+	public record AdminCounters(int alertCount, int unapproved, int prevUnapproved) {
+	}
 	
 	/** アラート取消（alerted_at を NULL, updated_at を現在時刻） */
 	private static final String SQL_ALERT_DELETE =
 	    "UPDATE tasks SET alerted_at = NULL, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
 
+	/** アーカイブ済みの月がある場合の同 SQL（tasks_all / assignments_all を読む） */
+	private static final String SQL_SELECT_BY_SEC_CUST_MONTH_ALL = withArchive(SQL_SELECT_BY_SEC_CUST_MONTH);
+	private static final String SQL_SELECT_BY_SEC_MONTH_BASE_ALL = withArchive(SQL_SELECT_BY_SEC_MONTH_BASE);
+	private static final String SQL_SELECT_BY_MONTH_BASE_ALL = withArchive(SQL_SELECT_BY_MONTH_BASE);
+	private static final String SQL_KEYSET_AFTER_ALL = withArchive(SQL_KEYSET_AFTER);
+	private static final String SQL_EXISTS_KEYSET_ANCHOR_ALL = withArchive(SQL_EXISTS_KEYSET_ANCHOR);
+	private static final String SQL_SUM_BY_MONTH_BASE_ALL = withArchive(SQL_SUM_BY_MONTH_BASE);
+	private static final String SQL_SELECT_CUSTOMER_TASKS_FOR_LIST_ALL = withArchive(SQL_SELECT_CUSTOMER_TASKS_FOR_LIST);
+
 	/** ========================
 	 * ② フィールド／コンストラクタ
 	 * ======================== */
@@ -317,11 +408,13 @@ public class TaskDAO extends BaseDAO {
 	 */
 	public List<TaskDTO> selectBySecretaryAndCustomerAndMonth(UUID secretaryId, UUID customerId, String yearMonth) {
 		List<TaskDTO> list = new ArrayList<>();
-		try (PreparedStatement ps = conn.prepareStatement(SQL_SELECT_BY_SEC_CUST_MONTH)) {
+		final String sql = ArchiveDAO.hasArchive(conn) ? SQL_SELECT_BY_SEC_CUST_MONTH_ALL : SQL_SELECT_BY_SEC_CUST_MONTH;
+		try (PreparedStatement ps = conn.prepareStatement(sql)) {
 			int p = 1;
 			ps.setObject(p++, secretaryId);
 			ps.setObject(p++, customerId);
 			ps.setString(p++, yearMonth);
+			p = setMonthRange(ps, p, yearMonth);
 
 			try (ResultSet rs = ps.executeQuery()) {
 				while (rs.next()) {
@@ -408,7 +501,8 @@ public class TaskDAO extends BaseDAO {
 	 * @throws DAOException DBアクセスに失敗した場合
 	 */
 	public List<TaskDTO> selectBySecretaryAndMonth(UUID secretaryId, String yearMonth, String status) {
-		StringBuilder sql = new StringBuilder(SQL_SELECT_BY_SEC_MONTH_BASE);
+		StringBuilder sql = new StringBuilder(
+				ArchiveDAO.hasArchive(conn) ? SQL_SELECT_BY_SEC_MONTH_BASE_ALL : SQL_SELECT_BY_SEC_MONTH_BASE);
 		/** 状態による絞り込み */
 		switch (status == null ? "all" : status) {
 		case "approved" -> sql.append(" AND t.approved_at IS NOT NULL ");
@@ -423,6 +517,7 @@ public class TaskDAO extends BaseDAO {
 		try (PreparedStatement ps = conn.prepareStatement(sql.toString())) {
 			int p = 1;
 			ps.setString(p++, yearMonth);
+			p = setMonthRange(ps, p, yearMonth);
 			ps.setObject(p++, secretaryId);
 			try (ResultSet rs = ps.executeQuery()) {
 				while (rs.next()) {
@@ -482,251 +577,246 @@ public class TaskDAO extends BaseDAO {
 	/** ---------- admin 用 ---------- */
 
 	/**
-	 * 対象年月のタスク一覧を取得します（管理者用、全体）。
-	 * 内部の共通ベースSQL（{@code SQL_SELECT_BY_MONTH_BASE}）を使用し、日付→顧客→開始時刻で並べます。
+	 * 対象年月のタスク一覧を 1 ページ分だけ取得します（管理者用、キーセットページング）。
+	 * 並び順は (work_date, customer_id, start_time, id)。{@code afterTaskId} を指定すると、
+	 * そのタスクより後ろの行から {@code limit} 件を返します。
 	 *
-	 * @param yearMonth 対象年月（"YYYY-MM"）
-	 * @return {@link TaskDTO} のリスト
+	 * @param yearMonth         対象年月（"YYYY-MM"）
+	 * @param status            状態（approved|unapproved|remanded|all）
+	 * @param secretaryNameLike 秘書名の部分一致（null/空で無効）
+	 * @param customerNameLike  会社名の部分一致（null/空で無効）
+	 * @param afterTaskId       直前ページ末尾のタスクID（null で先頭ページ）
+	 * @param limit             取得件数の上限
+	 * @return タスク一覧（最大 {@code limit} 件）
 	 * @throws DAOException DBアクセスに失敗した場合
 	 */
-	public List<TaskDTO> selectByMonth(String yearMonth) {
-		String sql = SQL_SELECT_BY_MONTH_BASE + " ORDER BY t.work_date, a.customer_id, t.start_time ";
+	public List<TaskDTO> selectByMonthPage(String yearMonth, String status,
+			String secretaryNameLike, String customerNameLike, UUID afterTaskId, int limit) {
+		boolean archived = ArchiveDAO.hasArchive(conn);
+		StringBuilder sql = new StringBuilder(archived ? SQL_SELECT_BY_MONTH_BASE_ALL : SQL_SELECT_BY_MONTH_BASE);
+		appendAdminListFilters(sql, status, secretaryNameLike, customerNameLike);
+		if (afterTaskId != null) {
+			sql.append(archived ? SQL_KEYSET_AFTER_ALL : SQL_KEYSET_AFTER);
+		}
+		sql.append(SQL_ORDER_BY_KEYSET).append(" LIMIT ? ");
+
 		List<TaskDTO> list = new ArrayList<>();
-		try (PreparedStatement ps = conn.prepareStatement(sql)) {
-			ps.setString(1, yearMonth);
+		try (PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+			int p = bindAdminListFilters(ps, yearMonth, secretaryNameLike, customerNameLike);
+			if (afterTaskId != null) {
+				ps.setObject(p++, afterTaskId);
+				p = setMonthRange(ps, p, yearMonth);
+			}
+			ps.setInt(p++, limit);
 			try (ResultSet rs = ps.executeQuery()) {
 				while (rs.next()) {
-					TaskDTO t = new TaskDTO();
-
-					t.setId(rs.getObject("t_id", UUID.class));
-					AssignmentDTO ad = new AssignmentDTO();
-					ad.setAssignmentId(rs.getObject("a_id", UUID.class));
-					t.setAssignment(ad);
-
-					t.setWorkDate(rs.getDate("t_work_date"));
-					t.setStartTime(rs.getTimestamp("t_start_time"));
-					t.setEndTime(rs.getTimestamp("t_end_time"));
-					t.setWorkMinute(rs.getObject("t_work_minute", Integer.class));
-					t.setWorkContent(rs.getString("t_work_content"));
-					t.setApprovedAt(rs.getTimestamp("t_approved_at"));
-					t.setRemandedAt(rs.getTimestamp("t_remanded_at"));
-					t.setRemandedBy(rs.getObject("t_remanded_by", UUID.class));
-					t.setRemandComment(rs.getString("t_remand_comment"));
-
-					UUID approvedById = rs.getObject("t_approved_by", UUID.class);
-					if (approvedById != null) {
-						SecretaryDTO s = new SecretaryDTO();
-						s.setId(approvedById);
-						t.setApprovedBy(s);
-					}
-
-					UUID cmiId = rs.getObject("t_customer_monthly_invoice_id", UUID.class);
-					if (cmiId != null) {
-						CustomerMonthlyInvoiceDTO cmi = new CustomerMonthlyInvoiceDTO();
-						cmi.setId(cmiId);
-						t.setCustomerMonthlyInvoice(cmi);
-					}
-
-					UUID smsId = rs.getObject("t_secretary_monthly_summary_id", UUID.class);
-					if (smsId != null) {
-						SecretaryMonthlySummaryDTO sms = new SecretaryMonthlySummaryDTO();
-						sms.setId(smsId);
-						t.setSecretaryMonthlySummary(sms);
-					}
-
-					ad.setAssignmentCustomerId(rs.getObject("a_customer_id", UUID.class));
-					ad.setAssignmentSecretaryId(rs.getObject("a_secretary_id", UUID.class));
-					ad.setTaskRankId(rs.getObject("a_task_rank_id", UUID.class));
-					ad.setTargetYearMonth(rs.getString("a_target_year_month"));
-					ad.setBasePayCustomer(rs.getBigDecimal("a_base_pay_customer"));
-					ad.setBasePaySecretary(rs.getBigDecimal("a_base_pay_secretary"));
-					ad.setIncreaseBasePayCustomer(rs.getBigDecimal("a_increase_base_pay_customer"));
-					ad.setIncreaseBasePaySecretary(rs.getBigDecimal("a_increase_base_pay_secretary"));
-					ad.setCustomerBasedIncentiveForCustomer(rs.getBigDecimal("a_cust_incentive_for_customer"));
-					ad.setCustomerBasedIncentiveForSecretary(rs.getBigDecimal("a_cust_incentive_for_secretary"));
-					ad.setHourlyPaySecretary(rs.getBigDecimal("a_all_pay_secretary"));
-					ad.setHourlyPayCustomer(rs.getBigDecimal("a_all_pay_customer"));
-					ad.setAssignmentStatus(rs.getString("a_status"));
-					ad.setTaskRankName(rs.getString("tr_rank_name"));
-					ad.setCustomerCompanyName(rs.getString("c_company_name"));
-					ad.setSecretaryName(rs.getString("s_name"));
-
-					list.add(t);
+					list.add(mapMonthRow(rs));
 				}
 			}
 		} catch (SQLException e) {
-			throw new DAOException("E:TS11 tasks 取得に失敗しました。", e);
+			throw new DAOException("E:TS13 tasks ページ取得に失敗しました。", e);
 		}
 		return list;
 	}
 
 	/**
-	 * 対象年月のタスク一覧（状態フィルタつき）を取得します（管理者用、全体）。
+	 * キーセットページングの起点タスクが対象年月に存在するかを判定します。
+	 * 存在しない ID（物理削除・アーカイブ済み、別の月、改ざん）を起点にすると
+	 * {@link #selectByMonthPage} は 1 件も返さないため、呼び出し側で先頭ページに戻すために使用します。
+	 * 論理削除済みのタスクは並び順の位置が残っているため、起点として有効です。
 	 *
+	 * @param taskId    起点のタスクID
 	 * @param yearMonth 対象年月（"YYYY-MM"）
-	 * @param status    状態（{@code approved|unapproved|remanded|all}）
-	 * @return タスク一覧
+	 * @return 存在すれば true
 	 * @throws DAOException DBアクセスに失敗した場合
 	 */
-	public List<TaskDTO> selectByMonth(String yearMonth, String status) {
-		StringBuilder sql = new StringBuilder(SQL_SELECT_BY_MONTH_BASE);
-		if ("approved".equals(status)) {
-			sql.append(" AND t.approved_at IS NOT NULL ");
-		} else if ("unapproved".equals(status)) {
-			sql.append(" AND t.approved_at IS NULL ");
-		} else if ("remanded".equals(status)) {
-			sql.append(" AND t.remanded_at IS NOT NULL ");
+	public boolean existsKeysetAnchor(UUID taskId, String yearMonth) {
+		try (PreparedStatement ps = conn.prepareStatement(
+				ArchiveDAO.hasArchive(conn) ? SQL_EXISTS_KEYSET_ANCHOR_ALL : SQL_EXISTS_KEYSET_ANCHOR)) {
+			ps.setObject(1, taskId);
+			setMonthRange(ps, 2, yearMonth);
+			try (ResultSet rs = ps.executeQuery()) {
+				return rs.next();
+			}
+		} catch (SQLException e) {
+			throw new DAOException("E:TS16 キーセット起点の確認に失敗しました。", e);
 		}
-		sql.append(" ORDER BY t.work_date, a.customer_id, t.start_time ");
+	}
 
-		List<TaskDTO> list = new ArrayList<>();
-		try (PreparedStatement ps = conn.prepareStatement(sql.toString())) {
-			ps.setString(1, yearMonth);
+	/**
+	 * 対象年月のタスクを 1 行ずつ {@code sink} に渡します（管理者用、全体・エクスポート向け）。
+	 * 条件と並び順は {@link #selectByMonthPage} と同じで、件数上限はありません。
+	 * 結果はフェッチサイズ単位でサーバー側カーソルから読み込むため、件数によらずメモリ使用量は一定です。
+	 *
+	 * @param yearMonth         対象年月（"YYYY-MM"）
+	 * @param status            状態（approved|unapproved|remanded|all）
+	 * @param secretaryNameLike 秘書名の部分一致（null/空で無効）
+	 * @param customerNameLike  会社名の部分一致（null/空で無効）
+	 * @param sink              1 行ごとの受け取り処理
+	 * @return 処理した件数
+	 * @throws DAOException DBアクセスに失敗した場合
+	 */
+	public int streamByMonth(String yearMonth, String status,
+			String secretaryNameLike, String customerNameLike, Consumer<TaskDTO> sink) {
+		StringBuilder sb = new StringBuilder(
+				ArchiveDAO.hasArchive(conn) ? SQL_SELECT_BY_MONTH_BASE_ALL : SQL_SELECT_BY_MONTH_BASE);
+		appendAdminListFilters(sb, status, secretaryNameLike, customerNameLike);
+		sb.append(SQL_ORDER_BY_KEYSET);
+		String sql = sb.toString();
+
+		int count = 0;
+		try (PreparedStatement ps = conn.prepareStatement(sql)) {
+			prepareForStreaming(ps);
+			bindAdminListFilters(ps, yearMonth, secretaryNameLike, customerNameLike);
 			try (ResultSet rs = ps.executeQuery()) {
 				while (rs.next()) {
-					TaskDTO t = new TaskDTO();
-
-					t.setId(rs.getObject("t_id", UUID.class));
-					AssignmentDTO ad = new AssignmentDTO();
-					ad.setAssignmentId(rs.getObject("a_id", UUID.class));
-					t.setAssignment(ad);
-
-					t.setWorkDate(rs.getDate("t_work_date"));
-					t.setStartTime(rs.getTimestamp("t_start_time"));
-					t.setEndTime(rs.getTimestamp("t_end_time"));
-					t.setWorkMinute(rs.getObject("t_work_minute", Integer.class));
-					t.setWorkContent(rs.getString("t_work_content"));
-					t.setApprovedAt(rs.getTimestamp("t_approved_at"));
-					t.setRemandedAt(rs.getTimestamp("t_remanded_at"));
-					t.setRemandedBy(rs.getObject("t_remanded_by", UUID.class));
-					t.setRemandComment(rs.getString("t_remand_comment"));
-
-					UUID approvedById = rs.getObject("t_approved_by", UUID.class);
-					if (approvedById != null) {
-						SecretaryDTO s = new SecretaryDTO();
-						s.setId(approvedById);
-						t.setApprovedBy(s);
-					}
-
-					ad.setAssignmentCustomerId(rs.getObject("a_customer_id", UUID.class));
-					ad.setAssignmentSecretaryId(rs.getObject("a_secretary_id", UUID.class));
-					ad.setTaskRankId(rs.getObject("a_task_rank_id", UUID.class));
-					ad.setTargetYearMonth(rs.getString("a_target_year_month"));
-					ad.setBasePayCustomer(rs.getBigDecimal("a_base_pay_customer"));
-					ad.setBasePaySecretary(rs.getBigDecimal("a_base_pay_secretary"));
-					ad.setIncreaseBasePayCustomer(rs.getBigDecimal("a_increase_base_pay_customer"));
-					ad.setIncreaseBasePaySecretary(rs.getBigDecimal("a_increase_base_pay_secretary"));
-					ad.setCustomerBasedIncentiveForCustomer(rs.getBigDecimal("a_cust_incentive_for_customer"));
-					ad.setCustomerBasedIncentiveForSecretary(rs.getBigDecimal("a_cust_incentive_for_secretary"));
-					ad.setHourlyPaySecretary(rs.getBigDecimal("a_all_pay_secretary"));
-					ad.setHourlyPayCustomer(rs.getBigDecimal("a_all_pay_customer"));
-					ad.setAssignmentStatus(rs.getString("a_status"));
-					ad.setTaskRankName(rs.getString("tr_rank_name"));
-					ad.setCustomerCompanyName(rs.getString("c_company_name"));
-					ad.setSecretaryName(rs.getString("s_name"));
-
-					list.add(t);
+					sink.accept(mapMonthRow(rs));
+					count++;
 				}
 			}
 		} catch (SQLException e) {
-			throw new DAOException("E:TS11 tasks 取得に失敗しました。", e);
+			throw new DAOException("E:TS15 tasks ストリーミング取得に失敗しました。", e);
 		}
-		return list;
+		return count;
 	}
 
 	/**
-	 * 対象年月のタスク一覧（状態＋キーワード：秘書名/会社名）を取得します（管理者用、全体）。
-	 * 文字列条件は部分一致・大文字小文字無視（ILIKE）。
+	 * 対象年月のタスク件数・合計稼働・合計金額を DB 側で集計します（管理者用、全体）。
+	 * 条件は {@link #selectByMonthPage} と同じ（状態＋キーワード）です。
 	 *
 	 * @param yearMonth         対象年月（"YYYY-MM"）
 	 * @param status            状態（approved|unapproved|remanded|all）
 	 * @param secretaryNameLike 秘書名の部分一致（null/空で無効）
 	 * @param customerNameLike  会社名の部分一致（null/空で無効）
-	 * @return タスク一覧
+	 * @return 集計値を格納した {@link TaskDTO}（total/totalWorkMinute/totalAmountAll=秘書報酬/totalAmountCustomer=顧客請求）
 	 * @throws DAOException DBアクセスに失敗した場合
 	 */
-	public List<TaskDTO> selectByMonth(String yearMonth, String status,
+	public TaskDTO selectTotalsByMonth(String yearMonth, String status,
 			String secretaryNameLike, String customerNameLike) {
-		StringBuilder sql = new StringBuilder(SQL_SELECT_BY_MONTH_BASE);
+		StringBuilder sql = new StringBuilder(
+				ArchiveDAO.hasArchive(conn) ? SQL_SUM_BY_MONTH_BASE_ALL : SQL_SUM_BY_MONTH_BASE);
+		appendAdminListFilters(sql, status, secretaryNameLike, customerNameLike);
+
+		TaskDTO r = new TaskDTO();
+		try (PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+			bindAdminListFilters(ps, yearMonth, secretaryNameLike, customerNameLike);
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next()) {
+					r.setTotal(rs.getInt("total_count"));
+					r.setTotalWorkMinute(rs.getInt("total_minute"));
+					r.setTotalAmountAll(rs.getBigDecimal("sum_secretary"));
+					r.setTotalAmountCustomer(rs.getBigDecimal("sum_customer"));
+				}
+			}
+		} catch (SQLException e) {
+			throw new DAOException("E:TS14 tasks 月次集計に失敗しました。", e);
+		}
+		return r;
+	}
 
-		/** 状態フィルタ */
-		switch (status) {
+	/**
+	 * 管理者一覧の状態・キーワード条件を SQL に付与します。
+	 *
+	 * @param sql               付与先
+	 * @param status            状態（approved|unapproved|remanded|all）
+	 * @param secretaryNameLike 秘書名の部分一致（null/空で無効）
+	 * @param customerNameLike  会社名の部分一致（null/空で無効）
+	 */
+	private static void appendAdminListFilters(StringBuilder sql, String status,
+			String secretaryNameLike, String customerNameLike) {
+		switch (status == null ? "all" : status) {
 		case "approved" -> sql.append(" AND t.approved_at IS NOT NULL ");
 		case "unapproved" -> sql.append(" AND t.approved_at IS NULL ");
 		case "remanded" -> sql.append(" AND t.remanded_at IS NOT NULL ");
 		default -> {
 			/** all */ }
 		}
-
-		/** 文字列フィルタ */
 		if (secretaryNameLike != null && !secretaryNameLike.isBlank()) {
 			sql.append(" AND s.name ILIKE ? ");
 		}
 		if (customerNameLike != null && !customerNameLike.isBlank()) {
 			sql.append(" AND c.company_name ILIKE ? ");
 		}
-		sql.append(" ORDER BY t.work_date, a.customer_id, t.start_time ");
-
-		List<TaskDTO> list = new ArrayList<>();
-		try (PreparedStatement ps = conn.prepareStatement(sql.toString())) {
-			int p = 1;
-			ps.setString(p++, yearMonth);
-			if (secretaryNameLike != null && !secretaryNameLike.isBlank()) {
-				ps.setString(p++, "%" + secretaryNameLike + "%");
-			}
-			if (customerNameLike != null && !customerNameLike.isBlank()) {
-				ps.setString(p++, "%" + customerNameLike + "%");
-			}
-			try (ResultSet rs = ps.executeQuery()) {
-				while (rs.next()) {
-					TaskDTO t = new TaskDTO();
-
-					t.setId(rs.getObject("t_id", UUID.class));
-					AssignmentDTO ad = new AssignmentDTO();
-					ad.setAssignmentId(rs.getObject("a_id", UUID.class));
-					t.setAssignment(ad);
-
-					t.setWorkDate(rs.getDate("t_work_date"));
-					t.setStartTime(rs.getTimestamp("t_start_time"));
-					t.setEndTime(rs.getTimestamp("t_end_time"));
-					t.setWorkMinute(rs.getObject("t_work_minute", Integer.class));
-					t.setWorkContent(rs.getString("t_work_content"));
-					t.setApprovedAt(rs.getTimestamp("t_approved_at"));
-					t.setRemandedAt(rs.getTimestamp("t_remanded_at"));
-					t.setRemandedBy(rs.getObject("t_remanded_by", UUID.class));
-					t.setRemandComment(rs.getString("t_remand_comment"));
+	}
 
-					UUID approvedById = rs.getObject("t_approved_by", UUID.class);
-					if (approvedById != null) {
-						SecretaryDTO s = new SecretaryDTO();
-						s.setId(approvedById);
-						t.setApprovedBy(s);
-					}
+	/**
+	 * {@link #appendAdminListFilters} で付与した条件の値をバインドします。
+	 *
+	 * @return 次にバインドするパラメータ位置
+	 */
+	private static int bindAdminListFilters(PreparedStatement ps, String yearMonth,
+			String secretaryNameLike, String customerNameLike) throws SQLException {
+		int p = 1;
+		ps.setString(p++, yearMonth);
+		p = setMonthRange(ps, p, yearMonth);
+		if (secretaryNameLike != null && !secretaryNameLike.isBlank()) {
+			ps.setString(p++, containsPattern(secretaryNameLike));
+		}
+		if (customerNameLike != null && !customerNameLike.isBlank()) {
+			ps.setString(p++, containsPattern(customerNameLike));
+		}
+		return p;
+	}
 
-					ad.setAssignmentCustomerId(rs.getObject("a_customer_id", UUID.class));
-					ad.setAssignmentSecretaryId(rs.getObject("a_secretary_id", UUID.class));
-					ad.setTaskRankId(rs.getObject("a_task_rank_id", UUID.class));
-					ad.setTargetYearMonth(rs.getString("a_target_year_month"));
-					ad.setBasePayCustomer(rs.getBigDecimal("a_base_pay_customer"));
-					ad.setBasePaySecretary(rs.getBigDecimal("a_base_pay_secretary"));
-					ad.setIncreaseBasePayCustomer(rs.getBigDecimal("a_increase_base_pay_customer"));
-					ad.setIncreaseBasePaySecretary(rs.getBigDecimal("a_increase_base_pay_secretary"));
-					ad.setCustomerBasedIncentiveForCustomer(rs.getBigDecimal("a_cust_incentive_for_customer"));
-					ad.setCustomerBasedIncentiveForSecretary(rs.getBigDecimal("a_cust_incentive_for_secretary"));
-					ad.setHourlyPaySecretary(rs.getBigDecimal("a_all_pay_secretary"));
-					ad.setHourlyPayCustomer(rs.getBigDecimal("a_all_pay_customer"));
-					ad.setAssignmentStatus(rs.getString("a_status"));
-					ad.setTaskRankName(rs.getString("tr_rank_name"));
-					ad.setCustomerCompanyName(rs.getString("c_company_name"));
-					ad.setSecretaryName(rs.getString("s_name"));
+	/**
+	 * {@code SQL_SELECT_BY_MONTH_BASE} の 1 行を {@link TaskDTO} に詰め替えます。
+	 */
+	private static TaskDTO mapMonthRow(ResultSet rs) throws SQLException {
+		TaskDTO t = new TaskDTO();
+
+		t.setId(rs.getObject("t_id", UUID.class));
+		AssignmentDTO ad = new AssignmentDTO();
+		ad.setAssignmentId(rs.getObject("a_id", UUID.class));
+		t.setAssignment(ad);
+
+		t.setWorkDate(rs.getDate("t_work_date"));
+		t.setStartTime(rs.getTimestamp("t_start_time"));
+		t.setEndTime(rs.getTimestamp("t_end_time"));
+		t.setWorkMinute(rs.getObject("t_work_minute", Integer.class));
+		t.setWorkContent(rs.getString("t_work_content"));
+		t.setApprovedAt(rs.getTimestamp("t_approved_at"));
+		t.setRemandedAt(rs.getTimestamp("t_remanded_at"));
+		t.setRemandedBy(rs.getObject("t_remanded_by", UUID.class));
+		t.setRemandComment(rs.getString("t_remand_comment"));
+
+		UUID approvedById = rs.getObject("t_approved_by", UUID.class);
+		if (approvedById != null) {
+			SecretaryDTO s = new SecretaryDTO();
+			s.setId(approvedById);
+			t.setApprovedBy(s);
+		}
 
-					list.add(t);
-				}
-			}
-		} catch (SQLException e) {
-			throw new DAOException("E:TS11 tasks 取得に失敗しました。", e);
+		ad.setAssignmentCustomerId(rs.getObject("a_customer_id", UUID.class));
+		ad.setAssignmentSecretaryId(rs.getObject("a_secretary_id", UUID.class));
+		ad.setTaskRankId(rs.getObject("a_task_rank_id", UUID.class));
+		ad.setTargetYearMonth(rs.getString("a_target_year_month"));
+		ad.setBasePayCustomer(rs.getBigDecimal("a_base_pay_customer"));
+		ad.setBasePaySecretary(rs.getBigDecimal("a_base_pay_secretary"));
+		ad.setIncreaseBasePayCustomer(rs.getBigDecimal("a_increase_base_pay_customer"));
+		ad.setIncreaseBasePaySecretary(rs.getBigDecimal("a_increase_base_pay_secretary"));
+		ad.setCustomerBasedIncentiveForCustomer(rs.getBigDecimal("a_cust_incentive_for_customer"));
+		ad.setCustomerBasedIncentiveForSecretary(rs.getBigDecimal("a_cust_incentive_for_secretary"));
+		ad.setHourlyPaySecretary(rs.getBigDecimal("a_all_pay_secretary"));
+		ad.setHourlyPayCustomer(rs.getBigDecimal("a_all_pay_customer"));
+		ad.setAssignmentStatus(rs.getString("a_status"));
+		ad.setTaskRankName(rs.getString("tr_rank_name"));
+		ad.setCustomerCompanyName(rs.getString("c_company_name"));
+		ad.setSecretaryName(rs.getString("s_name"));
+
+		/** 月締テーブルの参照ID（null許容） */
+		UUID cmiId = rs.getObject("t_customer_monthly_invoice_id", UUID.class);
+		if (cmiId != null) {
+			CustomerMonthlyInvoiceDTO cmi = new CustomerMonthlyInvoiceDTO();
+			cmi.setId(cmiId);
+			t.setCustomerMonthlyInvoice(cmi);
 		}
-		return list;
+		UUID smsId = rs.getObject("t_secretary_monthly_summary_id", UUID.class);
+		if (smsId != null) {
+			SecretaryMonthlySummaryDTO sms = new SecretaryMonthlySummaryDTO();
+			sms.setId(smsId);
+			t.setSecretaryMonthlySummary(sms);
+		}
+		return t;
 	}
 
 	/** =========================
@@ -833,12 +923,13 @@ public class TaskDAO extends BaseDAO {
 	 */
 	public List<TaskDTO> selectCustomerTasksForList(UUID customerId, String ym) {
 
-		try (PreparedStatement ps = conn.prepareStatement(SQL_SELECT_CUSTOMER_TASKS_FOR_LIST)) {
+		final String sql = ArchiveDAO.hasArchive(conn) ? SQL_SELECT_CUSTOMER_TASKS_FOR_LIST_ALL
+				: SQL_SELECT_CUSTOMER_TASKS_FOR_LIST;
+		try (PreparedStatement ps = conn.prepareStatement(sql)) {
 
 			int i = 1;
 			ps.setObject(i++, customerId);
-			ps.setString(i++, ym);
-			ps.setString(i++, ym);
+			setMonthRange(ps, i, ym);
 
 			List<TaskDTO> list = new ArrayList<>();
 			try (ResultSet rs = ps.executeQuery()) {
@@ -870,15 +961,8 @@ public class TaskDAO extends BaseDAO {
 					adto.setHourlyPayCustomer(unitPrice);
 					d.setAssignment(adto);
 
-					/** TaskDTO にコスト用フィールドがある場合（例：setCostCustomer） */
-					try {
-						Method m = TaskDTO.class.getMethod("setCostCustomer", BigDecimal.class);
-						m.invoke(d, rs.getBigDecimal("cost_customer"));
-					} catch (NoSuchMethodException ignore) {
-						/** フィールドが無い場合は JSP 側で算出（EL）する前提 */
-					} catch (Exception ex) {
-						throw new SQLException("TaskDTO への costCustomer セットに失敗", ex);
-					}
+					/** コスト（単価 × 分 / 60 を SQL 側で四捨五入済み） */
+					d.setCostCustomer(rs.getBigDecimal("cost_customer"));
 
 					list.add(d);
 				}
@@ -900,12 +984,13 @@ public class TaskDAO extends BaseDAO {
 	 * 任意：approvedAt/By, customerMonthlyInvoiceId, secretaryMonthlySummaryId
 	 *
 	 * @param dto 登録対象 {@link TaskDTO}
-	 * @return 採番された {@code tasks.id}
+	 * @return 採番された {@code tasks.id}（時刻順の UUIDv7）
 	 * @throws DAOException 入力不足またはDBアクセスに失敗した場合
 	 */
 	public UUID insert(TaskDTO dto) {
 		try (PreparedStatement ps = conn.prepareStatement(SQL_INSERT)) {
 			int i = 1;
+			ps.setObject(i++, UuidV7.generate());
 
 			/** assignment_id（必須） */
 			UUID assignmentId = (dto.getAssignment() != null) ? dto.getAssignment().getAssignmentId() : null;
@@ -917,7 +1002,9 @@ public class TaskDAO extends BaseDAO {
 			/** work_date / start_time / end_time / work_minute / work_content（必須） */
 			if (dto.getWorkDate() == null)
 				throw new DAOException("E:TS22 workDate が未設定です。");
-			ps.setDate(i++, new java.sql.Date(dto.getWorkDate().getTime()));
+			java.sql.Date workDate = new java.sql.Date(dto.getWorkDate().getTime());
+			TaskPartitions.ensure(conn, workDate.toLocalDate());
+			ps.setDate(i++, workDate);
 
 			if (dto.getStartTime() == null || dto.getEndTime() == null) {
 				throw new DAOException("E:TS22 startTime / endTime が未設定です。");
@@ -951,17 +1038,22 @@ public class TaskDAO extends BaseDAO {
 
 			try (ResultSet rs = ps.executeQuery()) {
 				if (rs.next()) {
-					return rs.getObject(1, UUID.class); /** RETURNING id */
+					UUID id = rs.getObject(1, UUID.class); /** RETURNING id */
+					published(1, Event.SUBMITTED, id);
+					return id;
 				}
 				return null;
 			}
 		} catch (SQLException e) {
+			if (CHECK_VIOLATION.equals(e.getSQLState())) {
+				throw new DAOException("E:TS27 作業日がアサインの月と異なります。", e);
+			}
 			throw new DAOException("E:TS24 tasks INSERT に失敗しました。", e);
 		}
 	}
 
 	/**
-	 * タスクを更新します（論理未削除のみ）。
+	 * タスクを更新します（論理未削除・月次締め前の月のみ）。
 	 * 必須：id, assignment.id, workDate, startTime, endTime, workMinute, workContent
 	 * 任意：approvedAt/By, customerMonthlyInvoiceId, secretaryMonthlySummaryId
 	 *
@@ -984,12 +1076,16 @@ public class TaskDAO extends BaseDAO {
 		if (dto.getWorkContent() == null)
 			throw new DAOException("E:TS36 workContent が未設定です。");
 
+		java.sql.Date workDate = new java.sql.Date(dto.getWorkDate().getTime());
+		/** 作業日の変更で別の月へ移る場合に備え、移動先のパーティションを用意 */
+		TaskPartitions.ensure(conn, workDate.toLocalDate());
 		try (PreparedStatement ps = conn.prepareStatement(SQL_UPDATE)) {
+			lockMonthOf(dto.getId());
 			int i = 1;
 
 			/** 必須 */
 			ps.setObject(i++, assignmentId);
-			ps.setDate(i++, new java.sql.Date(dto.getWorkDate().getTime()));
+			ps.setDate(i++, workDate);
 			ps.setTimestamp(i++, dto.getStartTime());
 			ps.setTimestamp(i++, dto.getEndTime());
 			ps.setInt(i++, dto.getWorkMinute());
@@ -1016,14 +1112,17 @@ public class TaskDAO extends BaseDAO {
 			// WHERE
 			ps.setObject(i++, dto.getId());
 
-			return ps.executeUpdate();
+			return published(ps.executeUpdate(), Event.UPDATED, dto.getId());
 		} catch (SQLException e) {
+			if (CHECK_VIOLATION.equals(e.getSQLState())) {
+				throw new DAOException("E:TS38 作業日がアサインの月と異なります。", e);
+			}
 			throw new DAOException("E:TS37 tasks UPDATE に失敗しました。", e);
 		}
 	}
 
 	/**
-	 * タスクを論理削除します（{@code deleted_at = CURRENT_TIMESTAMP}）。
+	 * タスクを論理削除します（{@code deleted_at = CURRENT_TIMESTAMP}。月次締め済みの月は対象外）。
 	 *
 	 * @param id tasks.id
 	 * @return 影響行数（0 の場合は未削除）
@@ -1033,8 +1132,9 @@ public class TaskDAO extends BaseDAO {
 		if (id == null)
 			throw new DAOException("E:TS41 id が未設定です。");
 		try (PreparedStatement ps = conn.prepareStatement(SQL_DELETE_LOGICAL)) {
+			lockMonthOf(id);
 			ps.setObject(1, id);
-			return ps.executeUpdate();
+			return published(ps.executeUpdate(), Event.DELETED, id);
 		} catch (SQLException e) {
 			throw new DAOException("E:TS42 tasks 論理DELETE に失敗しました。", e);
 		}
@@ -1050,31 +1150,11 @@ public class TaskDAO extends BaseDAO {
 	 */
 	public List<TaskDTO> showAlert(boolean flg) {
 	    List<TaskDTO> list = new ArrayList<>();
-	    String sql = SQL_SELECT_ALERT_LIST + (flg ? " LIMIT 10" : ""); 
+	    String sql = SQL_SELECT_ALERT_LIST + "ORDER BY t.alerted_at" + (flg ? " LIMIT 10" : ""); 
 	    try (PreparedStatement ps = conn.prepareStatement(sql);
 	         ResultSet rs = ps.executeQuery()) {
 	        while (rs.next()) {
-	            TaskDTO t = new TaskDTO();
-	            t.setId(rs.getObject("t_id", UUID.class));
-	            t.setWorkDate(rs.getDate("t_work_date"));
-	            t.setStartTime(rs.getTimestamp("t_start_time"));
-	            t.setEndTime(rs.getTimestamp("t_end_time"));
-	            t.setWorkMinute(rs.getObject("t_work_minute", Integer.class));
-	            t.setWorkContent(rs.getString("t_work_content"));
-	            t.setAlertedAt(rs.getTimestamp("t_alerted_at"));
-	            t.setAlertComment(rs.getString("t_alerted_comment"));
-	            t.setRemandedBy(rs.getObject("t_remanded_by", UUID.class));
-	            t.setRemandedAt(rs.getTimestamp("t_remanded_at"));
-	            t.setRemandComment(rs.getString("t_remand_comment"));
-
-	            /** 会社名・ランクは AssignmentDTO 側で保持 */
-	            AssignmentDTO ad = new AssignmentDTO();
-	            ad.setCustomerCompanyName(rs.getString("c_company_name"));
-	            ad.setTaskRankName(rs.getString("tr_rank_name"));
-	            ad.setSecretaryName(rs.getString("s_name"));
-	            t.setAssignment(ad);
-
-	            list.add(t);
+	            list.add(readAlertRow(rs));
 	        }
 	    } catch (SQLException e) {
 	        throw new DAOException("E:TS-ALERT-LIST 顧客アラート一覧の取得に失敗しました。", e);
@@ -1082,6 +1162,74 @@ public class TaskDAO extends BaseDAO {
 	    return list;
 	}
 
+	/**
+	 * アラート 1 件を取得します（新着アラートの通知用）。
+	 *
+	 * @param taskId タスクID
+	 * @return アラート（アラート中でなければ {@code null}）
+	 * @throws DAOException 取得に失敗した場合
+	 */
+	public TaskDTO selectAlertById(UUID taskId) {
+		try (PreparedStatement ps = conn.prepareStatement(SQL_SELECT_ALERT_BY_ID)) {
+			ps.setObject(1, taskId);
+			try (ResultSet rs = ps.executeQuery()) {
+				return rs.next() ? readAlertRow(rs) : null;
+			}
+		} catch (SQLException e) {
+			throw new DAOException("E:TS-ALERT-ONE 顧客アラートの取得に失敗しました。", e);
+		}
+	}
+
+	/**
+	 * 管理者向けカウンタ（アラート件数・当月／前月の未承認件数）を 1 回の問い合わせで取得します。
+	 *
+	 * @param yearMonth     当月（"YYYY-MM"）
+	 * @param prevYearMonth 前月（"YYYY-MM"）
+	 * @return カウンタ
+	 * @throws DAOException 取得に失敗した場合
+	 */
+	public AdminCounters selectAdminCounters(String yearMonth, String prevYearMonth) {
+		try (PreparedStatement ps = conn.prepareStatement(SQL_SELECT_ADMIN_COUNTERS)) {
+			ps.setString(1, yearMonth);
+			int p = setMonthRange(ps, 2, yearMonth);
+			ps.setString(p++, prevYearMonth);
+			setMonthRange(ps, p, prevYearMonth);
+			try (ResultSet rs = ps.executeQuery()) {
+				rs.next();
+				return new AdminCounters(rs.getInt("alert_count"), rs.getInt("unapproved_count"),
+						rs.getInt("prev_unapproved_count"));
+			}
+		} catch (SQLException e) {
+			throw new DAOException("E:TS26 管理者向けカウンタの取得に失敗しました。", e);
+		}
+	}
+
+	/**
+	 * アラート一覧の 1 行を {@link TaskDTO} に詰め替えます。
+	 */
+	private static TaskDTO readAlertRow(ResultSet rs) throws SQLException {
+		TaskDTO t = new TaskDTO();
+		t.setId(rs.getObject("t_id", UUID.class));
+		t.setWorkDate(rs.getDate("t_work_date"));
+		t.setStartTime(rs.getTimestamp("t_start_time"));
+		t.setEndTime(rs.getTimestamp("t_end_time"));
+		t.setWorkMinute(rs.getObject("t_work_minute", Integer.class));
+		t.setWorkContent(rs.getString("t_work_content"));
+		t.setAlertedAt(rs.getTimestamp("t_alerted_at"));
+		t.setAlertComment(rs.getString("t_alerted_comment"));
+		t.setRemandedBy(rs.getObject("t_remanded_by", UUID.class));
+		t.setRemandedAt(rs.getTimestamp("t_remanded_at"));
+		t.setRemandComment(rs.getString("t_remand_comment"));
+
+		/** 会社名・ランクは AssignmentDTO 側で保持 */
+		AssignmentDTO ad = new AssignmentDTO();
+		ad.setCustomerCompanyName(rs.getString("c_company_name"));
+		ad.setTaskRankName(rs.getString("tr_rank_name"));
+		ad.setSecretaryName(rs.getString("s_name"));
+		t.setAssignment(ad);
+		return t;
+	}
+
 	/** =========================
 	 * ステータス操作（承認 / 取消 / 差戻し）
 	 * ========================= */
@@ -1099,19 +1247,20 @@ public class TaskDAO extends BaseDAO {
 				+ "   SET approved_at = NOW(), approved_by = ?, updated_at = NOW() "
 				+ " WHERE id = ? AND deleted_at IS NULL AND approved_at IS NULL";
 		try (PreparedStatement ps = conn.prepareStatement(sql)) {
+			lockMonthOf(taskId);
 			if (approvedBy != null)
 				ps.setObject(1, approvedBy);
 			else
 				ps.setNull(1, Types.OTHER);
 			ps.setObject(2, taskId);
-			return ps.executeUpdate();
+			return published(ps.executeUpdate(), Event.APPROVED, taskId);
 		} catch (SQLException e) {
 			throw new DAOException("E:TASK-APPROVE 更新に失敗", e);
 		}
 	}
 
 	/**
-	 * タスクの承認を取り消します（承認前の状態へ戻す）。
+	 * タスクの承認を取り消します（承認前の状態へ戻す。月次締め済みの月は対象外）。
 	 *
 	 * @param taskId タスクID
 	 * @return 影響行数
@@ -1120,17 +1269,18 @@ public class TaskDAO extends BaseDAO {
 	public int unapprove(UUID taskId) {
 		final String sql = "UPDATE tasks "
 				+ "   SET approved_at = NULL, approved_by = NULL, updated_at = NOW() "
-				+ " WHERE id = ? AND deleted_at IS NULL";
+				+ " WHERE id = ? AND deleted_at IS NULL" + AND_MONTH_OPEN;
 		try (PreparedStatement ps = conn.prepareStatement(sql)) {
+			lockMonthOf(taskId);
 			ps.setObject(1, taskId);
-			return ps.executeUpdate();
+			return published(ps.executeUpdate(), Event.UNAPPROVED, taskId);
 		} catch (SQLException e) {
 			throw new DAOException("E:TASK-UNAPPROVE 失敗", e);
 		}
 	}
 
 	/**
-	 * タスクを差戻しにします（承認情報はクリア）。
+	 * タスクを差戻しにします（承認情報はクリア。月次締め済みの月は対象外）。
 	 *
 	 * @param taskId     タスクID
 	 * @param remandedBy 差戻し実行者ID（null可）
@@ -1142,15 +1292,16 @@ public class TaskDAO extends BaseDAO {
 		final String sql = "UPDATE tasks "
 				+ "   SET remanded_at = NOW(), remanded_by = ?, remand_comment = ?, "
 				+ "       approved_at = NULL, approved_by = NULL, updated_at = NOW() "
-				+ " WHERE id = ? AND deleted_at IS NULL";
+				+ " WHERE id = ? AND deleted_at IS NULL" + AND_MONTH_OPEN;
 		try (PreparedStatement ps = conn.prepareStatement(sql)) {
+			lockMonthOf(taskId);
 			if (remandedBy != null)
 				ps.setObject(1, remandedBy);
 			else
 				ps.setNull(1, Types.OTHER);
 			ps.setString(2, comment);
 			ps.setObject(3, taskId);
-			return ps.executeUpdate();
+			return published(ps.executeUpdate(), Event.REMANDED, taskId);
 		} catch (SQLException e) {
 			throw new DAOException("E:TASK-REMAND 失敗", e);
 		}
@@ -1166,10 +1317,11 @@ public class TaskDAO extends BaseDAO {
 	public int clearRemandedAt(UUID taskId) {
 		final String sql = "UPDATE tasks "
 				+ "   SET remanded_at = NULL, updated_at = NOW() "
-				+ " WHERE id = ? AND deleted_at IS NULL";
+				+ " WHERE id = ? AND deleted_at IS NULL" + AND_MONTH_OPEN;
 		try (PreparedStatement ps = conn.prepareStatement(sql)) {
+			lockMonthOf(taskId);
 			ps.setObject(1, taskId);
-			return ps.executeUpdate();
+			return published(ps.executeUpdate(), Event.UPDATED, taskId);
 		} catch (SQLException e) {
 			throw new DAOException("E:TASK-CLEAR-REMANDED_AT 失敗", e);
 		}
@@ -1192,6 +1344,7 @@ public class TaskDAO extends BaseDAO {
 			int p = 1;
 			ps.setObject(p++, secretaryId);
 			ps.setString(p++, yearMonth);
+			setMonthRange(ps, p, yearMonth);
 			try (ResultSet rs = ps.executeQuery()) {
 				if (rs.next()) {
 					r.setUnapproved(rs.getInt("unapproved_count"));
@@ -1219,6 +1372,7 @@ public class TaskDAO extends BaseDAO {
 		TaskDTO r = new TaskDTO();
 		try (PreparedStatement ps = conn.prepareStatement(SQL_COUNT_BY_STATUS_ADMIN)) {
 			ps.setString(1, yearMonth);
+			setMonthRange(ps, 2, yearMonth);
 			try (ResultSet rs = ps.executeQuery()) {
 				if (rs.next()) {
 					r.setUnapproved(rs.getInt("unapproved_count"));
@@ -1249,6 +1403,7 @@ public class TaskDAO extends BaseDAO {
 		try (PreparedStatement ps = conn.prepareStatement(SQL_COUNT_BY_STATUS_CUSTOMER)) {
 			ps.setObject(1, customerId);
 			ps.setString(2, yearMonth);
+			setMonthRange(ps, 3, yearMonth);
 			try (ResultSet rs = ps.executeQuery()) {
 				if (rs.next()) {
 					r.setUnapproved(rs.getInt("unapproved_count"));
@@ -1278,6 +1433,7 @@ public class TaskDAO extends BaseDAO {
 		try (PreparedStatement ps = conn.prepareStatement(SQL_APPROVED_AMOUNT_BY_CUSTOMER_MONTH)) {
 			ps.setObject(1, customerId);
 			ps.setString(2, yearMonth);
+			setMonthRange(ps, 3, yearMonth);
 			try (ResultSet rs = ps.executeQuery()) {
 				if (rs.next())
 					return rs.getBigDecimal("amount");
@@ -1313,7 +1469,7 @@ public class TaskDAO extends BaseDAO {
 			ps.setString(1, comment); /** null 指定も可：そのまま DB に入る */
 			/** WHERE id = ? */
 			ps.setObject(2, id);
-			return ps.executeUpdate();
+			return published(ps.executeUpdate(), Event.ALERT, id);
 		} catch (SQLException e) {
 			throw new DAOException("E:TS-ALERT 確認申請の更新に失敗しました。", e);
 		}
@@ -1330,9 +1486,38 @@ public class TaskDAO extends BaseDAO {
 	    if (id == null) throw new DAOException("E:TS-ALERT-DEL 引数 id が未設定です。");
 	    try (PreparedStatement ps = conn.prepareStatement(SQL_ALERT_DELETE)) {
 	        ps.setObject(1, id);
-	        return ps.executeUpdate();
+	        return published(ps.executeUpdate(), Event.ALERT_CLEARED, id);
 	    } catch (SQLException e) {
 	        throw new DAOException("E:TS-ALERT-DEL 更新に失敗しました。", e);
 	    }
 	}
+
+	/**
+	 * タスクのアサイン月の共有ロックを取得します（月次締めの確定が終わるまで待機し、トランザクション終了で解放）。
+	 * 続く UPDATE の締め済み判定（{@code AND_MONTH_OPEN}）が、確定の途中ではなく前後どちらかの状態を見るようにします。
+	 *
+	 * @param taskId タスクID
+	 * @throws SQLException 取得に失敗した場合
+	 */
+	private void lockMonthOf(UUID taskId) throws SQLException {
+		try (PreparedStatement ps = conn.prepareStatement(SQL_LOCK_MONTH_OF_TASK)) {
+			ps.setObject(1, taskId);
+			ps.execute();
+		}
+	}
+
+	/**
+	 * 更新があった場合にタスクの状態変化を通知します（コミット後に配信）。
+	 *
+	 * @param updated 影響行数
+	 * @param event   種別
+	 * @param taskId  タスクID
+	 * @return 影響行数（そのまま）
+	 */
+	private int published(int updated, Event event, UUID taskId) {
+		if (updated > 0) {
+			DbNotifications.publish(conn, DbNotifications.CH_TASK_EVENTS, event + ":" + taskId);
+		}
+		return updated;
+	}
 }
@@ -0,0 +1,86 @@
+package dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * tasks の月別パーティション（{@code tasks_pYYYYMM}）の作成を司るユーティリティ。
+ * <p>
+ * tasks は work_date による月単位のレンジパーティション表で、DEFAULT パーティションを持ちません。
+ * 対応するパーティションが無い月の行は INSERT できないため、
+ * 起動時に当月・翌月分を作成し（{@link #ensureAhead}）、
+ * それ以外の月は初めて書き込む直前に作成します（{@link #ensure}）。
+ * 作成済みの月は JVM 内で記憶し、2 回目以降は DB へ問い合わせません。
+ * 作成自体は DB 関数 {@code ensure_tasks_partition(date)}（Migration_20261024 で定義）が
+ * アドバイザリロックで直列化するため、複数ノードから同時に呼ばれても安全です。
+ * </p>
+ */
+public final class TaskPartitions {
+
+	/** パーティション作成（存在すれば何もしない） */
+	private static final String SQL_ENSURE = "SELECT ensure_tasks_partition(?)";
+
+	/** 起動時に先行作成する月数（当月を含む） */
+	private static final int AHEAD_MONTHS = 2;
+
+	/** 作成済み（または存在確認済み）の月 */
+	private static final Set<YearMonth> ensured = ConcurrentHashMap.newKeySet();
+
+	private TaskPartitions() {
+	}
+
+	/**
+	 * 指定日を含む月のパーティションが存在することを保証します。
+	 * パーティションを新規作成した場合、その作成は呼出し側のトランザクションに含まれます。
+	 *
+	 * @param conn     接続
+	 * @param workDate 作業日
+	 * @throws DAOException 作成に失敗した場合
+	 */
+	public static void ensure(Connection conn, LocalDate workDate) {
+		YearMonth ym = YearMonth.from(workDate);
+		if (ensured.contains(ym)) return;
+		try (PreparedStatement ps = conn.prepareStatement(SQL_ENSURE)) {
+			ps.setObject(1, ym.atDay(1));
+			ps.execute();
+		} catch (SQLException e) {
+			throw new DAOException("E:TP01 tasks パーティションの作成に失敗しました。", e);
+		}
+		/** 呼出し側がロールバックした場合に備え、確定後に記憶する */
+		TransactionManager.afterCommit(conn, () -> ensured.add(ym));
+	}
+
+	/**
+	 * 基準日の月から {@value #AHEAD_MONTHS} か月分（当月・翌月）のパーティションを作成します。
+	 *
+	 * @param conn  接続
+	 * @param today 基準日
+	 * @throws DAOException 作成に失敗した場合
+	 */
+	public static void ensureAhead(Connection conn, LocalDate today) {
+		for (int i = 0; i < AHEAD_MONTHS; i++) {
+			ensure(conn, today.plusMonths(i));
+		}
+	}
+
+	/**
+	 * 指定月を作成済みの記憶から外します（月のパーティションをアーカイブへ移した後に呼ぶ）。
+	 *
+	 * @param ym 年月
+	 */
+	static void forget(YearMonth ym) {
+		ensured.remove(ym);
+	}
+
+	/**
+	 * 作成済みの記憶をすべて消します（他ノードでのアーカイブを取りこぼした可能性がある場合）。
+	 */
+	static void forgetAll() {
+		ensured.clear();
+	}
+}
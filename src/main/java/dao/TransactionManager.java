@@ -2,6 +2,10 @@ package dao;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * トランザクション管理を行うクラス
@@ -13,8 +17,12 @@ public class TransactionManager implements AutoCloseable{
 	private static final String SCHEMA = "?currentSchema=public";
 	private static final String DB_USER = "postgres";
 	private static final String DB_PASSWORD = "password";
+	/** 実行中のトランザクション（接続→管理インスタンス）。コミット後処理の登録先を引くために使用 */
+	private static final Map<Connection, TransactionManager> ACTIVE = new ConcurrentHashMap<>();
 	private Connection conn;
 	private boolean isCommit;
+	/** コミット成功後に実行する処理（キャッシュ無効化など） */
+	private List<Runnable> afterCommitActions;
 	
 	/**
 	 * データベース接続を取得します
@@ -26,10 +34,14 @@ public class TransactionManager implements AutoCloseable{
 	public Connection getConnection(){
 		if(conn == null) {
 			try {
-				Class.forName(DRIVER_NAME);
-				conn = DriverManager.getConnection(DB_URL + SCHEMA, DB_USER, DB_PASSWORD);
+				long t0 = System.nanoTime();
+				Connection raw = openDedicatedConnection();
+				QueryStats.connected(System.nanoTime() - t0);
+				/** 実行回数・行数・DB時間をリクエスト単位で数えるため計測用に包む */
+				conn = MeteredConnection.wrap(raw);
 				conn.setAutoCommit(false);
-			} catch(ClassNotFoundException | SQLException e) {
+				ACTIVE.put(conn, this);
+			} catch(SQLException e) {
 				String message = "E:TM01 トランザクションが開始できませんでした";
 				throw new TransactionException(message, e);
 			}
@@ -37,6 +49,22 @@ public class TransactionManager implements AutoCloseable{
 		return conn;
 	}
 	
+	/**
+	 * 本クラスの管理外で使う接続（自動コミット）を新たに開きます
+	 * LISTEN 用など長時間保持する接続に使用し、クローズは呼出し側で行います
+	 *
+	 * @return データベース接続
+	 * @throws SQLException 接続に失敗した場合
+	 */
+	static Connection openDedicatedConnection() throws SQLException {
+		try {
+			Class.forName(DRIVER_NAME);
+		} catch (ClassNotFoundException e) {
+			throw new SQLException(e);
+		}
+		return DriverManager.getConnection(DB_URL + SCHEMA, DB_USER, DB_PASSWORD);
+	}
+
 	/**
 	 * トランザクションをコミットすることをマークします
 	 * 実際のコミットは {@link #close()} メソッドで実行されます
@@ -67,6 +95,26 @@ public class TransactionManager implements AutoCloseable{
 		}
 	}
 
+	/**
+	 * 指定接続のトランザクションがコミットされた後に実行する処理を登録します。
+	 * ロールバックされた場合は実行されません。
+	 * 接続が本クラスの管理外（自動コミット等）の場合は即時に実行します。
+	 *
+	 * @param conn   DAO が保持している接続
+	 * @param action コミット後に実行する処理
+	 */
+	public static void afterCommit(Connection conn, Runnable action) {
+		TransactionManager tm = (conn == null) ? null : ACTIVE.get(conn);
+		if (tm == null) {
+			action.run();
+			return;
+		}
+		if (tm.afterCommitActions == null) {
+			tm.afterCommitActions = new ArrayList<>();
+		}
+		tm.afterCommitActions.add(action);
+	}
+
 	/**
 	 * リソースをクローズします
 	 * コミットまたはロールバックを実行した後、接続をクローズします
@@ -78,6 +126,7 @@ public class TransactionManager implements AutoCloseable{
 				/** コミット/ロールバックを試行 */
 				if (isCommit) {
 					conn.commit();
+					runAfterCommitActions();
 				} else {
 					conn.rollback();
 				}
@@ -93,9 +142,26 @@ public class TransactionManager implements AutoCloseable{
 					System.err.println("接続クローズ中のエラー: " + e.getMessage());
 					/** クローズ失敗はログのみ記録し、アプリケーションは継続 */
 				} finally {
+					ACTIVE.remove(conn);
+					afterCommitActions = null;
 					conn = null;
 				}
 			}
 		}
 	}
-}
\ No newline at end of file
+
+	/**
+	 * 登録済みのコミット後処理を実行します
+	 * 個々の処理の失敗はログのみ出力し、残りの処理を継続します
+	 */
+	private void runAfterCommitActions() {
+		if (afterCommitActions == null) return;
+		for (Runnable action : afterCommitActions) {
+			try {
+				action.run();
+			} catch (RuntimeException e) {
+				System.err.println("コミット後処理中のエラー: " + e.getMessage());
+			}
+		}
+	}
+}
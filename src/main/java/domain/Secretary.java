@@ -31,6 +31,9 @@ public class Secretary  implements Serializable {
     private String bankType;
     private String bankAccount;
     private String bankOwner;
+    /** 金融機関コード（4桁）・支店コード（3桁）：全銀振込データ用 */
+    private String bankCode;
+    private String bankBranchCode;
 
     /** relation */
     private SecretaryRank secretaryRank;
@@ -130,4 +133,20 @@ public class Secretary  implements Serializable {
 	public void setBankOwner(String bankOwner) {
 		this.bankOwner = bankOwner;
 	}
-}
\ No newline at end of file
+
+	public String getBankCode() {
+		return bankCode;
+	}
+
+	public void setBankCode(String bankCode) {
+		this.bankCode = bankCode;
+	}
+
+	public String getBankBranchCode() {
+		return bankBranchCode;
+	}
+
+	public void setBankBranchCode(String bankBranchCode) {
+		this.bankBranchCode = bankBranchCode;
+	}
+}
@@ -0,0 +1,43 @@
+package dto;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 顧客詳細画面の表示データ一式のDTO（dao.CustomerDAO#selectDetail で 1 回の問い合わせにより取得）。
+ */
+public class CustomerDetailDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /** 顧客（担当者一覧込み） */
+    private CustomerDTO customer;
+    /** 当月のアサイン（継続月数付き） */
+    private List<AssignmentDTO> thisMonthAssignments = new ArrayList<>();
+    /** 当月までの請求合計金額 */
+    private BigDecimal invoiceTotalAmount = BigDecimal.ZERO;
+    /** 当月までの請求件数 */
+    private int invoiceCount;
+    /** 当月までの合計稼働分 */
+    private int invoiceTotalWorkMinutes;
+    /** 直近12か月の請求（最新月→） */
+    private List<CustomerMonthlyInvoiceDTO> invoicesLast12 = new ArrayList<>();
+    /** 当月までのアサイン履歴（最新月→） */
+    private List<AssignmentDTO> assignmentHistory = new ArrayList<>();
+
+    public CustomerDTO getCustomer() { return customer; }
+    public void setCustomer(CustomerDTO customer) { this.customer = customer; }
+    public List<AssignmentDTO> getThisMonthAssignments() { return thisMonthAssignments; }
+    public void setThisMonthAssignments(List<AssignmentDTO> thisMonthAssignments) { this.thisMonthAssignments = thisMonthAssignments; }
+    public BigDecimal getInvoiceTotalAmount() { return invoiceTotalAmount; }
+    public void setInvoiceTotalAmount(BigDecimal invoiceTotalAmount) { this.invoiceTotalAmount = invoiceTotalAmount; }
+    public int getInvoiceCount() { return invoiceCount; }
+    public void setInvoiceCount(int invoiceCount) { this.invoiceCount = invoiceCount; }
+    public int getInvoiceTotalWorkMinutes() { return invoiceTotalWorkMinutes; }
+    public void setInvoiceTotalWorkMinutes(int invoiceTotalWorkMinutes) { this.invoiceTotalWorkMinutes = invoiceTotalWorkMinutes; }
+    public List<CustomerMonthlyInvoiceDTO> getInvoicesLast12() { return invoicesLast12; }
+    public void setInvoicesLast12(List<CustomerMonthlyInvoiceDTO> invoicesLast12) { this.invoicesLast12 = invoicesLast12; }
+    public List<AssignmentDTO> getAssignmentHistory() { return assignmentHistory; }
+    public void setAssignmentHistory(List<AssignmentDTO> assignmentHistory) { this.assignmentHistory = assignmentHistory; }
+}
@@ -0,0 +1,68 @@
+package dto;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import util.Money;
+
+/**
+ * 会計年度ピボット（行=顧客/秘書、列=月）の集計結果一式のDTO。
+ * セル・行合計・列合計・総合計はいずれも DB の CUBE 集計結果をそのまま保持します（銭単位の long）。
+ * 締め済み年度はキャッシュで共有されるため、取得後は変更しないでください。
+ */
+public class PivotCubeDTO implements Serializable {
+    private static final long serialVersionUID = 2L;
+
+    /** 列の年月（yyyy-MM、4月→翌3月） */
+    private List<String> months = new ArrayList<>();
+    /** ピボット行（表示順） */
+    private List<PivotRowDTO> rows = new ArrayList<>();
+    /** 列位置 -> 列合計（銭） */
+    private long[] colTotalSen = new long[0];
+    /** 総合計（銭） */
+    private long grandTotalSen;
+
+    public List<String> getMonths() { return months; }
+    public void setMonths(List<String> months) { this.months = months; }
+    public List<PivotRowDTO> getRows() { return rows; }
+    public void setRows(List<PivotRowDTO> rows) { this.rows = rows; }
+    public long[] getColTotalSen() { return colTotalSen; }
+    public void setColTotalSen(long[] colTotalSen) { this.colTotalSen = colTotalSen; }
+    public long getGrandTotalSen() { return grandTotalSen; }
+    public void setGrandTotalSen(long grandTotalSen) { this.grandTotalSen = grandTotalSen; }
+
+    /**
+     * 【JSP用】列位置順の列合計（円）。
+     * @return 列合計リスト
+     */
+    public List<BigDecimal> getColTotals() {
+        List<BigDecimal> list = new ArrayList<>(colTotalSen.length);
+        for (long v : colTotalSen) {
+            list.add(Money.toBigDecimal(v));
+        }
+        return list;
+    }
+
+    /**
+     * 【JSP用】総合計（円）。
+     * @return 総合計
+     */
+    public BigDecimal getGrandTotal() { return Money.toBigDecimal(grandTotalSen); }
+
+    /**
+     * 【JSP用】行ID → 行合計（円）（前年度比較で行を突き合わせる用途）。
+     * @return 行IDをキーにした行合計
+     */
+    public Map<UUID, BigDecimal> rowTotalsById() {
+        Map<UUID, BigDecimal> m = new LinkedHashMap<>();
+        for (PivotRowDTO r : rows) {
+            m.put(r.getId(), r.getRowTotal());
+        }
+        return m;
+    }
+}
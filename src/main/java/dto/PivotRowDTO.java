@@ -2,29 +2,63 @@ package dto;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
+import util.Money;
+
 /**
- * ピボット1行分（顧客/秘書）のDTO
+ * ピボット1行分（顧客/秘書）のDTO。
+ * 金額は列（月）の位置を添字にした銭単位の long 配列で保持し、
+ * BigDecimal への変換は画面表示用のゲッター（{@link #getAmounts()} / {@link #getRowTotal()}）でのみ行います。
  */
 public class PivotRowDTO implements Serializable {
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
 
     private UUID id;
     /** 会社名 or 秘書名 */
     private String label;
-    /** ym -> 金額 */
-    private Map<String, BigDecimal> amountByYm = new LinkedHashMap<>();
-    private BigDecimal rowTotal = BigDecimal.ZERO;
+    /** 列位置 -> 金額（銭） */
+    private long[] amountSen;
+    /** 行合計（銭） */
+    private long rowTotalSen;
+
+    public PivotRowDTO() {
+        this(0);
+    }
+
+    /**
+     * @param monthCount 列（月）数
+     */
+    public PivotRowDTO(int monthCount) {
+        this.amountSen = new long[monthCount];
+    }
 
     public UUID getId() { return id; }
     public void setId(UUID id) { this.id = id; }
     public String getLabel() { return label; }
     public void setLabel(String label) { this.label = label; }
-    public Map<String, BigDecimal> getAmountByYm() { return amountByYm; }
-    public void setAmountByYm(Map<String, BigDecimal> amountByYm) { this.amountByYm = amountByYm; }
-    public BigDecimal getRowTotal() { return rowTotal; }
-    public void setRowTotal(BigDecimal rowTotal) { this.rowTotal = rowTotal; }
+    public long[] getAmountSen() { return amountSen; }
+    public void setAmountSen(long[] amountSen) { this.amountSen = amountSen; }
+    public long getRowTotalSen() { return rowTotalSen; }
+    public void setRowTotalSen(long rowTotalSen) { this.rowTotalSen = rowTotalSen; }
+
+    /**
+     * 【JSP用】列位置順の金額（円）。呼び出しごとに変換するため、JSP では行ごとに1回だけ参照すること。
+     * @return 金額リスト
+     */
+    public List<BigDecimal> getAmounts() {
+        List<BigDecimal> list = new ArrayList<>(amountSen.length);
+        for (long v : amountSen) {
+            list.add(Money.toBigDecimal(v));
+        }
+        return list;
+    }
+
+    /**
+     * 【JSP用】行合計（円）。
+     * @return 行合計
+     */
+    public BigDecimal getRowTotal() { return Money.toBigDecimal(rowTotalSen); }
 }
@@ -36,6 +36,9 @@ public class SecretaryDTO implements Serializable {
     private String bankType;
     private String bankAccount;
     private String bankOwner;
+    /** 金融機関コード（4桁）・支店コード（3桁）：全銀振込データ用 */
+    private String bankCode;
+    private String bankBranchCode;
 	
 	
 	public UUID getId() {
@@ -186,4 +189,20 @@ public class SecretaryDTO implements Serializable {
 	public void setBankOwner(String bankOwner) {
 		this.bankOwner = bankOwner;
 	}
-}
\ No newline at end of file
+
+	public String getBankCode() {
+		return bankCode;
+	}
+
+	public void setBankCode(String bankCode) {
+		this.bankCode = bankCode;
+	}
+
+	public String getBankBranchCode() {
+		return bankBranchCode;
+	}
+
+	public void setBankBranchCode(String bankBranchCode) {
+		this.bankBranchCode = bankBranchCode;
+	}
+}
@@ -165,6 +165,23 @@ public class TaskDTO implements Serializable {
 
 	public BigDecimal getTotalAmountApproved() { return totalAmountApproved; }
 	public void setTotalAmountApproved(BigDecimal v) { this.totalAmountApproved = v; }
+
+	/** 管理者一覧の集計値（合計稼働分・顧客向け合計金額） */
+	private int totalWorkMinute;
+	private BigDecimal totalAmountCustomer;
+
+	public int getTotalWorkMinute() { return totalWorkMinute; }
+	public void setTotalWorkMinute(int v) { this.totalWorkMinute = v; }
+
+	public BigDecimal getTotalAmountCustomer() { return totalAmountCustomer; }
+	public void setTotalAmountCustomer(BigDecimal v) { this.totalAmountCustomer = v; }
+
+	/** 顧客向け一覧のタスク単位コスト（単価 × 分 / 60、整数円） */
+	private BigDecimal costCustomer;
+
+	public BigDecimal getCostCustomer() { return costCustomer; }
+	public void setCostCustomer(BigDecimal v) { this.costCustomer = v; }
+
 	public String getSecretaryName() {
 		return secretaryName;
 	}
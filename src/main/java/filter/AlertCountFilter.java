@@ -1,12 +1,9 @@
 package filter;
 
 import java.io.IOException;
-import java.util.List;
 
-import dao.TaskDAO;
-import dao.TransactionManager;
+import controller.AdminEventHub;
 import domain.LoginUser;
-import dto.TaskDTO;
 import jakarta.servlet.Filter;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.FilterConfig;
@@ -19,11 +16,14 @@ import jakarta.servlet.http.HttpSession;
 
 /**
  * 管理者画面でアラート件数をrequestスコープにセットするFilter。
- * ナビバーでアラートバッジを表示するために使用します。
+ * ナビバーでアラートバッジを表示するために使用します（表示後の増減はイベントストリームで更新）。
  */
-@WebFilter("/admin/*")
+@WebFilter(urlPatterns = "/admin/*", asyncSupported = true)
 public class AlertCountFilter implements Filter {
 
+    /** イベントストリーム（{@link controller.AdminEventServlet}）のパス */
+    private static final String EVENTS_PATH = "/admin/events";
+
     @Override
     public void init(FilterConfig filterConfig) throws ServletException {
         /** 初期化処理（特になし） */
@@ -40,14 +40,11 @@ public class AlertCountFilter implements Filter {
         if (session != null && session.getAttribute("loginUser") != null) {
             LoginUser loginUser = (LoginUser) session.getAttribute("loginUser");
             
-            /** 管理者の場合のみアラート件数を取得 */
-            if (loginUser.getSystemAdmin() != null) {
-                try (TransactionManager tm = new TransactionManager()) {
-                    TaskDAO dao = new TaskDAO(tm.getConnection());
-                    /** showAlert(false): 全件取得 */
-                    List<TaskDTO> alerts = dao.showAlert(false);
-                    /** アラート件数をrequestスコープにセット */
-                    request.setAttribute("alertCount", alerts.size());
+            /** 管理者の場合のみアラート件数を取得（イベントストリーム自体は件数を配信するため除外） */
+            if (loginUser.getSystemAdmin() != null && !EVENTS_PATH.equals(httpRequest.getServletPath())) {
+                try {
+                    /** アラート件数をrequestスコープにセット（変更通知まで保持している値を使う） */
+                    request.setAttribute("alertCount", AdminEventHub.alertCount());
                 } catch (Exception e) {
                     /** エラーが発生してもフィルタ処理は継続 */
                     e.printStackTrace();
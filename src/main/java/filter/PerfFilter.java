@@ -0,0 +1,59 @@
+package filter;
+
+import java.io.IOException;
+
+import dao.QueryStats;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * FrontController へのリクエストをルート単位で計測するFilter。
+ * 処理時間と、その間の DB アクセス（{@link QueryStats}）を {@link RouteMetrics} に記録します。
+ * 他の Filter（アラート件数の取得など）の DB アクセスも含めるため、web.xml で最初に適用します。
+ */
+public class PerfFilter implements Filter {
+
+    /** イベントストリーム（長時間保持する非同期接続のため計測対象外） */
+    private static final String EVENTS_PATH = "/admin/events";
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        /** 初期化処理（特になし） */
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        String servletPath = httpRequest.getServletPath();
+        if (EVENTS_PATH.equals(servletPath)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String pathInfo = httpRequest.getPathInfo();
+        String route = servletPath + (pathInfo == null ? "" : pathInfo);
+        int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+
+        QueryStats.begin(route);
+        long t0 = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+            status = ((HttpServletResponse) response).getStatus();
+        } finally {
+            RouteMetrics.record(route, System.nanoTime() - t0, status, QueryStats.end());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        /** クリーンアップ処理（特になし） */
+    }
+}
@@ -0,0 +1,203 @@
+package filter;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import config.MetricsConfig;
+import dao.QueryStats;
+import util.Histogram;
+
+/**
+ * ルート（servletPath + pathInfo）ごとの性能メトリクスの集計先。
+ * <p>
+ * {@link PerfFilter} が 1 リクエストごとに {@link #record} を呼び、次の値をヒストグラムへ積み上げます。
+ * </p>
+ * <ul>
+ *   <li>処理時間（wall）・DB 時間・接続確立時間（マイクロ秒）</li>
+ *   <li>実行SQL数・取得行数・同一SQLの最大実行回数</li>
+ * </ul>
+ * <p>
+ * 同一SQLの実行回数が {@link MetricsConfig#getNPlusOneRepeat()} 以上のリクエストは N+1 の疑いとして数え、
+ * 直近の該当SQLを保持します。値はプロセス起動からの累計で、管理画面と Prometheus 形式で参照します。
+ * </p>
+ */
+public final class RouteMetrics {
+
+    /** 記録するルート数の上限（未定義パスへのアクセスで増え続けないように） */
+    private static final int MAX_ROUTES = 300;
+    /** 上限を超えたルートの集約先 */
+    private static final String OVERFLOW_ROUTE = "(other)";
+    /** 画面表示するSQLの最大文字数 */
+    private static final int MAX_SQL_LENGTH = 300;
+
+    /** N+1 の疑いとする同一SQLの実行回数 */
+    private static final int N_PLUS_ONE_REPEAT = MetricsConfig.getNPlusOneRepeat();
+    /** 集計開始時刻 */
+    private static final long STARTED_AT = System.currentTimeMillis();
+
+    /** 1 ルート分の集計 */
+    private static final class Route {
+        final Histogram wallMicros = new Histogram(Histogram.MICROS_BOUNDS);
+        final Histogram dbMicros = new Histogram(Histogram.MICROS_BOUNDS);
+        final Histogram connectMicros = new Histogram(Histogram.MICROS_BOUNDS);
+        final Histogram statements = new Histogram(Histogram.COUNT_BOUNDS);
+        final Histogram rows = new Histogram(Histogram.COUNT_BOUNDS);
+        final LongAdder errors = new LongAdder();
+        final LongAdder nPlusOne = new LongAdder();
+        volatile int nPlusOneRepeat;
+        volatile String nPlusOneSql;
+    }
+
+    private static final Map<String, Route> routes = new ConcurrentHashMap<>();
+
+    private RouteMetrics() {
+    }
+
+    /**
+     * 1 リクエスト分を記録します。
+     *
+     * @param route     ルート
+     * @param wallNanos 処理時間（ナノ秒）
+     * @param status    HTTP ステータス
+     * @param q         DB アクセスの集計（無ければ null）
+     */
+    static void record(String route, long wallNanos, int status, QueryStats.Snapshot q) {
+        Route r = routes.get(route);
+        if (r == null) {
+            r = routes.computeIfAbsent(routes.size() < MAX_ROUTES ? route : OVERFLOW_ROUTE, k -> new Route());
+        }
+        r.wallMicros.record(wallNanos / 1_000);
+        if (status >= 500) r.errors.increment();
+        if (q == null) return;
+        r.dbMicros.record(q.dbNanos() / 1_000);
+        r.connectMicros.record(q.connectNanos() / 1_000);
+        r.statements.record(q.statements());
+        r.rows.record(q.rows());
+        if (q.maxRepeat() >= N_PLUS_ONE_REPEAT) {
+            r.nPlusOne.increment();
+            r.nPlusOneRepeat = q.maxRepeat();
+            r.nPlusOneSql = truncate(q.maxRepeatSql());
+        }
+    }
+
+    /** N+1 の疑いとする同一SQLの実行回数 */
+    public static int nPlusOneRepeat() {
+        return N_PLUS_ONE_REPEAT;
+    }
+
+    /** 集計開始時刻（エポックミリ秒） */
+    public static long startedAt() {
+        return STARTED_AT;
+    }
+
+    /**
+     * 画面表示用の一覧を返します（合計処理時間の降順）。
+     * 時間はミリ秒、件数はリクエストあたりの値です。
+     *
+     * @return ルートごとの値（route, count, errors, wallP50/P95/P99/Mean, dbP95/Mean, dbRatio,
+     *         connectP95, statementsP95/Mean, rowsP95/Mean, nPlusOne, nPlusOneRepeat, nPlusOneSql）
+     */
+    public static List<Map<String, Object>> snapshot() {
+        List<Map.Entry<String, Route>> list = new ArrayList<>(routes.entrySet());
+        list.sort(Comparator.comparingLong((Map.Entry<String, Route> e) -> e.getValue().wallMicros.sum()).reversed());
+
+        List<Map<String, Object>> out = new ArrayList<>();
+        for (Map.Entry<String, Route> e : list) {
+            Route r = e.getValue();
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("route", e.getKey());
+            m.put("count", r.wallMicros.count());
+            m.put("errors", r.errors.sum());
+            m.put("wallP50", millis(r.wallMicros.quantile(0.50)));
+            m.put("wallP95", millis(r.wallMicros.quantile(0.95)));
+            m.put("wallP99", millis(r.wallMicros.quantile(0.99)));
+            m.put("wallMean", millis(r.wallMicros.mean()));
+            m.put("dbP95", millis(r.dbMicros.quantile(0.95)));
+            m.put("dbMean", millis(r.dbMicros.mean()));
+            m.put("dbRatio", r.wallMicros.sum() == 0 ? 0 : 100.0 * r.dbMicros.sum() / r.wallMicros.sum());
+            m.put("connectP95", millis(r.connectMicros.quantile(0.95)));
+            m.put("statementsP95", r.statements.quantile(0.95));
+            m.put("statementsMean", r.statements.mean());
+            m.put("rowsP95", r.rows.quantile(0.95));
+            m.put("rowsMean", r.rows.mean());
+            m.put("nPlusOne", r.nPlusOne.sum());
+            m.put("nPlusOneRepeat", r.nPlusOneRepeat);
+            m.put("nPlusOneSql", r.nPlusOneSql);
+            out.add(m);
+        }
+        return out;
+    }
+
+    /**
+     * Prometheus のテキスト形式（version 0.0.4）で出力します。
+     *
+     * @param w 出力先
+     */
+    public static void writePrometheus(PrintWriter w) {
+        Map<String, Route> snap = new LinkedHashMap<>(routes);
+
+        writeHistograms(w, snap, "hidariude_http_request_duration_seconds", "リクエスト処理時間",
+                r -> r.wallMicros, 1e-6);
+        writeHistograms(w, snap, "hidariude_db_time_seconds", "リクエストあたりのDB時間",
+                r -> r.dbMicros, 1e-6);
+        writeHistograms(w, snap, "hidariude_db_connect_seconds", "リクエストあたりの接続確立時間",
+                r -> r.connectMicros, 1e-6);
+        writeHistograms(w, snap, "hidariude_db_statements_per_request", "リクエストあたりの実行SQL数",
+                r -> r.statements, 1);
+        writeHistograms(w, snap, "hidariude_db_rows_per_request", "リクエストあたりの取得行数",
+                r -> r.rows, 1);
+
+        w.println("# HELP hidariude_http_errors_total 5xx を返したリクエスト数");
+        w.println("# TYPE hidariude_http_errors_total counter");
+        snap.forEach((route, r) -> w.println("hidariude_http_errors_total{route=" + label(route) + "} " + r.errors.sum()));
+
+        w.println("# HELP hidariude_n_plus_one_requests_total N+1 の疑いがあるリクエスト数");
+        w.println("# TYPE hidariude_n_plus_one_requests_total counter");
+        snap.forEach((route, r) -> w.println("hidariude_n_plus_one_requests_total{route=" + label(route) + "} " + r.nPlusOne.sum()));
+    }
+
+    private static void writeHistograms(PrintWriter w, Map<String, Route> snap, String name, String help,
+            Function<Route, Histogram> pick, double scale) {
+        w.println("# HELP " + name + " " + help);
+        w.println("# TYPE " + name + " histogram");
+        snap.forEach((route, r) -> {
+            Histogram h = pick.apply(r);
+            String lbl = "route=" + label(route);
+            long[] bounds = h.bounds();
+            long[] counts = h.bucketCounts();
+            long acc = 0;
+            for (int i = 0; i < bounds.length; i++) {
+                acc += counts[i];
+                w.println(name + "_bucket{" + lbl + ",le=\"" + number(bounds[i] * scale) + "\"} " + acc);
+            }
+            acc += counts[bounds.length];
+            w.println(name + "_bucket{" + lbl + ",le=\"+Inf\"} " + acc);
+            w.println(name + "_sum{" + lbl + "} " + number(h.sum() * scale));
+            w.println(name + "_count{" + lbl + "} " + acc);
+        });
+    }
+
+    private static String number(double v) {
+        return (v == Math.rint(v)) ? Long.toString((long) v) : Double.toString(v);
+    }
+
+    private static String label(String v) {
+        return "\"" + v.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+    }
+
+    private static double millis(double micros) {
+        return micros / 1_000.0;
+    }
+
+    private static String truncate(String sql) {
+        if (sql == null || sql.length() <= MAX_SQL_LENGTH) return sql;
+        return sql.substring(0, MAX_SQL_LENGTH) + "…";
+    }
+}
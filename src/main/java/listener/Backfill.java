@@ -0,0 +1,164 @@
+package listener;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 大量行を一定件数ずつ更新するバックフィル用のヘルパー（非トランザクションのマイグレーション専用）
+ *
+ * 実行内容:
+ *   - 主キー id（UUID）の昇順に batchSize 件ずつ UPDATE し、1 バッチごとにコミットする
+ *   - バッチと同じトランザクションで schema_migration_checkpoints に進捗（最後に更新した id・件数）を記録する
+ *   - 途中で失敗・停止した場合、次回は記録済みの id の続きから再開する（更新済みの行を二重に更新しない）
+ *
+ * 補足:
+ *   - 1 トランザクションで保持する行ロックは batchSize 件分だけになり、
+ *     その間もタスク登録など他の更新は待たされない（ロックが競合するのは同じ行を更新する場合のみ）
+ *   - 進捗はバッチと同時にコミットされるため、掛け算のように再実行で結果が変わる更新でも安全に再開できる
+ *   - 対象テーブルは UUID の主キー id を持つこと
+ *
+ * 使用例（Migration の isTransactional() が false の場合の up 内）:
+ *   Backfill.run(conn, this, "task_rank", "base_pay_secretary = ROUND(base_pay_secretary * 1.1, 2)", "deleted_at IS NULL", 1000);
+ */
+final class Backfill {
+
+    /** 進捗テーブル（初回使用時に作成） */
+    private static final String SQL_CREATE_CHECKPOINTS =
+        "CREATE TABLE IF NOT EXISTS schema_migration_checkpoints (" +
+        "    migration_name VARCHAR(255) NOT NULL," +
+        "    step VARCHAR(255) NOT NULL," +
+        "    last_key UUID," +
+        "    rows_done BIGINT NOT NULL DEFAULT 0," +
+        "    completed_at TIMESTAMP," +
+        "    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP," +
+        "    PRIMARY KEY (migration_name, step)" +
+        ")";
+
+    private static final String SQL_SELECT_CHECKPOINT =
+        "SELECT last_key::text, rows_done, completed_at IS NOT NULL " +
+        "FROM schema_migration_checkpoints WHERE migration_name = ? AND step = ?";
+
+    private static final String SQL_UPSERT_CHECKPOINT =
+        "INSERT INTO schema_migration_checkpoints (migration_name, step, last_key, rows_done, completed_at, updated_at) " +
+        "VALUES (?, ?, CAST(? AS uuid), ?, CASE WHEN ? THEN CURRENT_TIMESTAMP END, CURRENT_TIMESTAMP) " +
+        "ON CONFLICT (migration_name, step) DO UPDATE SET " +
+        "    last_key = EXCLUDED.last_key, rows_done = EXCLUDED.rows_done, " +
+        "    completed_at = EXCLUDED.completed_at, updated_at = EXCLUDED.updated_at";
+
+    /**
+     * 1 バッチ分の更新（%1$s: テーブル, %2$s: SET 句, %3$s: 対象条件）。
+     * 更新した件数と、バッチの最後の id（uuid の順序で最大のもの）を返す。
+     * id::text の MAX は照合順序によって uuid の順序とずれ、次のバッチで同じ行を二重に更新しうるため使わない
+     */
+    private static final String SQL_UPDATE_BATCH =
+        "WITH batch AS MATERIALIZED (" +
+        "    SELECT id FROM %1$s " +
+        "    WHERE (%3$s) AND (CAST(? AS uuid) IS NULL OR id > CAST(? AS uuid)) " +
+        "    ORDER BY id LIMIT ?" +
+        "), updated AS (" +
+        "    UPDATE %1$s t SET %2$s FROM batch WHERE t.id = batch.id RETURNING t.id" +
+        ") " +
+        "SELECT (SELECT COUNT(*) FROM updated), (SELECT id::text FROM batch ORDER BY id DESC LIMIT 1)";
+
+    /** 進捗ログの出力間隔 */
+    private static final long LOG_INTERVAL_NANOS = 5_000_000_000L;
+
+    private Backfill() {
+    }
+
+    /**
+     * 対象行を batchSize 件ずつ更新します。
+     * 進捗は（マイグレーション名, テーブル名）単位で記録するため、同じマイグレーション内で同じテーブルを 2 回対象にしないこと。
+     *
+     * @param conn 自動コミットの接続（非トランザクションのマイグレーションに渡されるもの）
+     * @param migration 実行中のマイグレーション（進捗の記録キー）
+     * @param table 対象テーブル
+     * @param setClause SET 句（"SET" は含めない）。列は別名なしで参照できる
+     * @param whereClause 対象行の条件（全行の場合は "TRUE"）
+     * @param batchSize 1 トランザクションで更新する件数
+     * @return 更新した件数（前回までの分を含む）
+     * @throws SQLException SQL実行エラー（それまでのバッチは確定済み）
+     */
+    static long run(Connection conn, Migration migration, String table, String setClause,
+                    String whereClause, int batchSize) throws SQLException {
+        if (!conn.getAutoCommit()) {
+            throw new IllegalStateException("Backfill は非トランザクションのマイグレーション（isTransactional() = false）からのみ使用できます");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+
+        String name = migration.getName();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(SQL_CREATE_CHECKPOINTS);
+        }
+
+        String lastKey = null;
+        long rowsDone = 0;
+        try (PreparedStatement ps = conn.prepareStatement(SQL_SELECT_CHECKPOINT)) {
+            ps.setString(1, name);
+            ps.setString(2, table);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    lastKey = rs.getString(1);
+                    rowsDone = rs.getLong(2);
+                    if (rs.getBoolean(3)) {
+                        System.out.println("    - " + table + ": 完了済み（" + rowsDone + " 件）");
+                        return rowsDone;
+                    }
+                    System.out.println("    - " + table + ": 前回の続きから再開（" + rowsDone + " 件更新済み）");
+                }
+            }
+        }
+
+        String updateSql = String.format(SQL_UPDATE_BATCH, table, setClause, whereClause);
+        long startedAt = System.nanoTime();
+        long loggedAt = startedAt;
+        conn.setAutoCommit(false);
+        try (PreparedStatement update = conn.prepareStatement(updateSql);
+             PreparedStatement checkpoint = conn.prepareStatement(SQL_UPSERT_CHECKPOINT)) {
+            boolean done = false;
+            while (!done) {
+                update.setString(1, lastKey);
+                update.setString(2, lastKey);
+                update.setInt(3, batchSize);
+                long count;
+                String maxKey;
+                try (ResultSet rs = update.executeQuery()) {
+                    rs.next();
+                    count = rs.getLong(1);
+                    maxKey = rs.getString(2);
+                }
+                if (maxKey != null) {
+                    lastKey = maxKey;
+                }
+                rowsDone += count;
+                done = count < batchSize;
+
+                checkpoint.setString(1, name);
+                checkpoint.setString(2, table);
+                checkpoint.setString(3, lastKey);
+                checkpoint.setLong(4, rowsDone);
+                checkpoint.setBoolean(5, done);
+                checkpoint.executeUpdate();
+                conn.commit();
+
+                long now = System.nanoTime();
+                if (done || now - loggedAt >= LOG_INTERVAL_NANOS) {
+                    System.out.println("    - " + table + ": " + rowsDone + " 件更新"
+                        + (done ? "（完了）" : "") + " " + (now - startedAt) / 1_000_000 + " ms");
+                    loggedAt = now;
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+        return rowsDone;
+    }
+}
@@ -6,12 +6,18 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.StringJoiner;
 
 import jakarta.servlet.ServletContextEvent;
 import jakarta.servlet.ServletContextListener;
 import jakarta.servlet.annotation.WebListener;
+import dao.CacheInvalidation;
+import dao.DbNotifications;
+import dao.TaskPartitions;
 import util.PasswordUtil;
 
 /**
@@ -29,33 +35,48 @@ public class DatabaseInitListener implements ServletContextListener {
     @Override
     public void contextInitialized(ServletContextEvent sce) {
         System.out.println("=== Database Initialization Start ===");
+        StartupPhases phases = new StartupPhases();
         
         try {
             Class.forName(DRIVER_NAME);
             
             try (Connection conn = DriverManager.getConnection(DB_URL + SCHEMA, DB_USER, DB_PASSWORD)) {
                 conn.setAutoCommit(false);
+                phases.end("connect");
                 
-                /** テーブルが存在するかチェック */
-                if (!tableExists(conn, "system_admins")) {
-                    System.out.println("Tables not found. Creating database schema and initial data...");
-                    
-                    /** DDL実行 */
-                    executeDDL(conn);
+                /** スキーマ作成・マイグレーションはアドバイザリロックで他ノードと直列化する */
+                MigrationRunner runner = new MigrationRunner(conn);
+                boolean waited = runner.lock();
+                phases.end(waited ? "lock (waited)" : "lock");
+                try {
+                    MigrationRunner.State state = runner.loadState();
+                    phases.end("load state");
                     
-                    /** 初期データ投入 */
-                    insertInitialData(conn);
+                    /** テーブルが存在しなければ作成 */
+                    if (!state.schemaExists()) {
+                        System.out.println("Tables not found. Creating database schema and initial data...");
+                        
+                        /** DDL実行 */
+                        executeDDL(conn);
+                        
+                        /** 初期データ投入 */
+                        insertInitialData(conn);
+                        
+                        conn.commit();
+                        System.out.println("Database initialization completed successfully.");
+                        phases.end("create schema");
+                    }
                     
-                    conn.commit();
-                    System.out.println("Database initialization completed successfully.");
-                } else {
-                    System.out.println("Tables already exist. Skipping initialization.");
-                    /** 既存の制約を修正（口座情報の空欄を許可） */
-                    updateBankTypeConstraint(conn);
+                    /** マイグレーション実行 */
+                    runner.applyPending(state.applied());
+                    phases.end("migrations");
+                } finally {
+                    runner.unlock();
                 }
-                
-                /** マイグレーション実行 */
-                runMigrations(conn);
+
+                /** tasks の当月・翌月パーティションを作成 */
+                ensureTaskPartitions(conn);
+                phases.end("task partitions");
                 
             }
             
@@ -63,163 +84,58 @@ public class DatabaseInitListener implements ServletContextListener {
             System.err.println("Error during database initialization: " + e.getMessage());
             e.printStackTrace();
         }
+
+        /** ノード間のイベント配信（LISTEN/NOTIFY）を開始（キャッシュ無効化の購読を先に登録） */
+        CacheInvalidation.start();
+        DbNotifications.start();
+        phases.end("notifications");
         
+        System.out.println("Startup phases: " + phases);
         System.out.println("=== Database Initialization End ===");
     }
 
     @Override
     public void contextDestroyed(ServletContextEvent sce) {
         /** クリーンアップ処理が必要な場合はここに記述 */
+        DbNotifications.stop();
     }
 
     /**
-     * マイグレーション管理テーブルが存在するかチェック
+     * 起動処理の段階ごとの所要時間を記録する
      */
-    private boolean migrationTableExists(Connection conn) throws SQLException {
-        return tableExists(conn, "schema_migrations");
-    }
+    private static final class StartupPhases {
+        private final long startedAt = System.nanoTime();
+        private final StringJoiner summary = new StringJoiner(", ");
+        private long last = startedAt;
 
-    /**
-     * マイグレーションが実行済みかチェック
-     */
-    private boolean isMigrationApplied(Connection conn, String migrationName) throws SQLException {
-        String sql = "SELECT COUNT(*) FROM schema_migrations WHERE migration_name = ?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, migrationName);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1) > 0;
-                }
-            }
+        /** 直前の段階の終了から現在までを、指定した段階の所要時間として記録 */
+        void end(String phase) {
+            long now = System.nanoTime();
+            summary.add(phase + "=" + (now - last) / 1_000_000 + "ms");
+            last = now;
         }
-        return false;
-    }
 
-    /**
-     * マイグレーション実行記録を保存
-     */
-    private void recordMigration(Connection conn, String migrationName) throws SQLException {
-        String sql = "INSERT INTO schema_migrations (migration_name) VALUES (?)";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, migrationName);
-            ps.executeUpdate();
+        @Override
+        public String toString() {
+            return summary + " (total " + (last - startedAt) / 1_000_000 + "ms)";
         }
     }
 
     /**
-     * すべてのマイグレーションを実行
-     * 
-     * マイグレーション実行の判断基準:
-     *   ・listener パッケージ内の Migration インターフェースを実装したクラスを手動登録
-     *   ・クラス名の日付順（Migration_YYYYMMDD_*）にソートして実行
-     *   ・schema_migrations テーブルに記録がない場合のみ実行
-     *   ・実行成功後、schema_migrations テーブルにマイグレーション名と実行日時を記録
-     *   ・実行失敗時はロールバックされ、記録は残らない（次回起動時に再実行される）
+     * tasks の当月・翌月パーティションを作成する（存在すれば何もしない）
+     * 月をまたいで稼働し続けた場合の翌々月以降は、書き込み時に dao.TaskPartitions が作成する
      */
-    private void runMigrations(Connection conn) throws SQLException {
-        System.out.println("Checking for pending migrations...");
-        
-        /** Step 1: schema_migrations テーブルが存在しない場合は、最初に作成マイグレーションを実行 */
-        if (!migrationTableExists(conn)) {
-            System.out.println("Migration table not found. Creating...");
-            Migration initMigration = new Migration_20251029_CreateSchemaMigrations();
-            System.out.println("Applying migration: " + initMigration.getName());
-            System.out.println("  Description: " + initMigration.getDescription());
-            
+    private void ensureTaskPartitions(Connection conn) {
+        try {
+            TaskPartitions.ensureAhead(conn, LocalDate.now(ZoneId.of("Asia/Tokyo")));
+            conn.commit();
+        } catch (RuntimeException | SQLException e) {
             try {
-                initMigration.up(conn);
-                recordMigration(conn, initMigration.getName());
-                conn.commit();
-                System.out.println("Migration applied successfully: " + initMigration.getName());
-            } catch (SQLException e) {
                 conn.rollback();
-                System.err.println("Migration failed: " + initMigration.getName());
-                throw e;
-            }
-        }
-        
-        /** Step 2: 通常のマイグレーション一覧を定義（手動で追加）
-         * 新しいマイグレーションを追加する場合は、この配列に追加してください */
-        List<Migration> migrations = new ArrayList<>();
-        migrations.add(new Migration_20251029_CreateSchemaMigrations()); /** 初回以降はスキップされる */
-        migrations.add(new Migration_20251029_UpdateSecretaryPayWithTax());
-        migrations.add(new Migration_20251030_CreatePasswordResetTokens());
-        migrations.add(new Migration_20251030_RevertSecretaryPayWithTax());
-        migrations.add(new Migration_20251106_UpdateUniqueConstraintsForSoftDelete());
-        
-        /** 今後のマイグレーションをここに追加
-         * migrations.add(new Migration_YYYYMMDD_YourMigrationName()); */
-        
-        /** マイグレーション名順にソート（クラス名の日付部分でソート） */
-        migrations.sort((m1, m2) -> m1.getClass().getSimpleName().compareTo(m2.getClass().getSimpleName()));
-        
-        int appliedCount = 0;
-        int skippedCount = 0;
-        
-        for (Migration migration : migrations) {
-            String migrationName = migration.getName();
-            
-            if (!isMigrationApplied(conn, migrationName)) {
-                System.out.println("Applying migration: " + migrationName);
-                System.out.println("  Description: " + migration.getDescription());
-                
-                try {
-                    migration.up(conn);
-                    recordMigration(conn, migrationName);
-                    conn.commit();
-                    System.out.println("Migration applied successfully: " + migrationName);
-                    appliedCount++;
-                } catch (SQLException e) {
-                    conn.rollback();
-                    System.err.println("Migration failed: " + migrationName);
-                    throw e;
-                }
-            } else {
-                System.out.println("Migration already applied (skipped): " + migrationName);
-                skippedCount++;
-            }
-        }
-        
-        System.out.println("Migration check completed: " + appliedCount + " applied, " + skippedCount + " skipped.");
-    }
-
-    /**
-     * 既存のbank_type制約を更新して、空欄を許可する
-     */
-    private void updateBankTypeConstraint(Connection conn) {
-        try (Statement stmt = conn.createStatement()) {
-            /** 既存の制約を削除 */
-            stmt.execute("ALTER TABLE secretaries DROP CONSTRAINT IF EXISTS chk_secretaries_bank_type");
-            /** 新しい制約を追加（空欄を許可） */
-            stmt.execute("ALTER TABLE secretaries ADD CONSTRAINT chk_secretaries_bank_type " +
-                        "CHECK (bank_type IS NULL OR bank_type = '' OR bank_type IN ('普通', '当座'))");
-            conn.commit();
-            System.out.println("Updated bank_type constraint to allow empty values.");
-        } catch (SQLException e) {
-            System.err.println("Warning: Could not update bank_type constraint: " + e.getMessage());
-            /** エラーが発生してもアプリケーションの起動は継続 */
-        }
-    }
-
-    /**
-     * 指定されたテーブルが存在するかチェック
-     */
-    private boolean tableExists(Connection conn, String tableName) throws SQLException {
-        String sql = "SELECT EXISTS (" +
-                     "  SELECT FROM information_schema.tables " +
-                     "  WHERE table_schema = 'public' " +
-                     "  AND table_name = ?" +
-                     ")";
-        
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, tableName);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getBoolean(1);
-                }
+            } catch (SQLException ignore) {
             }
+            System.err.println("tasks パーティションの作成に失敗しました: " + e.getMessage());
         }
-        return false;
     }
 
     /**
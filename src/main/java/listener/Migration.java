@@ -17,6 +17,12 @@ import java.sql.SQLException;
  *   - schema_migrationsテーブルにマイグレーション名が存在しない場合のみ実行
  *   - 実行成功後、schema_migrationsテーブルにマイグレーション名と実行日時を記録
  *   - 実行失敗時はロールバックされ、記録は残らない
+ * 
+ * 非トランザクションモード（{@link #isTransactional()} が false）:
+ *   - up() は自動コミットの接続で呼ばれ、文ごとに確定する（CREATE INDEX CONCURRENTLY や分割バックフィル用）
+ *   - 失敗時に途中までの変更は残るため、up() は再実行しても結果が変わらないように実装すること
+ *   - 大量行の更新は {@link Backfill} で一定件数ずつ更新・コミットし、進捗を記録して再開できるようにする
+ *   - schema_migrations への記録は up() の完了後に別トランザクションで行う
  */
 public interface Migration {
     
@@ -57,6 +63,15 @@ public interface Migration {
         return result.toString();
     }
     
+    /**
+     * 1 つのトランザクション内で実行するかどうかを取得（デフォルトは true）
+     * 
+     * @return false の場合は自動コミットの接続で up() を呼ぶ
+     */
+    default boolean isTransactional() {
+        return true;
+    }
+    
     /**
      * マイグレーションの説明を取得
      * 
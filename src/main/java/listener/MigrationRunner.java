@@ -0,0 +1,258 @@
+package listener;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 起動時のスキーマ初期化・マイグレーションを複数ノード間で直列化して実行するランナー
+ *
+ * 実行の流れ:
+ *   1. セッション単位のアドバイザリロックを取得する。
+ *      他ノードが保持している場合はロックの解放だけを待つ（その間、テーブル確認などの問い合わせは行わない）
+ *   2. ロック取得後にスキーマの状態（system_admins / schema_migrations の有無）と
+ *      適用済みマイグレーション名を 1 回ずつの問い合わせで読み込む
+ *   3. 未適用のマイグレーションだけをクラス名順に 1 件ずつ適用し、schema_migrations に記録してコミットする
+ *   4. ロックを解放する（接続が切れた場合も PostgreSQL 側で自動的に解放される）
+ *
+ * 先に起動したノードがすべて適用し終えてから後続ノードがロックを得るため、
+ * 後続ノードは状態を読み込むだけで終わり、同じ DDL を同時に流すことはない。
+ */
+final class MigrationRunner {
+
+    /** アドバイザリロックのキー（ensure_tasks_partition と同じく hashtext で名前から求める） */
+    private static final String LOCK_KEY = "hashtext('schema_migrations')";
+
+    private static final String SQL_TRY_LOCK = "SELECT pg_try_advisory_lock(" + LOCK_KEY + ")";
+    private static final String SQL_UNLOCK = "SELECT pg_advisory_unlock(" + LOCK_KEY + ")";
+
+    /** ロック待ちの再試行間隔 */
+    private static final long LOCK_RETRY_MILLIS = 500;
+
+    /** スキーマの状態（テーブルの有無を 1 回で取得） */
+    private static final String SQL_SELECT_STATE =
+        "SELECT to_regclass('public.system_admins') IS NOT NULL, " +
+        "       to_regclass('public.schema_migrations') IS NOT NULL";
+
+    /** 適用済みマイグレーション名（全件を 1 回で取得） */
+    private static final String SQL_SELECT_APPLIED = "SELECT migration_name FROM schema_migrations";
+
+    private static final String SQL_INSERT_APPLIED = "INSERT INTO schema_migrations (migration_name) VALUES (?)";
+
+    /**
+     * スキーマの状態
+     *
+     * @param schemaExists 業務テーブル（system_admins）が存在するか
+     * @param applied 適用済みマイグレーション名（schema_migrations が無い場合は空）
+     */
+    record State(boolean schemaExists, Set<String> applied) {
+    }
+
+    private final Connection conn;
+
+    /**
+     * @param conn 自動コミットを無効にした専用接続
+     */
+    MigrationRunner(Connection conn) {
+        this.conn = conn;
+    }
+
+    /**
+     * 適用対象のマイグレーション一覧（クラス名＝日付順）
+     * 新しいマイグレーションを追加する場合は、この一覧に追加してください
+     *
+     * @return マイグレーション一覧
+     */
+    static List<Migration> migrations() {
+        List<Migration> migrations = new ArrayList<>();
+        migrations.add(new Migration_20251029_CreateSchemaMigrations());
+        migrations.add(new Migration_20251029_UpdateSecretaryPayWithTax());
+        migrations.add(new Migration_20251030_CreatePasswordResetTokens());
+        migrations.add(new Migration_20251030_RevertSecretaryPayWithTax());
+        migrations.add(new Migration_20251106_UpdateUniqueConstraintsForSoftDelete());
+        migrations.add(new Migration_20261019_AddTrigramIndexesForNameSearch());
+        migrations.add(new Migration_20261020_AddHotPathIndexes());
+        migrations.add(new Migration_20261021_AddYearMonthIndexColumns());
+        migrations.add(new Migration_20261022_AddSecretaryBankCodes());
+        migrations.add(new Migration_20261023_AddMonthClosings());
+        migrations.add(new Migration_20261024_PartitionTasksByWorkDate());
+        migrations.add(new Migration_20261025_CreateArchiveTables());
+        migrations.add(new Migration_20261026_RelaxSecretaryBankTypeCheck());
+        migrations.add(new Migration_20261027_UseUuidV7Defaults());
+        migrations.add(new Migration_20261028_AddTasksAllView());
+
+        /** 今後のマイグレーションをここに追加
+         * migrations.add(new Migration_YYYYMMDD_YourMigrationName()); */
+
+        /** クラス名の日付部分でソート（CreateSchemaMigrations が必ず先頭になる） */
+        migrations.sort(Comparator.comparing(m -> m.getClass().getSimpleName()));
+        return migrations;
+    }
+
+    /**
+     * マイグレーション用のアドバイザリロックを取得します（取得できるまで待機）。
+     * <p>
+     * 待機は pg_advisory_lock で待ち続けるのではなく、pg_try_advisory_lock を一定間隔で再試行して行う。
+     * 待機中の文が古いスナップショットを持ち続けると、ロック保持側の CREATE INDEX CONCURRENTLY が
+     * そのトランザクションの終了を待ってしまい、互いに待ち合う状態になるため。
+     * </p>
+     *
+     * @return 他ノードの処理完了を待った場合 true
+     * @throws SQLException SQL実行エラー
+     */
+    boolean lock() throws SQLException {
+        boolean waited = false;
+        try (Statement stmt = conn.createStatement()) {
+            while (true) {
+                boolean acquired;
+                try (ResultSet rs = stmt.executeQuery(SQL_TRY_LOCK)) {
+                    rs.next();
+                    acquired = rs.getBoolean(1);
+                }
+                /** 問い合わせで始まったトランザクションを閉じる（セッションロックは保持される） */
+                conn.commit();
+                if (acquired) {
+                    return waited;
+                }
+                if (!waited) {
+                    System.out.println("Another node is running migrations. Waiting for the lock...");
+                    waited = true;
+                }
+                try {
+                    Thread.sleep(LOCK_RETRY_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while waiting for the migration lock", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * アドバイザリロックを解放します。失敗しても接続のクローズで解放されるため、警告のみ出力します。
+     */
+    void unlock() {
+        try {
+            conn.rollback();
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeQuery(SQL_UNLOCK).close();
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            System.err.println("Warning: Could not release migration lock: " + e.getMessage());
+        }
+    }
+
+    /**
+     * スキーマの状態と適用済みマイグレーション名を読み込みます。
+     *
+     * @return スキーマの状態
+     * @throws SQLException SQL実行エラー
+     */
+    State loadState() throws SQLException {
+        boolean schemaExists;
+        boolean migrationTableExists;
+        Set<String> applied = new HashSet<>();
+        try (Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery(SQL_SELECT_STATE)) {
+                rs.next();
+                schemaExists = rs.getBoolean(1);
+                migrationTableExists = rs.getBoolean(2);
+            }
+            if (migrationTableExists) {
+                try (ResultSet rs = stmt.executeQuery(SQL_SELECT_APPLIED)) {
+                    while (rs.next()) {
+                        applied.add(rs.getString(1));
+                    }
+                }
+            }
+        }
+        conn.commit();
+        return new State(schemaExists, applied);
+    }
+
+    /**
+     * 未適用のマイグレーションを順に適用します。
+     *
+     * マイグレーション実行の判断基準:
+     *   ・{@link #migrations()} の順（クラス名の日付順）に実行
+     *   ・loadState で読み込んだ適用済み名に含まれない場合のみ実行
+     *   ・実行成功後、schema_migrations テーブルにマイグレーション名と実行日時を記録してコミット
+     *   ・実行失敗時はロールバックされ、記録は残らない（次回起動時に再実行される）
+     *   ・非トランザクションのマイグレーションは自動コミットで実行し、完了後に記録だけをコミットする
+     *
+     * @param applied 適用済みマイグレーション名
+     * @return 適用した件数
+     * @throws SQLException マイグレーション失敗（以降のマイグレーションは実行しない）
+     */
+    int applyPending(Set<String> applied) throws SQLException {
+        int appliedCount = 0;
+        int skippedCount = 0;
+        for (Migration migration : migrations()) {
+            String migrationName = migration.getName();
+            if (applied.contains(migrationName)) {
+                skippedCount++;
+                continue;
+            }
+
+            System.out.println("Applying migration: " + migrationName);
+            System.out.println("  Description: " + migration.getDescription());
+            long t0 = System.nanoTime();
+            if (migration.isTransactional()) {
+                try {
+                    migration.up(conn);
+                    recordMigration(migrationName);
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    System.err.println("Migration failed: " + migrationName);
+                    throw e;
+                }
+            } else {
+                upWithoutTransaction(migration);
+                recordMigration(migrationName);
+                conn.commit();
+            }
+            System.out.println("Migration applied successfully: " + migrationName
+                + " (" + (System.nanoTime() - t0) / 1_000_000 + " ms)");
+            appliedCount++;
+        }
+        System.out.println("Migration check completed: " + appliedCount + " applied, " + skippedCount + " skipped.");
+        return appliedCount;
+    }
+
+    /**
+     * 非トランザクションのマイグレーションを自動コミットの接続で実行し、終了後に手動コミットへ戻します。
+     * 失敗しても確定済みの変更は残るため、その旨を出力して例外をそのまま投げます。
+     */
+    private void upWithoutTransaction(Migration migration) throws SQLException {
+        /** setAutoCommit(true) は開いているトランザクションを確定させる */
+        conn.setAutoCommit(true);
+        try {
+            migration.up(conn);
+        } catch (SQLException e) {
+            System.err.println("Migration failed: " + migration.getName()
+                + " (non-transactional; completed steps are kept and will be resumed on next startup)");
+            throw e;
+        } finally {
+            conn.setAutoCommit(false);
+        }
+    }
+
+    /**
+     * マイグレーション実行記録を保存
+     */
+    private void recordMigration(String migrationName) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_INSERT_APPLIED)) {
+            ps.setString(1, migrationName);
+            ps.executeUpdate();
+        }
+    }
+}
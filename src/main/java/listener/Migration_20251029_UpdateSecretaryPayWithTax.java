@@ -2,7 +2,6 @@ package listener;
 
 import java.sql.Connection;
 import java.sql.SQLException;
-import java.sql.Statement;
 
 /**
  * 秘書向け金額を税込み（+10%）に更新するマイグレーション
@@ -15,31 +14,30 @@ import java.sql.Statement;
  */
 public class Migration_20251029_UpdateSecretaryPayWithTax implements Migration {
     
+    /** 1 トランザクションで更新する件数 */
+    private static final int BATCH_SIZE = 1000;
+    
+    @Override
+    public boolean isTransactional() {
+        /** Backfill で一定件数ずつコミットする */
+        return false;
+    }
+    
     @Override
     public void up(Connection conn) throws SQLException {
         System.out.println("  [Migration] Updating secretary pay amounts to include 10% tax...");
         
         /** 1. 秘書ランクマスタの increase_base_pay_secretary を1.1倍に更新 */
-        String sql1 = "UPDATE secretary_rank " +
-                      "SET increase_base_pay_secretary = ROUND(increase_base_pay_secretary * 1.1, 2), " +
-                      "    updated_at = CURRENT_TIMESTAMP " +
-                      "WHERE deleted_at IS NULL";
-        
-        try (Statement stmt = conn.createStatement()) {
-            int count1 = stmt.executeUpdate(sql1);
-            System.out.println("    - Updated " + count1 + " secretary rank records (increase_base_pay_secretary * 1.1)");
-        }
+        Backfill.run(conn, this, "secretary_rank",
+                     "increase_base_pay_secretary = ROUND(increase_base_pay_secretary * 1.1, 2), " +
+                     "updated_at = CURRENT_TIMESTAMP",
+                     "deleted_at IS NULL", BATCH_SIZE);
         
         /** 2. 業務ランクマスタの base_pay_secretary を1.1倍に更新 */
-        String sql2 = "UPDATE task_rank " +
-                      "SET base_pay_secretary = ROUND(base_pay_secretary * 1.1, 2), " +
-                      "    updated_at = CURRENT_TIMESTAMP " +
-                      "WHERE deleted_at IS NULL";
-        
-        try (Statement stmt = conn.createStatement()) {
-            int count2 = stmt.executeUpdate(sql2);
-            System.out.println("    - Updated " + count2 + " task rank records (base_pay_secretary * 1.1)");
-        }
+        Backfill.run(conn, this, "task_rank",
+                     "base_pay_secretary = ROUND(base_pay_secretary * 1.1, 2), " +
+                     "updated_at = CURRENT_TIMESTAMP",
+                     "deleted_at IS NULL", BATCH_SIZE);
         
         System.out.println("  [Migration] Secretary pay amounts updated successfully.");
     }
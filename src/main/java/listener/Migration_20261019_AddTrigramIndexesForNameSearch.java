@@ -0,0 +1,59 @@
+package listener;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 名前検索（部分一致・ILIKE）用のトライグラムインデックスを追加するマイグレーション
+ *
+ * 実行内容:
+ *   - pg_trgm 拡張を有効化
+ *   - secretaries.name に GIN(gin_trgm_ops) インデックスを作成
+ *   - customers.company_name に GIN(gin_trgm_ops) インデックスを作成
+ *
+ * 制約:
+ *   - pg_trgm は 3 文字単位のトライグラムで索引を引くため、2 文字以下のキーワード
+ *     （「佐藤」「田中」など 2 文字の姓だけの検索を含む）ではインデックスで絞り込めず、従来どおり全件を照合する
+ *     （秘書名のように「姓 名」の形式であれば、「佐藤 」と語末の空白まで含めると 2 文字の姓でも絞り込める）
+ *   - DB の LC_CTYPE が C の場合、日本語の文字は単語の構成文字とみなされずトライグラムが作られないため、
+ *     日本語のキーワードでは文字数にかかわらずインデックスが使われない（UTF-8 のロケールで作成した DB が前提）
+ *   - インデックスの有無による所要時間の比較は benchmarks の bench.NameFilterComparison で確認できる
+ *
+ * 実行日: 2026-10-19
+ */
+public class Migration_20261019_AddTrigramIndexesForNameSearch implements Migration {
+
+    @Override
+    public void up(Connection conn) throws SQLException {
+        System.out.println("  [Migration] トライグラムインデックスの作成開始...");
+
+        try (Statement stmt = conn.createStatement()) {
+            // 1. pg_trgm 拡張を有効化
+            System.out.println("    - pg_trgm 拡張を有効化中...");
+            stmt.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+
+            // 2. secretaries.name
+            System.out.println("    - secretaries.name のインデックスを作成中...");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_secretaries_name_trgm " +
+                "ON secretaries USING gin (name gin_trgm_ops)");
+            System.out.println("      idx_secretaries_name_trgm 作成完了");
+
+            // 3. customers.company_name
+            System.out.println("    - customers.company_name のインデックスを作成中...");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_customers_company_name_trgm " +
+                "ON customers USING gin (company_name gin_trgm_ops)");
+            System.out.println("      idx_customers_company_name_trgm 作成完了");
+
+            stmt.execute("ANALYZE secretaries");
+            stmt.execute("ANALYZE customers");
+        }
+
+        System.out.println("  [Migration] トライグラムインデックスの作成完了");
+    }
+
+    @Override
+    public String getDescription() {
+        return "秘書名・会社名の部分一致検索用トライグラム(GIN)インデックスを追加";
+    }
+}
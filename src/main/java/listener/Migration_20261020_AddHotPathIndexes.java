@@ -0,0 +1,97 @@
+package listener;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 頻出検索条件向けのセカンダリインデックスを追加するマイグレーション
+ *
+ * 実行内容:
+ *   - tasks(assignment_id, work_date) の部分インデックスを作成（未削除のみ）
+ *   - tasks(work_date) の部分インデックスを作成（未削除のみ）
+ *   - assignments(secretary_id, target_year_month) の部分インデックスを作成（未削除のみ）
+ *   - assignments(customer_id, target_year_month) の部分インデックスを作成（未削除のみ）
+ *
+ * 補足:
+ *   - 稼働中のテーブルをロックしないよう CREATE INDEX CONCURRENTLY で作成する。
+ *     CONCURRENTLY はトランザクション内で実行できないため、非トランザクションのマイグレーション
+ *     （isTransactional() = false）として自動コミットの接続で実行する。
+ *   - 途中で失敗した場合に残る INVALID なインデックスは、再実行時に削除してから作り直す。
+ *   - ログイン時の mail 検索は Migration_20251106 の部分一意インデックス
+ *     （uq_*_mail_active）で既にカバーされているため対象外。
+ *
+ * 実行日: 2026-10-20
+ */
+public class Migration_20261020_AddHotPathIndexes implements Migration {
+
+    /** INVALID 状態のインデックス検出 */
+    private static final String SQL_SELECT_INVALID_INDEX =
+        "SELECT 1 FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid " +
+        "WHERE c.relname = ? AND NOT i.indisvalid";
+
+    @Override
+    public boolean isTransactional() {
+        return false;
+    }
+
+    @Override
+    public void up(Connection conn) throws SQLException {
+        System.out.println("  [Migration] 頻出検索条件向けインデックスの作成開始...");
+
+        createIndexConcurrently(conn, "idx_tasks_assignment_work_date",
+            "ON tasks (assignment_id, work_date) WHERE deleted_at IS NULL");
+        createIndexConcurrently(conn, "idx_tasks_work_date",
+            "ON tasks (work_date) WHERE deleted_at IS NULL");
+        createIndexConcurrently(conn, "idx_assignments_secretary_ym",
+            "ON assignments (secretary_id, target_year_month) WHERE deleted_at IS NULL");
+        createIndexConcurrently(conn, "idx_assignments_customer_ym",
+            "ON assignments (customer_id, target_year_month) WHERE deleted_at IS NULL");
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ANALYZE tasks");
+            stmt.execute("ANALYZE assignments");
+        }
+
+        System.out.println("  [Migration] 頻出検索条件向けインデックスの作成完了");
+    }
+
+    /**
+     * インデックスを CONCURRENTLY で作成します（既に有効なものがあればスキップ）。
+     *
+     * @param conn 自動コミット状態の接続
+     * @param name インデックス名
+     * @param definition "ON ..." 以降の定義
+     * @throws SQLException SQL実行エラー
+     */
+    private void createIndexConcurrently(Connection conn, String name, String definition) throws SQLException {
+        System.out.println("    - " + name + " を作成中...");
+        try (Statement stmt = conn.createStatement()) {
+            if (isInvalidIndex(conn, name)) {
+                System.out.println("      INVALID な " + name + " を削除して再作成します");
+                stmt.execute("DROP INDEX CONCURRENTLY IF EXISTS " + name);
+            }
+            stmt.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + name + " " + definition);
+        }
+        System.out.println("      " + name + " 作成完了");
+    }
+
+    /**
+     * 指定名のインデックスが INVALID 状態で残っているか判定します。
+     */
+    private boolean isInvalidIndex(Connection conn, String name) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_SELECT_INVALID_INDEX)) {
+            ps.setString(1, name);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "tasks / assignments の頻出検索条件にインデックスを追加（CONCURRENTLY）";
+    }
+}
@@ -0,0 +1,63 @@
+package listener;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 年月の整数キー（ym_index = 年 * 12 + 月）を生成列として追加するマイグレーション
+ *
+ * 実行内容:
+ *   - assignments / customer_monthly_invoices / secretary_monthly_summaries に
+ *     target_year_month から算出する生成列 ym_index を追加
+ *   - 継続月数の算出・期間指定検索で利用するインデックスを作成
+ *
+ * 補足:
+ *   - 月の加減算・範囲比較を整数比較で行えるようにし、
+ *     to_date(... || '-01') / extract による行ごとの日付変換を不要にする。
+ *
+ * 実行日: 2026-10-21
+ */
+public class Migration_20261021_AddYearMonthIndexColumns implements Migration {
+
+    /** target_year_month（yyyy-MM）→ 年 * 12 + 月 */
+    private static final String YM_INDEX_EXPR =
+        "(substr(target_year_month, 1, 4)::int * 12 + substr(target_year_month, 6, 2)::int)";
+
+    @Override
+    public void up(Connection conn) throws SQLException {
+        System.out.println("  [Migration] 年月整数キー(ym_index)の追加開始...");
+
+        try (Statement stmt = conn.createStatement()) {
+            for (String table : new String[] { "assignments", "customer_monthly_invoices", "secretary_monthly_summaries" }) {
+                System.out.println("    - " + table + ".ym_index を追加中...");
+                stmt.execute("ALTER TABLE " + table + " ADD COLUMN IF NOT EXISTS ym_index INTEGER " +
+                    "GENERATED ALWAYS AS " + YM_INDEX_EXPR + " STORED");
+                System.out.println("      " + table + ".ym_index 追加完了");
+            }
+
+            System.out.println("    - インデックスを作成中...");
+            /** 継続月数（顧客×秘書×ランクの連続月）算出用 */
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_assignments_streak_ym_index " +
+                "ON assignments (customer_id, secretary_id, task_rank_id, ym_index) WHERE deleted_at IS NULL");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_assignments_ym_index " +
+                "ON assignments (ym_index) WHERE deleted_at IS NULL");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_cmi_customer_ym_index " +
+                "ON customer_monthly_invoices (customer_id, ym_index) WHERE deleted_at IS NULL");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_cmi_ym_index " +
+                "ON customer_monthly_invoices (ym_index) WHERE deleted_at IS NULL");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_sms_secretary_ym_index " +
+                "ON secretary_monthly_summaries (secretary_id, ym_index) WHERE deleted_at IS NULL");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_sms_ym_index " +
+                "ON secretary_monthly_summaries (ym_index) WHERE deleted_at IS NULL");
+            System.out.println("      インデックス作成完了");
+        }
+
+        System.out.println("  [Migration] 年月整数キー(ym_index)の追加完了");
+    }
+
+    @Override
+    public String getDescription() {
+        return "年月の整数キー ym_index（年*12+月）を生成列として追加し、インデックスを作成";
+    }
+}
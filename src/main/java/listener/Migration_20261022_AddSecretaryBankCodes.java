@@ -0,0 +1,44 @@
+package listener;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 秘書の振込口座に金融機関コード・支店コードを追加するマイグレーション
+ *
+ * 実行内容:
+ *   - secretaries に bank_code（4桁）/ bank_branch_code（3桁）列を追加（任意入力）
+ *
+ * 補足:
+ *   - 全銀フォーマットの総合振込データは銀行名・支店名ではなくコードで振込先を指定するため、
+ *     既存の bank_name / bank_branch（表示用の名称）とは別に保持する。
+ *
+ * 実行日: 2026-10-22
+ */
+public class Migration_20261022_AddSecretaryBankCodes implements Migration {
+
+    @Override
+    public void up(Connection conn) throws SQLException {
+        System.out.println("  [Migration] 秘書口座コード列の追加開始...");
+
+        try (Statement stmt = conn.createStatement()) {
+            System.out.println("    - secretaries.bank_code を追加中...");
+            stmt.execute("ALTER TABLE secretaries ADD COLUMN IF NOT EXISTS bank_code VARCHAR(4) " +
+                "CONSTRAINT chk_secretaries_bank_code CHECK (bank_code IS NULL OR bank_code ~ '^[0-9]{4}$')");
+            System.out.println("      secretaries.bank_code 追加完了");
+
+            System.out.println("    - secretaries.bank_branch_code を追加中...");
+            stmt.execute("ALTER TABLE secretaries ADD COLUMN IF NOT EXISTS bank_branch_code VARCHAR(3) " +
+                "CONSTRAINT chk_secretaries_bank_branch_code CHECK (bank_branch_code IS NULL OR bank_branch_code ~ '^[0-9]{3}$')");
+            System.out.println("      secretaries.bank_branch_code 追加完了");
+        }
+
+        System.out.println("  [Migration] 秘書口座コード列の追加完了");
+    }
+
+    @Override
+    public String getDescription() {
+        return "秘書の振込口座に金融機関コード・支店コードを追加";
+    }
+}
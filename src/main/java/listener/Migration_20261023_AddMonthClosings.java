@@ -0,0 +1,59 @@
+package listener;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 月次締め（確定）用のテーブル・列を追加するマイグレーション
+ *
+ * 実行内容:
+ *   - month_closings テーブルを作成（締め済み年月ごとに 1 行）
+ *   - customer_monthly_invoices に finalized_at 列を追加
+ *   - tasks の customer_monthly_invoice_id / secretary_monthly_summary_id に部分インデックスを作成
+ *
+ * 補足:
+ *   - 月次締めでは顧客別・秘書別の月次集計を確定し、対象月のタスクを各集計行に紐付ける。
+ *   - 締め済み月のタスクは更新・削除・承認操作の対象外となる（DAO 側で month_closings を参照）。
+ *
+ * 実行日: 2026-10-23
+ */
+public class Migration_20261023_AddMonthClosings implements Migration {
+
+    @Override
+    public void up(Connection conn) throws SQLException {
+        System.out.println("  [Migration] 月次締め用テーブル・列の追加開始...");
+
+        try (Statement stmt = conn.createStatement()) {
+            System.out.println("    - month_closings を作成中...");
+            stmt.execute(
+                "CREATE TABLE IF NOT EXISTS month_closings (" +
+                "    target_year_month VARCHAR(7) PRIMARY KEY," +
+                "    closed_by UUID REFERENCES system_admins(id) ON UPDATE CASCADE ON DELETE SET NULL," +
+                "    customer_count INTEGER NOT NULL DEFAULT 0," +
+                "    secretary_count INTEGER NOT NULL DEFAULT 0," +
+                "    task_count INTEGER NOT NULL DEFAULT 0," +
+                "    closed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP" +
+                ")");
+            System.out.println("      month_closings 作成完了");
+
+            System.out.println("    - customer_monthly_invoices.finalized_at を追加中...");
+            stmt.execute("ALTER TABLE customer_monthly_invoices ADD COLUMN IF NOT EXISTS finalized_at TIMESTAMP");
+            System.out.println("      customer_monthly_invoices.finalized_at 追加完了");
+
+            System.out.println("    - tasks の月次集計紐付け列にインデックスを作成中...");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_tasks_cmi_id ON tasks (customer_monthly_invoice_id) " +
+                "WHERE customer_monthly_invoice_id IS NOT NULL");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_tasks_sms_id ON tasks (secretary_monthly_summary_id) " +
+                "WHERE secretary_monthly_summary_id IS NOT NULL");
+            System.out.println("      インデックス作成完了");
+        }
+
+        System.out.println("  [Migration] 月次締め用テーブル・列の追加完了");
+    }
+
+    @Override
+    public String getDescription() {
+        return "月次締め（month_closings・customer_monthly_invoices.finalized_at）を追加";
+    }
+}
@@ -0,0 +1,227 @@
+package listener;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * tasks を work_date の月単位レンジパーティション表に変換するマイグレーション
+ *
+ * 実行内容:
+ *   - パーティション作成関数 ensure_tasks_partition(date) を作成
+ *     （指定日を含む月の tasks_pYYYYMM を作成。存在すれば何もしない。アドバイザリロックで直列化）
+ *   - 作業日がアサイン月と異なるタスクを、作業日の月の同じ顧客・秘書・ランクのアサインへ付け替え
+ *     （どちらの月も未締めの場合のみ。月次集計への紐付けは解除し、次の締めで紐付け直す）。
+ *     付け替えられない未削除のタスクが残る場合は、変換せずにマイグレーションを失敗させる
+ *   - 既存の tasks を tasks_unpartitioned に退避し、同じ列構成の
+ *     tasks（PARTITION BY RANGE (work_date)、主キーは (id, work_date)）を作成
+ *   - 外部キー（assignments / system_admins / customer_monthly_invoices / secretary_monthly_summaries）を再作成
+ *   - 既存データのある月と当月・翌月のパーティションを作成してデータを移し替え、退避テーブルを削除
+ *   - 既存のインデックス（alerted_at / assignment_id+work_date / work_date / 月次集計への紐付け）を親テーブルに作り直す
+ *   - 作業日がアサイン月の範囲内であることを INSERT / UPDATE 時に検査するトリガー（trg_tasks_work_month）を作成
+ *   - 1 か月分の検索でパーティションが刈り込まれることを EXPLAIN で確認してログに出力
+ *
+ * 補足:
+ *   - DEFAULT パーティションは作らない（後から月のパーティションを追加する際に DEFAULT 側の走査・移動が必要になるため）。
+ *     パーティションの無い月への書き込みは dao.TaskPartitions が書き込み直前に作成し、
+ *     当月・翌月分はアプリケーション起動時に作成する。
+ *   - 主キーにパーティションキーを含める必要があるため、id 単独の一意性は DB では保証しない
+ *     （id は UUIDv7 で、1 行ずつの INSERT はアプリ側の util.UuidV7、集合的な INSERT は DB 関数 uuid_v7() の既定値で採番される。
+ *     ミリ秒時刻に続く乱数部（util.UuidV7 は 62 ビット、uuid_v7() は 74 ビット）により衝突は実質的に起こらない。
+ *     Migration_20261027_UseUuidV7Defaults を参照）。
+ *     tasks を参照する外部キーは無い。
+ *   - 月単位の検索（一覧・請求・締め）は assignments の年月に加えて t.work_date の範囲条件を併記する
+ *     （dao.BaseDAO#AND_TASK_IN_MONTH）。作業日がアサイン月の範囲内であることを上記の付け替えとトリガーで保証するため、
+ *     どちらの条件でも同じタスクが対象になり、範囲条件でパーティションが刈り込まれる。
+ *   - 付け替えられない論理削除済みのタスクは件数を警告表示して残す（削除済みのため一覧・集計の対象外）。
+ *   - 変換はマイグレーションのトランザクション内で行うため、途中で失敗した場合は元の tasks に戻る。
+ *
+ * 実行日: 2026-10-24
+ */
+public class Migration_20261024_PartitionTasksByWorkDate implements Migration {
+
+    /** 変換済み判定 */
+    private static final String SQL_IS_PARTITIONED =
+        "SELECT 1 FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid " +
+        "WHERE c.relname = 'tasks' AND c.relnamespace = current_schema()::regnamespace";
+
+    /** パーティション作成関数 */
+    private static final String SQL_CREATE_ENSURE_FUNCTION =
+        "CREATE OR REPLACE FUNCTION ensure_tasks_partition(d date) RETURNS void LANGUAGE plpgsql AS $$ " +
+        "DECLARE " +
+        "  m    date := date_trunc('month', d)::date; " +
+        "  part text := 'tasks_p' || to_char(m, 'YYYYMM'); " +
+        "BEGIN " +
+        "  IF to_regclass(part) IS NULL THEN " +
+        "    PERFORM pg_advisory_xact_lock(hashtext('ensure_tasks_partition')); " +
+        "    IF to_regclass(part) IS NULL THEN " +
+        "      EXECUTE format('CREATE TABLE %I PARTITION OF tasks FOR VALUES FROM (%L) TO (%L)', " +
+        "                     part, m, (m + INTERVAL '1 month')::date); " +
+        "    END IF; " +
+        "  END IF; " +
+        "END $$";
+
+    /** 作業日がアサイン月と異なるタスク数（未削除・論理削除済み） */
+    private static final String SQL_COUNT_MONTH_MISMATCH =
+        "SELECT COUNT(*) FILTER (WHERE t.deleted_at IS NULL), COUNT(*) FILTER (WHERE t.deleted_at IS NOT NULL) " +
+        "FROM tasks t JOIN assignments a ON a.id = t.assignment_id " +
+        "WHERE to_char(t.work_date, 'YYYY-MM') <> a.target_year_month";
+
+    /** 作業日の月の同じ顧客・秘書・ランクのアサインへ付け替え（どちらの月も未締めの場合のみ。紐付けは解除） */
+    private static final String SQL_REASSIGN_MONTH_MISMATCH =
+        "UPDATE tasks t " +
+        "   SET assignment_id = b.id, customer_monthly_invoice_id = NULL, secretary_monthly_summary_id = NULL, " +
+        "       updated_at = CURRENT_TIMESTAMP " +
+        "  FROM assignments a, assignments b " +
+        " WHERE a.id = t.assignment_id " +
+        "   AND to_char(t.work_date, 'YYYY-MM') <> a.target_year_month " +
+        "   AND b.id = (SELECT x.id FROM assignments x " +
+        "                WHERE x.customer_id = a.customer_id AND x.secretary_id = a.secretary_id " +
+        "                  AND x.task_rank_id IS NOT DISTINCT FROM a.task_rank_id AND x.deleted_at IS NULL " +
+        "                  AND x.target_year_month = to_char(t.work_date, 'YYYY-MM') " +
+        "                ORDER BY x.created_at, x.id LIMIT 1) " +
+        "   AND NOT EXISTS (SELECT 1 FROM month_closings mc " +
+        "                    WHERE mc.target_year_month IN (a.target_year_month, to_char(t.work_date, 'YYYY-MM')))";
+
+    /** 作業日がアサイン月の範囲内であることの検査（INSERT / UPDATE 時） */
+    private static final String SQL_CREATE_WORK_MONTH_FUNCTION =
+        "CREATE OR REPLACE FUNCTION check_task_work_month() RETURNS trigger LANGUAGE plpgsql AS $$ " +
+        "BEGIN " +
+        "  IF NOT EXISTS (SELECT 1 FROM assignments a " +
+        "                  WHERE a.id = NEW.assignment_id " +
+        "                    AND a.target_year_month = to_char(NEW.work_date, 'YYYY-MM')) THEN " +
+        "    RAISE EXCEPTION '作業日 % がアサインの月と異なります（assignment_id=%）', NEW.work_date, NEW.assignment_id " +
+        "      USING ERRCODE = 'check_violation'; " +
+        "  END IF; " +
+        "  RETURN NEW; " +
+        "END $$";
+
+    private static final String SQL_CREATE_WORK_MONTH_TRIGGER =
+        "CREATE TRIGGER trg_tasks_work_month BEFORE INSERT OR UPDATE OF assignment_id, work_date ON tasks " +
+        "FOR EACH ROW EXECUTE FUNCTION check_task_work_month()";
+
+    @Override
+    public void up(Connection conn) throws SQLException {
+        System.out.println("  [Migration] tasks の月別パーティション化開始...");
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(SQL_CREATE_ENSURE_FUNCTION);
+
+            if (exists(stmt, SQL_IS_PARTITIONED)) {
+                System.out.println("  [Migration] tasks は既にパーティション表のためスキップ");
+                return;
+            }
+
+            stmt.execute("LOCK TABLE tasks IN ACCESS EXCLUSIVE MODE");
+
+            /** ⓪ 作業日がアサイン月と異なるタスクの付け替え（付け替えられない未削除のタスクが残れば中止） */
+            int reassigned = stmt.executeUpdate(SQL_REASSIGN_MONTH_MISMATCH);
+            if (reassigned > 0) {
+                System.out.println("    - 作業日がアサイン月と異なるタスク " + reassigned + " 件を作業日の月のアサインへ付け替えました");
+            }
+            try (ResultSet rs = stmt.executeQuery(SQL_COUNT_MONTH_MISMATCH)) {
+                rs.next();
+                long active = rs.getLong(1);
+                long deleted = rs.getLong(2);
+                if (active > 0) {
+                    throw new SQLException("作業日がアサイン月と異なるタスクが " + active + " 件あります"
+                            + "（作業日の月に同じ顧客・秘書・ランクのアサインが無い、または締め済みの月）。"
+                            + "作業日かアサインを修正してから再実行してください。");
+                }
+                if (deleted > 0) {
+                    System.out.println("  [Migration] 警告: 作業日がアサイン月と異なる論理削除済みのタスクが " + deleted
+                            + " 件残っています（一覧・集計の対象外）");
+                }
+            }
+
+            /** ① 退避（主キーのインデックス名を空けるためリネーム） */
+            stmt.execute("ALTER TABLE tasks RENAME TO tasks_unpartitioned");
+            stmt.execute("ALTER INDEX tasks_pkey RENAME TO tasks_unpartitioned_pkey");
+
+            /** ② パーティション表の作成（列・既定値・コメントは退避テーブルから複製） */
+            stmt.execute(
+                "CREATE TABLE tasks (" +
+                "  LIKE tasks_unpartitioned INCLUDING DEFAULTS INCLUDING COMMENTS" +
+                ") PARTITION BY RANGE (work_date)");
+            stmt.execute("ALTER TABLE tasks ADD CONSTRAINT tasks_pkey PRIMARY KEY (id, work_date)");
+            stmt.execute("ALTER TABLE tasks ADD FOREIGN KEY (assignment_id) REFERENCES assignments(id)");
+            stmt.execute("ALTER TABLE tasks ADD FOREIGN KEY (approved_by) REFERENCES system_admins(id) " +
+                         "ON UPDATE CASCADE ON DELETE SET NULL");
+            stmt.execute("ALTER TABLE tasks ADD FOREIGN KEY (remanded_by) REFERENCES system_admins(id)");
+            stmt.execute("ALTER TABLE tasks ADD FOREIGN KEY (customer_monthly_invoice_id) " +
+                         "REFERENCES customer_monthly_invoices(id)");
+            stmt.execute("ALTER TABLE tasks ADD FOREIGN KEY (secretary_monthly_summary_id) " +
+                         "REFERENCES secretary_monthly_summaries(id)");
+
+            /** ③ パーティション作成（既存データの月＋当月・翌月） */
+            stmt.execute(
+                "SELECT ensure_tasks_partition(m) FROM ( " +
+                "  SELECT DISTINCT date_trunc('month', work_date)::date AS m FROM tasks_unpartitioned " +
+                "  UNION SELECT date_trunc('month', CURRENT_DATE)::date " +
+                "  UNION SELECT (date_trunc('month', CURRENT_DATE) + INTERVAL '1 month')::date " +
+                ") x");
+
+            /** ④ データ移し替え */
+            int moved = stmt.executeUpdate("INSERT INTO tasks SELECT * FROM tasks_unpartitioned");
+            System.out.println("    - " + moved + " 件を移し替えました");
+            stmt.execute("DROP TABLE tasks_unpartitioned");
+
+            /** ⑤ インデックス（親に作成すると各パーティションへ伝播） */
+            stmt.execute("CREATE INDEX idx_tasks_alerted_at ON tasks (alerted_at) WHERE deleted_at IS NULL");
+            stmt.execute("CREATE INDEX idx_tasks_assignment_work_date ON tasks (assignment_id, work_date) " +
+                         "WHERE deleted_at IS NULL");
+            stmt.execute("CREATE INDEX idx_tasks_work_date ON tasks (work_date) WHERE deleted_at IS NULL");
+            stmt.execute("CREATE INDEX idx_tasks_cmi_id ON tasks (customer_monthly_invoice_id) " +
+                         "WHERE customer_monthly_invoice_id IS NOT NULL");
+            stmt.execute("CREATE INDEX idx_tasks_sms_id ON tasks (secretary_monthly_summary_id) " +
+                         "WHERE secretary_monthly_summary_id IS NOT NULL");
+            stmt.execute("ANALYZE tasks");
+
+            /** ⑥ 作業日とアサイン月の一致を書き込み時に検査（親に作成すると各パーティションへ伝播） */
+            stmt.execute(SQL_CREATE_WORK_MONTH_FUNCTION);
+            stmt.execute(SQL_CREATE_WORK_MONTH_TRIGGER);
+
+            /** ⑦ 確認 */
+            logPruning(stmt);
+        }
+
+        System.out.println("  [Migration] tasks の月別パーティション化完了");
+    }
+
+    /**
+     * 当月 1 か月分の検索で走査されるパーティション数を EXPLAIN で確認してログに出力します。
+     */
+    private void logPruning(Statement stmt) throws SQLException {
+        int total = 0;
+        try (ResultSet rs = stmt.executeQuery(
+                "SELECT COUNT(*) FROM pg_inherits WHERE inhparent = 'tasks'::regclass")) {
+            if (rs.next()) total = rs.getInt(1);
+        }
+        LocalDate from = LocalDate.now(ZoneId.of("Asia/Tokyo")).withDayOfMonth(1);
+        int scanned = 0;
+        try (ResultSet rs = stmt.executeQuery(
+                "EXPLAIN SELECT COUNT(*) FROM tasks t " +
+                "WHERE t.work_date >= DATE '" + from + "' AND t.work_date < DATE '" + from.plusMonths(1) + "'")) {
+            while (rs.next()) {
+                String line = rs.getString(1);
+                /** パーティション本体の走査行のみ数える（"... on tasks_pYYYYMM t"。インデックス名は除外） */
+                if (line.matches(".* on tasks_p\\d{6}( .*)?")) scanned++;
+            }
+        }
+        System.out.println("    - パーティション刈り込み確認（当月検索）: " + scanned + " / " + total + " パーティションを走査");
+    }
+
+    private boolean exists(Statement stmt, String sql) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next();
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "tasks を work_date の月単位レンジパーティション表に変換";
+    }
+}
@@ -0,0 +1,74 @@
+package listener;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 締め済みの古い月のタスク・アサインを退避するアーカイブ用テーブルを追加するマイグレーション
+ *
+ * 実行内容:
+ *   - archive スキーマを作成
+ *   - archive.assignments を作成（public.assignments と同じ列順。ym_index は生成列ではなく通常列）
+ *   - archive.tasks を作成（public.tasks と同じ列順の work_date レンジパーティション表。外部キーなし）
+ *   - 稼働中＋アーカイブのアサインを合わせて読むビュー assignments_all を作成
+ *   - month_closings に archived_at 列を追加
+ *
+ * 補足:
+ *   - アーカイブは dao.ArchiveDAO が月単位で行う。tasks は月のパーティションを DETACH して
+ *     archive.tasks へ付け替え（行のコピーなし）、assignments は行を移動する。
+ *   - 列は public 側と同じ順序である前提で INSERT ... SELECT * するため、
+ *     今後 assignments / tasks に列を追加する場合は archive 側にも同じ列を追加し、assignments_all を作り直すこと。
+ *
+ * 実行日: 2026-10-25
+ */
+public class Migration_20261025_CreateArchiveTables implements Migration {
+
+    @Override
+    public void up(Connection conn) throws SQLException {
+        System.out.println("  [Migration] アーカイブ用テーブルの作成開始...");
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE SCHEMA IF NOT EXISTS archive");
+
+            System.out.println("    - archive.assignments を作成中...");
+            stmt.execute(
+                "CREATE TABLE IF NOT EXISTS archive.assignments (" +
+                "  LIKE public.assignments INCLUDING DEFAULTS, " +
+                "  PRIMARY KEY (id)" +
+                ")");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_archive_assignments_customer_ym " +
+                "ON archive.assignments (customer_id, ym_index)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_archive_assignments_secretary_ym " +
+                "ON archive.assignments (secretary_id, ym_index)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_archive_assignments_ym " +
+                "ON archive.assignments (target_year_month)");
+            System.out.println("      archive.assignments 作成完了");
+
+            System.out.println("    - archive.tasks を作成中...");
+            stmt.execute(
+                "CREATE TABLE IF NOT EXISTS archive.tasks (" +
+                "  LIKE public.tasks INCLUDING DEFAULTS, " +
+                "  PRIMARY KEY (id, work_date)" +
+                ") PARTITION BY RANGE (work_date)");
+            System.out.println("      archive.tasks 作成完了");
+
+            System.out.println("    - assignments_all ビューを作成中...");
+            stmt.execute(
+                "CREATE OR REPLACE VIEW assignments_all AS " +
+                "SELECT * FROM public.assignments " +
+                "UNION ALL " +
+                "SELECT * FROM archive.assignments");
+            System.out.println("      assignments_all 作成完了");
+
+            stmt.execute("ALTER TABLE month_closings ADD COLUMN IF NOT EXISTS archived_at TIMESTAMP");
+        }
+
+        System.out.println("  [Migration] アーカイブ用テーブルの作成完了");
+    }
+
+    @Override
+    public String getDescription() {
+        return "アーカイブ用テーブル（archive.assignments / archive.tasks）と assignments_all ビューを追加";
+    }
+}
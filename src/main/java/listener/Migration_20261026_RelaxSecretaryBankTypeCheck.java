@@ -0,0 +1,39 @@
+package listener;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * secretaries.bank_type のチェック制約を、空欄を許可する定義に置き換えるマイグレーション
+ *
+ * 実行内容:
+ *   - chk_secretaries_bank_type を削除し、NULL・空文字・'普通'・'当座' を許可する定義で作り直す
+ *
+ * 補足:
+ *   - 従来は DatabaseInitListener が起動のたびに同じ ALTER TABLE を実行していた。
+ *     ACCESS EXCLUSIVE ロックと全行の検査を毎回伴い、複数ノードの同時起動でも競合するため、1 回限りのマイグレーションに移した。
+ *   - 新規構築時の DDL は既にこの定義で作成しているため、その場合は同じ制約を作り直すだけになる。
+ *
+ * 実行日: 2026-10-26
+ */
+public class Migration_20261026_RelaxSecretaryBankTypeCheck implements Migration {
+
+    @Override
+    public void up(Connection conn) throws SQLException {
+        System.out.println("  [Migration] bank_type 制約の更新開始...");
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE secretaries DROP CONSTRAINT IF EXISTS chk_secretaries_bank_type");
+            stmt.execute("ALTER TABLE secretaries ADD CONSTRAINT chk_secretaries_bank_type " +
+                         "CHECK (bank_type IS NULL OR bank_type = '' OR bank_type IN ('普通', '当座'))");
+        }
+
+        System.out.println("  [Migration] bank_type 制約の更新完了");
+    }
+
+    @Override
+    public String getDescription() {
+        return "bank_type のチェック制約を空欄許可の定義に置き換え（起動時の毎回の更新を廃止）";
+    }
+}
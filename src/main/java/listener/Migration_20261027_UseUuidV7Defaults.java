@@ -0,0 +1,63 @@
+package listener;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 書き込みの多いテーブルの主キー既定値を時刻順の UUIDv7 に切り替えるマイグレーション
+ *
+ * 実行内容:
+ *   - DB 関数 uuid_v7() を作成（gen_random_uuid() の先頭 48 ビットをミリ秒時刻に置き換え、バージョンを 7 にする）
+ *   - tasks / assignments / password_reset_tokens / customer_monthly_invoices / secretary_monthly_summaries の
+ *     id の既定値を gen_random_uuid() から uuid_v7() に変更
+ *
+ * 補足:
+ *   - 1 行ずつの INSERT は DAO がアプリ側で util.UuidV7 により採番する（同一ミリ秒内でも単調増加）。
+ *     既定値は dao.MonthCloseDAO の INSERT ... SELECT のように行ごとに値を渡せない集合的な INSERT のためのもの。
+ *   - 既存行の id は変更しない（参照している外部キーが多く、時刻順でなくても検索には影響しないため）。
+ *     新しい行から順にインデックスの右端へ挿入されるようになる。
+ *   - 関数名は PostgreSQL 18 の組み込み関数 uuidv7() と重ならないようにしている。
+ *
+ * 実行日: 2026-10-27
+ */
+public class Migration_20261027_UseUuidV7Defaults implements Migration {
+
+    /** 既定値を切り替えるテーブル */
+    private static final String[] TABLES = {
+        "tasks", "assignments", "password_reset_tokens", "customer_monthly_invoices", "secretary_monthly_summaries"
+    };
+
+    @Override
+    public void up(Connection conn) throws SQLException {
+        System.out.println("  [Migration] UUIDv7 既定値への切り替え開始...");
+
+        try (Statement stmt = conn.createStatement()) {
+            System.out.println("    - uuid_v7() を作成中...");
+            stmt.execute(
+                "CREATE OR REPLACE FUNCTION uuid_v7() RETURNS uuid " +
+                "LANGUAGE sql VOLATILE AS $$ " +
+                "  SELECT encode(" +
+                "    set_bit(set_bit(" +
+                "      overlay(uuid_send(gen_random_uuid()) " +
+                "              PLACING substring(int8send((extract(epoch FROM clock_timestamp()) * 1000)::bigint) FROM 3) " +
+                "              FROM 1 FOR 6), " +
+                "      52, 1), 53, 1), " +
+                "    'hex')::uuid " +
+                "$$");
+
+            for (String table : TABLES) {
+                System.out.println("    - " + table + ".id の既定値を変更中...");
+                /** パーティション表（tasks）は親に設定すれば各パーティションへの INSERT にも適用される */
+                stmt.execute("ALTER TABLE " + table + " ALTER COLUMN id SET DEFAULT uuid_v7()");
+            }
+        }
+
+        System.out.println("  [Migration] UUIDv7 既定値への切り替え完了");
+    }
+
+    @Override
+    public String getDescription() {
+        return "tasks / assignments / password_reset_tokens / 月次集計テーブルの id 既定値を UUIDv7 に変更";
+    }
+}
@@ -0,0 +1,56 @@
+package listener;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 稼働中とアーカイブのタスクを合わせて読むビューと、アーカイブ側の DEFAULT パーティションを追加するマイグレーション
+ *
+ * 実行内容:
+ *   - 稼働中＋アーカイブのタスクを合わせて読むビュー tasks_all を作成（assignments_all と同じ UNION ALL）
+ *   - archive.tasks に DEFAULT パーティション archive.tasks_default を作成
+ *   - 論理削除済みのタスクの部分インデックス idx_tasks_deleted_assignment を作成（既存の tasks のインデックスは未削除のみ）
+ *
+ * 補足:
+ *   - アーカイブ済みの月がある場合、月単位のタスク一覧・明細は tasks_all / assignments_all を読む
+ *     （dao.BaseDAO#withArchive）。work_date の範囲条件は UNION ALL の両側に伝わり、どちらもパーティションが刈り込まれる。
+ *   - archive.tasks_default には、アーカイブする月のアサインに属する論理削除済みのタスクのうち、
+ *     作業日が別の月（まだ稼働中の月）のものを退避する（アサインを archive へ移すと外部キーが切れるため）。
+ *     その月を後からアーカイブする際に、月のパーティションへ移し替えてから ATTACH する（dao.ArchiveDAO）。
+ *   - tasks に列を追加する場合は archive.tasks にも同じ列を追加し、tasks_all を作り直すこと。
+ *
+ * 実行日: 2026-10-28
+ */
+public class Migration_20261028_AddTasksAllView implements Migration {
+
+    @Override
+    public void up(Connection conn) throws SQLException {
+        System.out.println("  [Migration] tasks_all ビューの作成開始...");
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(
+                "CREATE OR REPLACE VIEW tasks_all AS " +
+                "SELECT * FROM public.tasks " +
+                "UNION ALL " +
+                "SELECT * FROM archive.tasks");
+            System.out.println("    - tasks_all 作成完了");
+
+            stmt.execute("CREATE TABLE IF NOT EXISTS archive.tasks_default PARTITION OF archive.tasks DEFAULT");
+            System.out.println("    - archive.tasks_default 作成完了");
+
+            /** アーカイブ時に、当月のアサインに属する論理削除済みのタスクを全パーティションから引くため */
+            stmt.execute(
+                "CREATE INDEX IF NOT EXISTS idx_tasks_deleted_assignment ON tasks (assignment_id) " +
+                "WHERE deleted_at IS NOT NULL");
+            System.out.println("    - idx_tasks_deleted_assignment 作成完了");
+        }
+
+        System.out.println("  [Migration] tasks_all ビューの作成完了");
+    }
+
+    @Override
+    public String getDescription() {
+        return "稼働中＋アーカイブのタスクを読む tasks_all ビューと archive.tasks の DEFAULT パーティションを追加";
+    }
+}
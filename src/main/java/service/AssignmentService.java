@@ -305,7 +305,7 @@ public class AssignmentService extends BaseService {
             
             req.setAttribute("futureAssignments", futureAssignments);
             
-            /** 候補（サーバー側：SQLでフィルタ/ソート） */
+            /** 候補（サーバー側：候補インデックスでフィルタ/ソート） */
             ProfileDAO pdao = new ProfileDAO(tm.getConnection());
             List<Map<String, Object>> candidates =
                     pdao.selectSecretaryCandidatesForRegister(
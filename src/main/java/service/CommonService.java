@@ -36,6 +36,7 @@ import dto.TaskDTO;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import util.ConvertUtil;
+import util.Money;
 import util.PasswordUtil;
 
 /**
@@ -783,9 +784,10 @@ public class CommonService extends BaseService {
             MonthStat statPrev2 = loadCustomerMonthStatByWorkDate(customerId, ymPrev2, invDao);
             MonthStat statPrev3 = loadCustomerMonthStatByWorkDate(customerId, ymPrev3, invDao);
 
-            /** 金額合計：今月/先月は InvoiceDAO の fee を合算（work_date 基準） */
+            /** 金額合計：今月/先月は InvoiceDAO の fee を合算（work_date 基準）。先月が締め済みなら確定値 */
             statNow.setTotal(sumFee(invDao, customerId, ymNow));
-            statPrev1.setTotal(sumFee(invDao, customerId, ymPrev1));
+            BigDecimal fin1 = cmiDao.selectFinalizedAmount(customerId, ymPrev1.format(YM_FMT));
+            statPrev1.setTotal(fin1 != null ? fin1 : sumFee(invDao, customerId, ymPrev1));
 
             /** 2～3か月前は確定テーブル */
             BigDecimal amt2 = cmiDao.selectTotalAmountByCustomerAndMonth(customerId, ymPrev2.format(YM_FMT));
@@ -899,13 +901,13 @@ public class CommonService extends BaseService {
         String ymStr = ym.format(YM_FMT);
         List<InvoiceDTO> rows =
             invDao.selectTotalMinutesBySecretaryAndCustomer(customerId, ymStr);
-        BigDecimal sum = BigDecimal.ZERO;
+        Money sum = new Money();
         if (rows != null) {
             for (InvoiceDTO d : rows) {
-                if (d.getFee() != null) sum = sum.add(d.getFee());
+                sum.add(d.getFee());
             }
         }
-        return sum;
+        return sum.toBigDecimal();
     }
 
 }
@@ -11,15 +11,13 @@ import java.util.UUID;
 
 import jakarta.servlet.http.HttpServletRequest;
 import util.ConvertUtil;
-import dao.AssignmentDAO;
 import dao.CustomerDAO;
-import dao.CustomerMonthlyInvoiceDAO;
 import dao.TransactionManager;
 import domain.Assignment;
 import domain.Customer;
 import dto.AssignmentDTO;
 import dto.CustomerDTO;
-import dto.CustomerMonthlyInvoiceDTO;
+import dto.CustomerDetailDTO;
 
 /**
  * 【admin】顧客サービス（一覧／詳細／登録／編集／削除）
@@ -150,7 +148,7 @@ public class CustomerService extends BaseService {
     /**
      * 「顧客詳細」表示。
      * - request param {@code id}: 顧客UUID
-     * - 顧客＆担当者、当月アサイン、通算請求サマリ、直近12か月請求、アサイン履歴を取得。
+     * - 顧客＆担当者、当月アサイン、通算請求サマリ、直近12か月請求、アサイン履歴を 1 回の問い合わせで取得。
      * - 取得データを既存の属性キー名で JSP に渡す（キー名は変更しない）。
      *
      * @return 詳細ビュー（{@value #VIEW_DETAIL}）。不正IDや例外時はエラーページへ。
@@ -170,23 +168,20 @@ public class CustomerService extends BaseService {
         try (TransactionManager tm = new TransactionManager()) {
             UUID customerId = UUID.fromString(idStr);
 
-            /** ①② 顧客＋担当者一覧 */
+            /** ①〜⑥ 顧客＋担当者・今月のアサイン・請求合計・直近1年の請求・アサイン履歴を一括取得 */
             CustomerDAO cdao = new CustomerDAO(tm.getConnection());
-            CustomerDTO cDto = cdao.selectWithContactsByUuid(customerId);
-            if (cDto == null) {
+            CustomerDetailDTO detail = cdao.selectDetail(customerId, ymNow);
+            if (detail == null) {
                 req.setAttribute(A_ERROR_MSG, List.of("顧客が見つかりません。"));
                 return req.getContextPath() + req.getServletPath() + "/error";
             }
-            Customer customer = conv.toDomain(cDto);
+            Customer customer = conv.toDomain(detail.getCustomer());
             req.setAttribute(A_CUSTOMER, customer);
 
             /** ③ 今月のアサイン（継続ランク付き） */
-            AssignmentDAO adao = new AssignmentDAO(tm.getConnection());
-            List<AssignmentDTO> thisMonthDtos = adao.selectThisMonthByCustomerWithContRank(customerId, ymNow);
-
             List<Assignment> thisMonth = new ArrayList<>();
             Map<UUID, Integer> contMap = new HashMap<>();
-            for (AssignmentDTO d : thisMonthDtos) {
+            for (AssignmentDTO d : detail.getThisMonthAssignments()) {
                 thisMonth.add(conv.toDomain(d));
                 if (d.getAssignmentId() != null) {
                     contMap.put(d.getAssignmentId(),
@@ -197,20 +192,16 @@ public class CustomerService extends BaseService {
             req.setAttribute(A_CONT_MONTHS, contMap);
 
             /** ④ 今までの請求合計（Summary） */
-            CustomerMonthlyInvoiceDAO idao = new CustomerMonthlyInvoiceDAO(tm.getConnection());
-            var summary = idao.selectSummaryUpToYm(customerId, ymNow);
-            req.setAttribute(A_INVOICE_TOTAL_AMT,  summary.totalAmount);
-            req.setAttribute(A_INVOICE_TOTAL_CNT,  summary.count);
-            req.setAttribute(A_INVOICE_TOTAL_WORK, summary.totalWorkMinutes);
+            req.setAttribute(A_INVOICE_TOTAL_AMT,  detail.getInvoiceTotalAmount());
+            req.setAttribute(A_INVOICE_TOTAL_CNT,  detail.getInvoiceCount());
+            req.setAttribute(A_INVOICE_TOTAL_WORK, detail.getInvoiceTotalWorkMinutes());
 
             /** ⑥ 直近1年の請求（DTOをそのまま渡す） */
-            List<CustomerMonthlyInvoiceDTO> inv12 = idao.selectLast12UpToYm(customerId, ymNow);
-            req.setAttribute(A_INVOICES_LAST12, inv12);
+            req.setAttribute(A_INVOICES_LAST12, detail.getInvoicesLast12());
 
             /** ⑤ 今月までのアサイン履歴（最新→） */
-            List<AssignmentDTO> historyDtos = adao.selectByCustomerUpToYearMonthDesc(customerId, ymNow);
             List<Assignment> history = new ArrayList<>();
-            for (AssignmentDTO d : historyDtos) history.add(conv.toDomain(d));
+            for (AssignmentDTO d : detail.getAssignmentHistory()) history.add(conv.toDomain(d));
             req.setAttribute(A_ASSIGNMENTS_HIST, history);
 
             req.setAttribute(A_TARGET_YM, ymNow);
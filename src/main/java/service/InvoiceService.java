@@ -2,13 +2,16 @@ package service;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
@@ -16,12 +19,22 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import util.ConvertUtil;
+import util.Money;
+import util.ZenginTransferWriter;
+import config.ArchiveConfig;
+import config.TransferConfig;
 
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellType;
@@ -29,15 +42,19 @@ import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
+import dao.ArchiveDAO;
 import dao.CustomerMonthlyInvoiceDAO;
 import dao.InvoiceDAO;
+import dao.MonthCloseDAO;
 import dao.SecretaryDAO;
+import dao.SecretaryMonthlySummaryDAO;
 import dao.TransactionManager;
 import domain.Invoice;
 import domain.LoginUser;
 import domain.Task;
 import dto.InvoiceDTO;
 import dto.SecretaryDTO;
+import dto.SecretaryMonthlySummaryDTO;
 import dto.TaskDTO;
 
 /**
@@ -85,6 +102,14 @@ public class InvoiceService extends BaseService {
     /** 表示中の年月（新旧どちらのキーもセットする） */
     private static final String A_YM = "yearMonth";
     private static final String A_YM_LEGACY = "targetYM";
+    /** 振込データに含められない秘書（口座情報不備）の一覧 */
+    private static final String A_TRANSFER_SKIPPED = "transferSkipped";
+
+    /** 月次締め日時（未締めは null） */
+    private static final String A_CLOSED_AT = "closedAt";
+
+    /** 振込指定日（yyyy-MM-dd、未指定は対象月の翌月末日） */
+    private static final String P_TRANSFER_DATE = "transferDate";
 
     /**
      * View names
@@ -100,6 +125,9 @@ public class InvoiceService extends BaseService {
     private static final int TAXABLE_DEFAULT_ROWS = 5;
     private static final int NONTAX_DEFAULT_ROWS  = 5;
 
+    /** 月次締めの並列パーティション数（同時に使う DB 接続数） */
+    private static final int CLOSE_PARTITIONS = 4;
+
     /**
      * ② フィールド・コンストラクタ
      */
@@ -143,9 +171,14 @@ public class InvoiceService extends BaseService {
 
         try (TransactionManager tm = new TransactionManager()) {
             InvoiceDAO dao = new InvoiceDAO(tm.getConnection());
+            CustomerMonthlyInvoiceDAO cmiDao = new CustomerMonthlyInvoiceDAO(tm.getConnection());
+            MonthCloseDAO closeDao = new MonthCloseDAO(tm.getConnection());
+            Timestamp closedAt = closeDao.selectClosedAt(ym);
 
-            /** 当月の顧客向け月次サマリーを UPSERT（DRAFT） */
-            new CustomerMonthlyInvoiceDAO(tm.getConnection()).upsertByMonthFromTasks(ym);
+            /** 当月の顧客向け月次サマリーを UPSERT（DRAFT）。締め済みの月は確定値をそのまま使う */
+            if (closedAt == null) {
+                cmiDao.upsertByMonthFromTasks(ym);
+            }
 
             /** 明細（顧客×秘書×ランク） */
             List<InvoiceDTO> rows = dao.selectAdminLines(ym);
@@ -157,19 +190,15 @@ public class InvoiceService extends BaseService {
                             TreeMap::new,
                             Collectors.toList()));
 
-            /** KPI（合計金額・合計作業分数・行数） */
-            BigDecimal totalAmount = rows.stream()
-                    .map(InvoiceDTO::getFee)
-                    .filter(Objects::nonNull)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            /** KPI（合計金額・合計作業分数・行数）。締め済みの月の合計金額は確定値 */
+            BigDecimal totalAmount = (closedAt != null) ? cmiDao.selectFinalizedTotal(ym) : sumFee(rows);
             int totalMinutes = rows.stream().mapToInt(InvoiceDTO::getTotalMinute).sum();
             int totalTasks = rows.size();
 
             /** 前月比較 */
-            BigDecimal prevTotalAmount = dao.selectAdminLines(prevYm).stream()
-                    .map(InvoiceDTO::getFee)
-                    .filter(Objects::nonNull)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            BigDecimal prevTotalAmount = closeDao.isClosed(prevYm)
+                    ? cmiDao.selectFinalizedTotal(prevYm)
+                    : sumFee(dao.selectAdminLines(prevYm));
             BigDecimal diffFromPrev = totalAmount.subtract(prevTotalAmount);
 
             /** JSP 属性（既存JSP互換キーをセット） */
@@ -187,6 +216,7 @@ public class InvoiceService extends BaseService {
 
             req.setAttribute("adminGrouped", grouped);
             req.setAttribute("diffFromPrev", diffFromPrev);
+            req.setAttribute(A_CLOSED_AT, closedAt);
 
             tm.commit();
             return VIEW_SUMMARY_ADMIN_SALES;
@@ -231,28 +261,37 @@ public class InvoiceService extends BaseService {
 
         try (TransactionManager tm = new TransactionManager()) {
             InvoiceDAO dao = new InvoiceDAO(tm.getConnection());
+            SecretaryMonthlySummaryDAO smsDao = new SecretaryMonthlySummaryDAO(tm.getConnection());
+            MonthCloseDAO closeDao = new MonthCloseDAO(tm.getConnection());
+            Timestamp closedAt = closeDao.selectClosedAt(targetYM);
 
             /** ① 当月明細（秘書×顧客×ランク） */
             List<InvoiceDTO> lines = dao.selectAdminLines(targetYM);
 
-            BigDecimal grandTotal = lines.stream()
-                    .map(InvoiceDTO::getFee)
-                    .filter(Objects::nonNull)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            BigDecimal grandTotal = (closedAt != null) ? smsDao.selectFinalizedTotal(targetYM) : sumFee(lines);
 
             /** cost_summary.jsp が参照するキー名を厳守 */
             req.setAttribute("costLines", lines);
             req.setAttribute("grandTotalCost", grandTotal);
 
+            /** 振込データ（全銀）に含められない秘書（口座情報不備） */
+            List<String> skipped = new ArrayList<>();
+            dao.streamPayoutTransfers(targetYM, d -> {
+                String reason = transferIssue(d.getSecretary());
+                if (reason != null) skipped.add(d.getSecretary().getName() + "（" + reason + "）");
+            });
+            req.setAttribute(A_TRANSFER_SKIPPED, skipped);
+
             /** 表示中YM（互換のため両方） */
             req.setAttribute(A_YM_LEGACY, targetYM);
             req.setAttribute(A_YM, targetYM);
+            req.setAttribute(A_CLOSED_AT, closedAt);
 
-            /** ② タイル用（4ヶ月分の総額） */
-            req.setAttribute("costNow",   sumFee(dao.selectAdminLines(ym0.toString())));
-            req.setAttribute("costPrev1", sumFee(dao.selectAdminLines(ym1.toString())));
-            req.setAttribute("costPrev2", sumFee(dao.selectAdminLines(ym2.toString())));
-            req.setAttribute("costPrev3", sumFee(dao.selectAdminLines(ym3.toString())));
+            /** ② タイル用（4ヶ月分の総額。締め済みの月は確定値） */
+            req.setAttribute("costNow",   costTotal(dao, smsDao, closeDao, ym0.toString()));
+            req.setAttribute("costPrev1", costTotal(dao, smsDao, closeDao, ym1.toString()));
+            req.setAttribute("costPrev2", costTotal(dao, smsDao, closeDao, ym2.toString()));
+            req.setAttribute("costPrev3", costTotal(dao, smsDao, closeDao, ym3.toString()));
 
             tm.commit();
             return VIEW_SUMMARY_ADMIN_COSTS;
@@ -310,6 +349,7 @@ public class InvoiceService extends BaseService {
 
         try (TransactionManager tm = new TransactionManager()) {
             InvoiceDAO dao = new InvoiceDAO(tm.getConnection());
+            CustomerMonthlyInvoiceDAO cmiDao = new CustomerMonthlyInvoiceDAO(tm.getConnection());
 
             List<TaskDTO> taskDtos = dao.selectTasksByMonthAndCustomer(customerId, targetYM);
             List<InvoiceDTO> invDtos = dao.selectTotalMinutesBySecretaryAndCustomer(customerId, targetYM);
@@ -317,10 +357,9 @@ public class InvoiceService extends BaseService {
             List<Task> tasks = conv.toTaskDomainList(taskDtos);
             List<Invoice> invoices = conv.toInvoiceDomainList(invDtos);
 
-            BigDecimal grandTotal = invoices.stream()
-                    .map(Invoice::getFee)
-                    .filter(Objects::nonNull)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            Money fee = new Money();
+            for (Invoice inv : invoices) fee.add(inv.getFee());
+            BigDecimal grandTotal = fee.toBigDecimal();
 
             // JSP属性
             req.setAttribute(A_TASKS, tasks);
@@ -331,10 +370,10 @@ public class InvoiceService extends BaseService {
             req.setAttribute(A_YM_LEGACY, targetYM);
 
             /** ダッシュボード（月次ステータス） */
-            req.setAttribute("statNow",   buildMonthlyStat(dao, customerId, ym0.toString()));
-            req.setAttribute("statPrev1", buildMonthlyStat(dao, customerId, ym1.toString()));
-            req.setAttribute("statPrev2", buildMonthlyStat(dao, customerId, ym2.toString()));
-            req.setAttribute("statPrev3", buildMonthlyStat(dao, customerId, ym3.toString()));
+            req.setAttribute("statNow",   buildMonthlyStat(dao, cmiDao, customerId, ym0.toString()));
+            req.setAttribute("statPrev1", buildMonthlyStat(dao, cmiDao, customerId, ym1.toString()));
+            req.setAttribute("statPrev2", buildMonthlyStat(dao, cmiDao, customerId, ym2.toString()));
+            req.setAttribute("statPrev3", buildMonthlyStat(dao, cmiDao, customerId, ym3.toString()));
 
             tm.commit();
             return VIEW_SUMMARY_CUSTOMER;
@@ -373,10 +412,9 @@ public class InvoiceService extends BaseService {
             List<Task> tasks      = conv.toTaskDomainList(taskDtos);
             List<Invoice> invoices = conv.toInvoiceDomainList(invDtos);
 
-            BigDecimal grandTotal = invoices.stream()
-                    .map(Invoice::getFee)
-                    .filter(Objects::nonNull)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            Money fee = new Money();
+            for (Invoice inv : invoices) fee.add(inv.getFee());
+            BigDecimal grandTotal = fee.toBigDecimal();
 
             int totalMinutes = tasks.stream()
                     .map(Task::getWorkMinute)
@@ -430,38 +468,14 @@ public class InvoiceService extends BaseService {
         UUID secretaryId = loginUser.getSecretary().getId();
 
         /** 請求書ヘッダ（住所・口座） */
-        String secretaryName = "";
-        String secretaryAddress1 = "";
-        String secretaryAddress2 = "";
-        String secretaryBuilding = "";
-        String secretaryPostal = "";
-        String secretaryTel = "";
-        String bankName = "";
-        String bankBranch = "";
-        String bankType = "";
-        String bankAccount = "";
-        String bankOwner = "";
-
+        SecretaryDTO sec;
         List<TaskDTO> taskDtos;
         List<InvoiceDTO> invoiceDtos;
 
         /** 取得 */
         try (TransactionManager tm = new TransactionManager()) {
             SecretaryDAO sdao = new SecretaryDAO(tm.getConnection());
-            SecretaryDTO sec = sdao.selectByUUIdIncludeAccount(secretaryId);
-            if (sec != null) {
-                secretaryName     = nvl(sec.getName());
-                secretaryPostal   = nvl(sec.getPostalCode());
-                secretaryAddress1 = nvl(safe(sec.getAddress1()));
-                secretaryAddress2 = nvl(safe(sec.getAddress2()));
-                secretaryBuilding = nvl(safe(sec.getBuilding()));
-                secretaryTel      = nvl(safe(sec.getPhone()));
-                bankName          = nvl(safe(sec.getBankName()));
-                bankBranch        = nvl(safe(sec.getBankBranch()));
-                bankType          = nvl(safe(sec.getBankType()));
-                bankAccount       = nvl(safe(sec.getBankAccount()));
-                bankOwner         = nvl(safe(sec.getBankOwner()));
-            }
+            sec = sdao.selectByUUIdIncludeAccount(secretaryId);
 
             InvoiceDAO dao = new InvoiceDAO(tm.getConnection());
             taskDtos    = dao.selectTasksByMonthAndSecretary(secretaryId, targetYM);
@@ -495,76 +509,10 @@ public class InvoiceService extends BaseService {
                 return;
             }
             try (XSSFWorkbook wb = new XSSFWorkbook(in)) {
-                Sheet sh = wb.getSheetAt(0);
-
-                /** ヘッダ（セル座標は 1 始まり指定ヘルパを使用） */
-                setCell(sh, 2, 1, "御　請　求　書（" + targetYM + "）");
-                setCell(sh, 5, 8, secretaryName);
-                setCell(sh, 6, 8, secretaryPostal.isEmpty() ? "" : "〒" + secretaryPostal);
-                setCell(sh, 7, 8, secretaryAddress1 + secretaryAddress2);
-                setCell(sh, 8, 8, secretaryBuilding);
-                setCell(sh, 9, 8, secretaryTel.isEmpty() ? "" : "TEL：" + secretaryTel);
-                LocalDate todayJST = LocalDate.now(ZoneId.of("Asia/Tokyo"));
-                setCell(sh, 1, 9, "請求日：" + formatJpYmd(todayJST));
-
-                /** 口座 */
-                StringBuilder bankLine = new StringBuilder();
-                if (!bankName.isBlank())   bankLine.append(bankName);
-                if (!bankBranch.isBlank()) bankLine.append(bankLine.length() > 0 ? " " : "").append(bankBranch);
-                if (!bankType.isBlank())   bankLine.append(bankLine.length() > 0 ? " " : "").append("(").append(bankType).append(")");
-                if (!bankAccount.isBlank())bankLine.append(bankLine.length() > 0 ? " " : "").append(bankAccount);
-                setCell(sh, 31, 1, bankLine.toString());
-                setCell(sh, 32, 1, bankOwner.isBlank() ? "" : "口座名義：" + bankOwner);
-
-                /** 見出し検出（テンプレ変更に追従） */
-                int taxableHeader = findRowByText(sh, "会社名", 200);
-                int rankHeader    = findRowByText(sh, "ランク", 200);
-                if (taxableHeader <= 0 || (rankHeader > 0 && rankHeader != taxableHeader)) {
-                    taxableHeader = 13; // フォールバック（旧テンプレ）
-                }
-                final int TAXABLE_DATA_START = taxableHeader + 1;
-
-                int nonTaxHeader = findRowByText(sh, "非課税項目", 200);
-                if (nonTaxHeader <= 0) nonTaxHeader = 21;
-                final int NONTAX_DATA_START = nonTaxHeader + 1;
-
-                /** 行確保（既定行数を超える場合は差し込み） */
-                final int count   = invoiceDtos.size();
-                final int addRows = Math.max(0, count - TAXABLE_DEFAULT_ROWS);
-                final int SUBTOTAL_ROW_BASE_DYNAMIC = TAXABLE_DATA_START + TAXABLE_DEFAULT_ROWS;
-                if (addRows > 0) {
-                    sh.shiftRows(SUBTOTAL_ROW_BASE_DYNAMIC, sh.getLastRowNum(), addRows);
-                    Row pattern = getOrCreateRow(sh, TAXABLE_DATA_START + TAXABLE_DEFAULT_ROWS - 1);
-                    for (int i = 0; i < addRows; i++) {
-                        int newRowNum = TAXABLE_DATA_START + TAXABLE_DEFAULT_ROWS + i;
-                        copyRowStyle(pattern, getOrCreateRow(sh, newRowNum));
-                    }
-                }
-
-                /** データ書込み */
-                for (int i = 0; i < count; i++) {
-                    InvoiceDTO d = invoiceDtos.get(i);
-                    int r = TAXABLE_DATA_START + i;
-                    int totalMin = d.getTotalMinute();
-                    int hours = totalMin / 60;
-                    int mins  = totalMin % 60;
-
-                    setCell(sh, r, 1, nvl(d.getCustomerCompanyName()));
-                    setCell(sh, r, 5, nvl(d.getTaskRankName()));
-                    setCell(sh, r, 6, hours);
-                    setCell(sh, r, 7, mins);
-                    if (d.getHourlyPay() != null) setCell(sh, r, 8, d.getHourlyPay().doubleValue());
-                    setCellFormula(sh, r, 10, "ROUND(H" + r + "*(F" + r + "+G" + r + "/60),0)");
-                }
-
-                /** 小計（課税・非課税） */
-                final int subRow    = SUBTOTAL_ROW_BASE_DYNAMIC + addRows;
-                final int nonTaxSub = (NONTAX_DATA_START + NONTAX_DEFAULT_ROWS) + addRows;
-                setCellFormula(sh, subRow,    10, "SUM(J" + TAXABLE_DATA_START + ":J" + (TAXABLE_DATA_START + count - 1) + ")");
-                setCell(sh,        nonTaxSub, 10, 0);
-
+                fillInvoiceSheet(wb.getSheetAt(0), targetYM, sec, invoiceDtos, LocalDate.now(ZoneId.of("Asia/Tokyo")));
                 wb.setForceFormulaRecalculation(true);
 
+                String secretaryName = (sec == null) ? "" : nvl(sec.getName());
                 String fileName = "【御請求書】" + safeFileName(secretaryName) + "_" + targetYM + ".xlsx";
                 String encoded  = URLEncoder.encode(fileName, StandardCharsets.UTF_8).replace("+", "%20");
                 resp.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
@@ -577,6 +525,300 @@ public class InvoiceService extends BaseService {
         }
     }
 
+    /**
+     * 請求書テンプレートのシートへヘッダ・口座・明細・小計を書き込みます（DB・レスポンスに依存しない描画部分）。
+     *
+     * @param sh          テンプレートの先頭シート
+     * @param targetYM    対象年月（yyyy-MM）
+     * @param sec         秘書（口座情報込み。null は空欄）
+     * @param invoiceDtos 明細（会社→ランク順）
+     * @param issueDate   請求日
+     */
+    static void fillInvoiceSheet(Sheet sh, String targetYM, SecretaryDTO sec, List<InvoiceDTO> invoiceDtos,
+            LocalDate issueDate) {
+
+        String secretaryName     = (sec == null) ? "" : nvl(sec.getName());
+        String secretaryPostal   = (sec == null) ? "" : nvl(sec.getPostalCode());
+        String secretaryAddress1 = (sec == null) ? "" : nvl(safe(sec.getAddress1()));
+        String secretaryAddress2 = (sec == null) ? "" : nvl(safe(sec.getAddress2()));
+        String secretaryBuilding = (sec == null) ? "" : nvl(safe(sec.getBuilding()));
+        String secretaryTel      = (sec == null) ? "" : nvl(safe(sec.getPhone()));
+        String bankName          = (sec == null) ? "" : nvl(safe(sec.getBankName()));
+        String bankBranch        = (sec == null) ? "" : nvl(safe(sec.getBankBranch()));
+        String bankType          = (sec == null) ? "" : nvl(safe(sec.getBankType()));
+        String bankAccount       = (sec == null) ? "" : nvl(safe(sec.getBankAccount()));
+        String bankOwner         = (sec == null) ? "" : nvl(safe(sec.getBankOwner()));
+
+        /** ヘッダ（セル座標は 1 始まり指定ヘルパを使用） */
+        setCell(sh, 2, 1, "御　請　求　書（" + targetYM + "）");
+        setCell(sh, 5, 8, secretaryName);
+        setCell(sh, 6, 8, secretaryPostal.isEmpty() ? "" : "〒" + secretaryPostal);
+        setCell(sh, 7, 8, secretaryAddress1 + secretaryAddress2);
+        setCell(sh, 8, 8, secretaryBuilding);
+        setCell(sh, 9, 8, secretaryTel.isEmpty() ? "" : "TEL：" + secretaryTel);
+        setCell(sh, 1, 9, "請求日：" + formatJpYmd(issueDate));
+
+        /** 口座 */
+        StringBuilder bankLine = new StringBuilder();
+        if (!bankName.isBlank())   bankLine.append(bankName);
+        if (!bankBranch.isBlank()) bankLine.append(bankLine.length() > 0 ? " " : "").append(bankBranch);
+        if (!bankType.isBlank())   bankLine.append(bankLine.length() > 0 ? " " : "").append("(").append(bankType).append(")");
+        if (!bankAccount.isBlank())bankLine.append(bankLine.length() > 0 ? " " : "").append(bankAccount);
+        setCell(sh, 31, 1, bankLine.toString());
+        setCell(sh, 32, 1, bankOwner.isBlank() ? "" : "口座名義：" + bankOwner);
+
+        /** 見出し検出（テンプレ変更に追従） */
+        int taxableHeader = findRowByText(sh, "会社名", 200);
+        int rankHeader    = findRowByText(sh, "ランク", 200);
+        if (taxableHeader <= 0 || (rankHeader > 0 && rankHeader != taxableHeader)) {
+            taxableHeader = 13; // フォールバック（旧テンプレ）
+        }
+        final int TAXABLE_DATA_START = taxableHeader + 1;
+
+        int nonTaxHeader = findRowByText(sh, "非課税項目", 200);
+        if (nonTaxHeader <= 0) nonTaxHeader = 21;
+        final int NONTAX_DATA_START = nonTaxHeader + 1;
+
+        /** 行確保（既定行数を超える場合は差し込み） */
+        final int count   = invoiceDtos.size();
+        final int addRows = Math.max(0, count - TAXABLE_DEFAULT_ROWS);
+        final int SUBTOTAL_ROW_BASE_DYNAMIC = TAXABLE_DATA_START + TAXABLE_DEFAULT_ROWS;
+        if (addRows > 0) {
+            sh.shiftRows(SUBTOTAL_ROW_BASE_DYNAMIC, sh.getLastRowNum(), addRows);
+            Row pattern = getOrCreateRow(sh, TAXABLE_DATA_START + TAXABLE_DEFAULT_ROWS - 1);
+            for (int i = 0; i < addRows; i++) {
+                int newRowNum = TAXABLE_DATA_START + TAXABLE_DEFAULT_ROWS + i;
+                copyRowStyle(pattern, getOrCreateRow(sh, newRowNum));
+            }
+        }
+
+        /** データ書込み */
+        for (int i = 0; i < count; i++) {
+            InvoiceDTO d = invoiceDtos.get(i);
+            int r = TAXABLE_DATA_START + i;
+            int totalMin = d.getTotalMinute();
+            int hours = totalMin / 60;
+            int mins  = totalMin % 60;
+
+            setCell(sh, r, 1, nvl(d.getCustomerCompanyName()));
+            setCell(sh, r, 5, nvl(d.getTaskRankName()));
+            setCell(sh, r, 6, hours);
+            setCell(sh, r, 7, mins);
+            if (d.getHourlyPay() != null) setCell(sh, r, 8, d.getHourlyPay().doubleValue());
+            setCellFormula(sh, r, 10, "ROUND(H" + r + "*(F" + r + "+G" + r + "/60),0)");
+        }
+
+        /** 小計（課税・非課税） */
+        final int subRow    = SUBTOTAL_ROW_BASE_DYNAMIC + addRows;
+        final int nonTaxSub = (NONTAX_DATA_START + NONTAX_DEFAULT_ROWS) + addRows;
+        setCellFormula(sh, subRow,    10, "SUM(J" + TAXABLE_DATA_START + ":J" + (TAXABLE_DATA_START + count - 1) + ")");
+        setCell(sh,        nonTaxSub, 10, 0);
+    }
+
+    /**
+     * 「【admin】 機能：振込データ（全銀フォーマット）ダウンロード」
+     */
+    /**
+     * 対象月の秘書支払いを、全銀協フォーマット（総合振込）の振込データとして出力します。
+     * - targetYM: request param 'targetYM'（無ければ yearMonth → 当月JST）
+     * - transferDate: 振込指定日（yyyy-MM-dd、無ければ対象月の翌月末日）
+     * - 支払額と振込口座は 1 クエリ（{@link InvoiceDAO#streamPayoutTransfers}）で取得し、
+     *   1 件ずつ Shift_JIS の固定長レコードとしてレスポンスへ書き出す
+     * - 口座情報に不備がある秘書は出力しない（支払サマリー画面に一覧表示）
+     *
+     * @param resp レスポンス（ストリームへ振込データを書き込み）
+     * @throws ServiceException 出力に失敗した場合
+     */
+    public void issueZenginTransfer(HttpServletResponse resp) {
+        String targetYM = pickYearMonthParamPreferLegacy();
+        LocalDate transferDate;
+        try {
+            String p = req.getParameter(P_TRANSFER_DATE);
+            transferDate = (p == null || p.isBlank())
+                    ? YearMonth.parse(targetYM).plusMonths(1).atEndOfMonth()
+                    : LocalDate.parse(p.trim(), YMD_FMT);
+        } catch (RuntimeException e) {
+            sendError(resp, HttpServletResponse.SC_BAD_REQUEST, "振込指定日の形式が不正です。");
+            return;
+        }
+
+        /** 振込依頼人（自社）情報：未設定ならレスポンス開始前にエラー */
+        String requesterCode, requesterName, bankCode, bankName, branchCode, branchName, accountNumber;
+        char accountType;
+        try {
+            requesterCode = TransferConfig.getRequesterCode();
+            requesterName = TransferConfig.getRequesterName();
+            bankCode      = TransferConfig.getBankCode();
+            bankName      = TransferConfig.getBankName();
+            branchCode    = TransferConfig.getBranchCode();
+            branchName    = TransferConfig.getBranchName();
+            accountType   = ZenginTransferWriter.accountTypeCode(TransferConfig.getAccountType());
+            accountNumber = TransferConfig.getAccountNumber();
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            sendError(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, e.getMessage());
+            return;
+        }
+
+        String fileName = "振込データ_" + targetYM + ".txt";
+        String encoded  = URLEncoder.encode(fileName, StandardCharsets.UTF_8).replace("+", "%20");
+        resp.setContentType("text/plain; charset=Shift_JIS");
+        resp.setHeader("Content-Disposition", "attachment; filename*=UTF-8''" + encoded);
+
+        try (TransactionManager tm = new TransactionManager()) {
+            ZenginTransferWriter w = new ZenginTransferWriter(resp.getOutputStream());
+            w.writeHeader(requesterCode, requesterName, transferDate,
+                    bankCode, bankName, branchCode, branchName, accountType, accountNumber);
+
+            new InvoiceDAO(tm.getConnection()).streamPayoutTransfers(targetYM, d -> {
+                SecretaryDTO s = d.getSecretary();
+                if (transferIssue(s) != null) return;
+                try {
+                    w.writeData(s.getBankCode(), s.getBankBranchCode(),
+                            ZenginTransferWriter.accountTypeCode(s.getBankType()), s.getBankAccount(),
+                            s.getBankOwner(), d.getTotalSecretaryAmount().longValueExact());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            w.writeTrailerAndEnd();
+            tm.commit();
+        } catch (IOException | UncheckedIOException e) {
+            throw new ServiceException("E:INV-ZENGIN01 振込データの出力に失敗しました。", e);
+        }
+    }
+
+    /**
+     * 「【admin】 機能：月次締め」
+     */
+    /**
+     * 対象月の顧客別・秘書別月次集計を確定（finalized_at 付与）し、以降の再集計とタスク変更を止めます。
+     * - yearMonth: request param 'yearMonth'（POST）
+     * - ① 事前検証（締め済み・未承認タスクの有無）と削除済みタスクの紐付け解除（1 トランザクション）
+     * - ② 集計行の UPSERT／③ タスクの紐付けを、顧客・秘書のハッシュで {@value #CLOSE_PARTITIONS} 分割して
+     *   パーティションごとに別トランザクションで並列実行（途中で失敗しても確定前のため再実行可能）
+     * - ④ 締め登録 → 検証 → 確定を 1 トランザクションで実行（検証 NG ならロールバック）
+     * - 秘書別集計は秘書単価ベース（振込データと同じ金額）で確定する
+     *
+     * @return リダイレクト先（成功：売上サマリー、失敗：エラー画面）
+     */
+    public String adminMonthClose() {
+        String ym = req.getParameter(P_YM);
+        if (ym == null || !validation.isYearMonth(ym.trim())) {
+            return closeError("対象年月が不正です。");
+        }
+        ym = ym.trim();
+        if (!YearMonth.parse(ym).isBefore(YearMonth.now(ZoneId.of("Asia/Tokyo")))) {
+            return closeError("当月以降（" + ym + "）は締められません。");
+        }
+
+        UUID adminId = null;
+        HttpSession session = req.getSession(false);
+        if (session != null && session.getAttribute("loginUser") instanceof LoginUser lu
+                && lu.getSystemAdmin() != null) {
+            adminId = lu.getSystemAdmin().getId();
+        }
+
+        /** ① 事前検証 */
+        try (TransactionManager tm = new TransactionManager()) {
+            MonthCloseDAO dao = new MonthCloseDAO(tm.getConnection());
+            /** 実行中の業務の登録・変更のコミットを待ってから検証する */
+            dao.lockMonth(ym);
+            if (dao.isClosed(ym)) {
+                return closeError(ym + " は締め済みです。");
+            }
+            int unapproved = dao.verify(ym).unapproved();
+            if (unapproved > 0) {
+                return closeError(ym + " に未承認の業務が " + unapproved + " 件あります。承認後に締めてください。");
+            }
+            dao.unlinkDeletedTasks(ym);
+            tm.commit();
+        }
+
+        /** ②③ パーティション並列の集計・紐付け */
+        final String target = ym;
+        ExecutorService pool = Executors.newFixedThreadPool(CLOSE_PARTITIONS);
+        try {
+            List<Callable<Integer>> upserts = new ArrayList<>();
+            List<Callable<Integer>> links = new ArrayList<>();
+            for (int i = 0; i < CLOSE_PARTITIONS; i++) {
+                final int part = i;
+                upserts.add(() -> inCloseTx(d -> d.upsertCustomerPartition(target, CLOSE_PARTITIONS, part)));
+                upserts.add(() -> inCloseTx(d -> d.upsertSecretaryPartition(target, CLOSE_PARTITIONS, part)));
+                links.add(() -> inCloseTx(d -> d.linkTasksPartition(target, CLOSE_PARTITIONS, part)));
+            }
+            awaitAll(pool.invokeAll(upserts));
+            awaitAll(pool.invokeAll(links));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException("E:INV-CLOSE01 月次締めが中断されました。", e);
+        } catch (ExecutionException e) {
+            throw new ServiceException("E:INV-CLOSE02 月次集計の作成に失敗しました。再実行してください。", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        /** ④ 締め登録 → 検証 → 確定 */
+        try (TransactionManager tm = new TransactionManager()) {
+            MonthCloseDAO dao = new MonthCloseDAO(tm.getConnection());
+            /** 確定が終わるまで業務の登録・変更を止める（共有ロック側は確定のコミット後に締め済みを判定する） */
+            dao.lockMonth(ym);
+            if (!dao.insertClosing(ym, adminId)) {
+                return closeError(ym + " は締め済みです。");
+            }
+            MonthCloseDAO.Check check = dao.verify(ym);
+            if (check.unapproved() > 0 || check.stale() > 0) {
+                /** 集計中に業務が変更された（commit しないため締め登録も取り消される） */
+                return closeError(ym + " の締め処理中に業務が変更されました。再実行してください。");
+            }
+            dao.finalizeMonth(ym, check.taskCount());
+            tm.commit();
+        }
+        return req.getContextPath() + "/admin/invoice/sales?yearMonth=" + ym;
+    }
+
+    /**
+     * 「【admin】 機能：月次データのアーカイブ」
+     */
+    /**
+     * 当月から {@link ArchiveConfig#getHorizonMonths()} か月より前の締め済み月を、古い月から順に
+     * archive スキーマへ退避します（1 か月ごとに別トランザクション）。
+     * - 作業日がアサイン月と異なる業務がある月はスキップし、エラー画面で月と件数を知らせる
+     * - 売上・支払の集計値は確定済みの月次集計から表示されるため、アーカイブ後も変わらない
+     *
+     * @return リダイレクト先（成功：売上サマリー、スキップあり：エラー画面）
+     */
+    public String adminArchive() {
+        String cutoff = YearMonth.now(ZoneId.of("Asia/Tokyo"))
+                .minusMonths(ArchiveConfig.getHorizonMonths()).toString();
+
+        List<String> months;
+        try (TransactionManager tm = new TransactionManager()) {
+            months = new ArchiveDAO(tm.getConnection()).selectArchivableMonths(cutoff);
+        }
+
+        int archived = 0;
+        for (String ym : months) {
+            try (TransactionManager tm = new TransactionManager()) {
+                ArchiveDAO dao = new ArchiveDAO(tm.getConnection());
+                /** 締め行をロックしてから照合する（他の実行がアーカイブ済みなら対象外） */
+                if (!dao.lockClosing(ym)) continue;
+                long mismatch = dao.countMonthMismatch(ym);
+                if (mismatch > 0) {
+                    validation.addErrorMsg(ym + " は作業日がアサイン月と異なる業務が " + mismatch
+                            + " 件あるためアーカイブしませんでした。");
+                    continue;
+                }
+                if (dao.archiveMonth(ym) != null) archived++;
+                tm.commit();
+            }
+        }
+
+        if (validation.hasErrorMsg()) {
+            return closeError(archived + " か月分をアーカイブしました。");
+        }
+        return req.getContextPath() + "/admin/invoice/sales";
+    }
+
     /**
      * ④ ヘルパー（全メソッドJavadocあり）
      */
@@ -606,6 +848,19 @@ public class InvoiceService extends BaseService {
         return ym;
     }
 
+    /**
+     * 振込データ（全銀）に含められるか判定し、不可ならその理由を返す。
+     * @param s 口座情報を含む秘書
+     * @return 不備の理由（問題なければ null）
+     */
+    private static String transferIssue(SecretaryDTO s) {
+        if (s.getBankCode() == null || s.getBankBranchCode() == null) return "金融機関・支店コード未登録";
+        if (!"普通".equals(s.getBankType()) && !"当座".equals(s.getBankType())) return "口座種別未登録";
+        if (s.getBankAccount() == null || !s.getBankAccount().matches("\\d{1,7}")) return "口座番号不備";
+        if (!ZenginTransferWriter.isTransferableName(s.getBankOwner())) return "口座名義がカナ以外";
+        return null;
+    }
+
     /**
      * null を空文字へ変換。
      * @param s 入力
@@ -761,9 +1016,18 @@ public class InvoiceService extends BaseService {
      * @param yearMonth  年月（yyyy-MM）
      * @return ステータスマップ（keys: unapproved, total）
      */
-    private Map<String, Object> buildMonthlyStat(InvoiceDAO dao, UUID customerId, String yearMonth) {
+    private Map<String, Object> buildMonthlyStat(InvoiceDAO dao, CustomerMonthlyInvoiceDAO cmiDao,
+                                                 UUID customerId, String yearMonth) {
         Map<String, Object> stat = new HashMap<>();
 
+        /** 月次締め済み（確定値あり）の月は tasks を再集計しない（締め済み＝全件承認済み） */
+        BigDecimal finalized = cmiDao.selectFinalizedAmount(customerId, yearMonth);
+        if (finalized != null) {
+            stat.put("unapproved", 0);
+            stat.put("total", finalized);
+            return stat;
+        }
+
         int unapproved = 0;
         List<TaskDTO> taskDtos = dao.selectTasksByMonthAndCustomer(customerId, yearMonth);
         if (taskDtos != null) {
@@ -777,25 +1041,71 @@ public class InvoiceService extends BaseService {
         List<InvoiceDTO> invs = dao.selectTotalMinutesBySecretaryAndCustomer(customerId, yearMonth);
         BigDecimal total = null;
         if (invs != null && !invs.isEmpty()) {
-            BigDecimal sum = BigDecimal.ZERO;
-            for (InvoiceDTO d : invs) {
-                if (d.getFee() != null) sum = sum.add(d.getFee());
-            }
-            total = sum;
+            total = sumFee(invs);
         }
         stat.put("total", total);
         return stat;
     }
 
+    /**
+     * 月次締めの 1 パーティション分の処理を独立したトランザクションで実行。
+     * @param job 処理
+     * @return 影響行数
+     */
+    private static int inCloseTx(ToIntFunction<MonthCloseDAO> job) {
+        try (TransactionManager tm = new TransactionManager()) {
+            int n = job.applyAsInt(new MonthCloseDAO(tm.getConnection()));
+            tm.commit();
+            return n;
+        }
+    }
+
+    /**
+     * 並列実行したパーティション処理の完了を待ち、最初の失敗を送出。
+     * @param futures 実行結果
+     * @throws InterruptedException 待機中に割り込まれた場合
+     * @throws ExecutionException いずれかのパーティションが失敗した場合
+     */
+    private static void awaitAll(List<Future<Integer>> futures) throws InterruptedException, ExecutionException {
+        for (Future<Integer> f : futures) {
+            f.get();
+        }
+    }
+
+    /**
+     * 月次締めの入力・状態エラーをエラー画面へ返す。
+     * @param msg エラーメッセージ
+     * @return エラー画面へのリダイレクト先
+     */
+    private String closeError(String msg) {
+        validation.addErrorMsg(msg);
+        req.setAttribute("errorMsg", validation.getErrorMsg());
+        return req.getContextPath() + req.getServletPath() + "/error";
+    }
+
+    /**
+     * 秘書支払の月合計（締め済みの月は確定値、未締めは明細から算出）。
+     * @param dao      請求DAO
+     * @param smsDao   秘書別月次集計DAO
+     * @param closeDao 月次締めDAO
+     * @param ym       年月（yyyy-MM）
+     * @return 合計金額
+     */
+    private BigDecimal costTotal(InvoiceDAO dao, SecretaryMonthlySummaryDAO smsDao, MonthCloseDAO closeDao, String ym) {
+        return closeDao.isClosed(ym) ? smsDao.selectFinalizedTotal(ym) : sumFee(dao.selectAdminLines(ym));
+    }
+
     /**
      * 請求金額合計（null を無視して加算）。
+     * 加算は銭単位の long（{@link Money}）で行い、最後に一度だけ BigDecimal に戻す。
      * @param list 請求行一覧
      * @return 合計金額
      */
     private BigDecimal sumFee(List<InvoiceDTO> list) {
-        return list.stream()
-                .map(InvoiceDTO::getFee)
-                .filter(Objects::nonNull)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        Money sum = new Money();
+        for (InvoiceDTO d : list) {
+            sum.add(d.getFee());
+        }
+        return sum.toBigDecimal();
     }
 }
@@ -0,0 +1,66 @@
+package service;
+
+import java.util.Date;
+
+import dao.SlowQueryLog;
+import filter.RouteMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * 性能メトリクス（ルート別の処理時間・DB アクセス）の管理者向け表示を提供するサービス。
+ *
+ * コントローラ（FrontController）からの入口:
+ * - {@link #adminMetrics()} … /admin/metrics 用
+ * - {@link #adminSlowQueries()} … /admin/metrics/slow 用
+ *
+ * 画面へは以下の属性を渡します:
+ * - {@code "routes"}: List&lt;Map&lt;String, Object&gt;&gt; … ルート別の値（{@link RouteMetrics#snapshot()}）
+ * - {@code "startedAt"}: Date … 集計開始日時
+ * - {@code "nPlusOneRepeat"}: int … N+1 の疑いとする同一SQLの実行回数
+ * - {@code "slowQueries"}: List&lt;SlowQueryLog.Entry&gt; … スロークエリ（新しい順）
+ * - {@code "slowThresholdMillis"} / {@code "explainRate"} … スロークエリのしきい値（ミリ秒）・実行計画の取得割合
+ *
+ * 値はメモリ上の集計を読むだけのため、DB 接続は使用しません。
+ */
+public class MetricsService extends BaseService {
+
+    /** ビュー: メトリクス */
+    private static final String VIEW_METRICS = "metrics/admin/home";
+    /** ビュー: スロークエリ */
+    private static final String VIEW_SLOW = "metrics/admin/slow";
+
+    private static final String A_ROUTES     = "routes";
+    private static final String A_STARTED_AT = "startedAt";
+    private static final String A_N_PLUS_ONE = "nPlusOneRepeat";
+    private static final String A_SLOW       = "slowQueries";
+    private static final String A_THRESHOLD  = "slowThresholdMillis";
+    private static final String A_EXPLAIN    = "explainRate";
+
+    public MetricsService(HttpServletRequest req, boolean useDB) {
+        super(req, useDB);
+    }
+
+    /**
+     * 【admin】ルート別の性能メトリクスを表示します。
+     *
+     * @return ビュー名
+     */
+    public String adminMetrics() {
+        req.setAttribute(A_ROUTES, RouteMetrics.snapshot());
+        req.setAttribute(A_STARTED_AT, new Date(RouteMetrics.startedAt()));
+        req.setAttribute(A_N_PLUS_ONE, RouteMetrics.nPlusOneRepeat());
+        return VIEW_METRICS;
+    }
+
+    /**
+     * 【admin】スロークエリ（リングバッファに残っている分）を表示します。
+     *
+     * @return ビュー名
+     */
+    public String adminSlowQueries() {
+        req.setAttribute(A_SLOW, SlowQueryLog.recent());
+        req.setAttribute(A_THRESHOLD, SlowQueryLog.thresholdMillis());
+        req.setAttribute(A_EXPLAIN, SlowQueryLog.explainRate());
+        return VIEW_SLOW;
+    }
+}
@@ -1,31 +1,39 @@
 package service;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 
 import dao.CustomerMonthlyInvoiceDAO;
+import dao.FiscalPivotCache;
 import dao.SecretaryMonthlySummaryDAO;
 import dao.TransactionManager;
-import dto.PivotRowDTO;
+import dto.PivotCubeDTO;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
 /**
  * 売上（顧客×月）・コスト（秘書×月）の会計年度（4月開始）サマリーを提供するサービス。
  *
- * コントローラ（FrontController）からの入口は以下の2メソッドのみ:
+ * コントローラ（FrontController）からの入口は以下の4メソッド:
  * - {@link #salesSummary()}  … /admin/summary/sales 用（顧客×月売上）
  * - {@link #costSummary()}   … /admin/summary/costs 用（秘書×月コスト）
+ * - {@link #exportSalesCsv(HttpServletResponse)} … /admin/summary/sales/export 用（顧客×月明細 CSV）
+ * - {@link #exportCostsCsv(HttpServletResponse)} … /admin/summary/costs/export 用（秘書×月明細 CSV）
  *
- * 画面へは以下の属性を渡します（いずれも変更なし）:
+ * 画面へは以下の属性を渡します:
  * - {@code "months"}（A_MONTHS）: List&lt;String&gt; … 表示対象の年月（YYYY-MM）12か月（4月→翌3月）
  * - {@code "fy"}（A_FY）: int … 会計年度（4月開始）
- * - {@code "rows"}（A_ROWS）: List&lt;PivotRowDTO&gt; … ピボット行（顧客別or秘書別）
- * - {@code "colTotals"}（A_COLTOTAL）: Map&lt;ym, BigDecimal&gt; … 列合計（各月の合計）
+ * - {@code "rows"}（A_ROWS）: List&lt;PivotRowDTO&gt; … ピボット行（顧客別or秘書別。金額は {@code amounts[列位置]}）
+ * - {@code "colTotals"}（A_COLTOTAL）: List&lt;BigDecimal&gt; … 列合計（各月の合計、months と同じ並び）
  * - {@code "grandTotal"}（A_GRAND）: BigDecimal … 総合計
+ * - {@code "prevColTotals"} / {@code "prevRowTotals"} / {@code "prevGrandTotal"} … 前年度の同月合計（列位置で対応）・行合計・総合計
+ *
+ * セル・行合計・列合計・総合計は DB の CUBE 集計 1 回で取得し、締め済み年度は {@link FiscalPivotCache} に保持します。
  *
  * エラー時は {@code "errorMsg"} にメッセージを詰めてエラーページへ遷移します（キー名は既存仕様を踏襲）。
  */
@@ -45,7 +53,7 @@ public class SalesCostSummaryService extends BaseService {
      * List&lt;String&gt; YYYY-MM（4月→翌3月）: months
      * 表示年度: fy
      * List&lt;PivotRowDTO&gt;: rows
-     * Map&lt;ym, BigDecimal&gt;: colTotals
+     * List&lt;BigDecimal&gt;: colTotals（months と同じ並び）
      * BigDecimal: grandTotal
      */
     private static final String A_MONTHS   = "months";
@@ -54,12 +62,25 @@ public class SalesCostSummaryService extends BaseService {
     private static final String A_COLTOTAL = "colTotals";
     private static final String A_GRAND    = "grandTotal";
 
+    /**
+     * 前年度比較用（前年度の値。列合計は当年度と同じ列位置）
+     * List&lt;BigDecimal&gt;: prevColTotals
+     * Map&lt;UUID, BigDecimal&gt;: prevRowTotals
+     * BigDecimal: prevGrandTotal
+     */
+    private static final String A_PREV_COLTOTAL = "prevColTotals";
+    private static final String A_PREV_ROWTOTAL = "prevRowTotals";
+    private static final String A_PREV_GRAND    = "prevGrandTotal";
+
     /**
      * Request Parameter names（受取）
      * 例: 2025（4月開始のFY）
      */
     private static final String P_FY = "fy";
 
+    /** CSV 先頭の BOM（Excel で UTF-8 として開かせるため） */
+    private static final byte[] UTF8_BOM = { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };
+
     /**
      * ② フィールド・コンストラクタ
      */
@@ -83,8 +104,8 @@ public class SalesCostSummaryService extends BaseService {
     /**
      * 「顧客×月の売上サマリー」を表示する。
      * - request param {@code 'fy'}：会計年度（4月開始）。未指定なら今日からFYを推定。
-     * - 対象FYの12か月（4月→翌3月）を生成し、範囲に対して集計クエリを実行。
-     * - 列合計と総合計を計算して JSP に渡す。
+     * - 対象FYの12か月（4月→翌3月）を生成し、範囲に対して集計クエリ（CUBE）を実行。
+     * - セル・行合計・列合計・総合計と、前年度の比較値を JSP に渡す。
      *
      * @return ビュー名 {@value VIEW_SALES}（エラー時はエラーページ）
      */
@@ -93,24 +114,8 @@ public class SalesCostSummaryService extends BaseService {
             final int fy = resolveFiscalYear(req.getParameter(P_FY));
             final List<String> months = buildFiscalMonths(fy);
 
-            /** 期間（最初と最後のYM） */
-            final String fromYm = months.get(0);
-            final String toYm   = months.get(months.size() - 1);
-
-            /** DAO 呼び出し：顧客×月の売上ピボット */
-            CustomerMonthlyInvoiceDAO dao = new CustomerMonthlyInvoiceDAO(tm.getConnection());
-            List<PivotRowDTO> rows = dao.selectSalesByCustomerMonth(fromYm, toYm, months);
-
-            /** 列合計・総合計 */
-            Map<String, BigDecimal> colTotals = calcColTotals(months, rows);
-            BigDecimal grand = calcGrand(colTotals);
-
-            /** JSP へ */
-            req.setAttribute(A_FY, fy);
-            req.setAttribute(A_MONTHS, months);
-            req.setAttribute(A_ROWS, rows);
-            req.setAttribute(A_COLTOTAL, colTotals);
-            req.setAttribute(A_GRAND, grand);
+            /** 顧客×月の売上ピボット（当年度・前年度。締め済み年度はキャッシュ） */
+            setPivotAttributes(tm, FiscalPivotCache.Kind.SALES, fy, months);
 
             return VIEW_SALES;
 
@@ -128,8 +133,8 @@ public class SalesCostSummaryService extends BaseService {
     /**
      * 「秘書×月のコストサマリー」を表示する。
      * - request param {@code 'fy'}：会計年度（4月開始）。未指定なら今日からFYを推定。
-     * - 対象FYの12か月（4月→翌3月）を生成し、範囲に対して集計クエリを実行。
-     * - 列合計と総合計を計算して JSP に渡す。
+     * - 対象FYの12か月（4月→翌3月）を生成し、範囲に対して集計クエリ（CUBE）を実行。
+     * - セル・行合計・列合計・総合計と、前年度の比較値を JSP に渡す。
      *
      * @return ビュー名 {@value VIEW_COSTS}（エラー時はエラーページ）
      */
@@ -138,21 +143,8 @@ public class SalesCostSummaryService extends BaseService {
             final int fy = resolveFiscalYear(req.getParameter(P_FY));
             final List<String> months = buildFiscalMonths(fy);
 
-            final String fromYm = months.get(0);
-            final String toYm   = months.get(months.size() - 1);
-
-            // DAO 呼び出し：秘書×月のコストピボット
-            SecretaryMonthlySummaryDAO dao = new SecretaryMonthlySummaryDAO(tm.getConnection());
-            List<PivotRowDTO> rows = dao.selectCostsBySecretaryMonth(fromYm, toYm, months);
-
-            Map<String, BigDecimal> colTotals = calcColTotals(months, rows);
-            BigDecimal grand = calcGrand(colTotals);
-
-            req.setAttribute(A_FY, fy);
-            req.setAttribute(A_MONTHS, months);
-            req.setAttribute(A_ROWS, rows);
-            req.setAttribute(A_COLTOTAL, colTotals);
-            req.setAttribute(A_GRAND, grand);
+            /** 秘書×月のコストピボット（当年度・前年度。締め済み年度はキャッシュ） */
+            setPivotAttributes(tm, FiscalPivotCache.Kind.COSTS, fy, months);
 
             return VIEW_COSTS;
 
@@ -163,6 +155,58 @@ public class SalesCostSummaryService extends BaseService {
         }
     }
 
+    /**
+     * 「【admin】 機能：売上明細エクスポート（顧客×月）」
+     */
+    /**
+     * 会計年度の「顧客×月」請求明細を CSV でダウンロードさせる。
+     * - request param {@code 'fy'}：会計年度（4月開始）。未指定なら今日からFYを推定。
+     * - DB の COPY TO STDOUT の出力をレスポンスへそのまま流す（行の組み立て・整形を Java 側で行わない）。
+     *
+     * @param res レスポンス（ストリームへ CSV を書き込み）
+     * @throws ServiceException 出力に失敗した場合
+     */
+    public void exportSalesCsv(HttpServletResponse res) {
+        final int fy = resolveFiscalYear(req.getParameter(P_FY));
+        final List<String> months = buildFiscalMonths(fy);
+
+        try (TransactionManager tm = new TransactionManager()) {
+            OutputStream out = startCsv(res, "売上明細_FY" + fy + ".csv");
+            new CustomerMonthlyInvoiceDAO(tm.getConnection())
+                    .copySalesDetailCsv(months.get(0), months.get(months.size() - 1), out);
+            out.flush();
+            tm.commit();
+        } catch (IOException e) {
+            throw new ServiceException("E:SUM-EXP01 売上明細の出力に失敗しました。", e);
+        }
+    }
+
+    /**
+     * 「【admin】 機能：支出明細エクスポート（秘書×月）」
+     */
+    /**
+     * 会計年度の「秘書×月」支出明細を CSV でダウンロードさせる。
+     * - request param {@code 'fy'}：会計年度（4月開始）。未指定なら今日からFYを推定。
+     * - DB の COPY TO STDOUT の出力をレスポンスへそのまま流す。
+     *
+     * @param res レスポンス（ストリームへ CSV を書き込み）
+     * @throws ServiceException 出力に失敗した場合
+     */
+    public void exportCostsCsv(HttpServletResponse res) {
+        final int fy = resolveFiscalYear(req.getParameter(P_FY));
+        final List<String> months = buildFiscalMonths(fy);
+
+        try (TransactionManager tm = new TransactionManager()) {
+            OutputStream out = startCsv(res, "支出明細_FY" + fy + ".csv");
+            new SecretaryMonthlySummaryDAO(tm.getConnection())
+                    .copyCostsDetailCsv(months.get(0), months.get(months.size() - 1), out);
+            out.flush();
+            tm.commit();
+        } catch (IOException e) {
+            throw new ServiceException("E:SUM-EXP02 支出明細の出力に失敗しました。", e);
+        }
+    }
+
     /**
      * ④ ヘルパーメソッド（private）
      */
@@ -206,35 +250,42 @@ public class SalesCostSummaryService extends BaseService {
     }
 
     /**
-     * 列（各月）ごとの合計を計算する。
-     * @param months 表示する年月（YYYY-MM）
-     * @param rows   ピボット行（顧客別または秘書別）
-     * @return ym→合計金額 の LinkedHashMap（順序保持）
+     * 当年度と前年度のピボットを取得し、JSP 用の属性を設定する。
+     * 金額は銭単位の long で保持しており、BigDecimal への変換はここ（画面への受け渡し）でのみ行う。
+     * 前年度の列合計は列位置（4月→翌3月）で当年度と対応する。
+     *
+     * @param tm     トランザクション
+     * @param kind   売上 or コスト
+     * @param fy     会計年度（4月開始）
+     * @param months 当年度の12か月
      */
-    private Map<String, BigDecimal> calcColTotals(List<String> months, List<PivotRowDTO> rows) {
-        Map<String, BigDecimal> totals = new LinkedHashMap<>();
-        for (String m : months) {
-            totals.put(m, BigDecimal.ZERO);
-        }
-        for (PivotRowDTO r : rows) {
-            for (String m : months) {
-                BigDecimal v = r.getAmountByYm().getOrDefault(m, BigDecimal.ZERO);
-                totals.put(m, totals.get(m).add(v));
-            }
-        }
-        return totals;
+    private void setPivotAttributes(TransactionManager tm, FiscalPivotCache.Kind kind, int fy, List<String> months) {
+        PivotCubeDTO cube = FiscalPivotCache.get(tm.getConnection(), kind, fy, months);
+        PivotCubeDTO prev = FiscalPivotCache.get(tm.getConnection(), kind, fy - 1, buildFiscalMonths(fy - 1));
+
+        req.setAttribute(A_FY, fy);
+        req.setAttribute(A_MONTHS, months);
+        req.setAttribute(A_ROWS, cube.getRows());
+        req.setAttribute(A_COLTOTAL, cube.getColTotals());
+        req.setAttribute(A_GRAND, cube.getGrandTotal());
+        req.setAttribute(A_PREV_COLTOTAL, prev.getColTotals());
+        req.setAttribute(A_PREV_ROWTOTAL, prev.rowTotalsById());
+        req.setAttribute(A_PREV_GRAND, prev.getGrandTotal());
     }
 
     /**
-     * 総合計（全列合計の合計）を返す。
-     * @param colTotals 月別合計
-     * @return 総合計
+     * CSV ダウンロード用のヘッダを設定し、BOM を書き込んだ出力ストリームを返す。
+     * @param res      レスポンス
+     * @param fileName ダウンロードファイル名
+     * @return 出力ストリーム（コンテナ管理のためクローズ不要）
+     * @throws IOException 書き込みに失敗した場合
      */
-    private BigDecimal calcGrand(Map<String, BigDecimal> colTotals) {
-        BigDecimal g = BigDecimal.ZERO;
-        for (BigDecimal v : colTotals.values()) {
-            g = g.add(v);
-        }
-        return g;
+    private OutputStream startCsv(HttpServletResponse res, String fileName) throws IOException {
+        String encoded = URLEncoder.encode(fileName, StandardCharsets.UTF_8).replace("+", "%20");
+        res.setContentType("text/csv; charset=UTF-8");
+        res.setHeader("Content-Disposition", "attachment; filename*=UTF-8''" + encoded);
+        OutputStream out = res.getOutputStream();
+        out.write(UTF8_BOM);
+        return out;
     }
 }
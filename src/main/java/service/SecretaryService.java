@@ -31,6 +31,7 @@ import dto.SecretaryMonthlySummaryDTO;
 import dto.SecretaryRankDTO;
 import util.ConvertUtil;
 import util.PasswordUtil;
+import util.ZenginTransferWriter;
 import dto.SecretaryTotalsDTO;
 
 /**
@@ -83,6 +84,8 @@ public class SecretaryService extends BaseService {
     private static final String P_BANK_TYPE      = "bankType";
     private static final String P_BANK_ACCOUNT   = "bankAccount";
     private static final String P_BANK_OWNER     = "bankOwner";
+    private static final String P_BANK_CODE      = "bankCode";
+    private static final String P_BANK_BRANCH_CODE = "bankBranchCode";
 
     /**
      * 属性名（JSPへ渡すキー）
@@ -612,6 +615,9 @@ public class SecretaryService extends BaseService {
         final String mail       = req.getParameter(P_MAIL);
         final String phone      = req.getParameter(P_PHONE);
         final String postalCode = req.getParameter(P_POSTAL_CODE);
+        final String bankOwner      = req.getParameter(P_BANK_OWNER);
+        final String bankCode       = req.getParameter(P_BANK_CODE);
+        final String bankBranchCode = req.getParameter(P_BANK_BRANCH_CODE);
 
         /** 必須＆形式 */
         validation.isNull("氏名", name);
@@ -619,6 +625,11 @@ public class SecretaryService extends BaseService {
         if (notBlank(mail))       validation.isEmail(mail);
         if (notBlank(postalCode)) validation.isPostalCode(postalCode);
         if (notBlank(phone))      validation.isPhoneNumber(phone);
+        if (notBlank(bankCode))       validation.isFixedDigits("金融機関コード", bankCode, 4);
+        if (notBlank(bankBranchCode)) validation.isFixedDigits("支店コード", bankBranchCode, 3);
+        if (notBlank(bankOwner) && !ZenginTransferWriter.isTransferableName(bankOwner)) {
+            validation.addErrorMsg("口座名義人はカタカナで入力してください。");
+        }
         if (notBlank(password) && password.length() < 8) {
             validation.addErrorMsg("パスワードは8文字以上で入力してください。");
         }
@@ -674,6 +685,8 @@ public class SecretaryService extends BaseService {
         final String bankType    = req.getParameter(P_BANK_TYPE);
         final String bankAccount = req.getParameter(P_BANK_ACCOUNT);
         final String bankOwner   = req.getParameter(P_BANK_OWNER);
+        final String bankCode       = req.getParameter(P_BANK_CODE);
+        final String bankBranchCode = req.getParameter(P_BANK_BRANCH_CODE);
 
         /** 入力検証 */
         validation.isNull("氏名", name);
@@ -681,6 +694,11 @@ public class SecretaryService extends BaseService {
         if (notBlank(mail))       validation.isEmail(mail);
         if (notBlank(postalCode)) validation.isPostalCode(postalCode);
         if (notBlank(phone))      validation.isPhoneNumber(phone);
+        if (notBlank(bankCode))       validation.isFixedDigits("金融機関コード", bankCode, 4);
+        if (notBlank(bankBranchCode)) validation.isFixedDigits("支店コード", bankBranchCode, 3);
+        if (notBlank(bankOwner) && !ZenginTransferWriter.isTransferableName(bankOwner)) {
+            validation.addErrorMsg("口座名義人はカタカナで入力してください。");
+        }
         if (notBlank(password) && password.length() < 8) {
             validation.addErrorMsg("パスワードは8文字以上で入力してください。");
         }
@@ -742,6 +760,8 @@ public class SecretaryService extends BaseService {
             dto.setBankType(emptyToNull(bankType));
             dto.setBankAccount(emptyToNull(bankAccount));
             dto.setBankOwner(emptyToNull(bankOwner));
+            dto.setBankCode(emptyToNull(bankCode));
+            dto.setBankBranchCode(emptyToNull(bankBranchCode));
             
             try {
                 dao.updateWithBank(dto);
@@ -840,6 +860,8 @@ public class SecretaryService extends BaseService {
         req.setAttribute(P_BANK_TYPE,    req.getParameter(P_BANK_TYPE));
         req.setAttribute(P_BANK_ACCOUNT, req.getParameter(P_BANK_ACCOUNT));
         req.setAttribute(P_BANK_OWNER,   req.getParameter(P_BANK_OWNER));
+        req.setAttribute(P_BANK_CODE,    req.getParameter(P_BANK_CODE));
+        req.setAttribute(P_BANK_BRANCH_CODE, req.getParameter(P_BANK_BRANCH_CODE));
     }
 
     /**
@@ -1,6 +1,12 @@
 package service;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.sql.Date;
 import java.sql.Timestamp;
@@ -16,9 +22,17 @@ import java.util.Optional;
 import java.util.UUID;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import util.ConvertUtil;
+import util.Money;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
 import dao.AssignmentDAO;
+import dao.MonthCloseDAO;
 import dao.TaskDAO;
 import dao.TransactionManager;
 import domain.Assignment;
@@ -85,6 +99,9 @@ public class TaskService extends BaseService {
     private static final String P_CLEAR_REMAND  = "clearRemand";          // "1" で差戻クリア
     private static final String P_SEC_NAME      = "sec";                  // 秘書名 like
     private static final String P_CUST_NAME     = "cust";                 // 顧客名 like
+    private static final String P_AFTER         = "after";                // キーセット：直前ページ末尾のタスクID
+    private static final String P_POS           = "pos";                  // 表示中ページの先頭までの件数（行番号用）
+    private static final String P_FORMAT        = "format";               // エクスポート形式：csv|xlsx
 
     /**
      * Request Attr（既存 JSP 名を変更せず使用）
@@ -99,6 +116,9 @@ public class TaskService extends BaseService {
     private static final String A_COMPANY_NAME     = "companyName";
     private static final String A_COMPANY_ID       = "companyId";
     private static final String A_ERROR_MSG        = "errorMsg";
+    private static final String A_NEXT_AFTER       = "nextAfter";
+    private static final String A_POS              = "pos";
+    private static final String A_PAGE_SIZE        = "pageSize";
 
     /**
      * Session
@@ -113,6 +133,20 @@ public class TaskService extends BaseService {
     private static final DateTimeFormatter YMD_FMT  = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final DateTimeFormatter HM_FMT   = DateTimeFormatter.ofPattern("HH:mm");
 
+    /**
+     * 管理者一覧の 1 ページあたり件数
+     */
+    private static final int ADMIN_PAGE_SIZE = 100;
+
+    /**
+     * エクスポート（管理者一覧）
+     * - XLSX はこの行数だけをメモリに保持し、超過分は一時ファイルへ書き出す
+     */
+    private static final int EXPORT_ROW_WINDOW = 100;
+    private static final String[] EXPORT_HEADERS = {
+            "秘書", "顧客", "日付", "開始", "終了", "稼働（分）", "ランク", "内容",
+            "単価（顧客）", "金額（顧客）", "単価（秘書）", "報酬（秘書）", "状態", "差戻コメント" };
+
     /**
      * ② フィールド / コンストラクタ
      */
@@ -207,19 +241,19 @@ public class TaskService extends BaseService {
             List<TaskDTO> dtos = dao.selectBySecretaryAndMonth(secretaryId, ym, status);
 
             List<Task> tasks = new ArrayList<>(dtos.size());
-            BigDecimal sum = BigDecimal.ZERO;
+            Money sum = new Money();
             int totalMinute = 0;
 
             for (TaskDTO d : dtos) {
                 Task t = conv.toDomain(d);
                 totalMinute += (t.getWorkMinute() == null ? 0 : t.getWorkMinute());
-                if (t.getFee() != null) sum = sum.add(t.getFee());
+                sum.add(t.getFee());
                 tasks.add(t);
             }
 
             // JSP へ
             req.setAttribute(A_TASKS, tasks);
-            req.setAttribute(A_SUM, sum);
+            req.setAttribute(A_SUM, sum.toBigDecimal());
             req.setAttribute(A_TOTAL_MINUTE, totalMinute);
             req.setAttribute(A_COUNT, tasks.size());
             req.setAttribute(A_YEAR_MONTH, ym);
@@ -339,6 +373,14 @@ public class TaskService extends BaseService {
         /** 保存 */
         try (TransactionManager tm = new TransactionManager()) {
             TaskDAO taskDao = new TaskDAO(tm.getConnection());
+            MonthCloseDAO closeDao = new MonthCloseDAO(tm.getConnection());
+            /** 締めの確定と直列化（確定中なら完了を待ってから締め済みを判定する） */
+            closeDao.lockMonthShared(yearMonth);
+            if (closeDao.isClosed(yearMonth)) {
+                validation.addErrorMsg("締め済みの月（" + yearMonth + "）の業務は登録・変更できません。");
+                req.setAttribute(A_ERROR_MSG, validation.getErrorMsg());
+                return REDIRECT_ERROR;
+            }
 
             TaskDTO dto = new TaskDTO();
             AssignmentDTO ad = new AssignmentDTO();
@@ -502,6 +544,14 @@ public class TaskService extends BaseService {
 
         try (TransactionManager tm = new TransactionManager()) {
             TaskDAO taskDao = new TaskDAO(tm.getConnection());
+            MonthCloseDAO closeDao = new MonthCloseDAO(tm.getConnection());
+            /** 締めの確定と直列化（確定中なら完了を待ってから締め済みを判定する） */
+            closeDao.lockMonthShared(yearMonth);
+            if (closeDao.isClosed(yearMonth)) {
+                validation.addErrorMsg("締め済みの月（" + yearMonth + "）の業務は登録・変更できません。");
+                req.setAttribute(A_ERROR_MSG, validation.getErrorMsg());
+                return REDIRECT_ERROR;
+            }
 
             TaskDTO dto = new TaskDTO();
             dto.setId(taskId);
@@ -600,6 +650,50 @@ public class TaskService extends BaseService {
         return VIEW_ADMIN_ALL;
     }
 
+    /**
+     * 「【admin】　機能：一覧エクスポート（CSV / XLSX）
+     */
+    /**
+     * 管理者一覧と同じ条件（年月・状態・秘書名・顧客名）のタスクを、ページングせず月全体で出力します。
+     * DB はサーバサイドカーソル（{@link TaskDAO#streamByMonth}）で読み、1 行ずつレスポンスへ書き出すため、
+     * 使用メモリは月の件数に依存しません。
+     * - request param: yearMonth（任意）、status（任意：all|unapproved|approved|remanded）、sec、cust、format（csv|xlsx、既定 csv）
+     * - CSV は UTF-8（BOM 付き、Excel でそのまま開ける形式）
+     * - XLSX は SXSSFWorkbook（{@value #EXPORT_ROW_WINDOW} 行ウィンドウ）で生成
+     *
+     * @param res レスポンス（ストリームへ書き込み）
+     * @throws ServiceException 出力に失敗した場合
+     */
+    public void adminTaskExport(HttpServletResponse res) {
+        String ym   = Optional.ofNullable(req.getParameter(P_YEAR_MONTH)).filter(s -> !s.isBlank())
+                .orElse(LocalDate.now(Z_TOKYO).format(YM_FMT));
+        String status = Optional.ofNullable(req.getParameter(P_STATUS))
+                .filter(s -> s.equals("unapproved") || s.equals("approved") || s.equals("remanded"))
+                .orElse("all");
+        String sec  = Optional.ofNullable(req.getParameter(P_SEC_NAME)).orElse("");
+        String cust = Optional.ofNullable(req.getParameter(P_CUST_NAME)).orElse("");
+        boolean xlsx = "xlsx".equalsIgnoreCase(req.getParameter(P_FORMAT));
+
+        String fileName = "タスク一覧_" + ym + (xlsx ? ".xlsx" : ".csv");
+        res.setContentType(xlsx
+                ? "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"
+                : "text/csv; charset=UTF-8");
+        res.setHeader("Content-Disposition", "attachment; filename*=UTF-8''"
+                + URLEncoder.encode(fileName, StandardCharsets.UTF_8).replace("+", "%20"));
+
+        try (TransactionManager tm = new TransactionManager()) {
+            TaskDAO dao = new TaskDAO(tm.getConnection());
+            if (xlsx) {
+                exportXlsx(dao, ym, status, sec, cust, res);
+            } else {
+                exportCsv(dao, ym, status, sec, cust, res);
+            }
+            tm.commit();
+        } catch (IOException | UncheckedIOException e) {
+            throw new ServiceException("E:TS-EXP01 タスク一覧の出力に失敗しました。", e);
+        }
+    }
+
     /**
      * 「【admin】　機能：一覧（未承認）
      */
@@ -988,37 +1082,175 @@ public class TaskService extends BaseService {
 
     /**
      * 管理者一覧（各タブ共通）ロードヘルパ。
-     * 集計値（sumSecretary, sumCustomer, totalMinute, count）を request に格納。
+     * 一覧は 1 ページ分（{@value #ADMIN_PAGE_SIZE} 件）だけをキーセットで取得し、
+     * 集計値（sumSecretary, sumCustomer, totalMinute, count）は月全体を DB 側で集計して request に格納。
+     * - request param: after（任意：直前ページ末尾のタスクID）、pos（任意：行番号の開始位置）
+     * - after が対象月に存在しないタスクIDの場合は先頭ページを表示する
      */
     private List<Task> loadAdminList(String yearMonth, String status, String secLike, String custLike,
                                      HttpServletRequest req) {
+        String afterStr = req.getParameter(P_AFTER);
+        UUID after = validation.isUuid(afterStr) ? UUID.fromString(afterStr.trim()) : null;
+        int pos = 0;
+        if (after != null) {
+            try { pos = Math.max(0, Integer.parseInt(Optional.ofNullable(req.getParameter(P_POS)).orElse("0"))); }
+            catch (NumberFormatException ignore) {}
+        }
+
         try (TransactionManager tm = new TransactionManager()) {
             TaskDAO dao = new TaskDAO(tm.getConnection());
-            List<TaskDTO> dtos = dao.selectByMonth(yearMonth, status, secLike, custLike);
+            /** 起点のタスクが見つからない（削除・アーカイブ済み、別の月の ID など）場合は先頭ページに戻す */
+            if (after != null && !dao.existsKeysetAnchor(after, yearMonth)) {
+                after = null;
+                pos = 0;
+            }
+            /** 次ページ有無の判定用に 1 件多く取得 */
+            List<TaskDTO> dtos = dao.selectByMonthPage(yearMonth, status, secLike, custLike, after, ADMIN_PAGE_SIZE + 1);
+            boolean hasNext = dtos.size() > ADMIN_PAGE_SIZE;
+            if (hasNext) dtos = dtos.subList(0, ADMIN_PAGE_SIZE);
 
             List<Task> tasks = new ArrayList<>(dtos.size());
-            BigDecimal sumCustomer = BigDecimal.ZERO;
-            BigDecimal sumSecretary = BigDecimal.ZERO;
-            int totalMinute = 0;
-
             for (TaskDTO d : dtos) {
-                Task t = conv.toDomain(d);
-                totalMinute += (t.getWorkMinute() == null ? 0 : t.getWorkMinute());
-                if (t.getFee() != null)         sumSecretary = sumSecretary.add(t.getFee());
-                if (t.getFeeCustomer() != null) sumCustomer  = sumCustomer.add(t.getFeeCustomer());
-                tasks.add(t);
+                tasks.add(conv.toDomain(d));
             }
 
+            TaskDTO totals = dao.selectTotalsByMonth(yearMonth, status, secLike, custLike);
+
             // setAttribute 名は既存 JSP に合わせる（変更しない）
             req.setAttribute(A_TASKS, tasks);
-            req.setAttribute("sumSecretary", sumSecretary);
-            req.setAttribute("sumCustomer", sumCustomer);
-            req.setAttribute(A_TOTAL_MINUTE, totalMinute);
-            req.setAttribute(A_COUNT, tasks.size());
+            req.setAttribute("sumSecretary", totals.getTotalAmountAll());
+            req.setAttribute("sumCustomer", totals.getTotalAmountCustomer());
+            req.setAttribute(A_TOTAL_MINUTE, totals.getTotalWorkMinute());
+            req.setAttribute(A_COUNT, totals.getTotal());
+            req.setAttribute(A_POS, pos);
+            req.setAttribute(A_PAGE_SIZE, ADMIN_PAGE_SIZE);
+            req.setAttribute(A_NEXT_AFTER, hasNext ? tasks.get(tasks.size() - 1).getId() : null);
             return tasks;
         }
     }
 
+    /**
+     * 管理者一覧を CSV で書き出すヘルパ（バッファ付き Writer へ 1 行ずつ書き出す）。
+     */
+    private void exportCsv(TaskDAO dao, String ym, String status, String sec, String cust,
+                           HttpServletResponse res) throws IOException {
+        Writer w = new BufferedWriter(new OutputStreamWriter(res.getOutputStream(), StandardCharsets.UTF_8));
+        w.write('\uFEFF');
+        writeCsvLine(w, EXPORT_HEADERS);
+        dao.streamByMonth(ym, status, sec, cust, d -> {
+            try {
+                writeCsvLine(w, exportColumns(conv.toDomain(d)));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        w.flush();
+    }
+
+    /**
+     * 管理者一覧を XLSX で書き出すヘルパ。
+     * SXSSFWorkbook はウィンドウ外の行を一時ファイルへ退避するため、try-with-resources で必ず close する
+     * （POI 5 の close は一時ファイルも削除する）。
+     */
+    private void exportXlsx(TaskDAO dao, String ym, String status, String sec, String cust,
+                            HttpServletResponse res) throws IOException {
+        try (SXSSFWorkbook wb = new SXSSFWorkbook(EXPORT_ROW_WINDOW)) {
+            wb.setCompressTempFiles(true);
+            Sheet sh = wb.createSheet(ym);
+            writeXlsxRow(sh.createRow(0), EXPORT_HEADERS);
+            int[] rowNo = { 1 };
+            dao.streamByMonth(ym, status, sec, cust, d -> {
+                Task t = conv.toDomain(d);
+                Row r = sh.createRow(rowNo[0]++);
+                writeXlsxRow(r, exportColumns(t));
+                /** 数値列は数値セルで上書き（Excel 上で集計できるように） */
+                if (t.getWorkMinute() != null) r.createCell(5).setCellValue(t.getWorkMinute());
+                setNumber(r, 8,  t.getHourFeeCustomer());
+                setNumber(r, 9,  t.getFeeCustomer());
+                setNumber(r, 10, t.getHourFee());
+                setNumber(r, 11, t.getFee());
+            });
+            wb.write(res.getOutputStream());
+            res.flushBuffer();
+        }
+    }
+
+    /**
+     * エクスポート 1 行分の表示値（{@link #EXPORT_HEADERS} と同じ並び）。
+     * 状態ラベルは一覧画面のバッジと同じ判定順。
+     */
+    private static String[] exportColumns(Task t) {
+        Assignment a = t.getAssignment();
+        String state;
+        if (t.getApprovedAt() == null && t.isHasRemander()) state = "差戻修正";
+        else if (t.getRemandedAt() != null)               state = "差戻";
+        else if (t.getApprovedAt() != null)               state = "承認済";
+        else                                              state = "未承認";
+        return new String[] {
+                a == null ? "" : nvl(a.getSecretaryName()),
+                a == null ? "" : nvl(a.getCompanyName()),
+                formatDate(t.getWorkDate(), YMD_FMT),
+                formatDate(t.getStartTime(), HM_FMT),
+                formatDate(t.getEndTime(), HM_FMT),
+                t.getWorkMinute() == null ? "" : t.getWorkMinute().toString(),
+                a == null ? "" : nvl(a.getTaskRankName()),
+                nvl(t.getWorkContent()),
+                plain(t.getHourFeeCustomer()),
+                plain(t.getFeeCustomer()),
+                plain(t.getHourFee()),
+                plain(t.getFee()),
+                state,
+                nvl(t.getRemandComment())
+        };
+    }
+
+    /** CSV 1 行を書き込む（RFC 4180 準拠のクォート） */
+    private static void writeCsvLine(Writer w, String[] cols) throws IOException {
+        for (int i = 0; i < cols.length; i++) {
+            if (i > 0) w.write(',');
+            w.write(csvEscape(cols[i]));
+        }
+        w.write("\r\n");
+    }
+
+    /**
+     * CSV セル値のエスケープ。
+     * 先頭が数式記号（= + - @）の文字列は Excel で数式として解釈されないよう ' を前置する。
+     */
+    private static String csvEscape(String v) {
+        if (v.isEmpty()) return v;
+        char c0 = v.charAt(0);
+        if ((c0 == '=' || c0 == '+' || c0 == '-' || c0 == '@') && !isNumeric(v)) v = "'" + v;
+        if (v.indexOf(',') < 0 && v.indexOf('"') < 0 && v.indexOf('\n') < 0 && v.indexOf('\r') < 0) return v;
+        return '"' + v.replace("\"", "\"\"") + '"';
+    }
+
+    private static boolean isNumeric(String v) {
+        try { new BigDecimal(v); return true; } catch (NumberFormatException e) { return false; }
+    }
+
+    private static void writeXlsxRow(Row r, String[] cols) {
+        for (int i = 0; i < cols.length; i++) {
+            r.createCell(i).setCellValue(cols[i]);
+        }
+    }
+
+    private static void setNumber(Row r, int col, BigDecimal v) {
+        if (v != null) r.createCell(col).setCellValue(v.doubleValue());
+    }
+
+    private static String formatDate(java.util.Date d, DateTimeFormatter f) {
+        return d == null ? "" : d.toInstant().atZone(Z_TOKYO).format(f);
+    }
+
+    private static String plain(BigDecimal v) {
+        return v == null ? "" : v.toPlainString();
+    }
+
+    private static String nvl(String s) {
+        return s == null ? "" : s;
+    }
+
     // URL エンコード（UTF-8）
     private static String urlEnc(String s) {
         try {
@@ -121,6 +121,8 @@ public class ConvertUtil {
         s.setBankType(dto.getBankType());
         s.setBankAccount(dto.getBankAccount());
         s.setBankOwner(dto.getBankOwner());
+        s.setBankCode(dto.getBankCode());
+        s.setBankBranchCode(dto.getBankBranchCode());
         return s;
 	}
 
@@ -0,0 +1,102 @@
+package util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 固定境界のバケットに値を数えるヒストグラム（ロックなし）。
+ *
+ * 記録は {@link AtomicLongArray} と {@link LongAdder} への加算のみで、複数スレッドから同時に呼び出せます。
+ * 読み取り（分位点・バケット値）は記録と並行して行うため、厳密な一時点の値ではありません（監視用途で許容）。
+ * 境界を超える値は最後の「+Inf」バケットに数えます。
+ */
+public final class Histogram {
+
+    /** 時間用の境界（マイクロ秒。250µs 〜 10s） */
+    public static final long[] MICROS_BOUNDS = {
+            250, 500, 1_000, 2_500, 5_000, 10_000, 25_000, 50_000,
+            100_000, 250_000, 500_000, 1_000_000, 2_500_000, 5_000_000, 10_000_000 };
+    /** 件数用の境界（1 〜 10万） */
+    public static final long[] COUNT_BOUNDS = {
+            0, 1, 2, 5, 10, 20, 50, 100, 200, 500, 1_000, 5_000, 10_000, 100_000 };
+
+    /** 各バケットの上限（昇順。値 ≦ 上限 のバケットに数える） */
+    private final long[] bounds;
+    /** バケットごとの件数（末尾は +Inf） */
+    private final AtomicLongArray counts;
+    private final LongAdder sum = new LongAdder();
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * @param bounds 各バケットの上限（昇順）
+     */
+    public Histogram(long[] bounds) {
+        this.bounds = bounds;
+        this.counts = new AtomicLongArray(bounds.length + 1);
+    }
+
+    /**
+     * 値を 1 件記録します。
+     *
+     * @param value 値
+     */
+    public void record(long value) {
+        int i = 0;
+        while (i < bounds.length && value > bounds[i]) i++;
+        counts.incrementAndGet(i);
+        sum.add(value);
+        count.increment();
+    }
+
+    /** 記録件数 */
+    public long count() {
+        return count.sum();
+    }
+
+    /** 合計値 */
+    public long sum() {
+        return sum.sum();
+    }
+
+    /** 平均値（記録なしは 0） */
+    public double mean() {
+        long n = count();
+        return n == 0 ? 0 : (double) sum() / n;
+    }
+
+    /** バケット上限の一覧（+Inf は含まない） */
+    public long[] bounds() {
+        return bounds;
+    }
+
+    /**
+     * バケットごとの件数（末尾が +Inf）を返します。
+     *
+     * @return 件数（累積ではない）
+     */
+    public long[] bucketCounts() {
+        long[] out = new long[counts.length()];
+        for (int i = 0; i < out.length; i++) out[i] = counts.get(i);
+        return out;
+    }
+
+    /**
+     * 分位点を返します（該当バケットの上限値。+Inf バケットなら最大境界値を返す）。
+     *
+     * @param q 分位（0〜1。例: 0.99）
+     * @return 分位点の近似値（記録なしは 0）
+     */
+    public long quantile(double q) {
+        long[] c = bucketCounts();
+        long total = 0;
+        for (long v : c) total += v;
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(q * total);
+        long acc = 0;
+        for (int i = 0; i < c.length; i++) {
+            acc += c[i];
+            if (acc >= rank) return i < bounds.length ? bounds[i] : bounds[bounds.length - 1];
+        }
+        return bounds[bounds.length - 1];
+    }
+}
@@ -0,0 +1,103 @@
+package util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 金額（円）を銭単位（1/100 円）の long で扱う固定小数点の加算器。
+ *
+ * 金額列は DECIMAL(12,2) のため、銭単位の long で誤差なく保持できます。
+ * 集計ループでは {@link BigDecimal#add} のたびに生成される中間オブジェクトを避け、
+ * 画面（JSP）へ渡す直前に {@link #toBigDecimal()} で一度だけ BigDecimal に戻します。
+ * 円未満の端数が無い合計は小数桁なし（scale 0）で返すため、従来の BigDecimal の合計と同じく「12345」と表示されます。
+ * インスタンスは可変でスレッドセーフではありません（メソッド内のローカル変数として使用）。
+ */
+public final class Money {
+
+    /** 小数桁数（銭） */
+    public static final int SCALE = 2;
+
+    /** 1 円あたりの銭 */
+    private static final long SEN_PER_YEN = 100L;
+
+    /** 合計（銭） */
+    private long sen;
+
+    /**
+     * 0 円の加算器を生成します。
+     */
+    public Money() {
+    }
+
+    /**
+     * 金額を加算します（null は無視）。
+     *
+     * @param amount 金額（円）
+     * @return this
+     * @throws ArithmeticException long の範囲を超えた場合
+     */
+    public Money add(BigDecimal amount) {
+        if (amount != null) {
+            sen = Math.addExact(sen, toSen(amount));
+        }
+        return this;
+    }
+
+    /**
+     * 銭単位の金額を加算します。
+     *
+     * @param amountSen 金額（銭）
+     * @return this
+     * @throws ArithmeticException long の範囲を超えた場合
+     */
+    public Money addSen(long amountSen) {
+        sen = Math.addExact(sen, amountSen);
+        return this;
+    }
+
+    /**
+     * 合計を銭単位で返します。
+     *
+     * @return 合計（銭）
+     */
+    public long sen() {
+        return sen;
+    }
+
+    /**
+     * 合計を BigDecimal（円）で返します。円未満の端数が無ければ小数桁なし、あれば小数2桁です。
+     *
+     * @return 合計（円）
+     */
+    public BigDecimal toBigDecimal() {
+        return toBigDecimal(sen);
+    }
+
+    /**
+     * 円の金額を銭単位に変換します（小数3桁目以降は四捨五入）。
+     *
+     * @param amount 金額（円、null は 0）
+     * @return 金額（銭）
+     * @throws ArithmeticException long の範囲を超えた場合
+     */
+    public static long toSen(BigDecimal amount) {
+        if (amount == null) {
+            return 0L;
+        }
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * 銭単位の金額を BigDecimal（円）に変換します。
+     * 円未満の端数が無ければ小数桁なし（scale 0）、あれば小数2桁で返します。
+     *
+     * @param sen 金額（銭）
+     * @return 金額（円）
+     */
+    public static BigDecimal toBigDecimal(long sen) {
+        if (sen % SEN_PER_YEN == 0) {
+            return BigDecimal.valueOf(sen / SEN_PER_YEN);
+        }
+        return BigDecimal.valueOf(sen, SCALE);
+    }
+}
@@ -239,6 +239,26 @@ public class ValidationUtil {
 		}
 	}
 
+	/**
+	 * 固定桁数の数字チェック。
+	 * 金融機関コード（4桁）・支店コード（3桁）などの形式をチェックします。
+	 *
+	 * @param textName 表示名（例: "金融機関コード"）
+	 * @param text 入力値
+	 * @param digits 桁数
+	 * @return 指定桁数の半角数字なら true
+	 */
+	public boolean isFixedDigits(String textName, String text, int digits) {
+		if (text == null)
+			return false;
+		if (text.matches("^\\d{" + digits + "}$")) {
+			return true;
+		} else {
+			this.errors.add(textName + "は半角数字" + digits + "桁で入力してください");
+			return false;
+		}
+	}
+
 	/**
 	 * メールアドレス形式チェック。
 	 * メールアドレスの形式をチェックします。
@@ -0,0 +1,372 @@
+package util;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.Normalizer;
+import java.time.LocalDate;
+
+/**
+ * 全銀協フォーマット（総合振込）の振込データを書き出すライタ。
+ * <p>
+ * 1 レコード 120 バイト固定長（末尾に CRLF）で、ヘッダ（1）→ データ（2）… → トレーラ（8）→ エンド（9）の順に出力します。
+ * 文字は Shift_JIS の 1 バイト文字（半角英数・半角カナ）のみを使用するため、
+ * 変換後の文字をそのままレコードバッファ（byte 配列）へ書き込み、{@link String} の連結や
+ * {@link java.nio.charset.CharsetEncoder} を経由せずに 1 パスで出力先へ流します。
+ * </p>
+ * <ul>
+ *   <li>全角カナ・ひらがなは半角カナへ（濁点・半濁点は 2 バイト、小書き文字は大書きへ）</li>
+ *   <li>英小文字・全角英数は半角英大文字・半角数字へ</li>
+ *   <li>長音・ハイフン類は「-」、全角スペースは半角スペースへ</li>
+ *   <li>上記以外（漢字など）は変換できないため {@link IllegalArgumentException}</li>
+ * </ul>
+ *
+ * <pre>
+ * ZenginTransferWriter w = new ZenginTransferWriter(out);
+ * w.writeHeader(...);
+ * w.writeData(...);   // 振込先ごと
+ * w.writeTrailerAndEnd();
+ * </pre>
+ */
+public final class ZenginTransferWriter {
+
+	/** レコード長（改行を除く） */
+	public static final int RECORD_LENGTH = 120;
+
+	/** 種別コード：総合振込 */
+	private static final String KIND_GENERAL_TRANSFER = "21";
+	/** コード区分：Shift_JIS */
+	private static final char CODE_SJIS = '0';
+	/** 振込指定区分：テレ振込（電信） */
+	private static final char TRANSFER_TELEGRAPHIC = '7';
+
+	/** 半角カナ（U+FF61..U+FF9F）→ Shift_JIS（0xA1..0xDF） */
+	private static final int HALF_KANA_BASE = 0xFF61;
+	private static final byte SJIS_DAKUTEN = (byte) 0xDE;
+	private static final byte SJIS_HANDAKUTEN = (byte) 0xDF;
+
+	/**
+	 * 全角カタカナ（U+30A1..U+30FA）→ 半角カナ。
+	 * 下位 8 ビット：基底文字の Shift_JIS バイト、8 ビット目：濁点付き、9 ビット目：半濁点付き、0：変換不可
+	 */
+	private static final short[] KATAKANA = new short[0x30FA - 0x30A1 + 1];
+	/** 半角カナの小書き・特殊文字（U+FF66..U+FF70）の置き換え先 */
+	private static final byte[] HALF_SMALL = new byte[0xFF70 - 0xFF66 + 1];
+
+	static {
+		/** 清音（ヲはオ、ヰ・ヱはイ・エとして扱う） */
+		String full = "アイウエオカキクケコサシスセソタチツテトナニヌネノハヒフヘホマミムメモヤユヨラリルレロワヲンヰヱ"
+				+ "ァィゥェォッャュョヮヵヶ";
+		String half = "ｱｲｳｴｵｶｷｸｹｺｻｼｽｾｿﾀﾁﾂﾃﾄﾅﾆﾇﾈﾉﾊﾋﾌﾍﾎﾏﾐﾑﾒﾓﾔﾕﾖﾗﾘﾙﾚﾛﾜｵﾝｲｴ"
+				+ "ｱｲｳｴｵﾂﾔﾕﾖﾜｶｹ";
+		for (int i = 0; i < full.length(); i++) {
+			KATAKANA[full.charAt(i) - 0x30A1] = (short) (sjis(half.charAt(i)) & 0xFF);
+		}
+		/** 濁音・半濁音は正規分解（NFD）で基底文字＋結合用濁点に分けて対応付ける */
+		for (char c = 0x30A1; c <= 0x30FA; c++) {
+			String d = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+			if (d.length() != 2) continue;
+			short base = KATAKANA[d.charAt(0) - 0x30A1];
+			if (base == 0) continue;
+			if (d.charAt(1) == '\u3099') KATAKANA[c - 0x30A1] = (short) (base | 0x100);
+			if (d.charAt(1) == '\u309A') KATAKANA[c - 0x30A1] = (short) (base | 0x200);
+		}
+		/** ｦ ｧ ｨ ｩ ｪ ｫ ｬ ｭ ｮ ｯ ｰ → ｵ ｱ ｲ ｳ ｴ ｵ ﾔ ﾕ ﾖ ﾂ - */
+		String from = "ｦｧｨｩｪｫｬｭｮｯ";
+		String to   = "ｵｱｲｳｴｵﾔﾕﾖﾂ";
+		for (int i = 0; i < from.length(); i++) {
+			HALF_SMALL[from.charAt(i) - 0xFF66] = sjis(to.charAt(i));
+		}
+		HALF_SMALL[0xFF70 - 0xFF66] = '-';
+	}
+
+	private static byte sjis(char halfKana) {
+		return (byte) (0xA1 + (halfKana - HALF_KANA_BASE));
+	}
+
+	private final OutputStream out;
+	/** レコードバッファ（全レコードで再利用） */
+	private final byte[] rec = new byte[RECORD_LENGTH + 2];
+	private int pos;
+	private long count;
+	private long total;
+
+	/**
+	 * @param out 出力先（クローズは呼び出し側。内部でバッファリングし、{@link #writeTrailerAndEnd()} で flush）
+	 */
+	public ZenginTransferWriter(OutputStream out) {
+		this.out = new BufferedOutputStream(out, 8192);
+		rec[RECORD_LENGTH] = '\r';
+		rec[RECORD_LENGTH + 1] = '\n';
+	}
+
+	/** ========================
+	 * レコード
+	 * ======================== */
+
+	/**
+	 * ヘッダレコード（データ区分 1）を書き込みます。
+	 *
+	 * @param requesterCode  委託者コード（10 桁以内の数字）
+	 * @param requesterName  委託者名（カナ、40 バイトまで）
+	 * @param transferDate   振込指定日（取組日）
+	 * @param bankCode       仕向銀行番号（4 桁）
+	 * @param bankName       仕向銀行名（カナ、15 バイトまで。任意）
+	 * @param branchCode     仕向支店番号（3 桁）
+	 * @param branchName     仕向支店名（カナ、15 バイトまで。任意）
+	 * @param accountType    預金種目（{@link #accountTypeCode(String)} の戻り値）
+	 * @param accountNumber  口座番号（7 桁以内の数字）
+	 * @throws IOException 書き込みに失敗した場合
+	 * @throws IllegalArgumentException 項目が形式に合わない場合
+	 */
+	public void writeHeader(String requesterCode, String requesterName, LocalDate transferDate,
+			String bankCode, String bankName, String branchCode, String branchName,
+			char accountType, String accountNumber) throws IOException {
+		begin('1');
+		putAscii(KIND_GENERAL_TRANSFER);
+		putChar(CODE_SJIS);
+		putDigits(requesterCode, 10);
+		putKana(requesterName, 40);
+		putNumber(transferDate.getMonthValue(), 2);
+		putNumber(transferDate.getDayOfMonth(), 2);
+		putDigits(bankCode, 4);
+		putKana(bankName, 15);
+		putDigits(branchCode, 3);
+		putKana(branchName, 15);
+		putChar(accountType);
+		putDigits(accountNumber, 7);
+		putBlank(17);
+		end();
+	}
+
+	/**
+	 * データレコード（データ区分 2）を 1 件書き込みます。
+	 * 入力が不正な場合は何も出力せずに例外を送出します（レコードの途中出力は発生しません）。
+	 *
+	 * @param bankCode      被仕向銀行番号（4 桁）
+	 * @param branchCode    被仕向支店番号（3 桁）
+	 * @param accountType   預金種目（{@link #accountTypeCode(String)} の戻り値）
+	 * @param accountNumber 口座番号（7 桁以内の数字）
+	 * @param payeeName     受取人名（カナ、30 バイトまで）
+	 * @param amount        振込金額（円）
+	 * @throws IOException 書き込みに失敗した場合
+	 * @throws IllegalArgumentException 項目が形式に合わない場合
+	 */
+	public void writeData(String bankCode, String branchCode, char accountType, String accountNumber,
+			String payeeName, long amount) throws IOException {
+		if (amount <= 0 || amount > 9_999_999_999L) {
+			throw new IllegalArgumentException("振込金額が範囲外です: " + amount);
+		}
+		begin('2');
+		putDigits(bankCode, 4);
+		putBlank(15);                 /** 被仕向銀行名（任意） */
+		putDigits(branchCode, 3);
+		putBlank(15);                 /** 被仕向支店名（任意） */
+		putBlank(4);                  /** 手形交換所番号（未使用） */
+		putChar(accountType);
+		putDigits(accountNumber, 7);
+		putKana(payeeName, 30);
+		putNumber(amount, 10);
+		putChar('0');                 /** 新規コード */
+		putBlank(10);                 /** 顧客コード1 */
+		putBlank(10);                 /** 顧客コード2 */
+		putChar(TRANSFER_TELEGRAPHIC);
+		putBlank(1);                  /** 識別表示 */
+		putBlank(7);
+		end();
+		count++;
+		total += amount;
+	}
+
+	/**
+	 * トレーラレコード（合計件数・合計金額）とエンドレコードを書き込み、出力先を flush します。
+	 *
+	 * @throws IOException 書き込みに失敗した場合
+	 */
+	public void writeTrailerAndEnd() throws IOException {
+		begin('8');
+		putNumber(count, 6);
+		putNumber(total, 12);
+		putBlank(101);
+		end();
+
+		begin('9');
+		putBlank(119);
+		end();
+		out.flush();
+	}
+
+	/** @return 書き込んだデータレコード件数 */
+	public long getCount() {
+		return count;
+	}
+
+	/** @return 書き込んだ振込金額の合計 */
+	public long getTotal() {
+		return total;
+	}
+
+	/** ========================
+	 * 変換ヘルパ（公開）
+	 * ======================== */
+
+	/**
+	 * 口座種別（画面の「普通」「当座」）を全銀の預金種目コードに変換します。
+	 *
+	 * @param bankType 口座種別
+	 * @return '1'（普通）/ '2'（当座）
+	 * @throws IllegalArgumentException 未設定・未対応の種別の場合
+	 */
+	public static char accountTypeCode(String bankType) {
+		if ("普通".equals(bankType)) return '1';
+		if ("当座".equals(bankType)) return '2';
+		throw new IllegalArgumentException("預金種目が不正です: " + bankType);
+	}
+
+	/**
+	 * 全銀の受取人名として変換できる文字列か（カナ・英数字・一部記号のみ）を判定します。
+	 *
+	 * @param s 判定対象
+	 * @return 変換できれば true（null/空白のみは false）
+	 */
+	public static boolean isTransferableName(String s) {
+		if (s == null || s.isBlank()) return false;
+		byte[] tmp = new byte[2];
+		for (int i = 0; i < s.length(); i++) {
+			if (encode(s.charAt(i), tmp, 0) < 0) return false;
+		}
+		return true;
+	}
+
+	/** ========================
+	 * 内部：フィールド書き込み
+	 * ======================== */
+
+	private void begin(char dataKind) {
+		pos = 0;
+		rec[pos++] = (byte) dataKind;
+	}
+
+	private void end() throws IOException {
+		if (pos != RECORD_LENGTH) {
+			throw new IllegalStateException("レコード長が不正です: " + pos);
+		}
+		out.write(rec, 0, RECORD_LENGTH + 2);
+	}
+
+	private void putChar(char c) {
+		rec[pos++] = (byte) c;
+	}
+
+	private void putAscii(String s) {
+		for (int i = 0; i < s.length(); i++) {
+			rec[pos++] = (byte) s.charAt(i);
+		}
+	}
+
+	private void putBlank(int width) {
+		for (int i = 0; i < width; i++) {
+			rec[pos++] = ' ';
+		}
+	}
+
+	/** 数値を右詰めゼロ埋めで書き込む */
+	private void putNumber(long v, int width) {
+		for (int i = pos + width - 1; i >= pos; i--) {
+			rec[i] = (byte) ('0' + (v % 10));
+			v /= 10;
+		}
+		if (v != 0) throw new IllegalArgumentException("桁あふれ: 最大 " + width + " 桁");
+		pos += width;
+	}
+
+	/** 数字文字列を右詰めゼロ埋めで書き込む（桁数超過・数字以外は例外） */
+	private void putDigits(String s, int width) {
+		String v = (s == null) ? "" : s.trim();
+		if (v.isEmpty() || v.length() > width) {
+			throw new IllegalArgumentException(width + " 桁以内の数字を指定してください: " + s);
+		}
+		int pad = width - v.length();
+		for (int i = 0; i < pad; i++) {
+			rec[pos++] = '0';
+		}
+		for (int i = 0; i < v.length(); i++) {
+			char c = v.charAt(i);
+			if (c < '0' || c > '9') {
+				throw new IllegalArgumentException("数字以外が含まれています: " + s);
+			}
+			rec[pos++] = (byte) c;
+		}
+	}
+
+	/**
+	 * カナ項目を左詰め・空白埋めで書き込む。
+	 * 幅を超える分は切り捨て（濁点付き文字が境界をまたぐ場合はその文字ごと切り捨て）。
+	 */
+	private void putKana(String s, int width) {
+		int limit = pos + width;
+		if (s != null) {
+			byte[] tmp = new byte[2];
+			for (int i = 0; i < s.length(); i++) {
+				int n = encode(s.charAt(i), tmp, 0);
+				if (n < 0) {
+					throw new IllegalArgumentException("振込データに使用できない文字です: " + s.charAt(i));
+				}
+				if (pos + n > limit) break;
+				for (int k = 0; k < n; k++) {
+					rec[pos++] = tmp[k];
+				}
+			}
+		}
+		while (pos < limit) {
+			rec[pos++] = ' ';
+		}
+	}
+
+	/**
+	 * 1 文字を全銀の 1 バイト文字（Shift_JIS）へ変換する。
+	 *
+	 * @return 書き込んだバイト数（1 または 2）、変換できない文字は -1
+	 */
+	private static int encode(char c, byte[] dst, int at) {
+		/** 全角英数記号 → 半角、全角スペース → 半角 */
+		if (c >= 0xFF01 && c <= 0xFF5E) c = (char) (c - 0xFEE0);
+		else if (c == 0x3000) c = ' ';
+		/** ひらがな → カタカナ */
+		if (c >= 0x3041 && c <= 0x3096) c = (char) (c + 0x60);
+
+		if (c >= 'a' && c <= 'z') c = (char) (c - 0x20);
+		if ((c >= '0' && c <= '9') || (c >= 'A' && c <= 'Z') || c == ' '
+				|| c == '(' || c == ')' || c == '-' || c == '.' || c == '/' || c == ',' || c == '\\') {
+			dst[at] = (byte) c;
+			return 1;
+		}
+		/** 長音・ハイフン類 → "-"、中黒 → "." */
+		if (c == 'ー' || c == '‐' || c == '―' || c == '−') {
+			dst[at] = '-';
+			return 1;
+		}
+		if (c == '・' || c == '･') {
+			dst[at] = '.';
+			return 1;
+		}
+		if (c >= 0x30A1 && c <= 0x30FA) {
+			short m = KATAKANA[c - 0x30A1];
+			if (m == 0) return -1;
+			dst[at] = (byte) m;
+			if ((m & 0x100) != 0) { dst[at + 1] = SJIS_DAKUTEN; return 2; }
+			if ((m & 0x200) != 0) { dst[at + 1] = SJIS_HANDAKUTEN; return 2; }
+			return 1;
+		}
+		/** 半角カナ（小書き・ｦ・ｰ は置き換え、その他はそのまま） */
+		if (c >= 0xFF66 && c <= 0xFF70) {
+			dst[at] = HALF_SMALL[c - 0xFF66];
+			return 1;
+		}
+		if (c >= 0xFF71 && c <= 0xFF9F) {
+			dst[at] = sjis(c);
+			return 1;
+		}
+		return -1;
+	}
+}
@@ -41,7 +41,7 @@
 						<div class="card-body">
 							<div class="text-muted small mb-2">未承認のタスク</div>
 							<div class="display-6 fw-bold">
-								<c:out value="${task.unapproved}" />
+								<span data-live="unapproved"><c:out value="${task.unapproved}" /></span>
 								<span class="fs-6 fw-normal">件</span>
 							</div>
 						</div>
@@ -108,7 +108,7 @@
 						<div class="card-body">
 							<div class="text-muted small mb-2">未承認のタスク</div>
 							<div class="display-6 fw-bold">
-								<c:out value="${taskPrev.unapproved}" />
+								<span data-live="prevUnapproved"><c:out value="${taskPrev.unapproved}" /></span>
 								<span class="fs-6 fw-normal">件</span>
 							</div>
 						</div>
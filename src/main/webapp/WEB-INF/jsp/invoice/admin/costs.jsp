@@ -16,13 +16,38 @@
 <div class="container py-4">
   <!-- タイトル & 月指定 -->
   <div class="d-flex align-items-center justify-content-between mb-3">
-    <h1 class="h3 mb-0">秘書支払いサマリー</h1>
+    <h1 class="h3 mb-0">秘書支払いサマリー
+      <c:if test="${not empty closedAt}">
+        <span class="badge bg-secondary align-middle fs-6">締め済み（<fmt:formatDate value="${closedAt}" pattern="yyyy/MM/dd HH:mm" />）</span>
+      </c:if>
+    </h1>
     <form id="ymForm" method="get" action="${pageContext.request.contextPath}/admin/invoice/costs" class="d-flex gap-2">
       <input type="month" class="form-control" name="targetYM" value="${yearMonth}">
       <button class="btn btn-primary">表示</button>
     </form>
   </div>
 
+  <!-- 振込データ（全銀フォーマット）出力 -->
+  <form method="get" action="${pageContext.request.contextPath}/admin/invoice/costs/transfer"
+        class="card card-body shadow-sm mb-3 d-flex flex-row flex-wrap align-items-center gap-2">
+    <input type="hidden" name="targetYM" value="${targetYM}">
+    <span class="small text-muted">振込データ（全銀・承認済のみ）</span>
+    <label class="small ms-2" for="transferDate">振込指定日</label>
+    <input type="date" id="transferDate" name="transferDate" class="form-control form-control-sm w-auto">
+    <button class="btn btn-sm btn-outline-primary">振込データ出力</button>
+    <span class="small text-muted">※ 未指定の場合は翌月末日</span>
+  </form>
+  <c:if test="${not empty transferSkipped}">
+    <div class="alert alert-warning small">
+      口座情報に不備があるため、振込データに含まれない秘書がいます：
+      <ul class="mb-0">
+        <c:forEach var="name" items="${transferSkipped}">
+          <li><c:out value="${name}"/></li>
+        </c:forEach>
+      </ul>
+    </div>
+  </c:if>
+
   <!-- KPIカード（今月＋過去3ヶ月） -->
   <div class="row g-3 mb-4">
     <div class="col-12 col-md-3">
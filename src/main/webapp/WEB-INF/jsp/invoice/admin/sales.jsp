@@ -14,11 +14,28 @@
 
 <div class="container py-4">
   <div class="d-flex align-items-center justify-content-between mb-3">
-    <h1 class="h3 mb-0">請求サマリー（管理）</h1>
-    <form method="get" class="d-flex gap-2">
-      <input type="month" class="form-control" name="yearMonth" value="${yearMonth}">
-      <button type="submit" class="btn btn-primary">表示</button>
-    </form>
+    <h1 class="h3 mb-0">請求サマリー（管理）
+      <c:if test="${not empty closedAt}">
+        <span class="badge bg-secondary align-middle fs-6">締め済み（<fmt:formatDate value="${closedAt}" pattern="yyyy/MM/dd HH:mm" />）</span>
+      </c:if>
+    </h1>
+    <div class="d-flex gap-2">
+      <form method="get" class="d-flex gap-2">
+        <input type="month" class="form-control" name="yearMonth" value="${yearMonth}">
+        <button type="submit" class="btn btn-primary">表示</button>
+      </form>
+      <c:if test="${empty closedAt}">
+        <form method="post" action="${pageContext.request.contextPath}/admin/invoice/close" class="m-0"
+              onsubmit="return confirm('${yearMonth} を月次締めします。締め後はこの月の業務の登録・変更・承認取消ができません。よろしいですか？');">
+          <input type="hidden" name="yearMonth" value="${yearMonth}">
+          <button type="submit" class="btn btn-outline-danger text-nowrap">月次締め</button>
+        </form>
+      </c:if>
+      <form method="post" action="${pageContext.request.contextPath}/admin/invoice/archive" class="m-0"
+            onsubmit="return confirm('保持期間より前の締め済み月の業務・アサインをアーカイブへ移します。アーカイブした月の業務明細は画面に表示されなくなります（集計額は変わりません）。よろしいですか？');">
+        <button type="submit" class="btn btn-outline-secondary text-nowrap">アーカイブ</button>
+      </form>
+    </div>
   </div>
 
   <!-- KPI Cards -->
@@ -0,0 +1,118 @@
+<%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
+<%@ page isELIgnored="false" %>
+<%@ taglib prefix="c"  uri="jakarta.tags.core" %>
+<%@ taglib prefix="fmt" uri="jakarta.tags.fmt" %>
+<!DOCTYPE html>
+<html lang="ja">
+<head>
+<meta charset="UTF-8">
+<title>性能メトリクス</title>
+<link href="https://cdn.jsdelivr.net/npm/bootstrap@5.3.3/dist/css/bootstrap.min.css" rel="stylesheet">
+</head>
+<body class="bg-primary bg-opacity-10">
+  <%@ include file="/WEB-INF/jsp/_parts/admin/navbar.jspf" %>
+  <div class="container-fluid py-4 px-4">
+    <div class="d-flex align-items-center justify-content-between mb-4">
+      <h1 class="h3 mb-0">性能メトリクス</h1>
+      <div class="d-flex align-items-center gap-3">
+        <span class="text-muted small">
+          集計開始：<fmt:formatDate value="${startedAt}" pattern="yyyy-MM-dd HH:mm"/>（このサーバーの起動以降の累計）
+        </span>
+        <a class="btn btn-outline-primary btn-sm" href="<c:url value='/admin/metrics/slow'/>">スロークエリ</a>
+      </div>
+    </div>
+
+    <c:if test="${not empty errorMsg}">
+      <div class="alert alert-danger">${errorMsg}</div>
+    </c:if>
+
+    <!-- ルート別 -->
+    <div class="card shadow-sm mb-4">
+      <div class="card-header bg-primary text-white fw-bold">
+        ルート別（合計処理時間の降順）
+      </div>
+      <div class="table-responsive">
+        <table class="table table-hover table-bordered align-middle mb-0 small">
+          <thead class="table-light">
+            <tr>
+              <th>ルート</th>
+              <th class="text-end">件数</th>
+              <th class="text-end">5xx</th>
+              <th class="text-end">p50 (ms)</th>
+              <th class="text-end">p95 (ms)</th>
+              <th class="text-end">p99 (ms)</th>
+              <th class="text-end">平均 (ms)</th>
+              <th class="text-end">DB p95 (ms)</th>
+              <th class="text-end">DB 比率</th>
+              <th class="text-end">接続確立 p95 (ms)</th>
+              <th class="text-end">SQL数 平均 / p95</th>
+              <th class="text-end">取得行 平均 / p95</th>
+              <th class="text-end">N+1 疑い</th>
+            </tr>
+          </thead>
+          <tbody>
+            <c:if test="${empty routes}">
+              <tr><td colspan="13" class="text-center text-muted">まだ記録がありません。</td></tr>
+            </c:if>
+            <c:forEach var="r" items="${routes}">
+              <tr class="${r.nPlusOne > 0 ? 'table-warning' : ''}">
+                <td class="text-nowrap"><c:out value="${r.route}"/></td>
+                <td class="text-end"><fmt:formatNumber value="${r.count}" pattern="#,##0"/></td>
+                <td class="text-end"><fmt:formatNumber value="${r.errors}" pattern="#,##0"/></td>
+                <td class="text-end"><fmt:formatNumber value="${r.wallP50}" pattern="#,##0.#"/></td>
+                <td class="text-end"><fmt:formatNumber value="${r.wallP95}" pattern="#,##0.#"/></td>
+                <td class="text-end"><fmt:formatNumber value="${r.wallP99}" pattern="#,##0.#"/></td>
+                <td class="text-end"><fmt:formatNumber value="${r.wallMean}" pattern="#,##0.0"/></td>
+                <td class="text-end"><fmt:formatNumber value="${r.dbP95}" pattern="#,##0.#"/></td>
+                <td class="text-end"><fmt:formatNumber value="${r.dbRatio}" pattern="0"/> %</td>
+                <td class="text-end"><fmt:formatNumber value="${r.connectP95}" pattern="#,##0.#"/></td>
+                <td class="text-end">
+                  <fmt:formatNumber value="${r.statementsMean}" pattern="#,##0.0"/> /
+                  <fmt:formatNumber value="${r.statementsP95}" pattern="#,##0"/>
+                </td>
+                <td class="text-end">
+                  <fmt:formatNumber value="${r.rowsMean}" pattern="#,##0.0"/> /
+                  <fmt:formatNumber value="${r.rowsP95}" pattern="#,##0"/>
+                </td>
+                <td class="text-end">
+                  <c:if test="${r.nPlusOne > 0}">
+                    <span class="badge bg-warning text-dark"><fmt:formatNumber value="${r.nPlusOne}" pattern="#,##0"/> 件</span>
+                  </c:if>
+                </td>
+              </tr>
+            </c:forEach>
+          </tbody>
+        </table>
+      </div>
+      <div class="card-footer small text-muted">
+        分位点はバケット上限による近似値です。1 リクエストで同一SQLを ${nPlusOneRepeat} 回以上実行したものを N+1 の疑いとして数えます。
+      </div>
+    </div>
+
+    <!-- N+1 の疑い -->
+    <div class="card shadow-sm mb-4">
+      <div class="card-header bg-warning fw-bold">
+        N+1 の疑いがあるルート（直近の該当SQL）
+      </div>
+      <div class="card-body">
+        <c:set var="hasNPlusOne" value="false"/>
+        <c:forEach var="r" items="${routes}">
+          <c:if test="${r.nPlusOne > 0}">
+            <c:set var="hasNPlusOne" value="true"/>
+            <div class="mb-3">
+              <div class="fw-semibold"><c:out value="${r.route}"/>
+                <span class="text-muted small">（同一SQL ${r.nPlusOneRepeat} 回）</span>
+              </div>
+              <pre class="bg-light border rounded p-2 small mb-0 text-wrap"><c:out value="${r.nPlusOneSql}"/></pre>
+            </div>
+          </c:if>
+        </c:forEach>
+        <c:if test="${not hasNPlusOne}">
+          <div class="text-muted">該当はありません。</div>
+        </c:if>
+      </div>
+    </div>
+  </div>
+  <script src="https://cdn.jsdelivr.net/npm/bootstrap@5.3.3/dist/js/bootstrap.bundle.min.js"></script>
+</body>
+</html>
@@ -0,0 +1,74 @@
+<%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
+<%@ page isELIgnored="false" %>
+<%@ taglib prefix="c"  uri="jakarta.tags.core" %>
+<%@ taglib prefix="fmt" uri="jakarta.tags.fmt" %>
+<!DOCTYPE html>
+<html lang="ja">
+<head>
+<meta charset="UTF-8">
+<title>スロークエリ</title>
+<link href="https://cdn.jsdelivr.net/npm/bootstrap@5.3.3/dist/css/bootstrap.min.css" rel="stylesheet">
+</head>
+<body class="bg-primary bg-opacity-10">
+  <%@ include file="/WEB-INF/jsp/_parts/admin/navbar.jspf" %>
+  <div class="container-fluid py-4 px-4">
+    <div class="d-flex align-items-center justify-content-between mb-4">
+      <h1 class="h3 mb-0">スロークエリ</h1>
+      <div class="d-flex align-items-center gap-3">
+        <span class="text-muted small">
+          しきい値：${slowThresholdMillis} ms ／ 実行計画の取得：<fmt:formatNumber value="${explainRate}" type="percent"/>（このサーバーの直近分）
+        </span>
+        <a class="btn btn-outline-primary btn-sm" href="<c:url value='/admin/metrics'/>">性能メトリクスへ戻る</a>
+      </div>
+    </div>
+
+    <c:if test="${slowThresholdMillis == 0}">
+      <div class="alert alert-info">スロークエリの記録は無効です（SLOW_QUERY_MILLIS=0）。</div>
+    </c:if>
+    <c:if test="${slowThresholdMillis > 0 and empty slowQueries}">
+      <div class="alert alert-info">しきい値を超えたSQLはまだありません。</div>
+    </c:if>
+
+    <c:forEach var="q" items="${slowQueries}">
+      <div class="card shadow-sm mb-3">
+        <div class="card-header d-flex flex-wrap justify-content-between align-items-center gap-2">
+          <span>
+            <span class="badge bg-danger me-2"><fmt:formatNumber value="${q.millis}" pattern="#,##0.0"/> ms</span>
+            <span class="fw-semibold"><c:out value="${empty q.sqlName ? '（定数名なし）' : q.sqlName}"/></span>
+            <span class="text-muted small ms-2"><c:out value="${q.caller}"/></span>
+          </span>
+          <span class="small text-muted">
+            <fmt:formatDate value="${q.recordedAt}" pattern="yyyy-MM-dd HH:mm:ss"/>
+            ／ <fmt:formatNumber value="${q.rows}" pattern="#,##0"/> 行
+            <c:if test="${not empty q.route}">／ <c:out value="${q.route}"/></c:if>
+          </span>
+        </div>
+        <div class="card-body">
+          <pre class="bg-light border rounded p-2 small mb-2 text-wrap"><c:out value="${q.sql}"/></pre>
+          <c:if test="${not empty q.boundSql}">
+            <details class="mb-2">
+              <summary class="small">バインド値を埋め込んだ SQL</summary>
+              <pre class="bg-light border rounded p-2 small mt-2 mb-0 text-wrap"><c:out value="${q.boundSql}"/></pre>
+            </details>
+          </c:if>
+          <c:choose>
+            <c:when test="${not empty q.plan}">
+              <details>
+                <summary class="small">実行計画（${q.analyze ? 'EXPLAIN ANALYZE, BUFFERS' : 'EXPLAIN（副作用のある文のため実行せず）'}）</summary>
+                <pre class="bg-dark text-light rounded p-2 small mt-2 mb-0"><c:out value="${q.plan}"/></pre>
+              </details>
+            </c:when>
+            <c:when test="${not empty q.planError}">
+              <div class="small text-danger">実行計画を取得できませんでした：<c:out value="${q.planError}"/></div>
+            </c:when>
+            <c:when test="${q.explainRequested}">
+              <div class="small text-muted">実行計画は取得待ち、または混雑のため取得していません。</div>
+            </c:when>
+          </c:choose>
+        </div>
+      </div>
+    </c:forEach>
+  </div>
+  <script src="https://cdn.jsdelivr.net/npm/bootstrap@5.3.3/dist/js/bootstrap.bundle.min.js"></script>
+</body>
+</html>
@@ -157,6 +157,18 @@
 										name="bankBranch" class="form-control" placeholder="例）新宿支店"
 										value="${not empty param.bankBranch ? param.bankBranch : (not empty bankBranch ? bankBranch : secretary.bankBranch)}">
 								</div>
+								<div class="col-md-6">
+									<label class="form-label">金融機関コード（4桁）</label> <input type="text"
+										name="bankCode" class="form-control" inputmode="numeric" maxlength="4"
+										placeholder="例）0001"
+										value="${not empty param.bankCode ? param.bankCode : (not empty bankCode ? bankCode : secretary.bankCode)}">
+								</div>
+								<div class="col-md-6">
+									<label class="form-label">支店コード（3桁）</label> <input type="text"
+										name="bankBranchCode" class="form-control" inputmode="numeric" maxlength="3"
+										placeholder="例）123"
+										value="${not empty param.bankBranchCode ? param.bankBranchCode : (not empty bankBranchCode ? bankBranchCode : secretary.bankBranchCode)}">
+								</div>
 
 								<div class="col-md-4">
 									<label class="form-label">種別</label> <select name="bankType"
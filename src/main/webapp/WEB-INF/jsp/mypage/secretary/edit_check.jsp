@@ -107,6 +107,12 @@
         <dt class="col-sm-3">支店名</dt>
         <dd class="col-sm-9"><c:out value="${not empty param.bankBranch ? param.bankBranch : bankBranch}"/></dd>
 
+        <dt class="col-sm-3">金融機関コード</dt>
+        <dd class="col-sm-9"><c:out value="${not empty param.bankCode ? param.bankCode : bankCode}"/></dd>
+
+        <dt class="col-sm-3">支店コード</dt>
+        <dd class="col-sm-9"><c:out value="${not empty param.bankBranchCode ? param.bankBranchCode : bankBranchCode}"/></dd>
+
         <dt class="col-sm-3">種別</dt>
         <dd class="col-sm-9"><c:out value="${not empty param.bankType ? param.bankType : bankType}"/></dd>
 
@@ -138,6 +144,8 @@
       <input type="hidden" name="bankType"    value="${not empty param.bankType ? param.bankType : bankType}"/>
       <input type="hidden" name="bankAccount" value="${not empty param.bankAccount ? param.bankAccount : bankAccount}"/>
       <input type="hidden" name="bankOwner"   value="${not empty param.bankOwner ? param.bankOwner : bankOwner}"/>
+      <input type="hidden" name="bankCode"    value="${not empty param.bankCode ? param.bankCode : bankCode}"/>
+      <input type="hidden" name="bankBranchCode" value="${not empty param.bankBranchCode ? param.bankBranchCode : bankBranchCode}"/>
       <button type="submit" class="btn btn-outline-secondary">修正する</button>
     </form>
 
@@ -158,6 +166,8 @@
       <input type="hidden" name="bankType"    value="${not empty param.bankType ? param.bankType : bankType}"/>
       <input type="hidden" name="bankAccount" value="${not empty param.bankAccount ? param.bankAccount : bankAccount}"/>
       <input type="hidden" name="bankOwner"   value="${not empty param.bankOwner ? param.bankOwner : bankOwner}"/>
+      <input type="hidden" name="bankCode"    value="${not empty param.bankCode ? param.bankCode : bankCode}"/>
+      <input type="hidden" name="bankBranchCode" value="${not empty param.bankBranchCode ? param.bankBranchCode : bankBranchCode}"/>
       <button type="submit" class="btn btn-primary">更新する</button>
     </form>
   </div>
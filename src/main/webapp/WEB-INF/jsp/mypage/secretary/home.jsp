@@ -105,6 +105,9 @@
         <dt class="col-sm-3">支店名</dt>
         <dd class="col-sm-9"><c:out value="${empty secretary.bankBranch ? '—' : secretary.bankBranch}"/></dd>
 
+        <dt class="col-sm-3">金融機関コード / 支店コード</dt>
+        <dd class="col-sm-9"><c:out value="${empty secretary.bankCode ? '—' : secretary.bankCode}"/> / <c:out value="${empty secretary.bankBranchCode ? '—' : secretary.bankBranchCode}"/></dd>
+
         <dt class="col-sm-3">種別</dt>
         <dd class="col-sm-9"><c:out value="${empty secretary.bankType ? '—' : secretary.bankType}"/></dd>
 
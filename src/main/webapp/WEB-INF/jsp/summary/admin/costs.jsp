@@ -21,6 +21,8 @@
           <input type="number" class="form-control" name="fy" value="${fy}" min="2000" max="2100">
         </div>
         <button class="btn btn-primary">表示</button>
+        <button class="btn btn-outline-secondary text-nowrap"
+                formaction="<%= request.getContextPath() %>/admin/summary/costs/export">明細CSV</button>
       </form>
     </div>
 
@@ -42,34 +44,70 @@
                 <th class="text-center" style="min-width:120px;">${m}</th>
               </c:forEach>
               <th class="text-center" style="min-width:140px;">行合計</th>
+              <th class="text-center text-muted" style="min-width:140px;">前年度（${fy - 1}）</th>
             </tr>
           </thead>
           <tbody>
             <c:forEach var="r" items="${rows}">
+              <c:set var="amounts" value="${r.amounts}"/>
               <tr>
                 <th class="bg-primary-subtle">${r.label}</th>
-                <c:forEach var="m" items="${months}">
+                <c:forEach var="m" items="${months}" varStatus="st">
                   <td class="text-end">
-                    <fmt:formatNumber value="${r.amountByYm[m]}" pattern="#,##0"/>
+                    <fmt:formatNumber value="${amounts[st.index]}" pattern="#,##0"/>
                   </td>
                 </c:forEach>
                 <td class="text-end fw-bold">
                   <fmt:formatNumber value="${r.rowTotal}" pattern="#,##0"/>
                 </td>
+                <td class="text-end text-muted">
+                  <fmt:formatNumber value="${prevRowTotals[r.id]}" pattern="#,##0"/>
+                </td>
               </tr>
             </c:forEach>
           </tbody>
           <tfoot class="table-primary">
             <tr>
               <th>列合計</th>
-              <c:forEach var="m" items="${months}">
+              <c:forEach var="m" items="${months}" varStatus="st">
                 <td class="text-end fw-bold">
-                  <fmt:formatNumber value="${colTotals[m]}" pattern="#,##0"/>
+                  <fmt:formatNumber value="${colTotals[st.index]}" pattern="#,##0"/>
                 </td>
               </c:forEach>
               <td class="text-end fw-bold">
                 <fmt:formatNumber value="${grandTotal}" pattern="#,##0"/>
               </td>
+              <td class="text-end text-muted">
+                <fmt:formatNumber value="${prevGrandTotal}" pattern="#,##0"/>
+              </td>
+            </tr>
+            <tr class="text-muted">
+              <th>前年同月</th>
+              <c:forEach var="m" items="${months}" varStatus="st">
+                <td class="text-end">
+                  <fmt:formatNumber value="${prevColTotals[st.index]}" pattern="#,##0"/>
+                </td>
+              </c:forEach>
+              <td class="text-end">
+                <fmt:formatNumber value="${prevGrandTotal}" pattern="#,##0"/>
+              </td>
+              <td></td>
+            </tr>
+            <tr class="text-muted">
+              <th>前年比</th>
+              <c:forEach var="m" items="${months}" varStatus="st">
+                <td class="text-end">
+                  <c:if test="${prevColTotals[st.index] > 0}">
+                    <fmt:formatNumber value="${colTotals[st.index] / prevColTotals[st.index]}" type="percent"/>
+                  </c:if>
+                </td>
+              </c:forEach>
+              <td class="text-end">
+                <c:if test="${prevGrandTotal > 0}">
+                  <fmt:formatNumber value="${grandTotal / prevGrandTotal}" type="percent"/>
+                </c:if>
+              </td>
+              <td></td>
             </tr>
           </tfoot>
         </table>
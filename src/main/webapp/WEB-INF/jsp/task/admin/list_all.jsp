@@ -77,11 +77,20 @@
 				<div class="col-auto">
 					<button type="submit" class="btn btn-sm btn-outline-primary">表示</button>
 				</div>
+				<!-- エクスポート（表示中の条件で月全体を出力） -->
+				<div class="col-auto ms-auto">
+					<button type="submit" name="format" value="csv"
+						formaction="<%=request.getContextPath()%>/admin/task/export"
+						class="btn btn-sm btn-outline-secondary">CSV出力</button>
+					<button type="submit" name="format" value="xlsx"
+						formaction="<%=request.getContextPath()%>/admin/task/export"
+						class="btn btn-sm btn-outline-success">Excel出力</button>
+				</div>
 			</div>
 		</form>
 
 		<div class="alert alert-info">
-			<span class="me-3">件数：<strong>${fn:length(tasks)}</strong></span> <span
+			<span class="me-3">件数：<strong>${count}</strong></span> <span
 				class="me-3">合計稼働：<strong><fmt:formatNumber
 						value="${totalMinute/60}" type="number" maxFractionDigits="0" /></strong>
 				時間 <strong>${totalMinute%60}</strong> 分
@@ -126,7 +135,7 @@
 								<tbody>
 									<c:forEach var="t" items="${tasks}" varStatus="st">
 										<tr>
-											<td>${st.count}</td>
+											<td>${pos + st.count}</td>
 											<td><a href="${pageContext.request.contextPath}/admin/secretary/detail?id=${t.assignment.secretaryId}">${t.assignment.secretaryName}</a></td>
 											<td><a href="${pageContext.request.contextPath}/admin/customer/detail?id=${t.assignment.customerId}">${t.assignment.companyName}</a></td>
 											<td><fmt:formatDate value="${t.workDate}"
@@ -184,6 +193,8 @@
 				</c:choose>
 			</div>
 		</div>
+		<c:set var="pagerPath" value="/admin/task/list_all" />
+		<%@ include file="/WEB-INF/jsp/_parts/admin/task_pager.jspf"%>
 	</div>
 
 	<!-- 差戻モーダル -->
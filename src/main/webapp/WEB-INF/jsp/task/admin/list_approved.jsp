@@ -78,7 +78,7 @@
 		</form>
 
 		<div class="alert alert-info">
-			<span class="me-3">件数：<strong>${fn:length(tasks)}</strong></span> <span
+			<span class="me-3">件数：<strong>${count}</strong></span> <span
 				class="me-3">合計稼働：<strong><fmt:formatNumber
 						value="${totalMinute/60}" type="number" maxFractionDigits="0" /></strong>
 				時間 <strong>${totalMinute%60}</strong> 分
@@ -147,7 +147,7 @@
 															name="taskIds" value="${t.id}">
 													</div>
 												</td>
-												<td>${st.count}</td>
+												<td>${pos + st.count}</td>
 												<td><a
 													href="${pageContext.request.contextPath}/admin/secretary/detail?id=${t.assignment.secretaryId}">${t.assignment.secretaryName}</a></td>
 												<td><a
@@ -217,6 +217,8 @@
 				</c:choose>
 			</div>
 		</div>
+		<c:set var="pagerPath" value="/admin/task/list_approved" />
+		<%@ include file="/WEB-INF/jsp/_parts/admin/task_pager.jspf"%>
 	</div>
 	<!-- 差戻モーダル -->
 	<div class="modal fade" id="remandModal" tabindex="-1"
@@ -79,7 +79,7 @@
 		</form>
 
 		<div class="alert alert-info">
-			<span class="me-3">件数：<strong>${fn:length(tasks)}</strong></span> <span
+			<span class="me-3">件数：<strong>${count}</strong></span> <span
 				class="me-3">合計稼働：<strong><fmt:formatNumber
 						value="${totalMinute/60}" type="number" maxFractionDigits="0" /></strong>
 				時間 <strong>${totalMinute%60}</strong> 分
@@ -163,6 +163,8 @@
 				</c:choose>
 			</div>
 		</div>
+		<c:set var="pagerPath" value="/admin/task/list_remanded" />
+		<%@ include file="/WEB-INF/jsp/_parts/admin/task_pager.jspf"%>
 	</div>
 	<script
 		src="https://cdn.jsdelivr.net/npm/bootstrap@5.3.3/dist/js/bootstrap.bundle.min.js"></script>
@@ -44,7 +44,7 @@
   </form>
 
   <div class="alert alert-info">
-    <span class="me-3">件数：<strong>${fn:length(tasks)}</strong></span>
+    <span class="me-3">件数：<strong>${count}</strong></span>
     <span class="me-3">合計稼働：<strong><fmt:formatNumber value="${totalMinute/60}" type="number" maxFractionDigits="0"/></strong> 時間 <strong>${totalMinute%60}</strong> 分</span>
     <span>合計金額：<strong>
       <fmt:formatNumber value="${sumCustomer}" type="number" maxFractionDigits="0" groupingUsed="true"/> /
@@ -105,7 +105,7 @@
                           <input class="form-check-input row-check" type="checkbox" name="taskIds" value="${t.id}" checked>
                         </div>
                       </td>
-                      <td>${st.count}</td>
+                      <td>${pos + st.count}</td>
                       <td><a href="${pageContext.request.contextPath}/admin/secretary/detail?id=${t.assignment.secretaryId}">${t.assignment.secretaryName}</a></td>
 											<td><a href="${pageContext.request.contextPath}/admin/customer/detail?id=${t.assignment.customerId}">${t.assignment.companyName}</a></td>
 											<td><fmt:formatDate value="${t.workDate}" pattern="dd (E)" timeZone="Asia/Tokyo"/></td>
@@ -168,6 +168,8 @@
       </c:choose>
     </div>
   </div>
+	<c:set var="pagerPath" value="/admin/task/list_unapproved" />
+	<%@ include file="/WEB-INF/jsp/_parts/admin/task_pager.jspf"%>
 </div>
 <!-- 差戻モーダル -->
 	<div class="modal fade" id="remandModal" tabindex="-1"
@@ -0,0 +1,72 @@
+/**
+ * 管理者画面：イベントストリーム（/admin/events）を受けて件数表示を更新し、新着アラートを通知する。
+ * - counters: data-live="alertCount|unapproved|prevUnapproved" の要素を書き換える
+ * - alert   : 画面右下にトースト表示
+ * EventSource は切断時に自動で再接続する。
+ */
+(function () {
+	'use strict';
+
+	var script = document.currentScript;
+	if (!script || !window.EventSource) return;
+	var url = script.getAttribute('data-events-url');
+
+	function setLive(key, value) {
+		var nodes = document.querySelectorAll('[data-live="' + key + '"]');
+		for (var i = 0; i < nodes.length; i++) {
+			nodes[i].textContent = value;
+			if (key === 'alertCount') nodes[i].classList.toggle('d-none', !(value > 0));
+		}
+	}
+
+	function toastContainer() {
+		var box = document.getElementById('adminEventToasts');
+		if (!box) {
+			box = document.createElement('div');
+			box.id = 'adminEventToasts';
+			box.className = 'toast-container position-fixed bottom-0 end-0 p-3';
+			document.body.appendChild(box);
+		}
+		return box;
+	}
+
+	function showAlert(a) {
+		var toast = document.createElement('div');
+		toast.className = 'toast show';
+		toast.setAttribute('role', 'alert');
+
+		var header = document.createElement('div');
+		header.className = 'toast-header';
+		var title = document.createElement('strong');
+		title.className = 'me-auto';
+		title.textContent = '新着アラート：' + (a.companyName || '');
+		var close = document.createElement('button');
+		close.type = 'button';
+		close.className = 'btn-close';
+		close.setAttribute('aria-label', '閉じる');
+		close.addEventListener('click', function () { toast.remove(); });
+		header.appendChild(title);
+		header.appendChild(close);
+
+		var body = document.createElement('div');
+		body.className = 'toast-body';
+		body.textContent = (a.secretaryName || '') + ' / ' + (a.workDate || '') + (a.comment ? '：' + a.comment : '');
+
+		toast.appendChild(header);
+		toast.appendChild(body);
+		toastContainer().appendChild(toast);
+		setTimeout(function () { toast.remove(); }, 15000);
+	}
+
+	var es = new EventSource(url);
+	es.addEventListener('counters', function (e) {
+		var c = JSON.parse(e.data);
+		setLive('alertCount', c.alertCount);
+		setLive('unapproved', c.unapproved);
+		setLive('prevUnapproved', c.prevUnapproved);
+	});
+	es.addEventListener('alert', function (e) {
+		showAlert(JSON.parse(e.data));
+	});
+	window.addEventListener('pagehide', function () { es.close(); });
+})();